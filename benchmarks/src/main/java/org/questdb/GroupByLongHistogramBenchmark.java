@@ -0,0 +1,107 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByAllocatorArena;
+import io.questdb.griffin.engine.groupby.GroupByLongHistogram;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.std.histogram.org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GroupByLongHistogramBenchmark {
+    private static final long N = 1_000_000;
+    private static final int PRECISION = 2;
+    private static final GroupByAllocator allocator = new GroupByAllocatorArena(128 * 1024, Numbers.SIZE_1GB);
+    private static final GroupByLongHistogram histogramA = new GroupByLongHistogram(PRECISION);
+    private static final GroupByLongHistogram histogramB = new GroupByLongHistogram(PRECISION);
+    private static final Histogram hdrHistogram = new Histogram(1, 1000, PRECISION);
+    private static final Rnd rnd = new Rnd();
+    private static long histogramPtr = 0;
+    // partial histograms, as produced by workers in parallel GROUP BY
+    private static long mergeSrcPtr = 0;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(GroupByLongHistogramBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    public long baseline() {
+        return rnd.nextLong(N);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        allocator.close();
+        histogramA.setAllocator(allocator);
+        histogramB.setAllocator(allocator);
+        histogramPtr = 0;
+        hdrHistogram.reset();
+        hdrHistogram.setAutoResize(true);
+        rnd.reset();
+
+        histogramB.of(0);
+        for (int i = 0; i < N; i++) {
+            histogramB.recordValue(rnd.nextLong(N));
+        }
+        mergeSrcPtr = histogramB.ptr();
+    }
+
+    @Benchmark
+    public void testGroupByLongHistogram() {
+        histogramA.of(histogramPtr).recordValue(rnd.nextLong(N));
+        histogramPtr = histogramA.ptr();
+    }
+
+    @Benchmark
+    public long testGroupByLongHistogramMerge() {
+        // merges a fresh single-value histogram with a partial one, which is the per-key cost of the merge phase
+        histogramA.of(0).recordValue(rnd.nextLong(N));
+        histogramA.merge(histogramB.of(mergeSrcPtr));
+        return histogramA.totalCount();
+    }
+
+    @Benchmark
+    public void testHdrHistogram() {
+        hdrHistogram.recordValue(rnd.nextLong(N));
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.cairo.TxnScoreboard;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.str.Path;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 64 readers acquiring and releasing txns of a hot table while the table keeps committing
+ * and the writer checks whether old txns are still in use. Like table readers, every
+ * reader thread maps the scoreboard file with its own scoreboard instance.
+ * Run it against the previous native library to compare scoreboard implementations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TxnScoreboardBenchmark {
+
+    // one commit per this many reader operations
+    private static final int COMMIT_INTERVAL = 1024;
+    private final AtomicLong txn = new AtomicLong(1);
+    private Path path;
+    private TxnScoreboard scoreboard;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TxnScoreboardBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        path = new Path().of(System.getProperty("java.io.tmpdir"));
+        scoreboard = new TxnScoreboard(FilesFacadeImpl.INSTANCE, 16 * 1024).ofRW(path);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scoreboard.close();
+        path.close();
+    }
+
+    @Benchmark
+    @Group("hotTable")
+    @GroupThreads(64)
+    public boolean testReaders(ReaderState state) {
+        long txn = this.txn.get();
+        if (++state.ops % COMMIT_INTERVAL == 0) {
+            txn = this.txn.incrementAndGet();
+        }
+        // acquire fails when a newer txn has been acquired already, readers re-read _txn file then
+        while (!state.scoreboard.acquireTxn(txn)) {
+            txn = this.txn.get();
+        }
+        state.scoreboard.releaseTxn(txn);
+        return true;
+    }
+
+    @Benchmark
+    @Group("hotTable")
+    @GroupThreads(1)
+    public boolean testWriterPurgeCheck() {
+        // purge jobs check wide txn ranges, e.g. from the partition name txn to the last txn
+        return scoreboard.isRangeAvailable(0, txn.get());
+    }
+
+    @State(Scope.Thread)
+    public static class ReaderState {
+        long ops;
+        TxnScoreboard scoreboard;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            try (Path path = new Path().of(System.getProperty("java.io.tmpdir"))) {
+                scoreboard = new TxnScoreboard(FilesFacadeImpl.INSTANCE, 16 * 1024).ofRW(path);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            scoreboard.close();
+        }
+    }
+}
@@ -79,6 +79,132 @@ inline int64_t branch_free_search(const index_t *array, int64_t count, int64_t v
     return -1;
 }
 
+inline uint64_t fingerprint_mix(uint64_t h, const uint64_t value) {
+    h ^= value + 0x9e3779b97f4a7c15ull + (h << 6) + (h >> 2);
+    return h;
+}
+
+inline uint64_t fingerprint_finalize(uint64_t h) {
+    // MurmurHash3 fmix64
+    h ^= h >> 33;
+    h *= 0xff51afd7ed558ccdull;
+    h ^= h >> 33;
+    h *= 0xc4ceb9fe1a85ec53ull;
+    h ^= h >> 33;
+    return h;
+}
+
+inline uint64_t fingerprint_value(uint64_t h, const int32_t value_size_bytes, const void *values, const int64_t row) {
+    switch (value_size_bytes) {
+        case 1:
+            return fingerprint_mix(h, reinterpret_cast<const uint8_t *>(values)[row]);
+        case 2:
+            return fingerprint_mix(h, reinterpret_cast<const uint16_t *>(values)[row]);
+        case 4:
+            return fingerprint_mix(h, reinterpret_cast<const uint32_t *>(values)[row]);
+        case 8:
+            return fingerprint_mix(h, reinterpret_cast<const uint64_t *>(values)[row]);
+        case 16: {
+            const auto *words = reinterpret_cast<const uint64_t *>(values) + row * 2;
+            return fingerprint_mix(fingerprint_mix(h, words[0]), words[1]);
+        }
+        case 32: {
+            const auto *words = reinterpret_cast<const uint64_t *>(values) + row * 4;
+            h = fingerprint_mix(fingerprint_mix(h, words[0]), words[1]);
+            return fingerprint_mix(fingerprint_mix(h, words[2]), words[3]);
+        }
+        default:
+            assert(false || "unsupported column value_size_bytes");
+            return h;
+    }
+}
+
+// 64-bit fingerprint of all dedup key values of a row in O3 data
+inline uint64_t o3_row_fingerprint(const dedup_column *keys, const int32_t key_count, const int64_t row) {
+    uint64_t h = 0;
+    for (int32_t c = 0; c < key_count; c++) {
+        h = fingerprint_value(h, keys[c].value_size_bytes, keys[c].o3_data, row);
+    }
+    return fingerprint_finalize(h);
+}
+
+// 64-bit fingerprint of all dedup key values of a row in column data, rows above column top are nulls
+inline uint64_t column_row_fingerprint(const dedup_column *keys, const int32_t key_count, const int64_t row) {
+    uint64_t h = 0;
+    for (int32_t c = 0; c < key_count; c++) {
+        const dedup_column *col_key = &keys[c];
+        h = row >= col_key->column_top
+            ? fingerprint_value(h, col_key->value_size_bytes, col_key->column_data, row)
+            : fingerprint_value(h, col_key->value_size_bytes, col_key->null_value, 0);
+    }
+    return fingerprint_finalize(h);
+}
+
+// Fingerprints of O3 rows in a timestamp conflict range, sorted by fingerprint.
+// Matching a column row against the range then costs a fingerprint calculation and a binary search over
+// 64-bit values instead of comparing all dedup key columns on every step of the search.
+// Fingerprint match is verified by comparing the keys to rule out hash collisions.
+class conflict_fingerprints {
+public:
+    conflict_fingerprints() {
+        entries = nullptr;
+        capacity = size = 0;
+    }
+
+    ~conflict_fingerprints() {
+        if (entries != nullptr) {
+            entries = static_cast<index_t *>(realloc(entries, 0));
+            capacity = size = 0;
+        }
+    }
+
+    // The fingerprints pay off when there are enough column rows to match against the range,
+    // building them costs a pass over all key values of the range
+    static inline bool worth_building(const int64_t index_count, const int64_t src_count) {
+        int64_t steps = 1;
+        while ((1ll << steps) < index_count) {
+            steps++;
+        }
+        return index_count > 4 && src_count * steps >= index_count;
+    }
+
+    void of(const index_t *conflict_index, const int64_t count, const dedup_column *keys, const int32_t key_count) {
+        if (capacity < count) {
+            entries = static_cast<index_t *>(realloc(entries, count * sizeof(index_t)));
+            capacity = count;
+        }
+        for (int64_t p = 0; p < count; p++) {
+            // ts holds the fingerprint, i holds the position in conflict range
+            entries[p].ts = o3_row_fingerprint(keys, key_count, (int64_t) conflict_index[p].i);
+            entries[p].i = p;
+        }
+        std::sort(entries, entries + count);
+        size = count;
+    }
+
+    template<typename LambdaDiff>
+    inline int64_t find(
+            const uint64_t fingerprint,
+            const int64_t src_row,
+            const index_t *conflict_index,
+            const LambdaDiff compare
+    ) const {
+        for (int64_t p = branch_free_search_lower<index_t>(entries, size, {fingerprint, 0});
+             p < size && entries[p].ts == fingerprint; p++) {
+            const auto pos = (int64_t) entries[p].i;
+            if (compare(src_row, conflict_index[pos].i) == 0) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+private:
+    index_t *entries;
+    int64_t capacity;
+    int64_t size;
+};
+
 template<typename LambdaDiff>
 int64_t merge_dedup_long_index_int_keys(
         const uint64_t *src,
@@ -88,13 +214,16 @@ int64_t merge_dedup_long_index_int_keys(
         int64_t index_lo,
         const int64_t index_hi_incl,
         index_t *dest_index,
-        const LambdaDiff compare
+        const LambdaDiff compare,
+        const dedup_column *fingerprint_keys = nullptr,
+        const int32_t fingerprint_key_count = 0
 ) {
     int64_t &src_pos = src_lo;
     int64_t &index_pos = index_lo;
     index_t *dest = dest_index;
 
     bit_vector used_indexes = {};
+    conflict_fingerprints fingerprints = {};
     while (src_pos <= src_hi_incl && index_pos <= index_hi_incl) {
         // Perform normal merge until the timestamp matches.
         if (src[src_pos] < index[index_pos].ts) {
@@ -122,10 +251,29 @@ int64_t merge_dedup_long_index_int_keys(
 
             // track all found index records
             used_indexes.reset(binary_search_len);
+
+            bool use_fingerprints = false;
+            if (fingerprint_key_count > 0) {
+                int64_t src_conflict_end = src_pos;
+                while (src_conflict_end <= src_hi_incl && src[src_conflict_end] == conflict_ts) {
+                    src_conflict_end++;
+                }
+                use_fingerprints = conflict_fingerprints::worth_building(binary_search_len, src_conflict_end - src_pos);
+                if (use_fingerprints) {
+                    fingerprints.of(conflict_index_start, binary_search_len, fingerprint_keys, fingerprint_key_count);
+                }
+            }
+
             while (src_pos <= src_hi_incl && src[src_pos] == conflict_ts) {
                 (*dest).ts = conflict_ts;
-                const int64_t matched_index = branch_free_search(conflict_index_start, binary_search_len,
-                                                                 src_pos, compare);
+                const int64_t matched_index = use_fingerprints
+                        ? fingerprints.find(
+                                column_row_fingerprint(fingerprint_keys, fingerprint_key_count, src_pos),
+                                src_pos,
+                                conflict_index_start,
+                                compare
+                        )
+                        : branch_free_search(conflict_index_start, binary_search_len, src_pos, compare);
                 if (matched_index > -1) {
                     used_indexes.set(matched_index);
                     (*dest).i = conflict_index_start[matched_index].i;
@@ -531,7 +679,14 @@ Java_io_questdb_std_Vect_mergeDedupTimestampWithLongIndexIntKeys(
         }
         return 0;
     };
-    return merge_dedup_long_index_int_keys(src, data_lo, data_hi, index, index_lo, index_hi, index_tmp, compareIndexes);
+    return merge_dedup_long_index_int_keys(
+            src, data_lo, data_hi,
+            index, index_lo, index_hi,
+            index_tmp,
+            compareIndexes,
+            src_keys,
+            dedupKeyCount
+    );
 }
 
 JNIEXPORT jlong JNICALL
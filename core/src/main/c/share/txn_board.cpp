@@ -30,16 +30,32 @@
 
 #define COUNTER_T uint16_t
 
+#define CACHE_LINE_SIZE 64
+
+// Number of counter arrays, must be a power of 2. Each scoreboard user increments
+// the counters of its own stripe so that readers acquiring the same txn do not
+// bounce a single cache line between the cores.
+#define STRIPE_COUNT 4
+
+// Readers register by incrementing the shared counter of their txn rather than owning a slot.
+// Per-reader slots with an epoch based min are not used: the scoreboard is a file mapped by
+// every reader and writer of the table, readers release txns on threads other than the one
+// that acquired them, and the writer derives min and range availability from the counters.
+// The counter of a txn is split into STRIPE_COUNT stripes, the txn reader count is their sum.
 template<typename T>
 class txn_scoreboard_t {
     uint32_t mask = 0;
     uint32_t size = 0;
-    std::atomic<int64_t> max{0};
+    // max and min are read on every acquire while counters are written,
+    // keep them on separate cache lines to stop reader counter updates
+    // from invalidating min and max on the other cores
+    alignas(CACHE_LINE_SIZE) std::atomic<int64_t> max{0};
     // The min txn that is in-use. Increases monotonically.
     // Once the scoreboard is initialized, min is guaranteed to be
     // greater than 0.
-    std::atomic<int64_t> min{0};
-    std::atomic<T> counts[];
+    alignas(CACHE_LINE_SIZE) std::atomic<int64_t> min{0};
+    // STRIPE_COUNT arrays of size counters each, stripe after stripe
+    alignas(CACHE_LINE_SIZE) std::atomic<T> counts[];
 
     template<typename TT>
     inline static TT set_max_atomic(std::atomic<TT> &slot, TT value) {
@@ -48,11 +64,27 @@ class txn_scoreboard_t {
         return std::max(value, current);
     }
 
-    inline std::atomic<T> &get_counter(const int64_t offset) {
-        return counts[offset & mask];
+    inline std::atomic<T> &get_counter(const int64_t offset, const int32_t stripe) {
+        return counts[(stripe & (STRIPE_COUNT - 1)) * (int64_t) size + (offset & mask)];
+    }
+
+    // Decrements the stripe count or, when it is 0, the count of another stripe.
+    // Txn can be released by a different scoreboard user than the one that acquired it,
+    // stripe counts never go below 0. Returns false when txn has no readers.
+    inline bool decrement_count(const int64_t txn, const int32_t stripe) {
+        for (int32_t i = 0; i < STRIPE_COUNT; i++) {
+            auto &counter = get_counter(txn, stripe + i);
+            T current = counter.load();
+            while (current > 0) {
+                if (counter.compare_exchange_weak(current, current - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
-    inline bool increment_count(int64_t txn) {
+    inline bool increment_count(int64_t txn, int32_t stripe) {
         // Increment txn count
         // but do not allow to use txn below max value
         // Once there is count for txn 100
@@ -63,7 +95,7 @@ class txn_scoreboard_t {
         if (txn < current_max || txn - min.load() >= size) {
             return false;
         }
-        get_counter(txn)++; // atomic
+        get_counter(txn, stripe)++; // atomic
 
         current_max = max.load();
         while (txn > current_max && !max.compare_exchange_weak(current_max, txn));
@@ -72,7 +104,7 @@ class txn_scoreboard_t {
             // We cannot increment below max, only max or higher
             // Also incrementing beyond size is not allowed
             // Roll back the increment
-            get_counter(txn)--; //atomic
+            decrement_count(txn, stripe);
             return false;
         }
         return true;
@@ -97,16 +129,24 @@ public:
         return val == L_MIN ? 0 : val;
     }
 
-    inline T get_count(const int64_t &offset) {
-        return get_counter(offset);
+    inline int64_t get_count(const int64_t &offset) {
+        int64_t count = 0;
+        for (int32_t stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+            count += get_counter(offset, stripe).load();
+        }
+        return count;
     }
 
-    inline int64_t txn_release(int64_t txn) {
+    inline int64_t txn_release(int64_t txn, int32_t stripe) {
         auto last_min = min.load();
         if (txn < last_min) {
             return -last_min - 1;
         }
-        auto countAfter = get_counter(txn).fetch_sub(1) - 1;
+        if (!decrement_count(txn, stripe)) {
+            // txn was not acquired
+            return -1;
+        }
+        auto countAfter = get_count(txn);
         if (countAfter == 0 && last_min == txn) {
             update_min(max);
         }
@@ -114,7 +154,7 @@ public:
     }
 
     // txn must be > 0
-    inline int64_t txn_acquire(int64_t txn) {
+    inline int64_t txn_acquire(int64_t txn, int32_t stripe) {
         int64_t current_min = min.load();
         if (current_min == L_MIN) {
             if (min.compare_exchange_strong(current_min, txn)) {
@@ -131,10 +171,10 @@ public:
                 // Updating min directly will create a race condition
                 // instead move min size by size
                 auto dummy_txn = current_min + size - 1;
-                if (increment_count(dummy_txn)) {
+                if (increment_count(dummy_txn, stripe)) {
                     current_min = update_min(txn);
                     // release dummy txn
-                    get_counter(dummy_txn)--;
+                    decrement_count(dummy_txn, stripe);
                 } else {
                     // Someone else pushed max, check if the updated min is better than current one
                     current_min = calculate_min(dummy_txn);
@@ -151,7 +191,7 @@ public:
         }
 
         if (txn - current_min < size) {
-            if (!increment_count(txn)) {
+            if (!increment_count(txn, stripe)) {
                 // Race lost, someone updated max to higher value
                 return -1;
             }
@@ -171,11 +211,14 @@ public:
     }
 
     bool isRangeAvailable(int64_t from, int64_t to) {
-        if (to >= min && from <= max) {
-            for (int64_t txn = from; txn < to; txn++) {
-                if (get_count(txn) > 0) {
-                    return false;
-                }
+        // There are no readers below min or above max, scan only the part of the range
+        // between them. This bounds the scan by the scoreboard size, a wider range
+        // would also wrap around the ring and read counts of unrelated txns.
+        const int64_t lo = std::max(from, min.load());
+        const int64_t hi = std::min(to, max.load() + 1);
+        for (int64_t txn = lo; txn < hi; txn++) {
+            if (get_count(txn) > 0) {
+                return false;
             }
         }
         return true;
@@ -184,14 +227,14 @@ public:
 
 extern "C" {
 
-JNIEXPORT jlong JNICALL Java_io_questdb_cairo_TxnScoreboard_acquireTxn0
-        (JAVA_STATIC, jlong p_txn_scoreboard, jlong txn) {
-    return reinterpret_cast<txn_scoreboard_t<COUNTER_T> *>(p_txn_scoreboard)->txn_acquire(txn);
+JNIEXPORT jlong JNICALL Java_io_questdb_cairo_TxnScoreboard_acquireStripedTxn0
+        (JAVA_STATIC, jlong p_txn_scoreboard, jlong txn, jint stripe) {
+    return reinterpret_cast<txn_scoreboard_t<COUNTER_T> *>(p_txn_scoreboard)->txn_acquire(txn, stripe);
 }
 
-JNIEXPORT jlong JNICALL Java_io_questdb_cairo_TxnScoreboard_releaseTxn0
-        (JAVA_STATIC, jlong p_txn_scoreboard, jlong txn) {
-    return reinterpret_cast<txn_scoreboard_t<COUNTER_T> *>(p_txn_scoreboard)->txn_release(txn);
+JNIEXPORT jlong JNICALL Java_io_questdb_cairo_TxnScoreboard_releaseStripedTxn0
+        (JAVA_STATIC, jlong p_txn_scoreboard, jlong txn, jint stripe) {
+    return reinterpret_cast<txn_scoreboard_t<COUNTER_T> *>(p_txn_scoreboard)->txn_release(txn, stripe);
 }
 
 JNIEXPORT jlong JNICALL Java_io_questdb_cairo_TxnScoreboard_getCount
@@ -206,7 +249,7 @@ JNIEXPORT jlong JNICALL Java_io_questdb_cairo_TxnScoreboard_getMin
 
 JNIEXPORT jlong JNICALL Java_io_questdb_cairo_TxnScoreboard_getScoreboardSize
         (JAVA_STATIC, jlong entryCount) {
-    return (jlong) sizeof(txn_scoreboard_t<COUNTER_T>) + entryCount * (jlong) sizeof(std::atomic<COUNTER_T>);
+    return (jlong) sizeof(txn_scoreboard_t<COUNTER_T>) + STRIPE_COUNT * entryCount * (jlong) sizeof(std::atomic<COUNTER_T>);
 }
 
 JNIEXPORT void JNICALL Java_io_questdb_cairo_TxnScoreboard_init
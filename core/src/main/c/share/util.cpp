@@ -1,6 +1,7 @@
 #include <jni.h>
 #include <cstdint>
 #include "asmlib/asmlib.h"
+#include "util.h"
 
 extern "C" {
 
@@ -23,4 +24,9 @@ JNIEXPORT jlong JNICALL Java_io_questdb_std_Os_compareAndSwap
     );
 }
 #endif
+
+JNIEXPORT jint JNICALL Java_io_questdb_std_Os_getNativeVersion0
+        (JAVA_STATIC) {
+    return QUESTDB_NATIVE_VERSION;
+}
 }
\ No newline at end of file
@@ -48,6 +48,10 @@
 
 #define JAVA_STATIC ATTR_UNUSED JNIEnv *e, ATTR_UNUSED jclass cl
 
+// Version of the native API the Java code can rely on, reported by Os.getNativeVersion().
+// Bump it whenever Java has to tell the new native behaviour from the one of older libraries.
+#define QUESTDB_NATIVE_VERSION 1
+
 #if __GNUC__
 // Fetch into all levels of the cache hierarchy.
 #define MM_PREFETCH_T0(address)  __builtin_prefetch((address), 0, 3)
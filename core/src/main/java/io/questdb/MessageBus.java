@@ -25,6 +25,8 @@
 package io.questdb;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.DecodedColumnCache;
+import io.questdb.cairo.O3MemoryBudget;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cutlass.text.CopyRequestTask;
 import io.questdb.cutlass.text.CopyTask;
@@ -45,6 +47,8 @@ public interface MessageBus extends Closeable {
 
     MPSequence getCopyRequestPubSeq();
 
+    DecodedColumnCache getDecodedColumnCache();
+
     MPSequence getGroupByMergeShardPubSeq();
 
     RingQueue<GroupByMergeShardTask> getGroupByMergeShardQueue();
@@ -75,6 +79,8 @@ public interface MessageBus extends Closeable {
 
     MCSequence getO3CopySubSeq();
 
+    O3MemoryBudget getO3MemoryBudget();
+
     MPSequence getO3OpenColumnPubSeq();
 
     RingQueue<O3OpenColumnTask> getO3OpenColumnQueue();
@@ -103,6 +109,18 @@ public interface MessageBus extends Closeable {
 
     MCSequence getPageFrameReduceSubSeq(int shard);
 
+    MPSequence getPartitionCompressionPubSeq();
+
+    RingQueue<PartitionCompressionTask> getPartitionCompressionQueue();
+
+    SCSequence getPartitionCompressionSubSeq();
+
+    MPSequence getPartitionSquashPubSeq();
+
+    RingQueue<PartitionSquashTask> getPartitionSquashQueue();
+
+    SCSequence getPartitionSquashSubSeq();
+
     FanOut getTableWriterEventFanOut();
 
     MPSequence getTableWriterEventPubSeq();
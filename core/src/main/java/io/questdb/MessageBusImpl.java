@@ -25,6 +25,8 @@
 package io.questdb;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.DecodedColumnCache;
+import io.questdb.cairo.O3MemoryBudget;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cutlass.text.CopyRequestTask;
 import io.questdb.cutlass.text.CopyTask;
@@ -40,6 +42,7 @@ public class MessageBusImpl implements MessageBus {
     private final RingQueue<ColumnPurgeTask> columnPurgeQueue;
     private final SCSequence columnPurgeSubSeq;
     private final CairoConfiguration configuration;
+    private final DecodedColumnCache decodedColumnCache;
     private final MPSequence groupByMergeShardPubSeq;
     private final RingQueue<GroupByMergeShardTask> groupByMergeShardQueue;
     private final MCSequence groupByMergeShardSubSeq;
@@ -55,6 +58,7 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence o3CopyPubSeq;
     private final RingQueue<O3CopyTask> o3CopyQueue;
     private final MCSequence o3CopySubSeq;
+    private final O3MemoryBudget o3MemoryBudget;
     private final MPSequence o3OpenColumnPubSeq;
     private final RingQueue<O3OpenColumnTask> o3OpenColumnQueue;
     private final MCSequence o3OpenColumnSubSeq;
@@ -69,6 +73,12 @@ public class MessageBusImpl implements MessageBus {
     private final RingQueue<PageFrameReduceTask>[] pageFrameReduceQueue;
     private final int pageFrameReduceShardCount;
     private final MCSequence[] pageFrameReduceSubSeq;
+    private final MPSequence partitionCompressionPubSeq;
+    private final RingQueue<PartitionCompressionTask> partitionCompressionQueue;
+    private final SCSequence partitionCompressionSubSeq;
+    private final MPSequence partitionSquashPubSeq;
+    private final RingQueue<PartitionSquashTask> partitionSquashQueue;
+    private final SCSequence partitionSquashSubSeq;
     private final MPSequence tableWriterEventPubSeq;
     private final RingQueue<TableWriterTask> tableWriterEventQueue;
     private final FanOut tableWriterEventSubSeq;
@@ -88,6 +98,7 @@ public class MessageBusImpl implements MessageBus {
 
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         this.configuration = configuration;
+        this.decodedColumnCache = new DecodedColumnCache(configuration);
         this.indexerQueue = new RingQueue<>(ColumnIndexerTask::new, configuration.getColumnIndexerQueueCapacity());
         this.indexerPubSeq = new MPSequence(indexerQueue.getCycle());
         this.indexerSubSeq = new MCSequence(indexerQueue.getCycle());
@@ -118,6 +129,8 @@ public class MessageBusImpl implements MessageBus {
         this.o3CopySubSeq = new MCSequence(this.o3CopyQueue.getCycle());
         o3CopyPubSeq.then(o3CopySubSeq).then(o3CopyPubSeq);
 
+        this.o3MemoryBudget = new O3MemoryBudget(configuration.getO3MergeMemoryBudget());
+
         this.o3PurgeDiscoveryQueue = new RingQueue<>(O3PartitionPurgeTask::new, configuration.getO3PurgeDiscoveryQueueCapacity());
         this.o3PurgeDiscoveryPubSeq = new MPSequence(this.o3PurgeDiscoveryQueue.getCycle());
         this.o3PurgeDiscoverySubSeq = new MCSequence(this.o3PurgeDiscoveryQueue.getCycle());
@@ -143,6 +156,16 @@ public class MessageBusImpl implements MessageBus {
         this.columnPurgePubSeq = new MPSequence(this.columnPurgeQueue.getCycle());
         this.columnPurgePubSeq.then(this.columnPurgeSubSeq).then(this.columnPurgePubSeq);
 
+        this.partitionCompressionQueue = new RingQueue<>(PartitionCompressionTask::new, configuration.getPartitionCompressionQueueCapacity());
+        this.partitionCompressionSubSeq = new SCSequence();
+        this.partitionCompressionPubSeq = new MPSequence(this.partitionCompressionQueue.getCycle());
+        this.partitionCompressionPubSeq.then(this.partitionCompressionSubSeq).then(this.partitionCompressionPubSeq);
+
+        this.partitionSquashQueue = new RingQueue<>(PartitionSquashTask::new, configuration.getPartitionSquashQueueCapacity());
+        this.partitionSquashSubSeq = new SCSequence();
+        this.partitionSquashPubSeq = new MPSequence(this.partitionSquashQueue.getCycle());
+        this.partitionSquashPubSeq.then(this.partitionSquashSubSeq).then(this.partitionSquashPubSeq);
+
         this.pageFrameReduceShardCount = configuration.getPageFrameReduceShardCount();
 
         //noinspection unchecked
@@ -197,6 +220,7 @@ public class MessageBusImpl implements MessageBus {
         // We need to close only queues with native backing memory.
         Misc.free(getTableWriterEventQueue());
         Misc.free(pageFrameReduceQueue);
+        Misc.free(decodedColumnCache);
     }
 
     @Override
@@ -224,6 +248,11 @@ public class MessageBusImpl implements MessageBus {
         return textImportRequestPubSeq;
     }
 
+    @Override
+    public DecodedColumnCache getDecodedColumnCache() {
+        return decodedColumnCache;
+    }
+
     @Override
     public MPSequence getGroupByMergeShardPubSeq() {
         return groupByMergeShardPubSeq;
@@ -299,6 +328,11 @@ public class MessageBusImpl implements MessageBus {
         return o3CopySubSeq;
     }
 
+    @Override
+    public O3MemoryBudget getO3MemoryBudget() {
+        return o3MemoryBudget;
+    }
+
     @Override
     public MPSequence getO3OpenColumnPubSeq() {
         return o3OpenColumnPubSeq;
@@ -369,6 +403,36 @@ public class MessageBusImpl implements MessageBus {
         return pageFrameReduceSubSeq[shard];
     }
 
+    @Override
+    public MPSequence getPartitionCompressionPubSeq() {
+        return partitionCompressionPubSeq;
+    }
+
+    @Override
+    public RingQueue<PartitionCompressionTask> getPartitionCompressionQueue() {
+        return partitionCompressionQueue;
+    }
+
+    @Override
+    public SCSequence getPartitionCompressionSubSeq() {
+        return partitionCompressionSubSeq;
+    }
+
+    @Override
+    public MPSequence getPartitionSquashPubSeq() {
+        return partitionSquashPubSeq;
+    }
+
+    @Override
+    public RingQueue<PartitionSquashTask> getPartitionSquashQueue() {
+        return partitionSquashQueue;
+    }
+
+    @Override
+    public SCSequence getPartitionSquashSubSeq() {
+        return partitionSquashSubSeq;
+    }
+
     @Override
     public FanOut getTableWriterEventFanOut() {
         return tableWriterEventSubSeq;
@@ -447,6 +511,7 @@ public class MessageBusImpl implements MessageBus {
     @TestOnly
     public void reset() {
         clearQueue(walTxnNotificationSubSequence);
+        clearQueue(partitionCompressionSubSeq);
     }
 
     private void clearQueue(Sequence subSequence) {
@@ -24,6 +24,7 @@
 
 package io.questdb;
 
+import io.questdb.cairo.TableReaderMetrics;
 import io.questdb.cairo.TableWriterMetrics;
 import io.questdb.cairo.wal.WalMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
@@ -48,6 +49,7 @@ public class Metrics implements Scrapable {
     private final VirtualLongGauge.StatProvider jvmFreeMemRef = runtime::freeMemory;
     private final VirtualLongGauge.StatProvider jvmMaxMemRef = runtime::maxMemory;
     private final VirtualLongGauge.StatProvider jvmTotalMemRef = runtime::totalMemory;
+    private final TableReaderMetrics tableReader;
     private final TableWriterMetrics tableWriter;
     private final WalMetrics walMetrics;
     private final WorkerMetrics workerMetrics;
@@ -59,6 +61,7 @@ public class Metrics implements Scrapable {
         this.pgWire = new PGWireMetrics(metricsRegistry);
         this.line = new LineMetrics(metricsRegistry);
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
+        this.tableReader = new TableReaderMetrics(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
         this.walMetrics = new WalMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
@@ -106,6 +109,10 @@ public class Metrics implements Scrapable {
         }
     }
 
+    public TableReaderMetrics tableReader() {
+        return tableReader;
+    }
+
     public TableWriterMetrics tableWriter() {
         return tableWriter;
     }
@@ -150,6 +150,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean ilpAutoCreateNewColumns;
     private final boolean ilpAutoCreateNewTables;
     private final int inactiveReaderMaxOpenPartitions;
+    private final int inactiveReaderMaxMappedColumns;
     private final long inactiveReaderTTL;
     private final long inactiveWalWriterTTL;
     private final long inactiveWriterTTL;
@@ -209,15 +210,28 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int o3LagCalculationWindowsSize;
     private final int o3LastPartitionMaxSplits;
     private final long o3MaxLag;
+    private final int o3MidPartitionMaxSplits;
     private final long o3MinLagUs;
     private final int o3OpenColumnQueueCapacity;
     private final int o3PartitionPurgeListCapacity;
     private final int o3PartitionQueueCapacity;
+    private final long o3MergeMemoryBudget;
     private final long o3PartitionSplitMinSize;
     private final int o3PurgeDiscoveryQueueCapacity;
     private final boolean o3QuickSortEnabled;
     private final int parallelIndexThreshold;
     private final boolean parallelIndexingEnabled;
+    private final int partitionBloomFilterBitsPerValue;
+    private final boolean partitionBloomFilterEnabled;
+    private final long partitionCompressionJobIoLimit;
+    private final long partitionCompressionMinAge;
+    private final int partitionCompressionQueueCapacity;
+    private final boolean partitionSquashJobEnabled;
+    private final long partitionSquashJobIoLimit;
+    private final int partitionSquashQueueCapacity;
+    private final boolean partitionZoneMapEnabled;
+    private final long readerDecodedColumnMemoryLimit;
+    private final boolean readerLazyColumnMappingEnabled;
     private final boolean pgEnabled;
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final PropPGWireDispatcherConfiguration propPGWireDispatcherConfiguration = new PropPGWireDispatcherConfiguration();
@@ -292,12 +306,15 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlMapMaxResizes;
     private final int sqlMaxNegativeLimit;
     private final int sqlMaxSymbolNotEqualsCount;
+    private final boolean sqlIndexIntersectionEnabled;
     private final int sqlModelPoolCapacity;
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
+    private final int sqlPageFramePrefetchCount;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
     private final boolean sqlSampleByDefaultAlignment;
@@ -343,8 +360,11 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final PropertyValidator validator;
     private final int vectorAggregateQueueCapacity;
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
+    private final boolean walApplyCoalesceEnabled;
     private final boolean walApplyEnabled;
+    private final LowerCaseCharSequenceIntHashMap walApplyLagSlo;
     private final int walApplyLookAheadTransactionCount;
+    private final boolean walApplyO3JobsEnabled;
     private final WorkerPoolConfiguration walApplyPoolConfiguration = new PropWalApplyPoolConfiguration();
     private final long walApplySleepTimeout;
     private final long walApplyTableTimeQuota;
@@ -354,12 +374,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long walApplyWorkerSleepThreshold;
     private final long walApplyWorkerYieldThreshold;
     private final boolean walEnabledDefault;
+    private final long walGroupCommitDelay;
     private final long walMaxLagSize;
     private final int walMaxLagTxnCount;
     private final int walMaxSegmentFileDescriptorsCache;
     private final long walPurgeInterval;
     private final int walPurgeWaitBeforeDelete;
     private final int walRecreateDistressedSequencerAttempts;
+    private final boolean walSegmentCompactTimestampEnabled;
     private final long walSegmentRolloverRowCount;
     private final double walSquashUncommittedRowsMultiplier;
     private final boolean walSupported;
@@ -415,6 +437,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private short integerDefaultColumnType;
     private int jsonQueryConnectionCheckFrequency;
     private int jsonQueryDoubleScale;
+    private int jsonQueryTailConnectionLimit;
+    private boolean jsonQueryTailEnabled;
     private int jsonQueryFloatScale;
     private long lineTcpCommitIntervalDefault;
     private double lineTcpCommitIntervalFraction;
@@ -570,12 +594,14 @@ public class PropServerConfiguration implements ServerConfiguration {
         // a pre-WAL version suddenly would start to create WAL tables by default, this could come as a surprise to users
         // instead cairo.wal.enabled.default=true is added to the config, so only new QuestDB installations have WAL enabled by default
         this.walEnabledDefault = getBoolean(properties, env, PropertyKey.CAIRO_WAL_ENABLED_DEFAULT, true);
+        this.walGroupCommitDelay = getLong(properties, env, PropertyKey.CAIRO_WAL_GROUP_COMMIT_DELAY, -1);
         this.walPurgeInterval = getLong(properties, env, PropertyKey.CAIRO_WAL_PURGE_INTERVAL, 30_000);
         this.walPurgeWaitBeforeDelete = getInt(properties, env, PropertyKey.DEBUG_WAL_PURGE_WAIT_BEFORE_DELETE, 0);
         this.walTxnNotificationQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_WAL_TXN_NOTIFICATION_QUEUE_CAPACITY, 4096);
         this.walRecreateDistressedSequencerAttempts = getInt(properties, env, PropertyKey.CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS, 3);
         this.walSupported = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SUPPORTED, true);
         walApplyEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_ENABLED, true);
+        this.walSegmentCompactTimestampEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_COMPACT_TIMESTAMP_ENABLED, false);
         this.walSegmentRolloverRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT, 200_000);
         this.walSegmentRolloverSize = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_SIZE, 0);  // disabled by default.
         if ((this.walSegmentRolloverSize != 0) && (this.walSegmentRolloverSize < 1024)) {  // 1KiB segments minimum
@@ -590,7 +616,10 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walMaxLagSize = getLongSize(properties, env, PropertyKey.CAIRO_WAL_MAX_LAG_SIZE, 75 * Numbers.SIZE_1MB);
         this.walMaxSegmentFileDescriptorsCache = getInt(properties, env, PropertyKey.CAIRO_WAL_MAX_SEGMENT_FILE_DESCRIPTORS_CACHE, 30);
         this.walApplyTableTimeQuota = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_TABLE_TIME_QUOTA, 1000);
+        this.walApplyLagSlo = getWalApplyLagSlo(properties, env, PropertyKey.CAIRO_WAL_APPLY_LAG_SLO);
         this.walApplyLookAheadTransactionCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT, 20);
+        this.walApplyCoalesceEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_COALESCE_ENABLED, false);
+        this.walApplyO3JobsEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_O3_JOBS_ENABLED, true);
         this.tableTypeConversionEnabled = getBoolean(properties, env, PropertyKey.TABLE_TYPE_CONVERSION_ENABLED, true);
         this.tempRenamePendingTablePrefix = getString(properties, env, PropertyKey.CAIRO_WAL_TEMP_PENDING_RENAME_TABLE_PREFIX, "temp_5822f658-31f6-11ee-be56-0242ac120002");
         if (tempRenamePendingTablePrefix.length() > maxFileNameLength - 4) {
@@ -801,6 +830,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.jsonQueryConnectionCheckFrequency = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_CONNECTION_CHECK_FREQUENCY, 1_000_000);
                 this.jsonQueryFloatScale = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_FLOAT_SCALE, 4);
                 this.jsonQueryDoubleScale = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_DOUBLE_SCALE, 12);
+                this.jsonQueryTailEnabled = getBoolean(properties, env, PropertyKey.HTTP_TAIL_ENABLED, false);
+                this.jsonQueryTailConnectionLimit = getInt(properties, env, PropertyKey.HTTP_TAIL_CONNECTION_LIMIT, 4);
                 String httpBindTo = getString(properties, env, PropertyKey.HTTP_BIND_TO, "0.0.0.0:9000");
                 parseBindTo(properties, env, PropertyKey.HTTP_NET_BIND_TO, httpBindTo, (a, p) -> {
                     httpNetBindIPv4Address = a;
@@ -901,6 +932,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.fileOperationRetryCount = getInt(properties, env, PropertyKey.CAIRO_FILE_OPERATION_RETRY_COUNT, 30);
             this.idleCheckInterval = getLong(properties, env, PropertyKey.CAIRO_IDLE_CHECK_INTERVAL, 5 * 60 * 1000L);
             this.inactiveReaderMaxOpenPartitions = getInt(properties, env, PropertyKey.CAIRO_INACTIVE_READER_MAX_OPEN_PARTITIONS, 128);
+            this.inactiveReaderMaxMappedColumns = getInt(properties, env, PropertyKey.CAIRO_INACTIVE_READER_MAX_MAPPED_COLUMNS, 4096);
             this.inactiveReaderTTL = getLong(properties, env, PropertyKey.CAIRO_INACTIVE_READER_TTL, 120_000);
             this.inactiveWriterTTL = getLong(properties, env, PropertyKey.CAIRO_INACTIVE_WRITER_TTL, 600_000);
             this.inactiveWalWriterTTL = getLong(properties, env, PropertyKey.CAIRO_WAL_INACTIVE_WRITER_TTL, 120_000);
@@ -908,6 +940,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxSwapFileCount = getInt(properties, env, PropertyKey.CAIRO_MAX_SWAP_FILE_COUNT, 30);
             this.parallelIndexThreshold = getInt(properties, env, PropertyKey.CAIRO_PARALLEL_INDEX_THRESHOLD, 100000);
             this.readerPoolMaxSegments = getInt(properties, env, PropertyKey.CAIRO_READER_POOL_MAX_SEGMENTS, 10);
+            this.readerDecodedColumnMemoryLimit = getLongSize(properties, env, PropertyKey.CAIRO_READER_DECODED_COLUMN_MEMORY_LIMIT, Numbers.SIZE_1GB);
             this.walWriterPoolMaxSegments = getInt(properties, env, PropertyKey.CAIRO_WAL_WRITER_POOL_MAX_SEGMENTS, 10);
             this.spinLockTimeout = getLong(properties, env, PropertyKey.CAIRO_SPIN_LOCK_TIMEOUT, 1_000);
             this.httpSqlCacheEnabled = getBoolean(properties, env, PropertyKey.HTTP_QUERY_CACHE_ENABLED, true);
@@ -977,6 +1010,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlGroupByAllocatorMaxChunkSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_ALLOCATOR_MAX_CHUNK_SIZE, 4 * Numbers.SIZE_1GB);
             this.sqlGroupByPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_POOL_CAPACITY, 1024);
             this.sqlMaxSymbolNotEqualsCount = getInt(properties, env, PropertyKey.CAIRO_SQL_MAX_SYMBOL_NOT_EQUALS_COUNT, 100);
+            this.sqlIndexIntersectionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_INDEX_INTERSECTION_ENABLED, false);
             this.sqlBindVariablePoolSize = getInt(properties, env, PropertyKey.CAIRO_SQL_BIND_VARIABLE_POOL_SIZE, 8);
             this.sqlQueryRegistryPoolSize = getInt(properties, env, PropertyKey.CAIRO_SQL_QUERY_REGISTRY_POOL_SIZE, 32);
             this.sqlCountDistinctCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_COUNT_DISTINCT_CAPACITY, 16);
@@ -990,6 +1024,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampKeyCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_KEY_CAPACITY, 512);
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, "0.5");
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 100_000);
+            this.sqlPageFramePrefetchCount = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_COUNT, 4);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
@@ -1062,6 +1097,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.vectorAggregateQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_VECTOR_AGGREGATE_QUEUE_CAPACITY, 128);
             this.o3CallbackQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_CALLBACK_QUEUE_CAPACITY, 128);
             this.o3PartitionQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_PARTITION_QUEUE_CAPACITY, 128);
+            this.o3MergeMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_O3_MERGE_MEMORY_BUDGET, 0);
             this.o3OpenColumnQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_OPEN_COLUMN_QUEUE_CAPACITY, 128);
             this.o3CopyQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_COPY_QUEUE_CAPACITY, 128);
             this.o3LagCalculationWindowsSize = getIntSize(properties, env, PropertyKey.CAIRO_O3_LAG_CALCULATION_WINDOW_SIZE, 4);
@@ -1079,6 +1115,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.o3MaxLag = getLong(properties, env, PropertyKey.CAIRO_O3_MAX_LAG, o3MaxLag) * 1_000;
 
             this.o3QuickSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_O3_QUICKSORT_ENABLED, false);
+            this.partitionZoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_ZONE_MAP_ENABLED, false);
+            this.readerLazyColumnMappingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_READER_LAZY_COLUMN_MAPPING_ENABLED, true);
+            this.partitionBloomFilterBitsPerValue = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_PARTITION_BLOOM_FILTER_BITS_PER_VALUE, 10));
+            this.partitionBloomFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_BLOOM_FILTER_ENABLED, false);
+            this.partitionCompressionJobIoLimit = getLongSize(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_JOB_IO_LIMIT, 0);
+            this.partitionCompressionMinAge = getLong(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_MIN_AGE, 0) * 1_000;
+            this.partitionCompressionQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_QUEUE_CAPACITY, 64);
+            this.partitionSquashJobEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_SQUASH_JOB_ENABLED, false);
+            this.partitionSquashJobIoLimit = getLongSize(properties, env, PropertyKey.CAIRO_PARTITION_SQUASH_JOB_IO_LIMIT, 0);
+            this.partitionSquashQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_PARTITION_SQUASH_QUEUE_CAPACITY, 64);
             this.rndFunctionMemoryPageSize = Numbers.ceilPow2(getIntSize(properties, env, PropertyKey.CAIRO_RND_MEMORY_PAGE_SIZE, 8192));
             this.rndFunctionMemoryMaxPages = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_RND_MEMORY_MAX_PAGES, 128));
             this.sqlStrFunctionBufferMaxSize = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_STR_FUNCTION_BUFFER_MAX_SIZE, Numbers.SIZE_1MB));
@@ -1106,6 +1152,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.ioURingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_ENABLED, true);
             this.cairoMaxCrashFiles = getInt(properties, env, PropertyKey.CAIRO_MAX_CRASH_FILES, 100);
             this.o3LastPartitionMaxSplits = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_O3_LAST_PARTITION_MAX_SPLITS, 20));
+            this.o3MidPartitionMaxSplits = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_O3_MID_PARTITION_MAX_SPLITS, 1));
             this.o3PartitionSplitMinSize = getLongSize(properties, env, PropertyKey.CAIRO_O3_PARTITION_SPLIT_MIN_SIZE, 50 * Numbers.SIZE_1MB);
 
             parseBindTo(properties, env, PropertyKey.LINE_UDP_BIND_TO, "0.0.0.0:9009", (a, p) -> {
@@ -1250,6 +1297,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
             this.writerAsyncCommandMaxWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT, 30_000);
@@ -1368,6 +1416,31 @@ public class PropServerConfiguration implements ServerConfiguration {
         return result;
     }
 
+    private LowerCaseCharSequenceIntHashMap getWalApplyLagSlo(Properties properties, @Nullable Map<String, String> env, ConfigPropertyKey key) throws ServerConfigurationException {
+        final LowerCaseCharSequenceIntHashMap result = new LowerCaseCharSequenceIntHashMap();
+        final String value = getString(properties, env, key, null);
+        if (value != null && !value.isEmpty()) {
+            // comma separated list of table=millis pairs
+            for (String slo : value.split(",")) {
+                final int eq = slo.indexOf('=');
+                if (eq < 1) {
+                    throw ServerConfigurationException.forInvalidKey(key.getPropertyPath(), "expected table=millis but was: " + slo);
+                }
+                final String tableName = slo.substring(0, eq).trim();
+                try {
+                    final int millis = Numbers.parseInt(slo.substring(eq + 1).trim());
+                    if (millis < 0) {
+                        throw ServerConfigurationException.forInvalidKey(key.getPropertyPath(), "negative lag SLO for table: " + tableName);
+                    }
+                    result.put(tableName, millis);
+                } catch (NumericException e) {
+                    throw ServerConfigurationException.forInvalidKey(key.getPropertyPath(), "invalid lag SLO value: " + slo);
+                }
+            }
+        }
+        return result;
+    }
+
     private int getCommitMode(Properties properties, @Nullable Map<String, String> env, ConfigPropertyKey key) {
         final String commitMode = getString(properties, env, key, "nosync");
 
@@ -2155,6 +2228,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return idleCheckInterval;
         }
 
+        @Override
+        public int getInactiveReaderMaxMappedColumns() {
+            return inactiveReaderMaxMappedColumns;
+        }
+
         @Override
         public int getInactiveReaderMaxOpenPartitions() {
             return inactiveReaderMaxOpenPartitions;
@@ -2275,6 +2353,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3MaxLag;
         }
 
+        @Override
+        public int getO3MidPartitionMaxSplits() {
+            return o3MidPartitionMaxSplits;
+        }
+
         @Override
         public int getO3MemMaxPages() {
             return Integer.MAX_VALUE;
@@ -2295,6 +2378,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3PartitionQueueCapacity;
         }
 
+        @Override
+        public long getO3MergeMemoryBudget() {
+            return o3MergeMemoryBudget;
+        }
+
         @Override
         public int getO3PurgeDiscoveryQueueCapacity() {
             return o3PurgeDiscoveryQueueCapacity;
@@ -2325,6 +2413,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexThreshold;
         }
 
+        @Override
+        public int getPartitionBloomFilterBitsPerValue() {
+            return partitionBloomFilterBitsPerValue;
+        }
+
+        @Override
+        public long getPartitionCompressionJobIoLimit() {
+            return partitionCompressionJobIoLimit;
+        }
+
+        @Override
+        public long getPartitionCompressionMinAge() {
+            return partitionCompressionMinAge;
+        }
+
+        @Override
+        public int getPartitionCompressionQueueCapacity() {
+            return partitionCompressionQueueCapacity;
+        }
+
         @Override
         public long getPartitionO3SplitMinSize() {
             return o3PartitionSplitMinSize;
@@ -2335,11 +2443,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3PartitionPurgeListCapacity;
         }
 
+        @Override
+        public long getPartitionSquashJobIoLimit() {
+            return partitionSquashJobIoLimit;
+        }
+
+        @Override
+        public int getPartitionSquashQueueCapacity() {
+            return partitionSquashQueueCapacity;
+        }
+
         @Override
         public int getQueryRegistryPoolSize() {
             return sqlQueryRegistryPoolSize;
         }
 
+        @Override
+        public long getReaderDecodedColumnMemoryLimit() {
+            return readerDecodedColumnMemoryLimit;
+        }
+
         @Override
         public int getReaderPoolMaxSegments() {
             return readerPoolMaxSegments;
@@ -2580,6 +2703,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlPageFramePrefetchCount() {
+            return sqlPageFramePrefetchCount;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2734,6 +2862,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return volumeDefinitions;
         }
 
+        @Override
+        public @NotNull LowerCaseCharSequenceIntHashMap getWalApplyLagSlo() {
+            return walApplyLagSlo;
+        }
+
         @Override
         public int getWalApplyLookAheadTransactionCount() {
             return walApplyLookAheadTransactionCount;
@@ -2759,6 +2892,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walWriterEventAppendPageSize;
         }
 
+        @Override
+        public long getWalGroupCommitDelay() {
+            return walGroupCommitDelay;
+        }
+
         @Override
         public long getWalMaxLagSize() {
             return walMaxLagSize;
@@ -2884,11 +3022,31 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPartitionBloomFilterEnabled() {
+            return partitionBloomFilterEnabled;
+        }
+
+        @Override
+        public boolean isPartitionSquashJobEnabled() {
+            return partitionSquashJobEnabled;
+        }
+
+        @Override
+        public boolean isPartitionZoneMapEnabled() {
+            return partitionZoneMapEnabled;
+        }
+
         @Override
         public boolean isReadOnlyInstance() {
             return isReadOnlyInstance;
         }
 
+        @Override
+        public boolean isReaderLazyColumnMappingEnabled() {
+            return readerLazyColumnMappingEnabled;
+        }
+
         @Override
         public boolean isSnapshotRecoveryEnabled() {
             return snapshotRecoveryEnabled;
@@ -2899,6 +3057,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public boolean isSqlIndexIntersectionEnabled() {
+            return sqlIndexIntersectionEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -2914,16 +3077,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
         }
 
+        @Override
+        public boolean isWalApplyCoalesceEnabled() {
+            return walApplyCoalesceEnabled;
+        }
+
         @Override
         public boolean isWalApplyEnabled() {
             return walApplyEnabled;
         }
 
+        @Override
+        public boolean isWalApplyO3JobsEnabled() {
+            return walApplyO3JobsEnabled;
+        }
+
+        @Override
+        public boolean isWalSegmentCompactTimestampEnabled() {
+            return walSegmentCompactTimestampEnabled;
+        }
+
         public boolean isWalSupported() {
             return walSupported;
         }
@@ -3423,6 +3606,16 @@ public class PropServerConfiguration implements ServerConfiguration {
         public NanosecondClock getNanosecondClock() {
             return httpFrozenClock ? StationaryNanosClock.INSTANCE : NanosecondClockImpl.INSTANCE;
         }
+
+        @Override
+        public int getTailConnectionLimit() {
+            return jsonQueryTailConnectionLimit;
+        }
+
+        @Override
+        public boolean isTailEnabled() {
+            return jsonQueryTailEnabled;
+        }
     }
 
     private class PropLineHttpProcessorConfiguration implements LineHttpProcessorConfiguration {
@@ -50,12 +50,15 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_FILE_OPERATION_RETRY_COUNT("cairo.file.operation.retry.count"),
     CAIRO_IDLE_CHECK_INTERVAL("cairo.idle.check.interval"),
     CAIRO_INACTIVE_READER_MAX_OPEN_PARTITIONS("cairo.inactive.reader.max.open.partitions"),
+    CAIRO_INACTIVE_READER_MAX_MAPPED_COLUMNS("cairo.inactive.reader.max.mapped.columns"),
     CAIRO_INACTIVE_READER_TTL("cairo.inactive.reader.ttl"),
     CAIRO_INACTIVE_WRITER_TTL("cairo.inactive.writer.ttl"),
     CAIRO_INDEX_VALUE_BLOCK_SIZE("cairo.index.value.block.size"),
     CAIRO_MAX_SWAP_FILE_COUNT("cairo.max.swap.file.count"),
     CAIRO_PARALLEL_INDEX_THRESHOLD("cairo.parallel.index.threshold"),
     CAIRO_READER_POOL_MAX_SEGMENTS("cairo.reader.pool.max.segments"),
+    CAIRO_READER_DECODED_COLUMN_MEMORY_LIMIT("cairo.reader.decoded.column.memory.limit"),
+    CAIRO_READER_LAZY_COLUMN_MAPPING_ENABLED("cairo.reader.lazy.column.mapping.enabled"),
     CAIRO_SPIN_LOCK_TIMEOUT("cairo.spin.lock.timeout"),
     CAIRO_CHARACTER_STORE_CAPACITY("cairo.character.store.capacity"),
     CAIRO_CHARACTER_STORE_SEQUENCE_POOL_CAPACITY("cairo.character.store.sequence.pool.capacity"),
@@ -96,6 +99,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_PARALLEL_GROUPBY_ENABLED("cairo.sql.parallel.groupby.enabled"),
     CAIRO_SQL_PARALLEL_GROUPBY_MERGE_QUEUE_CAPACITY("cairo.sql.parallel.groupby.merge.shard.queue.capacity"),
     CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD("cairo.sql.parallel.groupby.sharding.threshold"),
+    CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED("cairo.sql.parallel.hash.join.enabled"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -126,6 +130,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_GROUPBY_ALLOCATOR_DEFAULT_CHUNK_SIZE("cairo.sql.groupby.allocator.default.chunk.size"),
     CAIRO_SQL_GROUPBY_ALLOCATOR_MAX_CHUNK_SIZE("cairo.sql.groupby.allocator.max.chunk.size"),
     CAIRO_SQL_MAX_SYMBOL_NOT_EQUALS_COUNT("cairo.sql.max.symbol.not.equals.count"),
+    CAIRO_SQL_INDEX_INTERSECTION_ENABLED("cairo.sql.index.intersection.enabled"),
     CAIRO_SQL_BIND_VARIABLE_POOL_SIZE("cairo.sql.bind.variable.pool.size"),
     CAIRO_SQL_QUERY_REGISTRY_POOL_SIZE("cairo.sql.query.registry.pool.size"),
     CAIRO_SQL_COUNT_DISTINCT_CAPACITY("cairo.sql.count.distinct.capacity"),
@@ -135,6 +140,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR("cairo.sql.distinct.timestamp.load.factor"),
     CAIRO_SQL_PAGE_FRAME_MIN_ROWS("cairo.sql.page.frame.min.rows"),
     CAIRO_SQL_PAGE_FRAME_MAX_ROWS("cairo.sql.page.frame.max.rows"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_COUNT("cairo.sql.page.frame.prefetch.count"),
     CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE("cairo.sql.jit.ir.memory.page.size"),
     CAIRO_SQL_JIT_IR_MEMORY_MAX_PAGES("cairo.sql.jit.ir.memory.max.pages"),
     CAIRO_SQL_JIT_BIND_VARS_MEMORY_PAGE_SIZE("cairo.sql.jit.bind.vars.memory.page.size"),
@@ -176,6 +182,15 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_COMMIT_LAG("cairo.commit.lag"),
     CAIRO_O3_MAX_LAG("cairo.o3.max.lag"),
     CAIRO_O3_QUICKSORT_ENABLED("cairo.o3.quicksort.enabled"),
+    CAIRO_PARTITION_COMPRESSION_JOB_IO_LIMIT("cairo.partition.compression.job.io.limit"),
+    CAIRO_PARTITION_COMPRESSION_MIN_AGE("cairo.partition.compression.min.age"),
+    CAIRO_PARTITION_COMPRESSION_QUEUE_CAPACITY("cairo.partition.compression.queue.capacity"),
+    CAIRO_PARTITION_ZONE_MAP_ENABLED("cairo.partition.zone.map.enabled"),
+    CAIRO_PARTITION_BLOOM_FILTER_ENABLED("cairo.partition.bloom.filter.enabled"),
+    CAIRO_PARTITION_BLOOM_FILTER_BITS_PER_VALUE("cairo.partition.bloom.filter.bits.per.value"),
+    CAIRO_PARTITION_SQUASH_JOB_ENABLED("cairo.partition.squash.job.enabled"),
+    CAIRO_PARTITION_SQUASH_JOB_IO_LIMIT("cairo.partition.squash.job.io.limit"),
+    CAIRO_PARTITION_SQUASH_QUEUE_CAPACITY("cairo.partition.squash.queue.capacity"),
     CAIRO_RND_MEMORY_PAGE_SIZE("cairo.rnd.memory.page.size"),
     CAIRO_RND_MEMORY_MAX_PAGES("cairo.rnd.memory.max.pages"),
     CAIRO_REPLACE_BUFFER_MAX_SIZE("cairo.replace.buffer.max.size"),
@@ -285,6 +300,8 @@ public enum PropertyKey implements ConfigPropertyKey {
     HTTP_QUERY_CACHE_ENABLED("http.query.cache.enabled"),
     HTTP_QUERY_CACHE_BLOCK_COUNT("http.query.cache.block.count"),
     HTTP_QUERY_CACHE_ROW_COUNT("http.query.cache.row.count"),
+    HTTP_TAIL_ENABLED("http.tail.enabled"),
+    HTTP_TAIL_CONNECTION_LIMIT("http.tail.connection.limit"),
     LINE_UDP_BIND_TO("line.udp.bind.to"),
     LINE_UDP_HALT_ON_ERROR("line.udp.haltOnError"),
     LINE_UDP_JOIN("line.udp.join"),
@@ -416,7 +433,9 @@ public enum PropertyKey implements ConfigPropertyKey {
     LINE_AUTO_CREATE_NEW_TABLES("line.auto.create.new.tables"),
     CAIRO_SIMULATE_CRASH_ENABLED("cairo.enable.crash.simulation"),
     CAIRO_WAL_ENABLED_DEFAULT("cairo.wal.enabled.default"),
+    CAIRO_WAL_GROUP_COMMIT_DELAY("cairo.wal.group.commit.delay"),
     CAIRO_WAL_PURGE_INTERVAL("cairo.wal.purge.interval"),
+    CAIRO_WAL_SEGMENT_COMPACT_TIMESTAMP_ENABLED("cairo.wal.segment.compact.timestamp.enabled"),
     CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT("cairo.wal.segment.rollover.row.count"),
     CAIRO_WAL_SEGMENT_ROLLOVER_SIZE("cairo.wal.segment.rollover.size"),
     CAIRO_WAL_WRITER_DATA_APPEND_PAGE_SIZE("cairo.wal.writer.data.append.page.size"),
@@ -440,7 +459,10 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_WAL_MAX_LAG_SIZE("cairo.wal.max.lag.size"),
     CAIRO_WAL_MAX_SEGMENT_FILE_DESCRIPTORS_CACHE("cairo.wal.max.segment.file.descriptors.cache"),
     CAIRO_WAL_APPLY_TABLE_TIME_QUOTA("cairo.wal.apply.table.time.quota"),
+    CAIRO_WAL_APPLY_LAG_SLO("cairo.wal.apply.lag.slo"),
     CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT("cairo.wal.apply.look.ahead.txn.count"),
+    CAIRO_WAL_APPLY_COALESCE_ENABLED("cairo.wal.apply.coalesce.enabled"),
+    CAIRO_WAL_APPLY_O3_JOBS_ENABLED("cairo.wal.apply.o3.jobs.enabled"),
     CAIRO_WAL_TEMP_PENDING_RENAME_TABLE_PREFIX("cairo.wal.temp.pending.rename.table.prefix"),
     CAIRO_WAL_WRITER_POOL_MAX_SEGMENTS("cairo.wal.writer.pool.max.segments"),
     READ_ONLY_INSTANCE("readonly"),
@@ -448,7 +470,9 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_TABLE_REGISTRY_COMPACTION_THRESHOLD("cairo.table.registry.compaction.threshold"),
     CAIRO_REPEAT_MIGRATION_FROM_VERSION("cairo.repeat.migration.from.version"),
     CAIRO_O3_LAST_PARTITION_MAX_SPLITS("cairo.o3.last.partition.max.splits"),
+    CAIRO_O3_MID_PARTITION_MAX_SPLITS("cairo.o3.mid.partition.max.splits"),
     CAIRO_O3_PARTITION_SPLIT_MIN_SIZE("cairo.o3.partition.split.min.size"),
+    CAIRO_O3_MERGE_MEMORY_BUDGET("cairo.o3.merge.memory.budget"),
     DEBUG_WAL_PURGE_WAIT_BEFORE_DELETE("debug.wal.purge.wait.before.delete", false, true),
     WRITER_MEMORY_LIMIT("cairo.writer.memory.limit"),
     DEBUG_ALLOW_TABLE_REGISTRY_SHARED_WRITE("debug.allow.table.registry.shared.write", false, true),
@@ -374,6 +374,11 @@ public class ServerMain implements Closeable {
                     WorkerPoolManager.Requester.WAL_APPLY
             );
             setupWalApplyJob(walApplyWorkerPool, engine, workerPoolManager.getSharedWorkerCount());
+            if (cairoConfig.isWalApplyO3JobsEnabled()) {
+                // WAL commit of a single table is split into partition and column tasks,
+                // let idle WAL apply workers help the worker applying the commit
+                O3Utils.setupO3Jobs(walApplyWorkerPool, engine.getMessageBus());
+            }
         }
 
         // http
@@ -28,6 +28,7 @@ import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
 import io.questdb.std.str.CharSink;
 import org.jetbrains.annotations.NotNull;
 
@@ -35,6 +36,7 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
     private final GenericRecordMetadata metadata;
     private final long metadataVersion;
     private final TableToken tableToken;
+    private ZoneMapFilter zoneMapFilter;
 
     public AbstractDataFrameCursorFactory(TableToken tableToken, long metadataVersion, GenericRecordMetadata metadata) {
         this.tableToken = tableToken;
@@ -44,6 +46,7 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
 
     @Override
     public void close() {
+        zoneMapFilter = Misc.free(zoneMapFilter);
     }
 
     public RecordMetadata getMetadata() {
@@ -55,6 +58,16 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
         return tableToken;
     }
 
+    /**
+     * Sets filter used to skip partitions based on their zone maps. The factory takes ownership of the filter.
+     *
+     * @param zoneMapFilter filter or null
+     */
+    public void setZoneMapFilter(ZoneMapFilter zoneMapFilter) {
+        Misc.free(this.zoneMapFilter);
+        this.zoneMapFilter = zoneMapFilter;
+    }
+
     @Override
     public boolean supportTableRowId(TableToken tableToken) {
         return this.tableToken.equals(tableToken);
@@ -74,6 +87,10 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
                 .putAscii("\"}");
     }
 
+    protected ZoneMapFilter getZoneMapFilter() {
+        return zoneMapFilter;
+    }
+
     protected TableReader getReader(SqlExecutionContext executionContext) {
         return executionContext.getReader(
                 tableToken,
@@ -55,10 +55,13 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     protected TableReader reader;
     protected long size = -1;
     protected long sizeSoFar = 0;
+    protected ZoneMapFilter zoneMapFilter;
     private int initialIntervalsHi;
     private int initialIntervalsLo;
     private int initialPartitionHi;
     private int initialPartitionLo;
+    private int zoneMapPartitionIndex = -1;
+    private boolean zoneMapSkip;
 
     public AbstractIntervalDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
         assert timestampIndex > -1;
@@ -98,6 +101,7 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         this.intervals = this.intervalsModel.calculateIntervals(sqlContext);
         calculateRanges(reader, intervals);
         this.reader = reader;
+        this.zoneMapPartitionIndex = -1;
         return this;
     }
 
@@ -111,6 +115,10 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         return false;
     }
 
+    public void setZoneMapFilter(ZoneMapFilter zoneMapFilter) {
+        this.zoneMapFilter = zoneMapFilter;
+    }
+
     @Override
     public long size() {
         return size > -1 ? size : computeSize();
@@ -123,6 +131,25 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         partitionLo = initialPartitionLo;
         partitionHi = initialPartitionHi;
         sizeSoFar = 0;
+        zoneMapPartitionIndex = -1;
+    }
+
+    /**
+     * Checks partition zone map against the filter. The outcome is cached because
+     * the same partition is visited once per interval.
+     *
+     * @param partitionIndex index of the partition
+     * @return true when the partition has no rows matching the filter
+     */
+    protected boolean canSkipPartition(int partitionIndex) {
+        if (zoneMapFilter == null) {
+            return false;
+        }
+        if (zoneMapPartitionIndex != partitionIndex) {
+            zoneMapSkip = zoneMapFilter.canSkip(reader, partitionIndex);
+            zoneMapPartitionIndex = partitionIndex;
+        }
+        return zoneMapSkip;
     }
 
     private void calculateRanges(TableReader reader, LongList intervals) {
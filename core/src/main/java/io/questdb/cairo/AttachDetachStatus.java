@@ -33,6 +33,8 @@ public enum AttachDetachStatus {
     DETACH_ERR_HARD_LINK,
     DETACH_ERR_COPY,
     DETACH_ERR_ALREADY_DETACHED(false),
+    DETACH_ERR_COMPRESSED(false),
+    DETACH_ERR_PARQUET(false),
     DETACH_ERR_MKDIR,
     ATTACH_ERR_PARTITION_EXISTS(false),
     ATTACH_ERR_RENAME,
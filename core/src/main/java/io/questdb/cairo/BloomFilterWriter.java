@@ -0,0 +1,445 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+
+/**
+ * Persists per-partition bloom filters of high-cardinality columns into the partition directory.
+ * <p>
+ * Filters are built for INT, LONG, UUID, STRING and VARCHAR columns, i.e. the columns
+ * that cannot have bitmap index. Like zone maps, filters are written once partition stops being
+ * the last partition of the table, or when such a partition is rewritten by O3 commit. Readers use
+ * them to skip partitions that definitely do not contain the value of an equality predicate,
+ * see {@link ZoneMapFilter}. Null values are not added to the filters.
+ * <p>
+ * File structure:
+ * <pre>
+ * struct {
+ *     long partition_row_count;
+ *     int  column_count;
+ *     int  reserved;
+ *     long checksum; // of row count and all column entries
+ *     struct {
+ *         long column_name_txn;
+ *         long offset; // of the filter bits from the start of the file
+ *         long bit_count;
+ *         int  column_type; // 0 when column has no filter
+ *         int  hash_count;
+ *     } columns[column_count];
+ *     long bits[]; // filters of all columns
+ * }
+ * </pre>
+ * Filters are only valid when partition row count and column name txn match what reader sees
+ * in the transaction and column version files.
+ */
+public class BloomFilterWriter implements QuietCloseable {
+    public static final int ENTRY_OFFSET_BIT_COUNT = 16;
+    public static final int ENTRY_OFFSET_COLUMN_NAME_TXN = 0;
+    public static final int ENTRY_OFFSET_COLUMN_TYPE = 24;
+    public static final int ENTRY_OFFSET_HASH_COUNT = 28;
+    public static final int ENTRY_OFFSET_OFFSET = 8;
+    public static final int ENTRY_SIZE = 32;
+    public static final int HEADER_OFFSET_CHECKSUM = 16;
+    public static final int HEADER_OFFSET_COLUMN_COUNT = 8;
+    public static final int HEADER_OFFSET_ROW_COUNT = 0;
+    public static final int HEADER_SIZE = 24;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final Log LOG = LogFactory.getLog(BloomFilterWriter.class);
+    private static final int MAX_HASH_COUNT = 16;
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+    private final int bitsPerValue;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final int hashCount;
+    private final Path tmpPath = new Path();
+    private final DirectUtf8String utf8View = new DirectUtf8String();
+    private final Utf8SplitString utf8SplitView = new Utf8SplitString();
+    private long bitsBuf;
+    private long bitsBufSize;
+    private long buf;
+    private long bufSize;
+
+    public BloomFilterWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+        this.bitsPerValue = configuration.getPartitionBloomFilterBitsPerValue();
+        // optimal number of hash functions is ln(2) * bits per value
+        this.hashCount = Math.max(1, Math.min(MAX_HASH_COUNT, (int) Math.round(bitsPerValue * 0.6931)));
+    }
+
+    public static void add(long bits, long bitCount, int hashCount, long hash) {
+        final long h2 = Long.rotateLeft(hash, 32) | 1;
+        long h = hash;
+        for (int i = 0; i < hashCount; i++, h += h2) {
+            final long bit = (h & Long.MAX_VALUE) % bitCount;
+            final long p = bits + (bit >>> 6) * Long.BYTES;
+            Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) | (1L << (bit & 63)));
+        }
+    }
+
+    public static long checksum(long address, long rowCount, int columnCount) {
+        return ZoneMapWriter.checksum(address, rowCount, columnCount, ENTRY_SIZE);
+    }
+
+    /**
+     * Hashes UTF-16 chars the same way as {@link #hashMem(long, long)} hashes STRING column values.
+     *
+     * @param value string value
+     * @return 64-bit hash
+     */
+    public static long hashChars(CharSequence value) {
+        final int len = value.length();
+        long h = SEED ^ ((long) len << 1);
+        int i = 0;
+        for (; i + 3 < len; i += 4) {
+            h = mix(h, value.charAt(i)
+                    | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32
+                    | (long) value.charAt(i + 3) << 48);
+        }
+        long tail = 0;
+        for (int shift = 0; i < len; i++, shift += 16) {
+            tail |= (long) value.charAt(i) << shift;
+        }
+        return fmix64(mix(h, tail));
+    }
+
+    public static long hashLong(long value) {
+        return fmix64(mix(SEED, value));
+    }
+
+    public static long hashLong128(long lo, long hi) {
+        return fmix64(mix(mix(SEED, lo), hi));
+    }
+
+    public static long hashMem(long address, long len) {
+        long h = SEED ^ len;
+        long p = address;
+        final long hi = address + len;
+        for (; p + 7 < hi; p += Long.BYTES) {
+            h = mix(h, Unsafe.getUnsafe().getLong(p));
+        }
+        long tail = 0;
+        for (int shift = 0; p < hi; p++, shift += 8) {
+            tail |= (Unsafe.getUnsafe().getByte(p) & 0xffL) << shift;
+        }
+        return fmix64(mix(h, tail));
+    }
+
+    /**
+     * Hashes UTF-8 bytes the same way as {@link #hashMem(long, long)} does.
+     *
+     * @param value UTF-8 value
+     * @return 64-bit hash
+     */
+    public static long hashUtf8(Utf8Sequence value) {
+        final int size = value.size();
+        long h = SEED ^ size;
+        int i = 0;
+        for (; i + 7 < size; i += Long.BYTES) {
+            long word = 0;
+            for (int j = 0; j < Long.BYTES; j++) {
+                word |= (value.byteAt(i + j) & 0xffL) << (j << 3);
+            }
+            h = mix(h, word);
+        }
+        long tail = 0;
+        for (int shift = 0; i < size; i++, shift += 8) {
+            tail |= (value.byteAt(i) & 0xffL) << shift;
+        }
+        return fmix64(mix(h, tail));
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.UUID:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+                return columnType > 0;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean mightContain(long bits, long bitCount, int hashCount, long hash) {
+        final long h2 = Long.rotateLeft(hash, 32) | 1;
+        long h = hash;
+        for (int i = 0; i < hashCount; i++, h += h2) {
+            final long bit = (h & Long.MAX_VALUE) % bitCount;
+            if ((Unsafe.getUnsafe().getLong(bits + (bit >>> 6) * Long.BYTES) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (buf != 0) {
+            buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = 0;
+        }
+        if (bitsBuf != 0) {
+            bitsBuf = Unsafe.free(bitsBuf, bitsBufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            bitsBufSize = 0;
+        }
+        Misc.free(tmpPath);
+    }
+
+    /**
+     * Builds filters for all supported columns of the partition and writes them to the bloom filter file.
+     * The file is written under a temporary name and then renamed, so that readers never observe partial content.
+     *
+     * @param path               path to the partition directory, it is restored to its original length on return
+     * @param metadata           table metadata
+     * @param columnVersions     column version reader to resolve column tops and name txns
+     * @param partitionTimestamp timestamp of the partition
+     * @param partitionRowCount  number of rows in the partition
+     */
+    public void write(
+            Path path,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersions,
+            long partitionTimestamp,
+            long partitionRowCount
+    ) {
+        final int columnCount = metadata.getColumnCount();
+        final long headerSize = HEADER_SIZE + (long) columnCount * ENTRY_SIZE;
+        if (headerSize > bufSize) {
+            buf = Unsafe.realloc(buf, bufSize, headerSize, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = headerSize;
+        }
+        Vect.memset(buf, headerSize, 0);
+
+        final int plen = path.size();
+        int fd = -1;
+        try {
+            path.concat(TableUtils.BLOOM_FILTER_FILE_NAME);
+            tmpPath.of(path).put(".tmp");
+            fd = ff.openRW(tmpPath.$(), fileOpenOpts);
+            if (fd < 0) {
+                throw CairoException.critical(ff.errno()).put("could not open [file=").put(tmpPath).put(']');
+            }
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(tmpPath).put(']');
+            }
+
+            long offset = headerSize;
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (!isSupported(columnType)) {
+                    continue;
+                }
+                final int recordIndex = columnVersions.getRecordIndex(partitionTimestamp, i);
+                long columnTop = columnVersions.getColumnTopByIndexOrDefault(recordIndex, partitionTimestamp, i, -1);
+                long columnNameTxn = columnVersions.getColumnNameTxnByIndex(recordIndex);
+                if (columnNameTxn == -1) {
+                    columnNameTxn = columnVersions.getDefaultColumnNameTxn(i);
+                }
+                if (columnTop < 0 || columnTop > partitionRowCount) {
+                    // column does not exist in the partition
+                    columnTop = partitionRowCount;
+                }
+
+                // values below column top are nulls, they are not added to the filter
+                final long count = partitionRowCount - columnTop;
+                final long bitCount = Math.max(Long.SIZE, (count * bitsPerValue + Long.SIZE - 1) & -Long.SIZE);
+                final long bitsSize = bitCount >>> 3;
+                if (bitsSize > bitsBufSize) {
+                    bitsBuf = Unsafe.realloc(bitsBuf, bitsBufSize, bitsSize, MemoryTag.NATIVE_TABLE_WRITER);
+                    bitsBufSize = bitsSize;
+                }
+                Vect.memset(bitsBuf, bitsSize, 0);
+
+                if (build(path.trimTo(plen), metadata.getColumnName(i), columnType, columnNameTxn, count, bitCount)) {
+                    if (ff.write(fd, bitsBuf, bitsSize, offset) != bitsSize) {
+                        throw CairoException.critical(ff.errno()).put("could not write [file=").put(tmpPath).put(']');
+                    }
+                    final long entry = buf + HEADER_SIZE + (long) i * ENTRY_SIZE;
+                    Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_COLUMN_NAME_TXN, columnNameTxn);
+                    Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_OFFSET, offset);
+                    Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_BIT_COUNT, bitCount);
+                    Unsafe.getUnsafe().putInt(entry + ENTRY_OFFSET_COLUMN_TYPE, columnType);
+                    Unsafe.getUnsafe().putInt(entry + ENTRY_OFFSET_HASH_COUNT, hashCount);
+                    offset += bitsSize;
+                }
+            }
+
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_ROW_COUNT, partitionRowCount);
+            Unsafe.getUnsafe().putInt(buf + HEADER_OFFSET_COLUMN_COUNT, columnCount);
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_CHECKSUM, checksum(buf, partitionRowCount, columnCount));
+            if (ff.write(fd, buf, headerSize, 0) != headerSize) {
+                throw CairoException.critical(ff.errno()).put("could not write [file=").put(tmpPath).put(']');
+            }
+            ff.close(fd);
+            fd = -1;
+
+            path.trimTo(plen).concat(TableUtils.BLOOM_FILTER_FILE_NAME);
+            if (ff.rename(tmpPath.$(), path.$()) != Files.FILES_RENAME_OK) {
+                throw CairoException.critical(ff.errno()).put("could not rename [from=").put(tmpPath).put(", to=").put(path).put(']');
+            }
+            LOG.debug().$("written bloom filter [path=").$(path).$(", rowCount=").$(partitionRowCount).$(", size=").$(offset).I$();
+        } catch (Throwable th) {
+            if (fd != -1) {
+                ff.close(fd);
+            }
+            ff.removeQuiet(tmpPath.$());
+            throw th;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mix(long h, long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        k *= C2;
+        h ^= k;
+        return Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+    }
+
+    private boolean build(Path path, CharSequence columnName, int columnType, long columnNameTxn, long count, long bitCount) {
+        if (count == 0) {
+            return true;
+        }
+
+        final int plen = path.size();
+        final int tag = ColumnType.tagOf(columnType);
+        final boolean varSize = ColumnType.isVarSize(columnType);
+        int auxFd = -1;
+        int dataFd = -1;
+        long auxAddr = 0;
+        long auxSize = 0;
+        long dataAddr = 0;
+        long dataSize = 0;
+        try {
+            if (varSize) {
+                final ColumnTypeDriver driver = ColumnType.getDriver(columnType);
+                auxSize = driver.getAuxVectorSize(count);
+                auxFd = ff.openRO(TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn));
+                if (auxFd < 0 || ff.length(auxFd) < auxSize) {
+                    LOG.info().$("could not open column file, bloom filter skipped [path=").$(path).$(", errno=").$(ff.errno()).I$();
+                    auxSize = 0;
+                    return false;
+                }
+                auxAddr = TableUtils.mapRO(ff, auxFd, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                dataSize = driver.getDataVectorSizeAt(auxAddr, count - 1);
+            } else {
+                dataSize = count << ColumnType.pow2SizeOf(columnType);
+            }
+
+            if (dataSize > 0) {
+                dataFd = ff.openRO(TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn));
+                if (dataFd < 0 || ff.length(dataFd) < dataSize) {
+                    LOG.info().$("could not open column file, bloom filter skipped [path=").$(path).$(", errno=").$(ff.errno()).I$();
+                    dataSize = 0;
+                    return false;
+                }
+                dataAddr = TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+
+            switch (tag) {
+                case ColumnType.INT:
+                    for (long p = dataAddr, lim = dataAddr + count * Integer.BYTES; p < lim; p += Integer.BYTES) {
+                        final int value = Unsafe.getUnsafe().getInt(p);
+                        if (value != Numbers.INT_NaN) {
+                            add(bitsBuf, bitCount, hashCount, hashLong(value));
+                        }
+                    }
+                    break;
+                case ColumnType.LONG:
+                    for (long p = dataAddr, lim = dataAddr + count * Long.BYTES; p < lim; p += Long.BYTES) {
+                        final long value = Unsafe.getUnsafe().getLong(p);
+                        if (value != Numbers.LONG_NaN) {
+                            add(bitsBuf, bitCount, hashCount, hashLong(value));
+                        }
+                    }
+                    break;
+                case ColumnType.UUID:
+                    for (long p = dataAddr, lim = dataAddr + count * 2 * Long.BYTES; p < lim; p += 2 * Long.BYTES) {
+                        final long lo = Unsafe.getUnsafe().getLong(p);
+                        final long hi = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                        if (!Uuid.isNull(lo, hi)) {
+                            add(bitsBuf, bitCount, hashCount, hashLong128(lo, hi));
+                        }
+                    }
+                    break;
+                case ColumnType.STRING:
+                    for (long row = 0; row < count; row++) {
+                        final long p = dataAddr + Unsafe.getUnsafe().getLong(auxAddr + row * Long.BYTES);
+                        final int len = Unsafe.getUnsafe().getInt(p);
+                        if (len != TableUtils.NULL_LEN) {
+                            add(bitsBuf, bitCount, hashCount, hashMem(p + Integer.BYTES, (long) len << 1));
+                        }
+                    }
+                    break;
+                default:
+                    // VARCHAR
+                    for (long row = 0; row < count; row++) {
+                        final Utf8Sequence value = VarcharTypeDriver.getValue(auxAddr, dataAddr, row, utf8View, utf8SplitView);
+                        if (value != null) {
+                            add(bitsBuf, bitCount, hashCount, hashUtf8(value));
+                        }
+                    }
+                    break;
+            }
+            return true;
+        } finally {
+            if (auxAddr != 0) {
+                ff.munmap(auxAddr, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (dataAddr != 0) {
+                ff.munmap(dataAddr, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (auxFd != -1) {
+                ff.close(auxFd);
+            }
+            if (dataFd != -1) {
+                ff.close(dataFd);
+            }
+            path.trimTo(plen);
+        }
+    }
+}
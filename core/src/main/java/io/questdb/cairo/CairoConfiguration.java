@@ -191,6 +191,8 @@ public interface CairoConfiguration {
 
     long getIdleCheckInterval();
 
+    int getInactiveReaderMaxMappedColumns();
+
     int getInactiveReaderMaxOpenPartitions();
 
     long getInactiveReaderTTL();
@@ -266,6 +268,8 @@ public interface CairoConfiguration {
      */
     long getO3MaxLag();
 
+    int getO3MidPartitionMaxSplits();
+
     int getO3MemMaxPages();
 
     long getO3MinLag();
@@ -274,6 +278,8 @@ public interface CairoConfiguration {
 
     int getO3PartitionQueueCapacity();
 
+    long getO3MergeMemoryBudget();
+
     int getO3PurgeDiscoveryQueueCapacity();
 
     // the '+' is used to prevent overlap with table names
@@ -292,10 +298,22 @@ public interface CairoConfiguration {
 
     int getParallelIndexThreshold();
 
+    int getPartitionBloomFilterBitsPerValue();
+
+    long getPartitionCompressionJobIoLimit();
+
+    long getPartitionCompressionMinAge();
+
+    int getPartitionCompressionQueueCapacity();
+
     long getPartitionO3SplitMinSize();
 
     int getPartitionPurgeListCapacity();
 
+    long getPartitionSquashJobIoLimit();
+
+    int getPartitionSquashQueueCapacity();
+
     default QueryLogger getQueryLogger() {
         return DefaultQueryLogger.INSTANCE;
     }
@@ -315,6 +333,12 @@ public interface CairoConfiguration {
         return rnd;
     }
 
+    /**
+     * @return max native memory of column data decoded by all table readers, i.e. columns
+     * of compressed and Parquet partitions, 0 means unlimited
+     */
+    long getReaderDecodedColumnMemoryLimit();
+
     int getReaderPoolMaxSegments();
 
     int getRenameTableModelPoolCapacity();
@@ -432,6 +456,8 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    int getSqlPageFramePrefetchCount();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSmallMapPageSize();
@@ -498,6 +524,13 @@ public interface CairoConfiguration {
     @NotNull
     VolumeDefinitions getVolumeDefinitions();
 
+    /**
+     * Returns apply lag SLOs in milliseconds keyed by table name. Tables with an SLO have
+     * priority when WAL transactions are applied, see {@link io.questdb.cairo.wal.WalApplyLagSlo}.
+     */
+    @NotNull
+    LowerCaseCharSequenceIntHashMap getWalApplyLagSlo();
+
     int getWalApplyLookAheadTransactionCount();
 
     long getWalApplyTableTimeQuota();
@@ -508,6 +541,8 @@ public interface CairoConfiguration {
 
     long getWalEventAppendPageSize();
 
+    long getWalGroupCommitDelay();
+
     long getWalMaxLagSize();
 
     int getWalMaxLagTxnCount();
@@ -572,8 +607,16 @@ public interface CairoConfiguration {
 
     boolean isParallelIndexingEnabled();
 
+    boolean isPartitionBloomFilterEnabled();
+
+    boolean isPartitionSquashJobEnabled();
+
+    boolean isPartitionZoneMapEnabled();
+
     boolean isReadOnlyInstance();
 
+    boolean isReaderLazyColumnMappingEnabled();
+
     /**
      * A flag to enable/disable snapshot recovery mechanism. Defaults to {@code true}.
      *
@@ -583,16 +626,31 @@ public interface CairoConfiguration {
 
     boolean isSqlJitDebugEnabled();
 
+    boolean isSqlIndexIntersectionEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
     boolean isSqlParallelGroupByEnabled();
 
+    boolean isSqlParallelHashJoinEnabled();
+
     boolean isTableTypeConversionEnabled();
 
+    boolean isWalApplyCoalesceEnabled();
+
     boolean isWalApplyEnabled();
 
+    boolean isWalApplyO3JobsEnabled();
+
+    /**
+     * When enabled, WalWriter stores designated timestamps of new segments as plain 8-byte values
+     * instead of 16-byte timestamp and row number pairs. The apply path restores the pairs
+     * in memory before sorting the rows.
+     */
+    boolean isWalSegmentCompactTimestampEnabled();
+
     boolean isWalSupported();
 
     boolean isWriterMixedIOEnabled();
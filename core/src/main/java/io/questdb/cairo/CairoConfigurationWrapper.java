@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.cutlass.text.TextConfiguration;
 import io.questdb.std.CharSequenceObjHashMap;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.LowerCaseCharSequenceIntHashMap;
 import io.questdb.std.ObjObjHashMap;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
@@ -315,6 +316,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getIdleCheckInterval();
     }
 
+    @Override
+    public int getInactiveReaderMaxMappedColumns() {
+        return getDelegate().getInactiveReaderMaxMappedColumns();
+    }
+
     @Override
     public int getInactiveReaderMaxOpenPartitions() {
         return getDelegate().getInactiveReaderMaxOpenPartitions();
@@ -440,6 +446,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getO3MaxLag();
     }
 
+    @Override
+    public int getO3MidPartitionMaxSplits() {
+        return getDelegate().getO3MidPartitionMaxSplits();
+    }
+
     @Override
     public int getO3MemMaxPages() {
         return getDelegate().getO3MemMaxPages();
@@ -460,6 +471,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getO3PartitionQueueCapacity();
     }
 
+    @Override
+    public long getO3MergeMemoryBudget() {
+        return getDelegate().getO3MergeMemoryBudget();
+    }
+
     @Override
     public int getO3PurgeDiscoveryQueueCapacity() {
         return getDelegate().getO3PurgeDiscoveryQueueCapacity();
@@ -490,6 +506,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getParallelIndexThreshold();
     }
 
+    @Override
+    public int getPartitionBloomFilterBitsPerValue() {
+        return getDelegate().getPartitionBloomFilterBitsPerValue();
+    }
+
+    @Override
+    public long getPartitionCompressionJobIoLimit() {
+        return getDelegate().getPartitionCompressionJobIoLimit();
+    }
+
+    @Override
+    public long getPartitionCompressionMinAge() {
+        return getDelegate().getPartitionCompressionMinAge();
+    }
+
+    @Override
+    public int getPartitionCompressionQueueCapacity() {
+        return getDelegate().getPartitionCompressionQueueCapacity();
+    }
+
     @Override
     public long getPartitionO3SplitMinSize() {
         return getDelegate().getPartitionO3SplitMinSize();
@@ -500,11 +536,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public long getPartitionSquashJobIoLimit() {
+        return getDelegate().getPartitionSquashJobIoLimit();
+    }
+
+    @Override
+    public int getPartitionSquashQueueCapacity() {
+        return getDelegate().getPartitionSquashQueueCapacity();
+    }
+
     @Override
     public int getQueryRegistryPoolSize() {
         return getDelegate().getQueryRegistryPoolSize();
     }
 
+    @Override
+    public long getReaderDecodedColumnMemoryLimit() {
+        return getDelegate().getReaderDecodedColumnMemoryLimit();
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return getDelegate().getReaderPoolMaxSegments();
@@ -745,6 +796,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlPageFrameMinRows();
     }
 
+    @Override
+    public int getSqlPageFramePrefetchCount() {
+        return getDelegate().getSqlPageFramePrefetchCount();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return getDelegate().getSqlSmallMapKeyCapacity();
@@ -900,6 +956,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getVolumeDefinitions();
     }
 
+    @Override
+    public @NotNull LowerCaseCharSequenceIntHashMap getWalApplyLagSlo() {
+        return getDelegate().getWalApplyLagSlo();
+    }
+
     @Override
     public int getWalApplyLookAheadTransactionCount() {
         return getDelegate().getWalApplyLookAheadTransactionCount();
@@ -925,6 +986,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWalEventAppendPageSize();
     }
 
+    @Override
+    public long getWalGroupCommitDelay() {
+        return getDelegate().getWalGroupCommitDelay();
+    }
+
     @Override
     public long getWalMaxLagSize() {
         return getDelegate().getWalMaxLagSize();
@@ -1050,11 +1116,31 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPartitionBloomFilterEnabled() {
+        return getDelegate().isPartitionBloomFilterEnabled();
+    }
+
+    @Override
+    public boolean isPartitionSquashJobEnabled() {
+        return getDelegate().isPartitionSquashJobEnabled();
+    }
+
+    @Override
+    public boolean isPartitionZoneMapEnabled() {
+        return getDelegate().isPartitionZoneMapEnabled();
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return getDelegate().isReadOnlyInstance();
     }
 
+    @Override
+    public boolean isReaderLazyColumnMappingEnabled() {
+        return getDelegate().isReaderLazyColumnMappingEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return getDelegate().isSnapshotRecoveryEnabled();
@@ -1065,6 +1151,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlJitDebugEnabled();
     }
 
+    @Override
+    public boolean isSqlIndexIntersectionEnabled() {
+        return getDelegate().isSqlIndexIntersectionEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return getDelegate().isSqlParallelFilterEnabled();
@@ -1080,16 +1171,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return getDelegate().isSqlParallelHashJoinEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return getDelegate().isTableTypeConversionEnabled();
     }
 
+    @Override
+    public boolean isWalApplyCoalesceEnabled() {
+        return getDelegate().isWalApplyCoalesceEnabled();
+    }
+
     @Override
     public boolean isWalApplyEnabled() {
         return getDelegate().isWalApplyEnabled();
     }
 
+    @Override
+    public boolean isWalApplyO3JobsEnabled() {
+        return getDelegate().isWalApplyO3JobsEnabled();
+    }
+
+    @Override
+    public boolean isWalSegmentCompactTimestampEnabled() {
+        return getDelegate().isWalSegmentCompactTimestampEnabled();
+    }
+
     public boolean isWalSupported() {
         return getDelegate().isWalSupported();
     }
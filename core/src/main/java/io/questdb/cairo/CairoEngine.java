@@ -92,6 +92,8 @@ public class CairoEngine implements Closeable, WriterSource {
     private final Telemetry<TelemetryWalTask> telemetryWal;
     // initial value of unpublishedWalTxnCount is 1 because we want to scan for non-applied WAL transactions on startup
     private final AtomicLong unpublishedWalTxnCount = new AtomicLong(1);
+    private final WalApplyLagSlo walApplyLagSlo;
+    private final WalGroupCommit walGroupCommit;
     private final WalWriterPool walWriterPool;
     private final WriterPool writerPool;
     private @NotNull DdlListener ddlListener = DefaultDdlListener.INSTANCE;
@@ -117,9 +119,11 @@ public class CairoEngine implements Closeable, WriterSource {
         this.metrics = metrics;
         // Message bus and metrics must be initialized before the pools.
         this.writerPool = new WriterPool(configuration, this);
-        this.readerPool = new ReaderPool(configuration, messageBus);
+        this.readerPool = new ReaderPool(configuration, messageBus, metrics.tableReader());
         this.sequencerMetadataPool = new SequencerMetadataPool(configuration, this);
         this.tableMetadataPool = new TableMetadataPool(configuration);
+        this.walApplyLagSlo = new WalApplyLagSlo(this);
+        this.walGroupCommit = new WalGroupCommit(configuration);
         this.walWriterPool = new WalWriterPool(configuration, this);
         this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
         this.telemetry = new Telemetry<>(TelemetryTask.TELEMETRY, configuration);
@@ -298,6 +302,7 @@ public class CairoEngine implements Closeable, WriterSource {
         boolean b4 = sequencerMetadataPool.releaseAll();
         boolean b5 = walWriterPool.releaseAll();
         boolean b6 = tableMetadataPool.releaseAll();
+        messageBus.getDecodedColumnCache().close();
         return b1 & b2 & b3 & b4 & b5 & b6;
     }
 
@@ -747,10 +752,18 @@ public class CairoEngine implements Closeable, WriterSource {
         return tableNameRegistry.getTokenByDirName(tableToken.getDirName());
     }
 
+    public WalApplyLagSlo getWalApplyLagSlo() {
+        return walApplyLagSlo;
+    }
+
     public @NotNull WalDirectoryPolicy getWalDirectoryPolicy() {
         return walDirectoryPolicy;
     }
 
+    public WalGroupCommit getWalGroupCommit() {
+        return walGroupCommit;
+    }
+
     public @NotNull WalListener getWalListener() {
         return walListener;
     }
@@ -981,6 +994,7 @@ public class CairoEngine implements Closeable, WriterSource {
         useful |= sequencerMetadataPool.releaseInactive();
         useful |= tableMetadataPool.releaseInactive();
         useful |= walWriterPool.releaseInactive();
+        useful |= messageBus.getDecodedColumnCache().releaseInactive();
         return useful;
     }
 
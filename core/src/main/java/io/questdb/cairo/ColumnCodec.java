@@ -0,0 +1,371 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+
+/**
+ * Codecs used to store column files of cold partitions in compressed form.
+ * <p>
+ * Compressed file starts with a header followed by the codec payload:
+ * <pre>
+ * struct {
+ *     int  magic;
+ *     int  codec;
+ *     long raw_size; // size of the column file before compression
+ *     long payload_size;
+ *     long reserved;
+ * }
+ * </pre>
+ * Codecs:
+ * <ul>
+ *     <li>delta-of-delta - 8-byte integers, e.g. timestamps and var-size column offsets;
+ *     first value is stored as is, the rest as zigzag varints of the difference between consecutive deltas</li>
+ *     <li>run-length - 4-byte values, e.g. symbol keys; (zigzag varint value, varint run length) pairs</li>
+ *     <li>deflate - everything else, raw deflate stream</li>
+ *     <li>none - data is stored as is, used when none of the above shrinks the data</li>
+ * </ul>
+ */
+public final class ColumnCodec {
+    public static final int CODEC_DEFLATE = 1;
+    public static final int CODEC_DELTA_OF_DELTA = 2;
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_RLE = 3;
+    public static final int HEADER_SIZE = 32;
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int HEADER_OFFSET_CODEC = 4;
+    private static final int HEADER_OFFSET_MAGIC = 0;
+    private static final int HEADER_OFFSET_PAYLOAD_SIZE = 16;
+    private static final int HEADER_OFFSET_RAW_SIZE = 8;
+    // "QDBZ"
+    private static final int MAGIC = 0x5a424451;
+
+    private ColumnCodec() {
+    }
+
+    /**
+     * Compresses column file into the given memory. Memory is truncated before use.
+     *
+     * @param src       address of the column data
+     * @param size      size of the column data in bytes
+     * @param codec     preferred codec, falls back to deflate and then to no compression
+     *                  when the preferred codec does not reduce data size
+     * @param zStream   deflate stream, see {@link Zip#deflateInit()}
+     * @param dst       memory to write compressed file to
+     * @return codec used
+     */
+    public static int compress(long src, long size, int codec, long zStream, MemoryCARW dst) {
+        dst.truncate();
+        dst.skip(HEADER_SIZE);
+
+        long payloadSize = -1;
+        switch (codec) {
+            case CODEC_DELTA_OF_DELTA:
+                if ((size & 7) == 0) {
+                    payloadSize = encodeDeltaOfDelta(src, size, dst);
+                }
+                break;
+            case CODEC_RLE:
+                if ((size & 3) == 0) {
+                    payloadSize = encodeRle(src, size, dst);
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (payloadSize < 0 || payloadSize > size - (size >>> 3)) {
+            dst.jumpTo(HEADER_SIZE);
+            codec = CODEC_DEFLATE;
+            payloadSize = deflate(src, size, zStream, dst);
+        }
+
+        if (payloadSize > size - (size >>> 4)) {
+            dst.jumpTo(HEADER_SIZE);
+            codec = CODEC_NONE;
+            payloadSize = size;
+            Unsafe.getUnsafe().copyMemory(src, dst.appendAddressFor(size), size);
+        }
+
+        final long header = dst.addressOf(0);
+        Unsafe.getUnsafe().putInt(header + HEADER_OFFSET_MAGIC, MAGIC);
+        Unsafe.getUnsafe().putInt(header + HEADER_OFFSET_CODEC, codec);
+        Unsafe.getUnsafe().putLong(header + HEADER_OFFSET_RAW_SIZE, size);
+        Unsafe.getUnsafe().putLong(header + HEADER_OFFSET_PAYLOAD_SIZE, payloadSize);
+        Unsafe.getUnsafe().putLong(header + HEADER_SIZE - Long.BYTES, 0);
+        return codec;
+    }
+
+    /**
+     * Decompresses file produced by {@link #compress(long, long, int, long, MemoryCARW)}.
+     *
+     * @param src     address of the compressed file
+     * @param srcSize size of the compressed file
+     * @param dst     address to decompress to, must fit {@link #getRawSize(long, long)} bytes
+     * @param dstSize number of bytes expected after decompression
+     */
+    public static void decompress(long src, long srcSize, long dst, long dstSize) {
+        final long rawSize = getRawSize(src, srcSize);
+        final long payloadSize = Unsafe.getUnsafe().getLong(src + HEADER_OFFSET_PAYLOAD_SIZE);
+        if (rawSize != dstSize || payloadSize < 0 || payloadSize > srcSize - HEADER_SIZE) {
+            throw corrupt(srcSize);
+        }
+
+        final long payload = src + HEADER_SIZE;
+        final int codec = Unsafe.getUnsafe().getInt(src + HEADER_OFFSET_CODEC);
+        switch (codec) {
+            case CODEC_NONE:
+                if (payloadSize != rawSize) {
+                    throw corrupt(srcSize);
+                }
+                Unsafe.getUnsafe().copyMemory(payload, dst, rawSize);
+                break;
+            case CODEC_DEFLATE:
+                inflate(payload, payloadSize, dst, rawSize);
+                break;
+            case CODEC_DELTA_OF_DELTA:
+                decodeDeltaOfDelta(payload, payloadSize, dst, rawSize);
+                break;
+            case CODEC_RLE:
+                decodeRle(payload, payloadSize, dst, rawSize);
+                break;
+            default:
+                throw corrupt(srcSize);
+        }
+    }
+
+    /**
+     * Returns preferred codec for the column file.
+     *
+     * @param columnType column type
+     * @param aux        true for the auxiliary (offset) file of var-size column
+     * @return codec
+     */
+    public static int getCodec(int columnType, boolean aux) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return CODEC_DELTA_OF_DELTA;
+            case ColumnType.SYMBOL:
+                return CODEC_RLE;
+            case ColumnType.STRING:
+            case ColumnType.BINARY:
+                // offsets are ever-increasing longs
+                return aux ? CODEC_DELTA_OF_DELTA : CODEC_DEFLATE;
+            default:
+                return CODEC_DEFLATE;
+        }
+    }
+
+    public static long getRawSize(long src, long srcSize) {
+        if (srcSize < HEADER_SIZE || Unsafe.getUnsafe().getInt(src + HEADER_OFFSET_MAGIC) != MAGIC) {
+            throw corrupt(srcSize);
+        }
+        return Unsafe.getUnsafe().getLong(src + HEADER_OFFSET_RAW_SIZE);
+    }
+
+    private static CairoException corrupt(long srcSize) {
+        return CairoException.critical(0).put("corrupt compressed column file [size=").put(srcSize).put(']');
+    }
+
+    private static void decodeDeltaOfDelta(long src, long srcSize, long dst, long dstSize) {
+        if (dstSize == 0) {
+            return;
+        }
+        if (srcSize < Long.BYTES) {
+            throw corrupt(srcSize);
+        }
+        final long srcLim = src + srcSize;
+        final long dstLim = dst + dstSize;
+        long value = Unsafe.getUnsafe().getLong(src);
+        long delta = 0;
+        Unsafe.getUnsafe().putLong(dst, value);
+        long p = src + Long.BYTES;
+        for (long d = dst + Long.BYTES; d < dstLim; d += Long.BYTES) {
+            long raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (p >= srcLim || shift > 63) {
+                    throw corrupt(srcSize);
+                }
+                b = Unsafe.getUnsafe().getByte(p++);
+                raw |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            delta += (raw >>> 1) ^ -(raw & 1);
+            value += delta;
+            Unsafe.getUnsafe().putLong(d, value);
+        }
+        if (p != srcLim) {
+            throw corrupt(srcSize);
+        }
+    }
+
+    private static void decodeRle(long src, long srcSize, long dst, long dstSize) {
+        final long srcLim = src + srcSize;
+        final long dstLim = dst + dstSize;
+        long p = src;
+        long d = dst;
+        while (p < srcLim) {
+            long raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (p >= srcLim || shift > 35) {
+                    throw corrupt(srcSize);
+                }
+                b = Unsafe.getUnsafe().getByte(p++);
+                raw |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            final int value = (int) ((raw >>> 1) ^ -(raw & 1));
+
+            long run = 0;
+            shift = 0;
+            do {
+                if (p >= srcLim || shift > 63) {
+                    throw corrupt(srcSize);
+                }
+                b = Unsafe.getUnsafe().getByte(p++);
+                run |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            if (run <= 0 || run > (dstLim - d) >> 2) {
+                throw corrupt(srcSize);
+            }
+            for (long lim = d + (run << 2); d < lim; d += Integer.BYTES) {
+                Unsafe.getUnsafe().putInt(d, value);
+            }
+        }
+        if (d != dstLim) {
+            throw corrupt(srcSize);
+        }
+    }
+
+    private static long deflate(long src, long size, long zStream, MemoryCARW dst) {
+        final long start = dst.getAppendOffset();
+        Zip.deflateReset(zStream);
+        long offset = 0;
+        int ret;
+        do {
+            final int len = (int) Math.min(CHUNK_SIZE, size - offset);
+            Zip.setInput(zStream, src + offset, len);
+            offset += len;
+            final boolean flush = offset == size;
+            do {
+                final long out = dst.appendAddressFor(CHUNK_SIZE);
+                ret = Zip.deflate(zStream, out, CHUNK_SIZE, flush);
+                if (ret < 0) {
+                    throw CairoException.critical(0).put("could not compress column [error=").put(ret).put(']');
+                }
+                // give back unused part of the chunk
+                dst.jumpTo(dst.getAppendOffset() - Zip.availOut(zStream));
+            } while (Zip.availIn(zStream) > 0 || (flush && ret != Zip.Z_STREAM_END));
+        } while (offset < size);
+        return dst.getAppendOffset() - start;
+    }
+
+    private static long encodeDeltaOfDelta(long src, long size, MemoryCARW dst) {
+        final long start = dst.getAppendOffset();
+        if (size == 0) {
+            return 0;
+        }
+        long prev = Unsafe.getUnsafe().getLong(src);
+        long prevDelta = 0;
+        dst.putLong(prev);
+        for (long p = src + Long.BYTES, lim = src + size; p < lim; p += Long.BYTES) {
+            final long value = Unsafe.getUnsafe().getLong(p);
+            final long delta = value - prev;
+            final long dod = delta - prevDelta;
+            putVarLong(dst, (dod << 1) ^ (dod >> 63));
+            prev = value;
+            prevDelta = delta;
+        }
+        return dst.getAppendOffset() - start;
+    }
+
+    private static long encodeRle(long src, long size, MemoryCARW dst) {
+        final long start = dst.getAppendOffset();
+        final long lim = src + size;
+        long p = src;
+        while (p < lim) {
+            final int value = Unsafe.getUnsafe().getInt(p);
+            long run = 1;
+            p += Integer.BYTES;
+            while (p < lim && Unsafe.getUnsafe().getInt(p) == value) {
+                run++;
+                p += Integer.BYTES;
+            }
+            putVarLong(dst, ((value << 1) ^ (value >> 31)) & 0xffffffffL);
+            putVarLong(dst, run);
+        }
+        return dst.getAppendOffset() - start;
+    }
+
+    private static void inflate(long src, long srcSize, long dst, long dstSize) {
+        final long zStream = Zip.inflateInit(true);
+        if (zStream < 0) {
+            throw CairoException.critical(0).put("could not initialize decompressor [error=").put(zStream).put(']');
+        }
+        try {
+            long inOffset = 0;
+            long outOffset = 0;
+            while (outOffset < dstSize) {
+                if (Zip.availIn(zStream) == 0) {
+                    if (inOffset == srcSize) {
+                        throw corrupt(srcSize);
+                    }
+                    final int len = (int) Math.min(CHUNK_SIZE, srcSize - inOffset);
+                    Zip.setInput(zStream, src + inOffset, len);
+                    inOffset += len;
+                }
+                final int len = (int) Math.min(CHUNK_SIZE, dstSize - outOffset);
+                final int availIn = Zip.availIn(zStream);
+                final int ret = Zip.inflate(zStream, dst + outOffset, len, false);
+                if (ret > 0) {
+                    outOffset += ret;
+                } else if ((ret < 0 && ret != Zip.Z_BUF_ERROR) || Zip.availIn(zStream) == availIn) {
+                    // error or no progress, e.g. stream ended before all data is produced
+                    throw corrupt(srcSize);
+                }
+            }
+        } finally {
+            Zip.inflateEnd(zStream);
+        }
+    }
+
+    private static void putVarLong(MemoryCARW dst, long value) {
+        while ((value & ~0x7fL) != 0) {
+            dst.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        dst.putByte((byte) value);
+    }
+}
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.Chars;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine-wide cache of column data that table readers hold decoded in native memory,
+ * i.e. columns of compressed and Parquet partitions. Readers that open the same column of
+ * the same partition version share a single copy.
+ * <p>
+ * An entry is pinned while readers reference it, readers drop their references when they
+ * go passive, i.e. for the life of a cursor. Unpinned entries stay cached for the next readers,
+ * they are evicted in least recently used order when memory is needed for other entries, or once
+ * they have not been used for the inactive reader TTL. Loading a column fails only when pinned
+ * entries alone leave no room for it within the limit. Without the limit, unpinned entries
+ * are freed straight away.
+ * <p>
+ * Reader protocol: {@link #acquire(CharSequence)} the entry, lock it, load data when
+ * the entry is not loaded yet and {@link #publish(Entry)} it, then {@link #release(Entry)}
+ * once the data is no longer used.
+ */
+public class DecodedColumnCache implements QuietCloseable {
+    private static final long PAGE_SIZE = 64 * 1024;
+    private final MicrosecondClock clock;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final long inactiveTtlUs;
+    private final long limit;
+    private final AtomicLong used = new AtomicLong();
+    // unpinned entries, least recently used first
+    private Entry lruHead;
+    private Entry lruTail;
+    private int unpinnedCount;
+
+    public DecodedColumnCache(CairoConfiguration configuration) {
+        this(configuration.getReaderDecodedColumnMemoryLimit(), configuration.getMicrosecondClock(), configuration.getInactiveReaderTTL());
+    }
+
+    /**
+     * @param limit         max size of decoded data, 0 means unlimited
+     * @param clock         clock to track when entries were last used
+     * @param inactiveTtlUs time after which unpinned entries are released by {@link #releaseInactive()}
+     */
+    public DecodedColumnCache(long limit, MicrosecondClock clock, long inactiveTtlUs) {
+        this.limit = limit;
+        this.clock = clock;
+        this.inactiveTtlUs = inactiveTtlUs;
+    }
+
+    /**
+     * Returns entry for the key, creating an empty one when there is none. Entry is pinned
+     * until released, every call must be paired with {@link #release(Entry)}.
+     *
+     * @param key identity of the column data, e.g. table id and path of the column file
+     * @return entry, data is present when {@link Entry#isLoaded()}
+     */
+    public synchronized Entry acquire(CharSequence key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(Chars.toString(key));
+            entries.put(entry.key, entry);
+        } else if (entry.refCount == 0) {
+            unlink(entry);
+        }
+        entry.refCount++;
+        return entry;
+    }
+
+    /**
+     * Frees all unpinned entries.
+     */
+    @Override
+    public void close() {
+        releaseAll(Long.MAX_VALUE);
+    }
+
+    @TestOnly
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    @TestOnly
+    public synchronized int getUnpinnedCount() {
+        return unpinnedCount;
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * Accounts data appended to the entry buffers and marks entry loaded. Entry must
+     * be locked by the caller. Buffers are freed when the data does not fit the limit.
+     *
+     * @param entry entry with the data
+     */
+    public void publish(Entry entry) {
+        reserve(entry, entry.getDataSize() + entry.getAuxSize());
+        entry.loaded = true;
+    }
+
+    /**
+     * Publishes entry of data that is not present, such as a column missing in a Parquet file.
+     *
+     * @param entry locked entry
+     */
+    public void publishAbsent(Entry entry) {
+        reserve(entry, 0);
+        entry.absent = true;
+        entry.loaded = true;
+    }
+
+    /**
+     * Frees unpinned entries that have not been used for the inactive reader TTL.
+     *
+     * @return true when at least one entry was freed
+     */
+    public boolean releaseInactive() {
+        return releaseAll(clock.getTicks() - inactiveTtlUs);
+    }
+
+    public void release(Entry entry) {
+        synchronized (this) {
+            assert entry.refCount > 0;
+            if (--entry.refCount > 0) {
+                return;
+            }
+            if (limit > 0 && entry.loaded) {
+                entry.releaseTicks = clock.getTicks();
+                link(entry);
+                return;
+            }
+            entries.remove(entry.key);
+        }
+        // entry is not reachable anymore
+        free(entry);
+    }
+
+    /**
+     * Reserves memory ahead of loading, for data whose size is known upfront. Entry must
+     * be locked by the caller. Unpinned entries are evicted to make room for the data, buffers
+     * of the entry are freed when the size does not fit the limit even with no unpinned entries left.
+     *
+     * @param entry entry to load
+     * @param size  size of the data, replaces previous reservation of the entry
+     */
+    public void reserve(Entry entry, long size) {
+        final long delta = size - entry.reserved;
+        Entry evicted = null;
+        try {
+            synchronized (this) {
+                while (limit > 0 && delta > 0 && used.get() + delta > limit) {
+                    final Entry lru = lruHead;
+                    if (lru == null) {
+                        entry.free();
+                        throw CairoException.nonCritical().put("not enough memory for decoded column data, increase cairo.reader.decoded.column.memory.limit [used=")
+                                .put(used.get())
+                                .put(", required=").put(size)
+                                .put(", limit=").put(limit)
+                                .put(']');
+                    }
+                    unlink(lru);
+                    entries.remove(lru.key);
+                    used.addAndGet(-lru.reserved);
+                    lru.reserved = 0;
+                    // evicted entries are freed outside the lock
+                    lru.lruNext = evicted;
+                    evicted = lru;
+                }
+                used.addAndGet(delta);
+                entry.reserved = size;
+            }
+        } finally {
+            freeChain(evicted);
+        }
+    }
+
+    /**
+     * Adds reference to the entry, to be released with {@link #release(Entry)}.
+     *
+     * @param entry acquired entry
+     */
+    public synchronized void retain(Entry entry) {
+        assert entry.refCount > 0;
+        entry.refCount++;
+    }
+
+    private static void freeChain(Entry entry) {
+        while (entry != null) {
+            final Entry next = entry.lruNext;
+            entry.lruNext = null;
+            entry.free();
+            entry = next;
+        }
+    }
+
+    private void free(Entry entry) {
+        used.addAndGet(-entry.reserved);
+        entry.reserved = 0;
+        entry.free();
+    }
+
+    private void link(Entry entry) {
+        entry.lruPrev = lruTail;
+        entry.lruNext = null;
+        if (lruTail != null) {
+            lruTail.lruNext = entry;
+        } else {
+            lruHead = entry;
+        }
+        lruTail = entry;
+        unpinnedCount++;
+    }
+
+    private boolean releaseAll(long deadline) {
+        Entry released = null;
+        synchronized (this) {
+            // entries are linked in the order of release, stop at the first one that is still in use
+            while (lruHead != null && lruHead.releaseTicks <= deadline) {
+                final Entry lru = lruHead;
+                unlink(lru);
+                entries.remove(lru.key);
+                used.addAndGet(-lru.reserved);
+                lru.reserved = 0;
+                lru.lruNext = released;
+                released = lru;
+            }
+        }
+        final boolean useful = released != null;
+        freeChain(released);
+        return useful;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.lruPrev != null) {
+            entry.lruPrev.lruNext = entry.lruNext;
+        } else {
+            lruHead = entry.lruNext;
+        }
+        if (entry.lruNext != null) {
+            entry.lruNext.lruPrev = entry.lruPrev;
+        } else {
+            lruTail = entry.lruPrev;
+        }
+        entry.lruPrev = null;
+        entry.lruNext = null;
+        unpinnedCount--;
+    }
+
+    /**
+     * Decoded column data. Fields other than the reference count and the LRU links are guarded
+     * by the entry lock while loading and are immutable once the entry is loaded.
+     */
+    public static class Entry {
+        private final String key;
+        private boolean absent;
+        private MemoryCARW aux;
+        private MemoryCARW data;
+        private volatile boolean loaded;
+        private Entry lruNext;
+        private Entry lruPrev;
+        private int refCount;
+        private long releaseTicks;
+        private long reserved;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        public long getAuxAddress() {
+            return getAuxSize() > 0 ? aux.addressOf(0) : 0;
+        }
+
+        /**
+         * @return buffer for the auxiliary data of var-size columns
+         */
+        public MemoryCARW getAuxBuffer() {
+            if (aux == null) {
+                aux = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_READER);
+            }
+            return aux;
+        }
+
+        public long getAuxSize() {
+            return aux != null ? aux.getAppendOffset() : 0;
+        }
+
+        public long getDataAddress() {
+            return getDataSize() > 0 ? data.addressOf(0) : 0;
+        }
+
+        public MemoryCARW getDataBuffer() {
+            if (data == null) {
+                data = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_READER);
+            }
+            return data;
+        }
+
+        public long getDataSize() {
+            return data != null ? data.getAppendOffset() : 0;
+        }
+
+        public boolean isAbsent() {
+            return absent;
+        }
+
+        public boolean isLoaded() {
+            return loaded;
+        }
+
+        private void free() {
+            data = Misc.free(data);
+            aux = Misc.free(aux);
+        }
+    }
+}
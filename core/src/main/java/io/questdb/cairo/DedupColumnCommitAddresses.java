@@ -133,6 +133,26 @@ public class DedupColumnCommitAddresses implements Closeable {
         this.columnCount = dedupColumnCount;
     }
 
+    static long getColumnDataAddress(long dedupBlockAddress, int keyIndex) {
+        return Unsafe.getUnsafe().getLong(dedupBlockAddress + (long) keyIndex * RECORD_BYTES + COL_DATA_64);
+    }
+
+    static long getColumnTop(long dedupBlockAddress, int keyIndex) {
+        return Unsafe.getUnsafe().getLong(dedupBlockAddress + (long) keyIndex * RECORD_BYTES + COL_TOP_64);
+    }
+
+    static long getNullValueAddress(long dedupBlockAddress, int keyIndex) {
+        return dedupBlockAddress + (long) keyIndex * RECORD_BYTES + NULL_VAL_256;
+    }
+
+    static long getO3DataAddress(long dedupBlockAddress, int keyIndex) {
+        return Unsafe.getUnsafe().getLong(dedupBlockAddress + (long) keyIndex * RECORD_BYTES + O3_DATA_64);
+    }
+
+    static int getValueSizeBytes(long dedupBlockAddress, int keyIndex) {
+        return Unsafe.getUnsafe().getInt(dedupBlockAddress + (long) keyIndex * RECORD_BYTES + VAL_SIZE_32);
+    }
+
     static {
         assert RECORD_BYTES % Long.BYTES == 0;
     }
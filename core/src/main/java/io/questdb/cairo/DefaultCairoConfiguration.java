@@ -50,6 +50,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
     private final TextConfiguration textConfiguration;
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
+    private final LowerCaseCharSequenceIntHashMap walApplyLagSlo = new LowerCaseCharSequenceIntHashMap();
     private final boolean writerMixedIOEnabled;
 
     public DefaultCairoConfiguration(CharSequence root) {
@@ -323,6 +324,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 100;
     }
 
+    @Override
+    public int getInactiveReaderMaxMappedColumns() {
+        return 4096;
+    }
+
     @Override
     public int getInactiveReaderMaxOpenPartitions() {
         return 128;
@@ -439,6 +445,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 300_000_000L;
     }
 
+    @Override
+    public int getO3MidPartitionMaxSplits() {
+        return 1;
+    }
+
     @Override
     public int getO3MemMaxPages() {
         return Integer.MAX_VALUE;
@@ -459,6 +470,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getO3MergeMemoryBudget() {
+        return 0;
+    }
+
     @Override
     public int getO3PurgeDiscoveryQueueCapacity() {
         return 1024;
@@ -489,6 +505,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 100000;
     }
 
+    @Override
+    public int getPartitionBloomFilterBitsPerValue() {
+        return 10;
+    }
+
+    @Override
+    public long getPartitionCompressionJobIoLimit() {
+        return 0;
+    }
+
+    @Override
+    public long getPartitionCompressionMinAge() {
+        return 0;
+    }
+
+    @Override
+    public int getPartitionCompressionQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public long getPartitionO3SplitMinSize() {
         return 50 * Numbers.SIZE_1MB;
@@ -499,11 +535,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public long getPartitionSquashJobIoLimit() {
+        return 0;
+    }
+
+    @Override
+    public int getPartitionSquashQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getQueryRegistryPoolSize() {
         return 8;
     }
 
+    @Override
+    public long getReaderDecodedColumnMemoryLimit() {
+        return Numbers.SIZE_1GB;
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return 5;
@@ -746,6 +797,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public int getSqlPageFramePrefetchCount() {
+        return 4;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -901,6 +957,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return volumeDefinitions;
     }
 
+    @Override
+    public @NotNull LowerCaseCharSequenceIntHashMap getWalApplyLagSlo() {
+        return walApplyLagSlo;
+    }
+
     @Override
     public int getWalApplyLookAheadTransactionCount() {
         return 20;
@@ -926,6 +987,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64 * 1024;
     }
 
+    @Override
+    public long getWalGroupCommitDelay() {
+        return -1;
+    }
+
     @Override
     public long getWalMaxLagSize() {
         return 75 * Numbers.SIZE_1MB;
@@ -1050,11 +1116,31 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPartitionBloomFilterEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isPartitionSquashJobEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isPartitionZoneMapEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return false;
     }
 
+    @Override
+    public boolean isReaderLazyColumnMappingEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return true;
@@ -1065,6 +1151,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return false;
     }
 
+    @Override
+    public boolean isSqlIndexIntersectionEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -1080,16 +1171,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isWalApplyCoalesceEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWalApplyEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isWalApplyO3JobsEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isWalSegmentCompactTimestampEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
@@ -46,6 +46,11 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
     @Override
     public DataFrame next() {
         while (partitionIndex > -1) {
+            if (canSkipPartition(partitionIndex)) {
+                // zone map proves that partition has no matching rows
+                partitionIndex--;
+                continue;
+            }
             final long hi = reader.openPartition(partitionIndex);
             if (hi < 1) {
                 // this partition is missing, skip
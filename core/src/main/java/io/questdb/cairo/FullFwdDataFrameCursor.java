@@ -46,6 +46,11 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
     @Override
     public @Nullable DataFrame next() {
         while (partitionIndex < partitionHi) {
+            if (canSkipPartition(partitionIndex)) {
+                // zone map proves that partition has no matching rows
+                partitionIndex++;
+                continue;
+            }
             final long hi = getTableReader().openPartition(partitionIndex);
             if (hi < 1) {
                 // this partition is missing, skip
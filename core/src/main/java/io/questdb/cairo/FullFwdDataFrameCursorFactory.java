@@ -42,6 +42,7 @@ public class FullFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
         final TableReader reader = getReader(executionContext);
         try {
             if (order == ORDER_ASC || order == ORDER_ANY) {
+                cursor.setZoneMapFilter(getZoneMapFilter());
                 return cursor.of(reader);
             }
 
@@ -50,6 +51,7 @@ public class FullFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
             if (bwdCursor == null) {
                 bwdCursor = new FullBwdDataFrameCursor();
             }
+            bwdCursor.setZoneMapFilter(getZoneMapFilter());
             return bwdCursor.of(reader);
         } catch (Throwable th) {
             Misc.free(reader);
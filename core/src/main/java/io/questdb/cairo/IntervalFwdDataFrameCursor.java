@@ -47,6 +47,12 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
         // order of logical operations is important
         // we are not calculating partition ranges when intervals are empty
         while (intervalsLo < intervalsHi && partitionLo < partitionHi) {
+            if (canSkipPartition(partitionLo)) {
+                // zone map proves that partition has no matching rows
+                partitionLimit = 0;
+                partitionLo++;
+                continue;
+            }
             // We don't need to worry about column tops and null column because we
             // are working with timestamp. Timestamp column cannot be added to existing table.
             long rowCount = reader.openPartition(partitionLo);
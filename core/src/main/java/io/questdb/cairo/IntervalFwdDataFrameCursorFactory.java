@@ -59,6 +59,7 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
         final TableReader reader = getReader(executionContext);
         try {
             if (order == ORDER_ASC || order == ORDER_ANY) {
+                cursor.setZoneMapFilter(getZoneMapFilter());
                 cursor.of(reader, executionContext);
                 return cursor;
             }
@@ -66,6 +67,7 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
             if (bwdCursor == null) {
                 bwdCursor = new IntervalBwdDataFrameCursor(intervals, cursor.getTimestampIndex());
             }
+            bwdCursor.setZoneMapFilter(getZoneMapFilter());
             return bwdCursor.of(reader, executionContext);
         } catch (Throwable th) {
             Misc.free(reader);
@@ -198,6 +198,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     srcTimestampFd,
                     srcTimestampAddr,
                     srcTimestampSize,
+                    partitionUpdateSinkAddr,
                     tableWriter
             );
             throw th;
@@ -501,6 +502,10 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     ) {
         if (partCounter == null || partCounter.decrementAndGet() == 0) {
             final FilesFacade ff = tableWriter.getFilesFacade();
+            if (partitionMutates) {
+                // column has been rewritten into the new partition version in full
+                tableWriter.addO3RewrittenBytes(Math.abs(dstFixSize) + Math.abs(dstVarSize));
+            }
             if (indexBlockCapacity > -1) {
                 updateIndex(
                         columnCounter,
@@ -525,6 +530,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         indexWriter,
                         indexBlockCapacity
@@ -552,6 +558,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         ff,
                         commitMode
@@ -673,6 +680,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             int srcTimestampFd,
             long srcTimestampAddr,
             long srcTimestampSize,
+            long partitionUpdateSinkAddr,
             TableWriter tableWriter,
             FilesFacade ff,
             int commitMode
@@ -719,6 +727,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     dstVarSize,
                     0,
                     0,
+                    partitionUpdateSinkAddr,
                     tableWriter
             );
             throw e;
@@ -748,6 +757,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             int srcTimestampFd,
             long srcTimestampAddr,
             long srcTimestampSize,
+            long partitionUpdateSinkAddr,
             TableWriter tableWriter,
             BitmapIndexWriter indexWriter,
             int indexBlockCapacity
@@ -794,6 +804,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     dstVarSize,
                     0,
                     0,
+                    partitionUpdateSinkAddr,
                     tableWriter
             );
             throw e;
@@ -858,6 +869,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             int srcTimestampFd,
             long srcTimestampAddr,
             long srcTimestampSize,
+            long partitionUpdateSinkAddr,
             TableWriter tableWriter
     ) {
         final int columnsRemaining = columnCounter.decrementAndGet();
@@ -872,6 +884,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     srcTimestampFd,
                     srcTimestampAddr,
                     srcTimestampSize,
+                    partitionUpdateSinkAddr,
                     tableWriter
             );
         }
@@ -883,6 +896,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             int srcTimestampFd,
             long srcTimestampAddr,
             long srcTimestampSize,
+            long partitionUpdateSinkAddr,
             TableWriter tableWriter
     ) {
         try {
@@ -893,7 +907,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 Unsafe.free(timestampMergeIndexAddr, timestampMergeIndexSize, MemoryTag.NATIVE_O3);
             }
         } finally {
-            tableWriter.o3ClockDownPartitionUpdateCount();
+            tableWriter.o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
             tableWriter.o3CountDownDoneLatch();
         }
     }
@@ -920,6 +934,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long srcTimestampSize,
             int dstKFd,
             int dstVFd,
+            long partitionUpdateSinkAddr,
             TableWriter tableWriter
     ) {
         if (partCounter == null || partCounter.decrementAndGet() == 0) {
@@ -945,6 +960,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     dstVarSize,
                     dstKFd,
                     dstVFd,
+                    partitionUpdateSinkAddr,
                     tableWriter
             );
         }
@@ -971,6 +987,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long dstVarSize,
             int dstKFd,
             int dstVFd,
+            long partitionUpdateSinkAddr,
             TableWriter tableWriter
     ) {
         try {
@@ -989,6 +1006,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     srcTimestampFd,
                     srcTimestampAddr,
                     srcTimestampSize,
+                    partitionUpdateSinkAddr,
                     tableWriter
             );
         }
@@ -1071,7 +1089,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 .$(", o3SplitPartitionSize=").$(o3SplitPartitionSize)
                 .$();
 
-        tableWriter.o3ClockDownPartitionUpdateCount();
+        tableWriter.o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
     }
 
     @Override
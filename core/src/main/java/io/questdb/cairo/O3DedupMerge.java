@@ -0,0 +1,330 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Java version of the multi-key merge_dedup_long_index_int_keys() in dedup.cpp, used with
+ * native libraries older than version 1. Those libraries match column rows against O3 rows
+ * with the same timestamp by a binary search comparing all dedup keys on every step,
+ * this version matches them by the key fingerprints the same way as the current native code.
+ * <p>
+ * Merges column timestamps with the sorted O3 index into the destination index. Rows of the
+ * column data have the top bit of the index row number set. A column row with the same
+ * timestamp and dedup key values as an O3 row is replaced by the O3 row.
+ */
+public final class O3DedupMerge {
+    private static final long COLUMN_ROW_FLAG = 1L << 63;
+    private static final long INDEX_ENTRY_BYTES = 2 * Long.BYTES;
+
+    private O3DedupMerge() {
+    }
+
+    public static long merge(
+            long srcTimestampAddr,
+            long srcLo,
+            long srcHiIncl,
+            long indexAddr,
+            long indexLo,
+            long indexHiIncl,
+            long destIndexAddr,
+            int keyCount,
+            long keysAddr
+    ) {
+        long srcPos = srcLo;
+        long indexPos = indexLo;
+        long dest = destIndexAddr;
+        // fingerprints of the conflict range O3 rows as index entries,
+        // followed by the flags of O3 rows matched by column rows
+        long conflictMem = 0;
+        long conflictMemSize = 0;
+        try {
+            while (srcPos <= srcHiIncl && indexPos <= indexHiIncl) {
+                final long srcTs = Unsafe.getUnsafe().getLong(srcTimestampAddr + srcPos * Long.BYTES);
+                final long indexTs = getIndexTs(indexAddr, indexPos);
+                if (srcTs < indexTs) {
+                    putIndexEntry(dest, srcTs, srcPos | COLUMN_ROW_FLAG);
+                    dest += INDEX_ENTRY_BYTES;
+                    srcPos++;
+                } else if (srcTs > indexTs) {
+                    Vect.memcpy(dest, indexAddr + indexPos * INDEX_ENTRY_BYTES, INDEX_ENTRY_BYTES);
+                    dest += INDEX_ENTRY_BYTES;
+                    indexPos++;
+                } else {
+                    final long conflictIndexAddr = indexAddr + indexPos * INDEX_ENTRY_BYTES;
+                    long conflictEnd = indexPos + 1;
+                    while (conflictEnd <= indexHiIncl && getIndexTs(indexAddr, conflictEnd) == srcTs) {
+                        conflictEnd++;
+                    }
+                    long srcConflictEnd = srcPos + 1;
+                    while (srcConflictEnd <= srcHiIncl && Unsafe.getUnsafe().getLong(srcTimestampAddr + srcConflictEnd * Long.BYTES) == srcTs) {
+                        srcConflictEnd++;
+                    }
+                    final long conflictCount = conflictEnd - indexPos;
+
+                    final long requiredSize = conflictCount * (INDEX_ENTRY_BYTES + 1);
+                    if (conflictMemSize < requiredSize) {
+                        conflictMem = Unsafe.realloc(conflictMem, conflictMemSize, requiredSize, MemoryTag.NATIVE_O3);
+                        conflictMemSize = requiredSize;
+                    }
+                    final long fingerprintsAddr = conflictMem;
+                    final long usedAddr = conflictMem + conflictCount * INDEX_ENTRY_BYTES;
+                    Vect.memset(usedAddr, conflictCount, 0);
+
+                    final boolean useFingerprints = worthBuildingFingerprints(conflictCount, srcConflictEnd - srcPos);
+                    if (useFingerprints) {
+                        for (long p = 0; p < conflictCount; p++) {
+                            putIndexEntry(
+                                    fingerprintsAddr + p * INDEX_ENTRY_BYTES,
+                                    rowFingerprint(keysAddr, keyCount, getIndexRow(conflictIndexAddr, p), false),
+                                    p
+                            );
+                        }
+                        Vect.sortLongIndexAscInPlace(fingerprintsAddr, conflictCount);
+                    }
+
+                    for (; srcPos < srcConflictEnd; srcPos++) {
+                        final long matchedIndex = useFingerprints
+                                ? findByFingerprint(fingerprintsAddr, conflictCount, conflictIndexAddr, keysAddr, keyCount, srcPos)
+                                : findByKeys(conflictIndexAddr, conflictCount, keysAddr, keyCount, srcPos);
+                        if (matchedIndex > -1) {
+                            Unsafe.getUnsafe().putByte(usedAddr + matchedIndex, (byte) 1);
+                            putIndexEntry(dest, srcTs, getIndexRow(conflictIndexAddr, matchedIndex));
+                        } else {
+                            putIndexEntry(dest, srcTs, srcPos | COLUMN_ROW_FLAG);
+                        }
+                        dest += INDEX_ENTRY_BYTES;
+                    }
+
+                    // add all O3 rows with no matches
+                    for (long p = 0; p < conflictCount; p++) {
+                        if (Unsafe.getUnsafe().getByte(usedAddr + p) == 0) {
+                            Vect.memcpy(dest, conflictIndexAddr + p * INDEX_ENTRY_BYTES, INDEX_ENTRY_BYTES);
+                            dest += INDEX_ENTRY_BYTES;
+                        }
+                    }
+                    indexPos = conflictEnd;
+                }
+            }
+        } finally {
+            Unsafe.free(conflictMem, conflictMemSize, MemoryTag.NATIVE_O3);
+        }
+
+        if (indexPos <= indexHiIncl) {
+            final long len = (indexHiIncl - indexPos + 1) * INDEX_ENTRY_BYTES;
+            Vect.memcpy(dest, indexAddr + indexPos * INDEX_ENTRY_BYTES, len);
+            dest += len;
+        } else {
+            for (; srcPos <= srcHiIncl; srcPos++) {
+                putIndexEntry(dest, Unsafe.getUnsafe().getLong(srcTimestampAddr + srcPos * Long.BYTES), srcPos | COLUMN_ROW_FLAG);
+                dest += INDEX_ENTRY_BYTES;
+            }
+        }
+        return (dest - destIndexAddr) / INDEX_ENTRY_BYTES;
+    }
+
+    private static int compare128(long l, long r) {
+        final int hi = Long.compare(Unsafe.getUnsafe().getLong(l + 8), Unsafe.getUnsafe().getLong(r + 8));
+        return hi != 0 ? hi : Long.compareUnsigned(Unsafe.getUnsafe().getLong(l), Unsafe.getUnsafe().getLong(r));
+    }
+
+    // Compares 32-byte values the same way as int256 operators in dedup.cpp
+    private static int compare256(long l, long r) {
+        final int hi = compare128(l + 16, r + 16);
+        final int lo = compare128(l, r);
+        if (hi > 0 || lo > 0) {
+            return 1;
+        }
+        return hi < 0 || lo < 0 ? -1 : 0;
+    }
+
+    // Compares dedup keys of a column row to the keys of an O3 row, rows above column top are nulls
+    private static int compareKeys(long keysAddr, int keyCount, long columnRow, long o3Row) {
+        for (int c = 0; c < keyCount; c++) {
+            final int valueSize = DedupColumnCommitAddresses.getValueSizeBytes(keysAddr, c);
+            final long l = columnRow >= DedupColumnCommitAddresses.getColumnTop(keysAddr, c)
+                    ? DedupColumnCommitAddresses.getColumnDataAddress(keysAddr, c) + columnRow * valueSize
+                    : DedupColumnCommitAddresses.getNullValueAddress(keysAddr, c);
+            final long r = DedupColumnCommitAddresses.getO3DataAddress(keysAddr, c) + o3Row * valueSize;
+            final int diff;
+            switch (valueSize) {
+                case 1:
+                    diff = Byte.compare(Unsafe.getUnsafe().getByte(l), Unsafe.getUnsafe().getByte(r));
+                    break;
+                case 2:
+                    diff = Short.compare(Unsafe.getUnsafe().getShort(l), Unsafe.getUnsafe().getShort(r));
+                    break;
+                case 4:
+                    diff = Integer.compare(Unsafe.getUnsafe().getInt(l), Unsafe.getUnsafe().getInt(r));
+                    break;
+                case 8:
+                    diff = Long.compare(Unsafe.getUnsafe().getLong(l), Unsafe.getUnsafe().getLong(r));
+                    break;
+                case 16:
+                    diff = compare128(l, r);
+                    break;
+                case 32:
+                    diff = compare256(l, r);
+                    break;
+                default:
+                    throw CairoException.critical(0).put("unsupported dedup key size [size=").put(valueSize).put(']');
+            }
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static long findByFingerprint(
+            long fingerprintsAddr,
+            long count,
+            long conflictIndexAddr,
+            long keysAddr,
+            int keyCount,
+            long srcRow
+    ) {
+        final long fingerprint = rowFingerprint(keysAddr, keyCount, srcRow, true);
+        // lower bound of the fingerprint, fingerprints are sorted as unsigned values
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(getIndexTs(fingerprintsAddr, mid), fingerprint) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        // verify the keys, different keys can have the same fingerprint
+        for (long p = lo; p < count && getIndexTs(fingerprintsAddr, p) == fingerprint; p++) {
+            final long pos = getIndexRow(fingerprintsAddr, p);
+            if (compareKeys(keysAddr, keyCount, srcRow, getIndexRow(conflictIndexAddr, pos)) == 0) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    // O3 rows of the conflict range are sorted by the dedup keys
+    private static long findByKeys(long conflictIndexAddr, long count, long keysAddr, int keyCount, long srcRow) {
+        long lo = 0;
+        long hi = count - 1;
+        while (lo <= hi) {
+            final long mid = (lo + hi) >>> 1;
+            final int diff = compareKeys(keysAddr, keyCount, srcRow, getIndexRow(conflictIndexAddr, mid));
+            if (diff > 0) {
+                lo = mid + 1;
+            } else if (diff < 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static long fingerprintFinalize(long h) {
+        // MurmurHash3 fmix64
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long fingerprintMix(long h, long value) {
+        return h ^ (value + 0x9e3779b97f4a7c15L + (h << 6) + (h >>> 2));
+    }
+
+    private static long fingerprintValue(long h, int valueSize, long address) {
+        switch (valueSize) {
+            case 1:
+                return fingerprintMix(h, Unsafe.getUnsafe().getByte(address) & 0xffL);
+            case 2:
+                return fingerprintMix(h, Unsafe.getUnsafe().getShort(address) & 0xffffL);
+            case 4:
+                return fingerprintMix(h, Unsafe.getUnsafe().getInt(address) & 0xffffffffL);
+            case 8:
+                return fingerprintMix(h, Unsafe.getUnsafe().getLong(address));
+            case 16:
+                h = fingerprintMix(h, Unsafe.getUnsafe().getLong(address));
+                return fingerprintMix(h, Unsafe.getUnsafe().getLong(address + 8));
+            case 32:
+                h = fingerprintMix(h, Unsafe.getUnsafe().getLong(address));
+                h = fingerprintMix(h, Unsafe.getUnsafe().getLong(address + 8));
+                h = fingerprintMix(h, Unsafe.getUnsafe().getLong(address + 16));
+                return fingerprintMix(h, Unsafe.getUnsafe().getLong(address + 24));
+            default:
+                throw CairoException.critical(0).put("unsupported dedup key size [size=").put(valueSize).put(']');
+        }
+    }
+
+    private static long getIndexRow(long indexAddr, long pos) {
+        return Unsafe.getUnsafe().getLong(indexAddr + pos * INDEX_ENTRY_BYTES + Long.BYTES);
+    }
+
+    private static long getIndexTs(long indexAddr, long pos) {
+        return Unsafe.getUnsafe().getLong(indexAddr + pos * INDEX_ENTRY_BYTES);
+    }
+
+    private static void putIndexEntry(long address, long ts, long row) {
+        Unsafe.getUnsafe().putLong(address, ts);
+        Unsafe.getUnsafe().putLong(address + Long.BYTES, row);
+    }
+
+    // 64-bit fingerprint of all dedup key values of a column or an O3 row, column rows above column top are nulls
+    private static long rowFingerprint(long keysAddr, int keyCount, long row, boolean columnRow) {
+        long h = 0;
+        for (int c = 0; c < keyCount; c++) {
+            final int valueSize = DedupColumnCommitAddresses.getValueSizeBytes(keysAddr, c);
+            final long address;
+            if (!columnRow) {
+                address = DedupColumnCommitAddresses.getO3DataAddress(keysAddr, c) + row * valueSize;
+            } else if (row >= DedupColumnCommitAddresses.getColumnTop(keysAddr, c)) {
+                address = DedupColumnCommitAddresses.getColumnDataAddress(keysAddr, c) + row * valueSize;
+            } else {
+                address = DedupColumnCommitAddresses.getNullValueAddress(keysAddr, c);
+            }
+            h = fingerprintValue(h, valueSize, address);
+        }
+        return fingerprintFinalize(h);
+    }
+
+    // The fingerprints pay off when there are enough column rows to match against the conflict range,
+    // building them costs a pass over all key values of the range
+    private static boolean worthBuildingFingerprints(long indexCount, long srcCount) {
+        int steps = 1;
+        while ((1L << steps) < indexCount) {
+            steps++;
+        }
+        return indexCount > 4 && srcCount * steps >= indexCount;
+    }
+}
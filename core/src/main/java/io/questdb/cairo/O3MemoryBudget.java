@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine-wide allowance for the native memory O3 merges hold while partitions are
+ * rewritten. Writers reserve an estimate before publishing a partition merge and
+ * release it as soon as the partition is done. Reservation never fails when
+ * nothing is reserved, so a single merge larger than the budget still makes progress.
+ */
+public class O3MemoryBudget {
+    private final long limit;
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
+    public O3MemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    public void release(long size) {
+        if (size > 0) {
+            used.addAndGet(-size);
+            if (waiterCount.get() > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    public boolean tryAcquire(long size) {
+        while (true) {
+            final long current = used.get();
+            if (limit > 0 && current > 0 && current + size > limit) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves memory, parking the calling thread until memory is released by others
+     * or the timeout elapses.
+     *
+     * @param size          size to reserve
+     * @param timeoutMillis maximum time to wait for a release
+     * @return true if memory is reserved
+     */
+    public boolean tryAcquire(long size, long timeoutMillis) {
+        if (tryAcquire(size)) {
+            return true;
+        }
+        waiterCount.incrementAndGet();
+        try {
+            synchronized (this) {
+                // re-check under the lock, release could happen before waiter count was incremented
+                if (tryAcquire(size)) {
+                    return true;
+                }
+                wait(timeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiterCount.decrementAndGet();
+        }
+        return tryAcquire(size);
+    }
+}
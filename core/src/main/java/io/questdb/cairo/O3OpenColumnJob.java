@@ -173,6 +173,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int srcTimestampFd,
             long srcTimestampAddr,
             long srcTimestampSize,
+            long partitionUpdateSinkAddr,
             TableWriter tableWriter,
             FilesFacade ff
     ) {
@@ -180,7 +181,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         if (columnCounter.decrementAndGet() == 0) {
             O3Utils.unmap(ff, srcTimestampAddr, srcTimestampSize);
             O3Utils.close(ff, srcTimestampFd);
-            tableWriter.o3ClockDownPartitionUpdateCount();
+            tableWriter.o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
             tableWriter.o3CountDownDoneLatch();
             if (timestampMergeIndexAddr != 0) {
                 Unsafe.free(timestampMergeIndexAddr, timestampMergeIndexSize, MemoryTag.NATIVE_O3);
@@ -503,6 +504,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     dstDataSize,
                     0,
                     0,
+                    partitionUpdateSinkAddr,
                     tableWriter
             );
             throw e;
@@ -1293,6 +1295,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     srcTimestampFd,
                     srcTimestampAddr,
                     srcTimestampSize,
+                    partitionUpdateSinkAddr,
                     tableWriter,
                     ff
             );
@@ -1759,6 +1762,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     srcTimestampFd,
                     srcTimestampAddr,
                     srcTimestampSize,
+                    partitionUpdateSinkAddr,
                     tableWriter,
                     ff
             );
@@ -1874,6 +1878,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         ff
                 );
@@ -1903,6 +1908,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         ff
                 );
@@ -1976,6 +1982,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         ff
                 );
@@ -2086,7 +2093,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             O3Utils.close(ff1, dstKFd);
             O3Utils.close(ff1, dstVFd);
             if (columnCounter.decrementAndGet() == 0) {
-                tableWriter.o3ClockDownPartitionUpdateCount();
+                tableWriter.o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
                 tableWriter.o3CountDownDoneLatch();
             }
             throw e;
@@ -2203,6 +2210,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     srcTimestampFd,
                     srcTimestampAddr,
                     srcTimestampSize,
+                    partitionUpdateSinkAddr,
                     tableWriter,
                     ff
             );
@@ -2437,7 +2445,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 O3Utils.unmap(ff, srcTimestampAddr, srcTimestampSize);
                 O3Utils.close(ff, srcTimestampFd);
                 Unsafe.free(timestampMergeIndexAddr, timestampMergeIndexSize, MemoryTag.NATIVE_O3);
-                tableWriter.o3ClockDownPartitionUpdateCount();
+                tableWriter.o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
                 tableWriter.o3CountDownDoneLatch();
             }
             throw e;
@@ -2707,6 +2715,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         ff
                 );
@@ -2735,6 +2744,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         ff
                 );
@@ -2805,6 +2815,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter,
                         ff
                 );
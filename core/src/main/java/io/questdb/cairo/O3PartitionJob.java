@@ -115,7 +115,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             .$(", e=").$(e)
                             .I$();
                     tableWriter.o3BumpErrorCount();
-                    tableWriter.o3ClockDownPartitionUpdateCount();
+                    tableWriter.o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
                     tableWriter.o3CountDownDoneLatch();
                     throw e;
                 }
@@ -598,7 +598,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                 O3Utils.unmap(ff, srcTimestampAddr, srcTimestampSize);
                 O3Utils.close(ff, srcTimestampFd);
                 tableWriter.o3BumpErrorCount();
-                tableWriter.o3ClockDownPartitionUpdateCount();
+                tableWriter.o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
                 tableWriter.o3CountDownDoneLatch();
                 throw e;
             }
@@ -856,6 +856,20 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                 }
             }
 
+            if (dedupCommitAddresses.getColumnCount() > 1 && Os.getNativeVersion() == 0) {
+                // native libraries before version 1 do not match multi-key conflicts by key fingerprints
+                return O3DedupMerge.merge(
+                        srcTimestampAddr,
+                        mergeDataLo,
+                        mergeDataHi,
+                        sortedTimestampsAddr,
+                        mergeOOOLo,
+                        mergeOOOHi,
+                        tempIndexAddr,
+                        dedupCommitAddresses.getColumnCount(),
+                        dedupCommitAddresses.getAddress(dedupColSinkAddr)
+                );
+            }
             return Vect.mergeDedupTimestampWithLongIndexIntKeys(
                     srcTimestampAddr,
                     mergeDataLo,
@@ -1260,6 +1274,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             srcTimestampFd,
                             srcTimestampAddr,
                             srcTimestampSize,
+                            partitionUpdateSinkAddr,
                             tableWriter
                     );
                     throw e;
@@ -1444,6 +1459,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         srcTimestampFd,
                         srcTimestampAddr,
                         srcTimestampSize,
+                        partitionUpdateSinkAddr,
                         tableWriter
                 );
             }
@@ -51,6 +51,17 @@ public class O3Utils {
         }
     }
 
+    /**
+     * Assigns jobs that process partition and column tasks of O3 and WAL commits. These jobs are
+     * stateless and can be assigned to more than one pool, all pools share the same queues.
+     */
+    public static void setupO3Jobs(WorkerPool workerPool, MessageBus messageBus) {
+        workerPool.assign(new O3PartitionJob(messageBus));
+        workerPool.assign(new O3OpenColumnJob(messageBus));
+        workerPool.assign(new O3CopyJob(messageBus));
+        workerPool.assign(new ColumnTaskJob(messageBus));
+    }
+
     public static void setupWorkerPool(
             WorkerPool workerPool,
             CairoEngine cairoEngine,
@@ -72,10 +83,17 @@ public class O3Utils {
             workerPool.assign(columnPurgeJob);
         }
 
-        workerPool.assign(new O3PartitionJob(messageBus));
-        workerPool.assign(new O3OpenColumnJob(messageBus));
-        workerPool.assign(new O3CopyJob(messageBus));
-        workerPool.assign(new ColumnTaskJob(messageBus));
+        if (cairoEngine.getConfiguration().getPartitionCompressionMinAge() > 0) {
+            // single instance, the job keeps I/O allowance state
+            workerPool.assign(0, new PartitionCompressionJob(cairoEngine));
+        }
+
+        if (cairoEngine.getConfiguration().isPartitionSquashJobEnabled()) {
+            // single instance, the job keeps I/O allowance state
+            workerPool.assign(0, new PartitionSquashJob(cairoEngine));
+        }
+
+        setupO3Jobs(workerPool, messageBus);
         workerPool.freeOnExit(purgeDiscoveryJob);
 
         final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
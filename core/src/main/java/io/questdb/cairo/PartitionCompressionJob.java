@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.tasks.PartitionCompressionTask;
+
+/**
+ * Compresses partitions older than cairo.partition.compression.min.age on behalf of commits.
+ * Each partition is written into a new partition version and published in a txn of its own,
+ * the previous version is purged once readers release it. Writes are throttled to
+ * cairo.partition.compression.job.io.limit bytes per second, the table is put back on the
+ * queue when the limit is reached. Tables whose writer is busy are skipped, their next
+ * commit schedules the compression again.
+ */
+public class PartitionCompressionJob extends AbstractQueueConsumerJob<PartitionCompressionTask> {
+    private static final Log LOG = LogFactory.getLog(PartitionCompressionJob.class);
+    private final MicrosecondClock clock;
+    private final CairoEngine engine;
+    private final long ioLimit;
+    private long ioAllowance;
+    private long ioAllowanceTimestamp;
+
+    public PartitionCompressionJob(CairoEngine engine) {
+        super(engine.getMessageBus().getPartitionCompressionQueue(), engine.getMessageBus().getPartitionCompressionSubSeq());
+        this.engine = engine;
+        final CairoConfiguration configuration = engine.getConfiguration();
+        this.clock = configuration.getMicrosecondClock();
+        this.ioLimit = configuration.getPartitionCompressionJobIoLimit();
+        this.ioAllowance = ioLimit;
+        this.ioAllowanceTimestamp = clock.getTicks();
+    }
+
+    @Override
+    protected boolean canRun() {
+        if (ioLimit > 0) {
+            // allowance refills at the limit rate and bursts up to one second worth of writes
+            final long now = clock.getTicks();
+            final long elapsed = Math.min(now - ioAllowanceTimestamp, Long.MAX_VALUE / ioLimit);
+            final long refill = elapsed * ioLimit / Timestamps.SECOND_MICROS;
+            if (refill > 0) {
+                ioAllowance = Math.min(ioLimit, ioAllowance + refill);
+                ioAllowanceTimestamp = now;
+            }
+            return ioAllowance > 0;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+        final TableToken tableToken = queue.get(cursor).getTableToken();
+        subSeq.done(cursor);
+        compress(tableToken);
+        return true;
+    }
+
+    private void compress(TableToken tableToken) {
+        try (TableWriter writer = engine.getWriter(tableToken, "partition compression")) {
+            long bytesWritten;
+            while ((bytesWritten = writer.compressColdPartition()) > -1) {
+                ioAllowance -= bytesWritten;
+                if (!canRun()) {
+                    writer.schedulePartitionCompression();
+                    break;
+                }
+            }
+        } catch (EntryUnavailableException e) {
+            LOG.info().$("writer is busy, partition compression skipped [table=").utf8(tableToken.getTableName())
+                    .$(", reason=").$(e.getReason())
+                    .I$();
+        } catch (CairoException e) {
+            LOG.error().$("could not compress partition [table=").utf8(tableToken.getTableName())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Writes compressed copy of a partition into a new partition directory. Column data and
+ * offset files are compressed with {@link ColumnCodec}, index and zone map files are hard linked.
+ * Designated timestamp column is hard linked too, O3 reads and appends to it in place.
+ * Files of the new partition keep their original names, partition is marked as compressed in
+ * the transaction file, so that {@link TableReader} knows to decompress columns on open.
+ * Columns of compressed partition are restored in plain form with {@link #decompress} before
+ * late rows are merged into the partition.
+ */
+public class PartitionCompressor implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(PartitionCompressor.class);
+    private final MemoryCARW buffer;
+    private final int commitMode;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private long zStream;
+
+    public PartitionCompressor(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+        this.commitMode = configuration.getCommitMode();
+        this.buffer = Vm.getCARWInstance(configuration.getDataAppendPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_WRITER);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(buffer);
+        if (zStream != 0) {
+            Zip.deflateEnd(zStream);
+            zStream = 0;
+        }
+    }
+
+    /**
+     * Compresses all live columns of the partition.
+     *
+     * @param srcPath            path to the source partition directory
+     * @param dstPath            path to the existing, empty, target partition directory
+     * @param metadata           table metadata
+     * @param columnVersions     column version reader to resolve column tops and name txns
+     * @param partitionTimestamp timestamp of the partition
+     * @param partitionRowCount  number of rows in the partition
+     * @return number of bytes written
+     */
+    public long compress(
+            Path srcPath,
+            Path dstPath,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersions,
+            long partitionTimestamp,
+            long partitionRowCount
+    ) {
+        if (zStream == 0) {
+            zStream = Zip.deflateInit();
+            if (zStream < 0) {
+                zStream = 0;
+                throw CairoException.critical(0).put("could not initialize compressor");
+            }
+        }
+
+        final int srcLen = srcPath.size();
+        final int dstLen = dstPath.size();
+        long bytesWritten = 0;
+        try {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0) {
+                    // deleted column
+                    continue;
+                }
+                final int recordIndex = columnVersions.getRecordIndex(partitionTimestamp, i);
+                final long columnTop = columnVersions.getColumnTopByIndexOrDefault(recordIndex, partitionTimestamp, i, -1);
+                long columnNameTxn = columnVersions.getColumnNameTxnByIndex(recordIndex);
+                if (columnNameTxn == -1) {
+                    columnNameTxn = columnVersions.getDefaultColumnNameTxn(i);
+                }
+                if (columnTop < 0 || columnTop >= partitionRowCount) {
+                    // column does not exist in the partition
+                    continue;
+                }
+
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnRowCount = partitionRowCount - columnTop;
+                if (ColumnType.isVarSize(columnType)) {
+                    final ColumnTypeDriver driver = ColumnType.getDriver(columnType);
+                    final long auxSize = driver.getAuxVectorSize(columnRowCount);
+                    final int auxFd = TableUtils.openRO(ff, TableUtils.iFile(srcPath.trimTo(srcLen), columnName, columnNameTxn), LOG);
+                    long auxAddr = 0;
+                    try {
+                        auxAddr = TableUtils.mapRO(ff, auxFd, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                        final long dataSize = driver.getDataVectorSizeAt(auxAddr, columnRowCount - 1);
+                        bytesWritten += compressFile(
+                                auxAddr,
+                                auxSize,
+                                ColumnCodec.getCodec(columnType, true),
+                                TableUtils.iFile(dstPath.trimTo(dstLen), columnName, columnNameTxn)
+                        );
+                        bytesWritten += compressFile(
+                                TableUtils.dFile(srcPath.trimTo(srcLen), columnName, columnNameTxn),
+                                dataSize,
+                                ColumnCodec.getCodec(columnType, false),
+                                TableUtils.dFile(dstPath.trimTo(dstLen), columnName, columnNameTxn)
+                        );
+                    } finally {
+                        if (auxAddr != 0) {
+                            ff.munmap(auxAddr, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                        }
+                        ff.close(auxFd);
+                    }
+                } else if (i == metadata.getTimestampIndex()) {
+                    TableUtils.dFile(srcPath.trimTo(srcLen), columnName, columnNameTxn);
+                    TableUtils.dFile(dstPath.trimTo(dstLen), columnName, columnNameTxn);
+                    link(srcPath, dstPath);
+                } else {
+                    bytesWritten += compressFile(
+                            TableUtils.dFile(srcPath.trimTo(srcLen), columnName, columnNameTxn),
+                            columnRowCount << ColumnType.pow2SizeOf(columnType),
+                            ColumnCodec.getCodec(columnType, false),
+                            TableUtils.dFile(dstPath.trimTo(dstLen), columnName, columnNameTxn)
+                    );
+                }
+
+                if (metadata.isColumnIndexed(i)) {
+                    link(
+                            BitmapIndexUtils.keyFileName(srcPath.trimTo(srcLen), columnName, columnNameTxn),
+                            BitmapIndexUtils.keyFileName(dstPath.trimTo(dstLen), columnName, columnNameTxn)
+                    );
+                    link(
+                            BitmapIndexUtils.valueFileName(srcPath.trimTo(srcLen), columnName, columnNameTxn),
+                            BitmapIndexUtils.valueFileName(dstPath.trimTo(dstLen), columnName, columnNameTxn)
+                    );
+                }
+            }
+
+            srcPath.trimTo(srcLen).concat(TableUtils.ZONE_MAP_FILE_NAME);
+            if (ff.exists(srcPath.$())) {
+                link(srcPath, dstPath.trimTo(dstLen).concat(TableUtils.ZONE_MAP_FILE_NAME).$());
+            }
+        } finally {
+            srcPath.trimTo(srcLen);
+            dstPath.trimTo(dstLen);
+        }
+        return bytesWritten;
+    }
+
+    /**
+     * Writes plain copy of the compressed column files under the new column name txn, in the same
+     * partition directory. Compressed files are left in place for the caller to purge, index files
+     * are hard linked.
+     *
+     * @param srcPath          path to the partition directory
+     * @param dstPath          path to the same partition directory
+     * @param columnName       name of the column
+     * @param columnType       type of the column
+     * @param indexed          true when the column has index files
+     * @param columnNameTxn    name txn of the compressed column files
+     * @param newColumnNameTxn name txn of the plain column files
+     */
+    public void decompress(
+            Path srcPath,
+            Path dstPath,
+            CharSequence columnName,
+            int columnType,
+            boolean indexed,
+            long columnNameTxn,
+            long newColumnNameTxn
+    ) {
+        final int srcLen = srcPath.size();
+        final int dstLen = dstPath.size();
+        try {
+            if (ColumnType.isVarSize(columnType)) {
+                decompressFile(
+                        TableUtils.iFile(srcPath.trimTo(srcLen), columnName, columnNameTxn),
+                        TableUtils.iFile(dstPath.trimTo(dstLen), columnName, newColumnNameTxn)
+                );
+            }
+            decompressFile(
+                    TableUtils.dFile(srcPath.trimTo(srcLen), columnName, columnNameTxn),
+                    TableUtils.dFile(dstPath.trimTo(dstLen), columnName, newColumnNameTxn)
+            );
+            if (indexed) {
+                // links can be left behind by an earlier attempt that failed
+                ff.removeQuiet(BitmapIndexUtils.keyFileName(dstPath.trimTo(dstLen), columnName, newColumnNameTxn).$());
+                link(BitmapIndexUtils.keyFileName(srcPath.trimTo(srcLen), columnName, columnNameTxn), dstPath);
+                ff.removeQuiet(BitmapIndexUtils.valueFileName(dstPath.trimTo(dstLen), columnName, newColumnNameTxn).$());
+                link(BitmapIndexUtils.valueFileName(srcPath.trimTo(srcLen), columnName, columnNameTxn), dstPath);
+            }
+        } finally {
+            srcPath.trimTo(srcLen);
+            dstPath.trimTo(dstLen);
+        }
+    }
+
+    private long compressFile(long address, long size, int codec, LPSZ dstPath) {
+        ColumnCodec.compress(address, size, codec, zStream, buffer);
+        return writeBuffer(dstPath);
+    }
+
+    private long compressFile(LPSZ srcPath, long size, int codec, LPSZ dstPath) {
+        final int fd = TableUtils.openRO(ff, srcPath, LOG);
+        long address = 0;
+        try {
+            if (size > 0) {
+                address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            return compressFile(address, size, codec, dstPath);
+        } finally {
+            if (address != 0) {
+                ff.munmap(address, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+        }
+    }
+
+    private void decompressFile(LPSZ srcPath, LPSZ dstPath) {
+        final int fd = TableUtils.openRO(ff, srcPath, LOG);
+        long address = 0;
+        long fileSize = 0;
+        try {
+            fileSize = ff.length(fd);
+            if (fileSize < ColumnCodec.HEADER_SIZE) {
+                throw CairoException.critical(ff.errno()).put("invalid compressed column file [file=").put(srcPath)
+                        .put(", size=").put(fileSize)
+                        .put(']');
+            }
+            address = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            final long rawSize = ColumnCodec.getRawSize(address, fileSize);
+            buffer.truncate();
+            buffer.extend(rawSize);
+            if (rawSize > 0) {
+                ColumnCodec.decompress(address, fileSize, buffer.addressOf(0), rawSize);
+            }
+            buffer.jumpTo(rawSize);
+        } finally {
+            if (address != 0) {
+                ff.munmap(address, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+        }
+        writeBuffer(dstPath);
+    }
+
+    private void link(Path from, Path to) {
+        if (ff.hardLink(from.$(), to.$()) != Files.FILES_RENAME_OK) {
+            throw CairoException.critical(ff.errno()).put("could not create hard link [from=").put(from)
+                    .put(", to=").put(to)
+                    .put(']');
+        }
+    }
+
+    private long writeBuffer(LPSZ dstPath) {
+        final long len = buffer.getAppendOffset();
+        final int fd = TableUtils.openRW(ff, dstPath, LOG, fileOpenOpts);
+        try {
+            if (ff.write(fd, buffer.addressOf(0), len, 0) != len) {
+                throw CairoException.critical(ff.errno()).put("could not write [file=").put(dstPath).put(']');
+            }
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(fd);
+            }
+        } finally {
+            ff.close(fd);
+        }
+        return len;
+    }
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Zone map and bloom filter of a single partition, cached by {@link TableReader}. Files are read once
+ * and kept for as long as the partition keeps its name txn and row count, so that queries do not re-read
+ * them on every execution. Missing or stale files are looked up again on the next access, as the writer
+ * produces them some time after the commit that changed the partition.
+ * <p>
+ * Zone map is small and is copied into native memory. Bloom filter is mapped, so that only the pages
+ * of the probed bits are read.
+ */
+public class PartitionStats implements Mutable, QuietCloseable {
+    private final FilesFacade ff;
+    private long bloomFilterAddr;
+    private long bloomFilterSize;
+    private long nameTxn = -1;
+    private long rowCount = -1;
+    private long zoneMapAddr;
+    private long zoneMapSize;
+
+    public PartitionStats(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    @Override
+    public void clear() {
+        if (zoneMapAddr != 0) {
+            zoneMapAddr = Unsafe.free(zoneMapAddr, zoneMapSize, MemoryTag.NATIVE_TABLE_READER);
+            zoneMapSize = 0;
+        }
+        if (bloomFilterAddr != 0) {
+            ff.munmap(bloomFilterAddr, bloomFilterSize, MemoryTag.MMAP_TABLE_READER);
+            bloomFilterAddr = 0;
+            bloomFilterSize = 0;
+        }
+        nameTxn = -1;
+        rowCount = -1;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * @return address of the bloom filter file content, see {@link BloomFilterWriter}, or 0 when partition has no valid bloom filter
+     */
+    public long getBloomFilter() {
+        return bloomFilterAddr;
+    }
+
+    public long getBloomFilterSize() {
+        return bloomFilterSize;
+    }
+
+    /**
+     * @return address of the zone map file content, see {@link ZoneMapWriter}, or 0 when partition has no valid zone map
+     */
+    public long getZoneMap() {
+        return zoneMapAddr;
+    }
+
+    /**
+     * Makes sure the requested files of the partition are loaded. Cached content is released when partition
+     * name txn or row count differ from the ones it was loaded for.
+     *
+     * @param path        path to the partition directory, it is restored to its original length on return
+     * @param nameTxn     partition name txn
+     * @param rowCount    partition row count
+     * @param zoneMap     true when zone map is required
+     * @param bloomFilter true when bloom filter is required
+     */
+    public void of(Path path, long nameTxn, long rowCount, boolean zoneMap, boolean bloomFilter) {
+        if (this.nameTxn != nameTxn || this.rowCount != rowCount) {
+            clear();
+            this.nameTxn = nameTxn;
+            this.rowCount = rowCount;
+        }
+        final int plen = path.size();
+        try {
+            if (zoneMap && zoneMapAddr == 0) {
+                loadZoneMap(path.trimTo(plen).concat(TableUtils.ZONE_MAP_FILE_NAME).$());
+            }
+            if (bloomFilter && bloomFilterAddr == 0) {
+                loadBloomFilter(path.trimTo(plen).concat(TableUtils.BLOOM_FILTER_FILE_NAME).$());
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private void loadBloomFilter(Path path) {
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return;
+        }
+        try {
+            final long fileSize = ff.length(fd);
+            // row count is checked first, stale file is not mapped
+            if (fileSize < BloomFilterWriter.HEADER_SIZE || ff.readNonNegativeLong(fd, BloomFilterWriter.HEADER_OFFSET_ROW_COUNT) != rowCount) {
+                return;
+            }
+            final long addr = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_READER);
+            final int columnCount = Unsafe.getUnsafe().getInt(addr + BloomFilterWriter.HEADER_OFFSET_COLUMN_COUNT);
+            if (
+                    columnCount < 0
+                            || BloomFilterWriter.HEADER_SIZE + (long) columnCount * BloomFilterWriter.ENTRY_SIZE > fileSize
+                            || Unsafe.getUnsafe().getLong(addr + BloomFilterWriter.HEADER_OFFSET_CHECKSUM) != BloomFilterWriter.checksum(addr, rowCount, columnCount)
+            ) {
+                ff.munmap(addr, fileSize, MemoryTag.MMAP_TABLE_READER);
+                return;
+            }
+            bloomFilterAddr = addr;
+            bloomFilterSize = fileSize;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void loadZoneMap(Path path) {
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return;
+        }
+        try {
+            final long fileSize = ff.length(fd);
+            // row count is checked first, stale file is not read
+            if (fileSize < ZoneMapWriter.HEADER_SIZE || ff.readNonNegativeLong(fd, ZoneMapWriter.HEADER_OFFSET_ROW_COUNT) != rowCount) {
+                return;
+            }
+            final long addr = Unsafe.malloc(fileSize, MemoryTag.NATIVE_TABLE_READER);
+            final int columnCount;
+            if (
+                    ff.read(fd, addr, fileSize, 0) != fileSize
+                            || (columnCount = Unsafe.getUnsafe().getInt(addr + ZoneMapWriter.HEADER_OFFSET_COLUMN_COUNT)) < 0
+                            || ZoneMapWriter.HEADER_SIZE + (long) columnCount * ZoneMapWriter.ENTRY_SIZE > fileSize
+                            || Unsafe.getUnsafe().getLong(addr + ZoneMapWriter.HEADER_OFFSET_CHECKSUM) != ZoneMapWriter.checksum(addr, rowCount, columnCount)
+            ) {
+                Unsafe.free(addr, fileSize, MemoryTag.NATIVE_TABLE_READER);
+                return;
+            }
+            zoneMapAddr = addr;
+            zoneMapSize = fileSize;
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
@@ -70,6 +70,9 @@ public interface SecurityContext extends Mutable {
 
     void authorizeCopyCancel(SecurityContext cancellingSecurityContext);
 
+    // COPY TO writes files to the server file system
+    void authorizeCopyExport(TableToken tableToken);
+
     void authorizeDatabaseSnapshot();
 
     void authorizeHttp();
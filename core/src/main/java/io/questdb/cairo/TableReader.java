@@ -27,8 +27,12 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.parquet.ParquetDecoder;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
+import io.questdb.cairo.vm.MemoryCMRDecodedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.log.Log;
@@ -36,6 +40,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf16Sink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -52,15 +57,25 @@ public class TableReader implements Closeable, SymbolTableSource {
     private static final int PARTITIONS_SLOT_OFFSET_SIZE = 1;
     private static final int PARTITIONS_SLOT_SIZE = 4;
     private static final int PARTITIONS_SLOT_SIZE_MSB = Numbers.msb(PARTITIONS_SLOT_SIZE);
+    // marks column slots of an open partition, which are mapped on first access
+    private static final NullMemoryMR UNMAPPED_COLUMN = new NullMemoryMR();
     private final MillisecondClock clock;
     private final ColumnVersionReader columnVersionReader;
     private final CairoConfiguration configuration;
+    private final DecodedColumnCache decodedColumnCache;
+    private final StringSink decodedColumnKey = new StringSink();
     private final FilesFacade ff;
+    private final boolean lazyColumnMapping;
+    private final int maxMappedColumns;
     private final int maxOpenPartitions;
     private final MessageBus messageBus;
     private final TableReaderMetadata metadata;
+    private final TableReaderMetrics metrics;
     private final LongList openPartitionInfo;
+    private final ParquetDecoder parquetDecoder = new ParquetDecoder();
     private final int partitionBy;
+    // zone maps and bloom filters, slots are allocated on first access
+    private final ObjList<PartitionStats> partitionStats = new ObjList<>();
     private final Path path;
     private final TableReaderRecordCursor recordCursor = new TableReaderRecordCursor();
     private final int rootLen;
@@ -74,6 +89,8 @@ public class TableReader implements Closeable, SymbolTableSource {
     private LongList columnTops;
     private ObjList<MemoryMR> columns;
     private int openPartitionCount;
+    private long parquetDecoderNameTxn;
+    private long parquetDecoderTimestamp = Long.MIN_VALUE;
     private int partitionCount;
     private long rowCount;
     private TableToken tableToken;
@@ -92,13 +109,29 @@ public class TableReader implements Closeable, SymbolTableSource {
             CairoConfiguration configuration,
             TableToken tableToken,
             @Nullable MessageBus messageBus
+    ) {
+        this(configuration, tableToken, messageBus, TableReaderMetrics.DISABLED);
+    }
+
+    public TableReader(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            @Nullable MessageBus messageBus,
+            TableReaderMetrics metrics
     ) {
         this.configuration = configuration;
+        this.metrics = metrics;
         this.clock = configuration.getMillisecondClock();
         this.maxOpenPartitions = configuration.getInactiveReaderMaxOpenPartitions();
+        this.maxMappedColumns = configuration.getInactiveReaderMaxMappedColumns();
+        this.lazyColumnMapping = configuration.isReaderLazyColumnMappingEnabled();
         this.ff = configuration.getFilesFacade();
         this.tableToken = tableToken;
         this.messageBus = messageBus;
+        // readers outside of the engine do not share decoded columns
+        this.decodedColumnCache = messageBus != null
+                ? messageBus.getDecodedColumnCache()
+                : new DecodedColumnCache(configuration);
         this.path = new Path();
         this.path.of(configuration.getRoot()).concat(this.tableToken.getDirName());
         this.rootLen = path.size();
@@ -142,6 +175,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             }
             columnTops = new LongList(capacity / 2);
             columnTops.setPos(capacity / 2);
+            partitionStats.setPos(partitionCount);
             recordCursor.of(this);
         } catch (Throwable e) {
             close();
@@ -176,7 +210,13 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(txFile);
             Misc.free(todoMem);
             freeColumns();
+            if (messageBus == null) {
+                // unpinned columns of the reader own cache are not used by anyone else
+                decodedColumnCache.close();
+            }
+            Misc.freeObjListAndClear(partitionStats);
             freeTempMem();
+            Misc.free(parquetDecoder);
             Misc.free(txnScoreboard);
             Misc.free(path);
             Misc.free(columnVersionReader);
@@ -216,7 +256,11 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     public MemoryR getColumn(int absoluteIndex) {
-        return columns.getQuick(absoluteIndex);
+        final MemoryMR mem = columns.getQuick(absoluteIndex);
+        if (mem != UNMAPPED_COLUMN) {
+            return mem;
+        }
+        return mapColumn(absoluteIndex);
     }
 
     public int getColumnBase(int partitionIndex) {
@@ -290,6 +334,31 @@ public class TableReader implements Closeable, SymbolTableSource {
         return openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE);
     }
 
+    /**
+     * Returns zone map and bloom filter of the partition. Files are read on first access and cached until
+     * the partition is rewritten or its row count changes.
+     *
+     * @param partitionIndex index of the partition
+     * @param zoneMap        true when zone map is required
+     * @param bloomFilter    true when bloom filter is required
+     * @return partition stats, valid until the next reader reload
+     */
+    public PartitionStats getPartitionStats(int partitionIndex, boolean zoneMap, boolean bloomFilter) {
+        PartitionStats stats = partitionStats.getQuick(partitionIndex);
+        if (stats == null) {
+            stats = new PartitionStats(ff);
+            partitionStats.setQuick(partitionIndex, stats);
+        }
+        final long nameTxn = txFile.getPartitionNameTxn(partitionIndex);
+        TableUtils.setPathForPartition(path.trimTo(rootLen), partitionBy, txFile.getPartitionTimestampByIndex(partitionIndex), nameTxn);
+        try {
+            stats.of(path, nameTxn, txFile.getPartitionSize(partitionIndex), zoneMap, bloomFilter);
+        } finally {
+            path.trimTo(rootLen);
+        }
+        return stats;
+    }
+
     public long getPartitionTimestampByIndex(int partitionIndex) {
         return txFile.getPartitionTimestampByIndex(partitionIndex);
     }
@@ -357,6 +426,15 @@ public class TableReader implements Closeable, SymbolTableSource {
                 }
             }
         }
+        // unmap lazily mapped columns above the limit, starting from the oldest partitions
+        if (lazyColumnMapping && maxMappedColumns > 0 && (long) openPartitionCount * columnCount > maxMappedColumns) {
+            unmapColumns();
+        }
+        // unpin decoded columns, so that the cache can evict them while reader is idle;
+        // without the limit unpinned columns are freed, keep them to avoid decoding on every cursor
+        if (decodedColumnCache.getLimit() > 0) {
+            unmapDecodedColumns();
+        }
     }
 
     public boolean isActive() {
@@ -468,16 +546,19 @@ public class TableReader implements Closeable, SymbolTableSource {
             return false;
         }
         try {
+            final long startNanos = configuration.getNanosecondClock().getTicks();
             reloadSlow(true);
             // partition reload will apply truncate if necessary
             // applyTruncate for non-partitioned tables only
-            reconcileOpenPartitions(txPartitionVersion, txColumnVersion, txTruncateVersion);
+            final boolean incremental = reconcileOpenPartitions(txPartitionVersion, txColumnVersion, txTruncateVersion);
 
             // Save transaction details which impact the reloading. Do not rely on txReader, it can be reloaded outside this method.
             txPartitionVersion = txFile.getPartitionTableVersion();
             txColumnVersion = txFile.getColumnVersion();
             txTruncateVersion = txFile.getTruncateVersion();
 
+            metrics.onReload(incremental, configuration.getNanosecondClock().getTicks() - startNanos);
+
             // Useful for debugging
             // assert DebugUtils.reconcileColumnTops(PARTITIONS_SLOT_SIZE, openPartitionInfo, columnVersionReader, this);
             return true;
@@ -515,6 +596,14 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private static boolean isDecoded(MemoryMR mem) {
+        return mem instanceof MemoryCMRCompressedImpl || mem instanceof MemoryCMRDecodedImpl;
+    }
+
+    private static boolean isNotMapped(MemoryMR mem) {
+        return mem == null || mem instanceof NullMemoryMR;
+    }
+
     private boolean acquireTxn() {
         if (!txnAcquired) {
             try {
@@ -583,6 +672,8 @@ public class TableReader implements Closeable, SymbolTableSource {
         columnTops.removeIndexBlock(colTopStart, columnSlotSize / 2);
 
         openPartitionInfo.removeIndexBlock(offset, PARTITIONS_SLOT_SIZE);
+        Misc.free(partitionStats.getQuick(partitionIndex));
+        partitionStats.remove(partitionIndex);
         LOG.info().$("closed deleted partition [table=").$(tableToken).$(", ts=").$ts(partitionTimestamp).$(", partitionIndex=").$(partitionIndex).I$();
         partitionCount--;
     }
@@ -657,7 +748,7 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
 
         MemoryR col = columns.getQuick(globalIndex);
-        if (col instanceof NullMemoryMR) {
+        if (col instanceof NullMemoryMR && col != UNMAPPED_COLUMN) {
             if (direction == BitmapIndexReader.DIR_BACKWARD) {
                 reader = new BitmapIndexBwdNullReader();
                 bitmapIndexes.setQuick(globalIndex, reader);
@@ -728,7 +819,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                             copyColumns(fromBase, fromColumnIndex, toColumns, toColumnTops, toIndexReaders, toBase, i);
                         } else if (fromColumnIndex != Integer.MIN_VALUE) {
                             // new instance
-                            reloadColumnAt(partitionIndex, path, toColumns, toColumnTops, toIndexReaders, toBase, i, partitionRowCount);
+                            openColumnAt(partitionIndex, path, toColumns, toColumnTops, toIndexReaders, toBase, i, partitionRowCount);
                         }
                     }
                 }
@@ -742,6 +833,89 @@ public class TableReader implements Closeable, SymbolTableSource {
         this.bitmapIndexes = toIndexReaders;
     }
 
+    // called with the entry locked, path points at the Parquet file
+    private void decodeParquetColumn(
+            DecodedColumnCache.Entry entry,
+            Path path,
+            long partitionTimestamp,
+            long partitionNameTxn,
+            int columnIndex,
+            int columnType,
+            long partitionRowCount
+    ) {
+        if (!parquetDecoder.isOpen() || parquetDecoderTimestamp != partitionTimestamp || parquetDecoderNameTxn != partitionNameTxn) {
+            parquetDecoderTimestamp = Long.MIN_VALUE;
+            parquetDecoder.of(ff, path);
+            parquetDecoderTimestamp = partitionTimestamp;
+            parquetDecoderNameTxn = partitionNameTxn;
+            if (parquetDecoder.getRowCount() != partitionRowCount) {
+                throw CairoException.critical(0).put("parquet partition row count mismatch [path=").put(path)
+                        .put(", expected=").put(partitionRowCount)
+                        .put(", actual=").put(parquetDecoder.getRowCount())
+                        .put(']');
+            }
+        }
+
+        final int fileColumnIndex = parquetDecoder.getColumnIndex(metadata.getColumnName(columnIndex));
+        if (fileColumnIndex < 0) {
+            decodedColumnCache.publishAbsent(entry);
+            return;
+        }
+
+        // memory is reserved before decoding where the size is known upfront,
+        // data size of var-size columns is accounted once the data is decoded
+        if (ColumnType.isVarSize(columnType)) {
+            final long auxSize = ColumnType.getDriver(columnType).getAuxVectorSize(partitionRowCount);
+            decodedColumnCache.reserve(entry, auxSize);
+            final MemoryCARW dataBuf = entry.getDataBuffer();
+            final MemoryCARW auxBuf = entry.getAuxBuffer();
+            dataBuf.truncate();
+            auxBuf.truncate();
+            auxBuf.extend(auxSize);
+            parquetDecoder.decodeColumn(fileColumnIndex, columnType, dataBuf, auxBuf, null);
+        } else {
+            final long dataSize = partitionRowCount << ColumnType.pow2SizeOf(columnType);
+            decodedColumnCache.reserve(entry, dataSize);
+            final MemoryCARW buf = entry.getDataBuffer();
+            buf.truncate();
+            buf.extend(dataSize);
+            parquetDecoder.decodeColumn(
+                    fileColumnIndex,
+                    columnType,
+                    buf,
+                    null,
+                    ColumnType.isSymbol(columnType) ? symbolMapReaders.getQuick(columnIndex) : null
+            );
+        }
+        decodedColumnCache.publish(entry);
+    }
+
+    // Sets column top of the column without mapping its files. Column files are mapped
+    // on the first getColumn() call, so that queries pay only for the columns they read.
+    private void deferColumnAt(
+            int partitionIndex,
+            ObjList<MemoryMR> columns,
+            LongList columnTops,
+            int columnBase,
+            int columnIndex,
+            long partitionRowCount
+    ) {
+        final int primaryIndex = getPrimaryColumnIndex(columnBase, columnIndex);
+        final long partitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
+        final int writerIndex = metadata.getWriterIndex(columnIndex);
+        final int versionRecordIndex = columnVersionReader.getRecordIndex(partitionTimestamp, writerIndex);
+        final long columnTop = versionRecordIndex > -1L ? columnVersionReader.getColumnTopByIndex(versionRecordIndex) : 0L;
+        if (partitionRowCount - columnTop > 0 && (versionRecordIndex > -1L || columnVersionReader.getColumnTopPartitionTimestamp(writerIndex) <= partitionTimestamp)) {
+            Misc.free(columns.getAndSetQuick(primaryIndex, UNMAPPED_COLUMN));
+            Misc.free(columns.getAndSetQuick(primaryIndex + 1, UNMAPPED_COLUMN));
+            columnTops.setQuick(columnBase / 2 + columnIndex, columnTop);
+        } else {
+            Misc.free(columns.getAndSetQuick(primaryIndex, NullMemoryMR.INSTANCE));
+            Misc.free(columns.getAndSetQuick(primaryIndex + 1, NullMemoryMR.INSTANCE));
+            columnTops.setQuick(columnBase / 2 + columnIndex, partitionRowCount);
+        }
+    }
+
     private void formatErrorPartitionDirName(int partitionIndex, Utf16Sink sink) {
         TableUtils.setSinkForPartition(
                 sink,
@@ -782,6 +956,17 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private MemoryCMRDecodedImpl getOrCreateDecodedMemory(ObjList<MemoryMR> columns, int index) {
+        final MemoryMR mem = columns.getQuick(index);
+        if (mem instanceof MemoryCMRDecodedImpl) {
+            return (MemoryCMRDecodedImpl) mem;
+        }
+        Misc.free(mem);
+        final MemoryCMRDecodedImpl decodedMem = new MemoryCMRDecodedImpl();
+        columns.setQuick(index, decodedMem);
+        return decodedMem;
+    }
+
     private void insertPartition(int partitionIndex, long timestamp) {
         final int columnBase = getColumnBase(partitionIndex);
         final int columnSlotSize = getColumnBase(1);
@@ -801,10 +986,39 @@ public class TableReader implements Closeable, SymbolTableSource {
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1L);
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, -1L);
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COLUMN_VERSION, -1L);
+        partitionStats.insert(partitionIndex, 1, null);
         partitionCount++;
         LOG.debug().$("inserted partition [index=").$(partitionIndex).$(", table=").$(tableToken).$(", timestamp=").$ts(timestamp).I$();
     }
 
+    private MemoryR mapColumn(int absoluteIndex) {
+        final int primaryIndex = absoluteIndex & ~1;
+        final int partitionIndex = (primaryIndex - 2) >>> columnCountShl;
+        final int columnBase = getColumnBase(partitionIndex);
+        final long partitionRowCount = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE);
+        assert partitionRowCount > -1L;
+        try {
+            reloadColumnAt(
+                    partitionIndex,
+                    pathGenPartitioned(partitionIndex),
+                    columns,
+                    columnTops,
+                    bitmapIndexes,
+                    columnBase,
+                    (primaryIndex - 2 - columnBase) >> 1,
+                    partitionRowCount
+            );
+        } catch (Throwable th) {
+            // leave the column unmapped, the next access will retry
+            Misc.free(columns.getAndSetQuick(primaryIndex, UNMAPPED_COLUMN));
+            Misc.free(columns.getAndSetQuick(primaryIndex + 1, UNMAPPED_COLUMN));
+            throw th;
+        } finally {
+            path.trimTo(rootLen);
+        }
+        return columns.getQuick(absoluteIndex);
+    }
+
     @NotNull
     // this method is not thread safe
     private SymbolMapReaderImpl newSymbolMapReader(int symbolColumnIndex, int columnIndex) {
@@ -820,6 +1034,32 @@ public class TableReader implements Closeable, SymbolTableSource {
         );
     }
 
+    private void openColumnAt(
+            int partitionIndex,
+            Path path,
+            ObjList<MemoryMR> columns,
+            LongList columnTops,
+            ObjList<BitmapIndexReader> indexReaders,
+            int columnBase,
+            int columnIndex,
+            long partitionRowCount
+    ) {
+        if (lazyColumnMapping && !txFile.isPartitionParquet(partitionIndex)) {
+            // columns that already have open files are remapped straight away, they are likely to be read again
+            final int primaryIndex = getPrimaryColumnIndex(columnBase, columnIndex);
+            if (
+                    isNotMapped(columns.getQuick(primaryIndex))
+                            && isNotMapped(columns.getQuick(primaryIndex + 1))
+                            && indexReaders.getQuick(primaryIndex) == null
+                            && indexReaders.getQuick(primaryIndex + 1) == null
+            ) {
+                deferColumnAt(partitionIndex, columns, columnTops, columnBase, columnIndex, partitionRowCount);
+                return;
+            }
+        }
+        reloadColumnAt(partitionIndex, path, columns, columnTops, indexReaders, columnBase, columnIndex, partitionRowCount);
+    }
+
     private TableReaderMetadata openMetaFile() {
         TableReaderMetadata metadata = new TableReaderMetadata(configuration, tableToken);
         try {
@@ -837,12 +1077,23 @@ public class TableReader implements Closeable, SymbolTableSource {
             ObjList<MemoryMR> columns,
             int primaryIndex,
             @Nullable MemoryMR mem,
-            long columnSize
+            long columnSize,
+            boolean compressed
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (
+                mem != null
+                        && mem != NullMemoryMR.INSTANCE
+                        && !(mem instanceof MemoryCMRDecodedImpl)
+                        && (mem instanceof MemoryCMRCompressedImpl) == compressed
+        ) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, true);
+            Misc.free(mem);
+            if (compressed) {
+                mem = Vm.getCompressedMRInstance(decodedColumnCache, tableToken.getTableId(), ff, path, columnSize, true);
+            } else {
+                mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, true);
+            }
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
@@ -913,7 +1164,7 @@ public class TableReader implements Closeable, SymbolTableSource {
 
     private void openPartitionColumns(int partitionIndex, Path path, int columnBase, long partitionRowCount) {
         for (int i = 0; i < columnCount; i++) {
-            reloadColumnAt(
+            openColumnAt(
                     partitionIndex,
                     path,
                     columns,
@@ -982,13 +1233,20 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
-    private void reconcileOpenPartitions(long prevPartitionVersion, long prevColumnVersion, long prevTruncateVersion) {
+    /**
+     * Brings open partitions in line with the txn file.
+     *
+     * @return true when the reload was incremental, i.e. rows were only appended, so that it
+     * extended the last open partition and added new partitions without revisiting the others
+     */
+    private boolean reconcileOpenPartitions(long prevPartitionVersion, long prevColumnVersion, long prevTruncateVersion) {
         // Reconcile partition full or partial will only update row count of last partition and append new partitions
         boolean truncateHappened = txFile.getTruncateVersion() != prevTruncateVersion;
         if (txFile.getPartitionTableVersion() == prevPartitionVersion && txFile.getColumnVersion() == prevColumnVersion && !truncateHappened) {
             int partitionIndex = Math.max(0, partitionCount - 1);
             final int txPartitionCount = txFile.getPartitionCount();
             if (partitionIndex < txPartitionCount) {
+                boolean symbolCountsReloaded = false;
                 if (partitionIndex < partitionCount) {
                     final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
                     final long openPartitionSize = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE);
@@ -1001,7 +1259,9 @@ public class TableReader implements Closeable, SymbolTableSource {
 
                         if (openPartitionNameTxn == txPartitionNameTxn) {
                             if (openPartitionSize != txPartitionSize) {
+                                // reloading partition updates symbol counts too
                                 reloadPartition(partitionIndex, txPartitionSize, txPartitionNameTxn);
+                                symbolCountsReloaded = true;
                                 openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, txPartitionSize);
                                 LOG.debug().$("updated partition size [partition=").$(openPartitionInfo.getQuick(offset)).I$();
                             }
@@ -1014,11 +1274,14 @@ public class TableReader implements Closeable, SymbolTableSource {
                 for (; partitionIndex < txPartitionCount; partitionIndex++) {
                     insertPartition(partitionIndex, txFile.getPartitionTimestampByIndex(partitionIndex));
                 }
-                reloadSymbolMapCounts();
+                if (!symbolCountsReloaded) {
+                    reloadSymbolMapCounts();
+                }
             }
-            return;
+            return true;
         }
         reconcileOpenPartitionsFrom(0, truncateHappened);
+        return false;
     }
 
     private boolean releaseTxn() {
@@ -1055,6 +1318,15 @@ public class TableReader implements Closeable, SymbolTableSource {
             int columnIndex,
             long partitionRowCount
     ) {
+        final int index = getPrimaryColumnIndex(columnBase, columnIndex);
+        if (columns.getQuick(index) == UNMAPPED_COLUMN) {
+            columns.setQuick(index, null);
+            columns.setQuick(index + 1, null);
+        }
+        if (txFile.isPartitionParquet(partitionIndex)) {
+            reloadParquetColumnAt(partitionIndex, path, columns, columnTops, indexReaders, columnBase, columnIndex, partitionRowCount);
+            return;
+        }
         final int plen = path.size();
         try {
             final CharSequence name = metadata.getColumnName(columnIndex);
@@ -1071,6 +1343,8 @@ public class TableReader implements Closeable, SymbolTableSource {
                 columnTxn = columnVersionReader.getDefaultColumnNameTxn(writerIndex);
             }
             final long columnRowCount = partitionRowCount - columnTop;
+            // designated timestamp of compressed partition is kept plain
+            final boolean compressed = txFile.isPartitionCompressed(partitionIndex) && columnIndex != metadata.getTimestampIndex();
 
             // When column is added mid-table existence the top record is only
             // created in the current partition. Older partitions would simply have no
@@ -1085,7 +1359,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                     long auxSize = columnTypeDriver.getAuxVectorSize(columnRowCount);
                     TableUtils.iFile(path.trimTo(plen), name, columnTxn);
                     MemoryMR auxMem = columns.getQuick(secondaryIndex);
-                    auxMem = openOrCreateMemory(path, columns, secondaryIndex, auxMem, auxSize);
+                    auxMem = openOrCreateMemory(path, columns, secondaryIndex, auxMem, auxSize, compressed);
                     long dataSize = columnTypeDriver.getDataVectorSizeAt(auxMem.addressOf(0), columnRowCount - 1);
                     if (dataSize < columnTypeDriver.getDataVectorMinEntrySize() || dataSize >= (1L << 40)) {
                         LOG.critical().$("Invalid var len column size [column=").$(name).$(", size=").$(dataSize).$(", path=").$(path).I$();
@@ -1093,7 +1367,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                     }
                     if (dataSize > 0) {
                         TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                        openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize);
+                        openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize, compressed);
                     }
                 } else {
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
@@ -1102,7 +1376,8 @@ public class TableReader implements Closeable, SymbolTableSource {
                             columns,
                             primaryIndex,
                             dataMem,
-                            columnRowCount << ColumnType.pow2SizeOf(columnType)
+                            columnRowCount << ColumnType.pow2SizeOf(columnType),
+                            compressed
                     );
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
@@ -1192,6 +1467,70 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    // Parquet partitions have no column files, columns are decoded from data.parquet
+    // into memory shared by readers of the partition, columns missing in the file read as nulls
+    private void reloadParquetColumnAt(
+            int partitionIndex,
+            Path path,
+            ObjList<MemoryMR> columns,
+            LongList columnTops,
+            ObjList<BitmapIndexReader> indexReaders,
+            int columnBase,
+            int columnIndex,
+            long partitionRowCount
+    ) {
+        final int plen = path.size();
+        try {
+            final int primaryIndex = getPrimaryColumnIndex(columnBase, columnIndex);
+            final int secondaryIndex = primaryIndex + 1;
+            final long partitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
+            final long partitionNameTxn = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_NAME_TXN);
+            final int columnType = metadata.getColumnType(columnIndex);
+
+            Misc.free(indexReaders.getAndSetQuick(primaryIndex, null));
+            Misc.free(indexReaders.getAndSetQuick(secondaryIndex, null));
+
+            DecodedColumnCache.Entry entry = null;
+            try {
+                if (partitionRowCount > 0) {
+                    path.concat(TableUtils.PARQUET_PARTITION_FILE_NAME).$();
+                    decodedColumnKey.clear();
+                    decodedColumnKey.put(tableToken.getTableId()).put(':')
+                            .put(path).put(':')
+                            .put(metadata.getColumnName(columnIndex)).put(':')
+                            .put(columnType);
+                    entry = decodedColumnCache.acquire(decodedColumnKey);
+                    synchronized (entry) {
+                        if (!entry.isLoaded()) {
+                            decodeParquetColumn(entry, path, partitionTimestamp, partitionNameTxn, columnIndex, columnType, partitionRowCount);
+                        }
+                    }
+                }
+
+                if (entry == null || entry.isAbsent()) {
+                    Misc.free(columns.getAndSetQuick(primaryIndex, NullMemoryMR.INSTANCE));
+                    Misc.free(columns.getAndSetQuick(secondaryIndex, NullMemoryMR.INSTANCE));
+                    columnTops.setQuick(columnBase / 2 + columnIndex, partitionRowCount);
+                    return;
+                }
+
+                getOrCreateDecodedMemory(columns, primaryIndex).of(decodedColumnCache, entry, false);
+                if (ColumnType.isVarSize(columnType)) {
+                    getOrCreateDecodedMemory(columns, secondaryIndex).of(decodedColumnCache, entry, true);
+                } else {
+                    Misc.free(columns.getAndSetQuick(secondaryIndex, null));
+                }
+                columnTops.setQuick(columnBase / 2 + columnIndex, 0);
+            } finally {
+                if (entry != null) {
+                    decodedColumnCache.release(entry);
+                }
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
     /**
      * Updates boundaries of all columns in partition.
      *
@@ -1207,16 +1546,19 @@ public class TableReader implements Closeable, SymbolTableSource {
                 final int index = getPrimaryColumnIndex(columnBase, i);
                 final MemoryMR mem1 = columns.getQuick(index);
                 if (mem1 instanceof NullMemoryMR) {
-                    reloadColumnAt(
-                            partitionIndex,
-                            path,
-                            columns,
-                            columnTops,
-                            bitmapIndexes,
-                            columnBase,
-                            i,
-                            rowCount
-                    );
+                    // unmapped column will be mapped to the partition size on first access
+                    if (mem1 != UNMAPPED_COLUMN) {
+                        openColumnAt(
+                                partitionIndex,
+                                path,
+                                columns,
+                                columnTops,
+                                bitmapIndexes,
+                                columnBase,
+                                i,
+                                rowCount
+                        );
+                    }
                 } else {
                     growColumn(
                             mem1,
@@ -1321,7 +1663,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                                 // 2. Column hasn't been altered, and we can skip to next column.
                                 MemoryMR col = columns.getQuick(getPrimaryColumnIndex(base, i));
                                 if (col instanceof NullMemoryMR) {
-                                    reloadColumnAt(
+                                    openColumnAt(
                                             partitionIndex,
                                             path,
                                             columns,
@@ -1336,7 +1678,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                                 copyColumns(base, copyFrom, columns, columnTops, bitmapIndexes, base, i);
                             } else if (copyFrom != Integer.MIN_VALUE) {
                                 // new instance
-                                reloadColumnAt(
+                                openColumnAt(
                                         partitionIndex,
                                         path,
                                         columns,
@@ -1393,4 +1735,43 @@ public class TableReader implements Closeable, SymbolTableSource {
     int getPartitionIndex(int columnBase) {
         return columnBase >>> columnCountShl;
     }
+
+    private void unmapColumns() {
+        int mappedCount = 0;
+        for (int partitionIndex = partitionCount - 1; partitionIndex > -1; partitionIndex--) {
+            if (openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE) < 0) {
+                continue;
+            }
+            final int columnBase = getColumnBase(partitionIndex);
+            for (int i = 0; i < columnCount; i++) {
+                final int index = getPrimaryColumnIndex(columnBase, i);
+                if (isNotMapped(columns.getQuick(index)) && isNotMapped(columns.getQuick(index + 1))) {
+                    continue;
+                }
+                if (++mappedCount > maxMappedColumns) {
+                    Misc.free(columns.getAndSetQuick(index, UNMAPPED_COLUMN));
+                    Misc.free(columns.getAndSetQuick(index + 1, UNMAPPED_COLUMN));
+                }
+            }
+        }
+        if (mappedCount > maxMappedColumns) {
+            LOG.debug().$("unmapped columns [table=").$(tableToken).$(", count=").$(mappedCount - maxMappedColumns).I$();
+        }
+    }
+
+    private void unmapDecodedColumns() {
+        for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++) {
+            if (openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE) < 0) {
+                continue;
+            }
+            final int columnBase = getColumnBase(partitionIndex);
+            for (int i = 0; i < columnCount; i++) {
+                final int index = getPrimaryColumnIndex(columnBase, i);
+                if (isDecoded(columns.getQuick(index)) || isDecoded(columns.getQuick(index + 1))) {
+                    Misc.free(columns.getAndSetQuick(index, UNMAPPED_COLUMN));
+                    Misc.free(columns.getAndSetQuick(index + 1, UNMAPPED_COLUMN));
+                }
+            }
+        }
+    }
 }
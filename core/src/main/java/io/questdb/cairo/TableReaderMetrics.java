@@ -0,0 +1,64 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.MetricsRegistry;
+import io.questdb.metrics.NullMetricsRegistry;
+
+public class TableReaderMetrics {
+    public static final TableReaderMetrics DISABLED = new TableReaderMetrics(new NullMetricsRegistry());
+    // Reloads that only extended the last partition and/or added new partitions.
+    private final Counter incrementalReloadCounter;
+    // Reloads that moved reader to a newer txn, reloads without new txn are not counted.
+    private final Counter reloadCounter;
+    private final Counter reloadTimeCounter;
+
+    public TableReaderMetrics(MetricsRegistry metricsRegistry) {
+        this.reloadCounter = metricsRegistry.newCounter("reader_reloads");
+        this.incrementalReloadCounter = metricsRegistry.newCounter("reader_incremental_reloads");
+        this.reloadTimeCounter = metricsRegistry.newCounter("reader_reload_nanos");
+    }
+
+    public long getIncrementalReloadCount() {
+        return incrementalReloadCounter.getValue();
+    }
+
+    public long getReloadCount() {
+        return reloadCounter.getValue();
+    }
+
+    public long getReloadTimeNanos() {
+        return reloadTimeCounter.getValue();
+    }
+
+    public void onReload(boolean incremental, long nanos) {
+        reloadCounter.inc();
+        if (incremental) {
+            incrementalReloadCounter.inc();
+        }
+        reloadTimeCounter.add(nanos);
+    }
+}
@@ -25,7 +25,6 @@
 package io.questdb.cairo;
 
 import io.questdb.std.Rows;
-import org.jetbrains.annotations.TestOnly;
 
 public class TableReaderTailRecordCursor extends TableReaderRecordCursor {
 
@@ -74,10 +73,18 @@ public class TableReaderTailRecordCursor extends TableReaderRecordCursor {
         return false;
     }
 
-    @TestOnly
+    /**
+     * Positions cursor past the last committed row, subsequent {@link #reload()} calls
+     * will only yield rows committed after this call.
+     */
     public void toBottom() {
-        lastRowId = Rows.toRowID(reader.getPartitionCount() - 1, reader.getTransientRowCount() - 1);
-        startFrom(lastRowId);
+        if (reader.size() > 0) {
+            lastRowId = Rows.toRowID(reader.getPartitionCount() - 1, reader.getTransientRowCount() - 1);
+            startFrom(lastRowId);
+        } else {
+            lastRowId = -1;
+            toTop();
+        }
         txn = reader.getTxn();
         dataVersion = reader.getDataVersion();
     }
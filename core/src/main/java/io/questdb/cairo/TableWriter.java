@@ -29,6 +29,7 @@ import io.questdb.Metrics;
 import io.questdb.cairo.frm.Frame;
 import io.questdb.cairo.frm.FrameAlgebra;
 import io.questdb.cairo.frm.file.PartitionFrameFactory;
+import io.questdb.cairo.parquet.ParquetDecoder;
 import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableMetadata;
@@ -84,18 +85,16 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     // 3, oldPartitionSize
     // 4, flags (partitionMutates INT, isLastWrittenPartition INT)
     // 5. o3SplitPartitionSize size of "split" partition, new partition that branches out of the old one
+    // 6, original partition timestamp
+    // 7, merge memory reserved for the partition, released when the partition is done
     // ... column top for every column
     public static final int PARTITION_SINK_SIZE_LONGS = 8;
     public static final int PARTITION_SINK_COL_TOP_OFFSET = PARTITION_SINK_SIZE_LONGS * Long.BYTES;
     public static final int TIMESTAMP_MERGE_ENTRY_BYTES = Long.BYTES * 2;
     private static final ObjectFactory<MemoryCMOR> GET_MEMORY_CMOR = Vm::getMemoryCMOR;
     private static final long IGNORE = -1L;
+    private static final long O3_MEMORY_BUDGET_WAIT_MILLIS = 1;
     private static final Log LOG = LogFactory.getLog(TableWriter.class);
-    /*
-        The most recent logical partition is allowed to have up to cairo.o3.last.partition.max.splits (20 by default) splits.
-        Any other partition is allowed to have 0 splits (1 partition in total).
-     */
-    private static final int MAX_MID_SUB_PARTITION_COUNT = 1;
     private static final Runnable NOOP = () -> {
     };
     private static final Row NOOP_ROW = new NoOpRow();
@@ -110,6 +109,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     // Publisher source is identified by a long value
     private final AlterOperation alterOp = new AlterOperation();
     private final LongConsumer appendTimestampSetter;
+    private final BloomFilterWriter bloomFilterWriter;
     private final ColumnVersionWriter columnVersionWriter;
     private final MPSequence commandPubSeq;
     private final RingQueue<TableWriterTask> commandQueue;
@@ -146,12 +146,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final SOUnboundedCountDownLatch o3DoneLatch = new SOUnboundedCountDownLatch();
     private final AtomicInteger o3ErrorCount = new AtomicInteger();
     private final long[] o3LastTimestampSpreads;
+    private final AtomicLong o3MergeMemoryReserved = new AtomicLong();
     private final AtomicLong o3PartitionUpdRemaining = new AtomicLong();
     private final boolean o3QuickSortEnabled;
+    private final AtomicLong o3RewrittenBytesSinceLastCommit = new AtomicLong();
     private final Path other;
     private final MessageBus ownMessageBus;
     private final boolean parallelIndexerEnabled;
     private final int partitionBy;
+    private final long partitionCompressionMinAge;
     private final DateFormat partitionDirFmt;
     private final PartitionFrameFactory partitionFrameFactory;
     private final LongList partitionRemoveCandidates = new LongList();
@@ -173,10 +176,21 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final Uuid uuid = new Uuid();
     private final LowerCaseCharSequenceIntHashMap validationMap = new LowerCaseCharSequenceIntHashMap();
     private final WeakClosableObjectPool<MemoryCMOR> walColumnMemoryPool;
+    // mapped WAL columns of a compact timestamp segment, with the designated timestamp replaced by walTimestampIndexMem
+    private final ObjList<MemoryCR> walExpandedColumns = new ObjList<>();
     private final LongObjHashMap<IntList> walFdCache = new LongObjHashMap<>();
     private final WeakClosableObjectPool<IntList> walFdCacheListPool = new WeakClosableObjectPool<>(IntList::new, 5, true);
     private final LongObjHashMap.LongObjConsumer<IntList> walFdCloseCachedFdAction;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    // timestamp, name txn and size triplets of the partitions that have up-to-date zone maps
+    private final LongList zoneMapPartitions = new LongList();
+    // partitions waiting for zone maps and bloom filters, quadruplets of timestamp, name txn, size and
+    // the size the current zone map was written for
+    private final LongList zoneMapPendingPartitions = new LongList();
+    private final LongList zoneMapPartitionsTmp = new LongList();
+    private final ZoneMapWriter zoneMapWriter;
+    // last attempt to write pending zone maps failed, retry after the next commit or on close
+    private boolean zoneMapRetryDeferred;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -189,6 +203,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long avgRecordSize;
     private boolean avoidIndexOnCommit = false;
     private int columnCount;
+    private boolean columnPurgePending;
     private long committedMasterRef;
     private DedupColumnCommitAddresses dedupColumnCommitAddresses;
     private String designatedTimestampColumnName;
@@ -220,6 +235,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long o3RowCount;
     private MemoryMAT o3TimestampMem;
     private MemoryARW o3TimestampMemCpy;
+    private PartitionCompressor partitionCompressor;
+    private long partitionCompressionTxn = -1;
+    private long partitionSquashTxn = -1;
     private long partitionTimestampHi;
     private boolean performRecovery;
     private boolean processingQueue;
@@ -240,6 +258,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FragileCode RECOVER_FROM_COLUMN_OPEN_FAILURE = this::recoverOpenColumnFailure;
     private UpdateOperatorImpl updateOperatorImpl;
     private int walFdCacheSize;
+    // timestamp and row number pairs restored from a compact timestamp WAL segment
+    private MemoryCARW walTimestampIndexMem;
     private WalTxnDetails walTxnDetails;
 
     public TableWriter(
@@ -281,6 +301,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.path = new Path().of(root).concat(tableToken);
         this.other = new Path().of(root).concat(tableToken);
         this.rootLen = path.size();
+        this.zoneMapWriter = configuration.isPartitionZoneMapEnabled() ? new ZoneMapWriter(configuration) : null;
+        this.bloomFilterWriter = configuration.isPartitionBloomFilterEnabled() ? new BloomFilterWriter(configuration) : null;
+        this.partitionCompressionMinAge = configuration.getPartitionCompressionMinAge();
         try {
             if (lock) {
                 lock();
@@ -344,6 +367,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             configureAppendPosition();
             purgeUnusedPartitions();
             minSplitPartitionTimestamp = findMinSplitPartitionTimestamp();
+            updateZoneMaps(false);
+            scheduleMissingZoneMaps();
             clearTodoLog();
             this.slaveTxReader = new TxReader(ff);
             commandQueue = new RingQueue<>(
@@ -624,6 +649,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             throw CairoException.invalidMetadataRecoverable("cannot create index, column type is not SYMBOL", columnName);
         }
 
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            if (txWriter.isPartitionCompressed(i)) {
+                throw CairoException.invalidMetadataRecoverable("cannot create index, table has compressed partitions", columnName);
+            }
+            if (txWriter.isPartitionParquet(i)) {
+                throw CairoException.invalidMetadataRecoverable("cannot create index, table has parquet partitions", columnName);
+            }
+        }
+
         // create indexer
         final SymbolColumnIndexer indexer = new SymbolColumnIndexer(configuration);
 
@@ -676,6 +710,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         LOG.info().$("ADDED index to '").utf8(columnName).$('[').$(ColumnType.nameOf(existingType)).$("]' to ").$(path).$();
     }
 
+    public void addO3RewrittenBytes(long bytes) {
+        o3RewrittenBytesSinceLastCommit.addAndGet(bytes);
+        metrics.tableWriter().addO3RewrittenBytes(bytes);
+    }
+
     public void addPhysicallyWrittenRows(long rows) {
         physicallyWrittenRowsSinceLastCommit.addAndGet(rows);
         metrics.tableWriter().addPhysicallyWrittenRows(rows);
@@ -774,14 +813,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
         boolean checkPassed = false;
         boolean isSoftLink;
+        boolean isParquet = false;
         try {
             if (ff.exists(detachedPath)) {
 
                 isSoftLink = ff.isSoftLink(detachedPath); // returns false regardless in Windows
+                isParquet = ff.exists(detachedPath.concat(PARQUET_PARTITION_FILE_NAME).$());
+                detachedPath.trimTo(detachedRootLen);
 
                 // detached metadata files validation
                 CharSequence timestampColName = metadata.getColumnMetadata(metadata.getTimestampIndex()).getName();
-                if (partitionSize > -1L) {
+                if (isParquet) {
+                    // parquet partition carries no _meta, _cv and _txn files, data file is validated instead
+                    partitionSize = attachParquetPrepare(timestamp, detachedPath);
+                } else if (partitionSize > -1L) {
                     // read detachedMinTimestamp and detachedMaxTimestamp
                     readPartitionMinMax(ff, timestamp, detachedPath.trimTo(detachedRootLen), timestampColName, partitionSize);
                 } else {
@@ -793,7 +838,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     return AttachDetachStatus.ATTACH_ERR_EMPTY_PARTITION;
                 }
 
-                if (forceRenamePartitionDir && !attachPrepare(timestamp, partitionSize, detachedPath, detachedRootLen)) {
+                if (forceRenamePartitionDir && !isParquet && !attachPrepare(timestamp, partitionSize, detachedPath, detachedRootLen)) {
                     attachValidateMetadata(partitionSize, detachedPath.trimTo(detachedRootLen), timestamp);
                 }
 
@@ -842,6 +887,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             if (isSoftLink) {
                 txWriter.setPartitionReadOnlyByTimestamp(timestamp, true);
             }
+            if (isParquet) {
+                txWriter.setPartitionParquet(txWriter.getPartitionIndex(timestamp));
+            }
             txWriter.bumpTruncateVersion();
 
             columnVersionWriter.commit();
@@ -909,7 +957,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     @Override
     public void close() {
         if (lifecycleManager.close() && isOpen()) {
-            doClose(true);
+            try {
+                if (!distressed) {
+                    // pending partitions would otherwise wait for the next writer to open the table
+                    writePendingZoneMaps();
+                }
+            } finally {
+                doClose(true);
+            }
         }
     }
 
@@ -924,6 +979,27 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return commit(0);
     }
 
+    /**
+     * Compresses one partition that commits have left to the background partition compression
+     * job and publishes it in a txn of its own.
+     *
+     * @return number of bytes written or -1 when there is no partition to compress
+     */
+    public long compressColdPartition() {
+        checkDistressed();
+        if (inTransaction()) {
+            // compression commits, it must not publish rows of the transaction in progress
+            return -1;
+        }
+        final long bytesWritten = compressColdPartition0();
+        if (bytesWritten > -1) {
+            txWriter.commit(denseSymbolMapWriters);
+            processPartitionRemoveCandidates();
+            updateZoneMaps(false);
+        }
+        return bytesWritten;
+    }
+
     public void commitSeqTxn(long seqTxn) {
         txWriter.setSeqTxn(seqTxn);
         txWriter.commit(denseSymbolMapWriters);
@@ -935,6 +1011,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
     public long commitWalTransaction(
             @Transient Path walPath,
+            boolean compactTimestamp,
             boolean inOrder,
             long rowLo,
             long rowHi,
@@ -951,6 +1028,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
 
         physicallyWrittenRowsSinceLastCommit.set(0);
+        o3RewrittenBytesSinceLastCommit.set(0);
         txWriter.beginPartitionSizeUpdate();
         long commitToTimestamp = walTxnDetails.getCommitToTimestamp(seqTxn);
 
@@ -959,6 +1037,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             if (maxLagTxnCount > 0 && txWriter.getLagTxnCount() >= maxLagTxnCount) {
                 // Too many txns are in the lag, so force a full commit.
                 commitToTimestamp = WalTxnDetails.FORCE_FULL_COMMIT;
+            } else if (configuration.isWalApplyCoalesceEnabled()) {
+                // More data transactions follow in the look-ahead window, keep collecting them in the LAG
+                // to sort, dedup and commit them all at once. Lag size limits still trigger the commit.
+                commitToTimestamp = Long.MIN_VALUE;
             } else {
                 // If committed to this timestamp, will it make any of the transactions fully committed?
                 long canCommitToTxn = walTxnDetails.getFullyCommittedTxn(txWriter.getSeqTxn(), seqTxn, commitToTimestamp);
@@ -979,7 +1061,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         final long committedRowCount = txWriter.getRowCount();
         final long walSegmentId = walTxnDetails.getWalSegmentId(seqTxn);
         boolean isLastSegmentUsage = walTxnDetails.isLastSegmentUsage(seqTxn);
-        boolean committed = processWalBlock(walPath, metadata.getTimestampIndex(), inOrder, rowLo, rowHi, o3TimestampMin, o3TimestampMax, mapDiffCursor, commitToTimestamp, walSegmentId, isLastSegmentUsage);
+        boolean committed = processWalBlock(walPath, compactTimestamp, metadata.getTimestampIndex(), inOrder, rowLo, rowHi, o3TimestampMin, o3TimestampMax, mapDiffCursor, commitToTimestamp, walSegmentId, isLastSegmentUsage);
 
         if (committed) {
             // Useful for debugging
@@ -997,11 +1079,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
 
-            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.maxTimestamp, configuration.getO3LastPartitionMaxSplits());
+            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.maxTimestamp, configuration.getO3LastPartitionMaxSplits(), configuration.isPartitionSquashJobEnabled());
 
             // Bookmark masterRef to track how many rows is in uncommitted state
             committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            finishDecompressedColumnPurge();
+            updateZoneMaps(true);
+            schedulePartitionCompression();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -1050,6 +1135,16 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             return AttachDetachStatus.DETACH_ERR_MISSING_PARTITION;
         }
 
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            // compressed column files cannot be validated on attach
+            return AttachDetachStatus.DETACH_ERR_COMPRESSED;
+        }
+
+        if (txWriter.isPartitionParquet(partitionIndex)) {
+            // parquet partition has no column files to detach
+            return AttachDetachStatus.DETACH_ERR_PARQUET;
+        }
+
         // To detach the partition, squash it into single folder if required
         squashPartitionForce(partitionIndex);
 
@@ -1391,9 +1486,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     }
 
     public long getPartitionO3SplitThreshold() {
-        long splitMinSizeBytes = configuration.getPartitionO3SplitMinSize();
-        return splitMinSizeBytes /
-                (avgRecordSize != 0 ? avgRecordSize : (avgRecordSize = TableUtils.estimateAvgRecordSize(metadata)));
+        return configuration.getPartitionO3SplitMinSize() / getAvgRecordSize();
     }
 
     public long getPartitionSize(int partitionIndex) {
@@ -1403,6 +1496,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return txWriter.getPartitionSize(partitionIndex);
     }
 
+    /**
+     * @return bytes of existing partition data rewritten into new partition versions by O3 merges of the last commit
+     */
+    public long getO3RewrittenBytesSinceLastCommit() {
+        return o3RewrittenBytesSinceLastCommit.get();
+    }
+
     public long getPartitionTimestamp(int partitionIndex) {
         return txWriter.getPartitionTimestampByIndex(partitionIndex);
     }
@@ -1631,6 +1731,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
     public boolean processWalBlock(
             @Transient Path walPath,
+            boolean compactTimestamp,
             int timestampIndex,
             boolean ordered,
             long rowLo,
@@ -1668,7 +1769,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         try {
             final long maxLagRows = getWalMaxLagRows();
             final long walLagMaxTimestampBefore = txWriter.getLagMaxTimestamp();
-            mmapWalColumns(walPath, walSegmentId, timestampIndex, rowLo, rowHi);
+            mmapWalColumns(walPath, compactTimestamp, walSegmentId, timestampIndex, rowLo, rowHi);
             final long newMinLagTs = Math.min(o3TimestampMin, txWriter.getLagMinTimestamp());
             long initialPartitionTimestampHi = partitionTimestampHi;
             long commitMaxTimestamp, commitMinTimestamp;
@@ -1726,7 +1827,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 boolean needsDedup = isDeduplicationEnabled();
 
                 long timestampAddr = 0;
-                MemoryCR walTimestampColumn = walMappedColumns.getQuick(getPrimaryColumnIndex(timestampIndex));
+                MemoryCR walTimestampColumn = o3Columns.getQuick(getPrimaryColumnIndex(timestampIndex));
                 o3Columns = remapWalSymbols(mapDiffCursor, rowLo, rowHi, walPath);
 
                 if (needsOrdering || needsDedup) {
@@ -2033,6 +2134,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         final int index = getColumnIndex(currentName);
         final int type = metadata.getColumnType(index);
 
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            if (txWriter.isPartitionParquet(i)) {
+                // parquet columns are matched by name
+                throw CairoException.invalidMetadataRecoverable("cannot rename column, table has parquet partitions", currentName);
+            }
+        }
+
         LOG.info().$("renaming column '").utf8(currentName).$('[').$(ColumnType.nameOf(type)).$("]' to '").utf8(newName).$("' in ").$(path).$();
 
         commit();
@@ -2103,6 +2211,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             try {
                 LOG.info().$("tx rollback [name=").utf8(tableToken.getTableName()).I$();
                 partitionRemoveCandidates.clear();
+                if (columnPurgePending) {
+                    // compressed column files are live again
+                    purgingOperator.clear();
+                    columnPurgePending = false;
+                }
                 o3CommitBatchTimestampMin = Long.MAX_VALUE;
                 if ((masterRef & 1) != 0) {
                     masterRef++;
@@ -2205,6 +2318,18 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Squashes split partitions that commits have left to the background partition squash job.
+     *
+     * @return estimated number of bytes written
+     */
+    public long squashSplitPartitions() {
+        checkDistressed();
+        final long writtenRows = physicallyWrittenRowsSinceLastCommit.get();
+        squashSplitPartitions(minSplitPartitionTimestamp, txWriter.getMaxTimestamp(), configuration.getO3LastPartitionMaxSplits(), false);
+        return (physicallyWrittenRowsSinceLastCommit.get() - writtenRows) * getAvgRecordSize();
+    }
+
     @Override
     public boolean supportsMultipleWriters() {
         return false;
@@ -2231,6 +2356,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         // Some alter table trigger commit() which trigger tick()
         // If already inside the tick(), do not re-enter it.
         processCommandQueue(contextAllowsAnyStructureChanges);
+        if (!zoneMapRetryDeferred) {
+            writePendingZoneMaps();
+        }
     }
 
     @Override
@@ -2583,6 +2711,97 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 || columns.get(getPrimaryColumnIndex(metadata.getTimestampIndex())).getAppendOffset() == (txWriter.getTransientRowCount() + txWriter.getLagRowCount()) * Long.BYTES;
     }
 
+    // Validates data.parquet file of the detached partition and adds values of its symbol columns
+    // to the symbol maps of the table. Sets min and max timestamps of the partition, returns partition size.
+    private long attachParquetPrepare(long partitionTimestamp, Path detachedPath) {
+        if (txWriter.getPartitionCount() == 0 || partitionTimestamp > txWriter.getLastPartitionTimestamp()) {
+            throw CairoException.nonCritical().put("parquet partition cannot be attached as the last partition [path=").put(detachedPath).put(']');
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (metadata.getColumnType(i) > 0 && metadata.isColumnIndexed(i)) {
+                throw CairoException.nonCritical().put("parquet partition cannot be attached to table with indexed columns [column=")
+                        .put(metadata.getColumnName(i)).put(']');
+            }
+        }
+
+        final int pathLen = detachedPath.size();
+        try (
+                ParquetDecoder decoder = new ParquetDecoder();
+                MemoryCARW dataMem = Vm.getCARWInstance(configuration.getDataAppendPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_WRITER);
+                MemoryCARW auxMem = Vm.getCARWInstance(configuration.getDataAppendPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_WRITER)
+        ) {
+            decoder.of(ff, detachedPath.concat(PARQUET_PARTITION_FILE_NAME).$());
+            final long partitionSize = decoder.getRowCount();
+            if (partitionSize < 1) {
+                return partitionSize;
+            }
+
+            final int timestampIndex = metadata.getTimestampIndex();
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0) {
+                    continue;
+                }
+                final int fileColumnIndex = decoder.getColumnIndex(metadata.getColumnName(i));
+                if (fileColumnIndex < 0) {
+                    if (i == timestampIndex) {
+                        throw CairoException.nonCritical().put("designated timestamp column is missing in parquet file [path=").put(detachedPath)
+                                .put(", column=").put(metadata.getColumnName(i))
+                                .put(']');
+                    }
+                    continue;
+                }
+                if (!decoder.isCompatible(fileColumnIndex, columnType)) {
+                    throw CairoException.nonCritical().put("parquet column type mismatch [path=").put(detachedPath)
+                            .put(", column=").put(metadata.getColumnName(i))
+                            .put(", type=").put(ColumnType.nameOf(columnType))
+                            .put(']');
+                }
+            }
+
+            decoder.decodeColumn(decoder.getColumnIndex(metadata.getColumnName(timestampIndex)), ColumnType.TIMESTAMP, dataMem, auxMem, null);
+            long prev = Long.MIN_VALUE;
+            for (long r = 0; r < partitionSize; r++) {
+                final long ts = dataMem.getLong(r * Long.BYTES);
+                if (ts < prev || ts < partitionTimestamp) {
+                    throw CairoException.nonCritical().put("parquet partition timestamps are not in order or out of partition range [path=").put(detachedPath)
+                            .put(", row=").put(r)
+                            .put(']');
+                }
+                prev = ts;
+            }
+            attachMinTimestamp = dataMem.getLong(0);
+            attachMaxTimestamp = prev;
+            if (txWriter.getPartitionTimestampByTimestamp(attachMaxTimestamp) != partitionTimestamp) {
+                throw CairoException.nonCritical()
+                        .put("invalid timestamp column data in detached partition, data does not match partition directory name [path=").put(detachedPath)
+                        .put(", minTimestamp=").ts(attachMinTimestamp)
+                        .put(", maxTimestamp=").ts(attachMaxTimestamp).put(']');
+            }
+
+            // symbol columns are stored as strings, symbol keys are resolved by table reader on decode
+            for (int i = 0; i < columnCount; i++) {
+                if (!ColumnType.isSymbol(metadata.getColumnType(i))) {
+                    continue;
+                }
+                final int fileColumnIndex = decoder.getColumnIndex(metadata.getColumnName(i));
+                if (fileColumnIndex < 0) {
+                    continue;
+                }
+                dataMem.truncate();
+                auxMem.truncate();
+                decoder.decodeColumn(fileColumnIndex, ColumnType.STRING, dataMem, auxMem, null);
+                final MapWriter symbolMapWriter = symbolMapWriters.getQuick(i);
+                for (long r = 0; r < partitionSize; r++) {
+                    symbolMapWriter.put(dataMem.getStrA(auxMem.getLong(r * Long.BYTES)));
+                }
+            }
+            return partitionSize;
+        } finally {
+            detachedPath.trimTo(pathLen);
+        }
+    }
+
     private void attachPartitionCheckFilesMatchFixedColumn(
             int columnType,
             long partitionSize,
@@ -3096,6 +3315,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long commit(long o3MaxLag) {
         checkDistressed();
         physicallyWrittenRowsSinceLastCommit.set(0);
+        o3RewrittenBytesSinceLastCommit.set(0);
 
         if (o3InError) {
             rollback();
@@ -3145,11 +3365,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             txWriter.commit(denseSymbolMapWriters);
 
             // Check if partitions are split into too many pieces and merge few of them back.
-            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.getMaxTimestamp(), configuration.getO3LastPartitionMaxSplits());
+            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.getMaxTimestamp(), configuration.getO3LastPartitionMaxSplits(), configuration.isPartitionSquashJobEnabled());
 
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            finishDecompressedColumnPurge();
+            updateZoneMaps(true);
+            schedulePartitionCompression();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -3164,6 +3387,52 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return TableSequencer.NO_TXN;
     }
 
+    /**
+     * Rewrites the oldest partition that is older than the configured age in compressed form.
+     * Compressed partition is written into a new partition version, the previous version is
+     * purged once there are no readers using it. Does not commit.
+     *
+     * @return number of bytes written or -1 when there is no partition to compress
+     */
+    private long compressColdPartition0() {
+        final int partitionIndex = findColdPartitionIndex();
+        if (partitionIndex < 0) {
+            return -1;
+        }
+
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final long bytesWritten;
+        try {
+            setPathForPartition(path, partitionBy, partitionTimestamp, partitionNameTxn);
+            setPathForPartition(other, partitionBy, partitionTimestamp, txWriter.txn);
+            final int otherLen = other.size();
+            createDirsOrFail(ff, other.slash$(), configuration.getMkDirMode());
+            try {
+                bytesWritten = getPartitionCompressor().compress(path, other.trimTo(otherLen), metadata, columnVersionWriter, partitionTimestamp, partitionSize);
+            } catch (Throwable th) {
+                ff.rmdir(other.trimTo(otherLen).slash$());
+                throw th;
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        LOG.info().$("compressed partition [table=").utf8(tableToken.getTableName())
+                .$(", partition=").$ts(partitionTimestamp)
+                .$(", rowCount=").$(partitionSize)
+                .$(", bytesWritten=").$(bytesWritten)
+                .I$();
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionCompressed(partitionIndex);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(partitionTimestamp, partitionNameTxn);
+        return bytesWritten;
+    }
+
     private void configureAppendPosition() {
         final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || !partitioned) {
@@ -4096,6 +4365,66 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Restores plain column files of a compressed partition, so that rows can be merged into it.
+     * Columns are written into the same partition directory under new column versions, compressed
+     * files are purged after commit, once there are no readers using them.
+     *
+     * @param partitionIndex index of the compressed partition
+     */
+    private void decompressPartition(int partitionIndex) {
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final PartitionCompressor partitionCompressor = getPartitionCompressor();
+        final PurgingOperator purgingOperator = columnPurgePending ? this.purgingOperator : getPurgingOperator();
+        columnPurgePending = true;
+        try {
+            setPathForPartition(path, partitionBy, partitionTimestamp, partitionNameTxn);
+            setPathForPartition(other, partitionBy, partitionTimestamp, partitionNameTxn);
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0 || i == metadata.getTimestampIndex()) {
+                    // designated timestamp is not compressed
+                    continue;
+                }
+                final int recordIndex = columnVersionWriter.getRecordIndex(partitionTimestamp, i);
+                final long columnTop = columnVersionWriter.getColumnTopByIndexOrDefault(recordIndex, partitionTimestamp, i, -1);
+                if (columnTop < 0 || columnTop >= partitionSize) {
+                    // column does not exist in the partition
+                    continue;
+                }
+                long columnNameTxn = columnVersionWriter.getColumnNameTxnByIndex(recordIndex);
+                if (columnNameTxn == -1) {
+                    columnNameTxn = columnVersionWriter.getDefaultColumnNameTxn(i);
+                }
+                partitionCompressor.decompress(
+                        path,
+                        other,
+                        metadata.getColumnName(i),
+                        columnType,
+                        metadata.isColumnIndexed(i),
+                        columnNameTxn,
+                        txWriter.txn
+                );
+                columnVersionWriter.upsert(partitionTimestamp, i, txWriter.txn, columnTop);
+                purgingOperator.add(i, columnNameTxn, partitionTimestamp, partitionNameTxn);
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+        txWriter.updatePartitionColumnVersion(partitionTimestamp);
+        txWriter.setPartitionUncompressed(partitionIndex);
+        txWriter.bumpPartitionTableVersion();
+
+        LOG.info().$("decompressed partition [table=").utf8(tableToken.getTableName())
+                .$(", partition=").$ts(partitionTimestamp)
+                .$(", rowCount=").$(partitionSize)
+                .$(", columnVersion=").$(txWriter.txn)
+                .I$();
+    }
+
     private long deduplicateSortedIndex(long longIndexLength, long indexSrcAddr, long indexDstAddr, long tempIndexAddr, long lagRows) {
         LOG.info().$("WAL dedup sorted commit index [table=").$(tableToken).$(", totalRows=").$(longIndexLength).$(", lagRows=").$(lagRows).I$();
         int dedupKeyIndex = 0;
@@ -4222,6 +4551,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(slaveTxReader);
         Misc.free(commandQueue);
         Misc.free(dedupColumnCommitAddresses);
+        Misc.free(zoneMapWriter);
+        Misc.free(bloomFilterWriter);
+        Misc.free(partitionCompressor);
         closeWalFiles();
         updateOperatorImpl = Misc.free(updateOperatorImpl);
         dropIndexOperator = null;
@@ -4238,6 +4570,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             Misc.free(path);
             Misc.free(o3TimestampMem);
             Misc.free(o3TimestampMemCpy);
+            walTimestampIndexMem = Misc.free(walTimestampIndexMem);
             Misc.free(ownMessageBus);
             if (tempMem16b != 0) {
                 Unsafe.free(tempMem16b, 16, MemoryTag.NATIVE_TABLE_WRITER);
@@ -4337,6 +4670,28 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return true;
     }
 
+    // Compact timestamp WAL segments store designated timestamps without row numbers. Sorting, dedup and
+    // the WAL lag copy work on timestamp and row number pairs, restore them in memory for the applied rows.
+    // Like the mapped columns, the pairs are addressed by the segment row number.
+    private ReadOnlyObjList<? extends MemoryCR> expandWalTimestamps(int timestampIndex, long rowLo, long rowHi) {
+        final int primaryColumnIndex = getPrimaryColumnIndex(timestampIndex);
+        final MemoryCR walTimestampColumn = walMappedColumns.getQuick(primaryColumnIndex);
+        if (walTimestampIndexMem == null) {
+            walTimestampIndexMem = Vm.getCARWInstance(o3ColumnMemorySize, configuration.getO3MemMaxPages(), MemoryTag.NATIVE_O3);
+        }
+        walTimestampIndexMem.shiftAddressRight(0);
+        walTimestampIndexMem.jumpTo(0);
+        for (long rowId = rowLo; rowId < rowHi; rowId++) {
+            walTimestampIndexMem.putLong128(walTimestampColumn.getLong(rowId << 3), rowId);
+        }
+        walTimestampIndexMem.shiftAddressRight(rowLo << 4);
+
+        walExpandedColumns.clear();
+        walExpandedColumns.addAll(walMappedColumns);
+        walExpandedColumns.setQuick(primaryColumnIndex, walTimestampIndexMem);
+        return walExpandedColumns;
+    }
+
     private long findMinSplitPartitionTimestamp() {
         for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
             long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
@@ -4364,6 +4719,51 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         purgingOperator.clear();
     }
 
+    /**
+     * Returns index of the oldest partition that is older than cairo.partition.compression.min.age
+     * and is not compressed yet, or -1 when there is no such partition. The last logical partition,
+     * split and read-only partitions are left as they are.
+     */
+    private int findColdPartitionIndex() {
+        if (
+                partitionCompressionMinAge <= 0
+                        || txWriter.getPartitionCount() < 2
+                        || snapshotAgent.isInProgress()
+                        // partition restored by the commit in progress is compressed again later
+                        || columnPurgePending
+        ) {
+            return -1;
+        }
+
+        final long maxAgeTimestamp = txWriter.getMaxTimestamp() - partitionCompressionMinAge;
+        final long lastLogicalPartitionTimestamp = txWriter.getLogicalPartitionTimestamp(txWriter.getLastPartitionTimestamp());
+        for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+            final long logicalPartitionTimestamp = txWriter.getLogicalPartitionTimestamp(partitionTimestamp);
+            if (logicalPartitionTimestamp == lastLogicalPartitionTimestamp || txWriter.getNextPartitionTimestamp(partitionTimestamp) > maxAgeTimestamp) {
+                return -1;
+            }
+
+            if (
+                    txWriter.isPartitionReadOnly(i)
+                            // split partitions are squashed first
+                            || logicalPartitionTimestamp != partitionTimestamp
+                            || txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByIndex(i + 1)) == logicalPartitionTimestamp
+            ) {
+                continue;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private void finishDecompressedColumnPurge() {
+        if (columnPurgePending) {
+            columnPurgePending = false;
+            finishColumnPurge();
+        }
+    }
+
     private void finishMetaSwapUpdate() {
         finishMetadataSwap();
         bumpMetadataVersion();
@@ -4502,10 +4902,21 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private long getAvgRecordSize() {
+        return avgRecordSize != 0 ? avgRecordSize : (avgRecordSize = TableUtils.estimateAvgRecordSize(metadata));
+    }
+
     private long getO3RowCount0() {
         return (masterRef - o3MasterRef + 1) / 2;
     }
 
+    private PartitionCompressor getPartitionCompressor() {
+        if (partitionCompressor == null) {
+            partitionCompressor = new PartitionCompressor(configuration);
+        }
+        return partitionCompressor;
+    }
+
     private long getPartitionTimestampOrMax(int partitionIndex) {
         if (partitionIndex < txWriter.getPartitionCount()) {
             return txWriter.getPartitionTimestampByIndex(partitionIndex);
@@ -4751,7 +5162,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
-    private void mmapWalColumns(@Transient Path walPath, long walSegmentId, int timestampIndex, long rowLo, long rowHi) {
+    private void mmapWalColumns(@Transient Path walPath, boolean compactTimestamp, long walSegmentId, int timestampIndex, long rowLo, long rowHi) {
         walMappedColumns.clear();
         int walPathLen = walPath.size();
         final int columnCount = metadata.getColumnCount();
@@ -4767,7 +5178,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 final int columnType = metadata.getColumnType(columnIndex);
                 o3RowCount = rowHi - rowLo;
                 if (columnType > 0) {
-                    int sizeBitsPow2 = ColumnType.getWalDataColumnShl(columnType, columnIndex == timestampIndex);
+                    int sizeBitsPow2 = ColumnType.getWalDataColumnShl(columnType, columnIndex == timestampIndex && !compactTimestamp);
 
                     if (ColumnType.isVarSize(columnType)) {
                         MemoryCMOR auxMem = walColumnMemoryPool.pop();
@@ -4832,7 +5243,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     walMappedColumns.add(null);
                 }
             }
-            o3Columns = walMappedColumns;
+            o3Columns = compactTimestamp ? expandWalTimestamps(timestampIndex, rowLo, rowHi) : walMappedColumns;
         } catch (Throwable th) {
             closeWalColumns(true, walSegmentId);
             throw th;
@@ -4850,6 +5261,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return row;
     }
 
+    private void o3AwaitPartitionUpdates() {
+        do {
+            o3ProcessQueuedTask();
+        } while (this.o3PartitionUpdRemaining.get() > 0);
+    }
+
     /**
      * Commits O3 data. Lag is optional. When 0 is specified the entire O3 segment is committed.
      *
@@ -5230,83 +5647,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     }
 
     private void o3ConsumePartitionUpdates() {
-        final Sequence partitionSubSeq = messageBus.getO3PartitionSubSeq();
-        final RingQueue<O3PartitionTask> partitionQueue = messageBus.getO3PartitionQueue();
-        final Sequence openColumnSubSeq = messageBus.getO3OpenColumnSubSeq();
-        final RingQueue<O3OpenColumnTask> openColumnQueue = messageBus.getO3OpenColumnQueue();
-        final Sequence copySubSeq = messageBus.getO3CopySubSeq();
-        final RingQueue<O3CopyTask> copyQueue = messageBus.getO3CopyQueue();
-
-        do {
-            long cursor = partitionSubSeq.next();
-            if (cursor > -1) {
-                final O3PartitionTask partitionTask = partitionQueue.get(cursor);
-                if (partitionTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
-                    // do we need to free anything on the task?
-                    partitionSubSeq.done(cursor);
-                    o3ClockDownPartitionUpdateCount();
-                    o3CountDownDoneLatch();
-                } else {
-                    o3ProcessPartitionSafe(partitionSubSeq, cursor, partitionTask);
-                }
-                continue;
-            }
-
-            cursor = openColumnSubSeq.next();
-            if (cursor > -1) {
-                O3OpenColumnTask openColumnTask = openColumnQueue.get(cursor);
-                if (openColumnTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
-                    O3CopyJob.closeColumnIdle(
-                            openColumnTask.getColumnCounter(),
-                            openColumnTask.getTimestampMergeIndexAddr(),
-                            openColumnTask.getTimestampMergeIndexSize(),
-                            openColumnTask.getSrcTimestampFd(),
-                            openColumnTask.getSrcTimestampAddr(),
-                            openColumnTask.getSrcTimestampSize(),
-                            this
-                    );
-                    openColumnSubSeq.done(cursor);
-                } else {
-                    o3OpenColumnSafe(openColumnSubSeq, cursor, openColumnTask);
-                }
-                continue;
-            }
-
-            cursor = copySubSeq.next();
-            if (cursor > -1) {
-                O3CopyTask copyTask = copyQueue.get(cursor);
-                if (copyTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
-                    O3CopyJob.copyIdle(
-                            copyTask.getColumnCounter(),
-                            copyTask.getPartCounter(),
-                            copyTask.getTimestampMergeIndexAddr(),
-                            copyTask.getTimestampMergeIndexSize(),
-                            copyTask.getSrcDataFixFd(),
-                            copyTask.getSrcDataFixAddr(),
-                            copyTask.getSrcDataFixSize(),
-                            copyTask.getSrcDataVarFd(),
-                            copyTask.getSrcDataVarAddr(),
-                            copyTask.getSrcDataVarSize(),
-                            copyTask.getDstFixFd(),
-                            copyTask.getDstFixAddr(),
-                            copyTask.getDstFixSize(),
-                            copyTask.getDstVarFd(),
-                            copyTask.getDstVarAddr(),
-                            copyTask.getDstVarSize(),
-                            copyTask.getSrcTimestampFd(),
-                            copyTask.getSrcTimestampAddr(),
-                            copyTask.getSrcTimestampSize(),
-                            copyTask.getDstKFd(),
-                            copyTask.getDstVFd(),
-                            this
-                    );
-                    copySubSeq.done(cursor);
-                } else {
-                    o3CopySafe(cursor);
-                }
-            }
-        } while (this.o3PartitionUpdRemaining.get() > 0);
-
+        o3AwaitPartitionUpdates();
         if (o3ErrorCount.get() == 0) {
             o3ConsumePartitionUpdateSink();
         }
@@ -5329,6 +5670,33 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Rows cannot be merged into compressed column files. Partitions of the O3 block that are
+     * compressed are restored in plain form upfront, before partition tasks start reading
+     * column versions.
+     */
+    private void o3DecompressPartitions(long sortedTimestampsAddr, long rowLo, long srcOooMax, long o3TimestampMax) {
+        long srcOoo = rowLo;
+        while (srcOoo < srcOooMax) {
+            final long o3Timestamp = getTimestampIndexValue(sortedTimestampsAddr, srcOoo);
+            final int partitionIndex = txWriter.getPartitionIndex(txWriter.getPartitionTimestampByTimestamp(o3Timestamp));
+            if (partitionIndex > -1 && txWriter.isPartitionCompressed(partitionIndex)) {
+                decompressPartition(partitionIndex);
+            }
+            final long srcOooTimestampCeil = txWriter.getNextPartitionTimestamp(o3Timestamp) - 1;
+            if (srcOooTimestampCeil >= o3TimestampMax) {
+                return;
+            }
+            srcOoo = Vect.boundedBinarySearchIndexT(
+                    sortedTimestampsAddr,
+                    srcOooTimestampCeil,
+                    srcOoo,
+                    srcOooMax - 1,
+                    BinarySearch.SCAN_DOWN
+            ) + 1;
+        }
+    }
+
     private long o3MoveUncommitted() {
         final long committedRowCount = txWriter.unsafeCommittedFixedRowCount() + txWriter.unsafeCommittedTransientRowCount();
         final long rowsAdded = txWriter.getRowCount() - committedRowCount;
@@ -5382,6 +5750,93 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         LOG.debug().$("switched partition to memory").$();
     }
 
+    /**
+     * Processes one task from O3 queues, tasks of other writers included.
+     *
+     * @return true if a task was processed, false if the queues are empty
+     */
+    private boolean o3ProcessQueuedTask() {
+        final Sequence partitionSubSeq = messageBus.getO3PartitionSubSeq();
+        final RingQueue<O3PartitionTask> partitionQueue = messageBus.getO3PartitionQueue();
+        final Sequence openColumnSubSeq = messageBus.getO3OpenColumnSubSeq();
+        final RingQueue<O3OpenColumnTask> openColumnQueue = messageBus.getO3OpenColumnQueue();
+        final Sequence copySubSeq = messageBus.getO3CopySubSeq();
+        final RingQueue<O3CopyTask> copyQueue = messageBus.getO3CopyQueue();
+
+        long cursor = partitionSubSeq.next();
+        if (cursor > -1) {
+            final O3PartitionTask partitionTask = partitionQueue.get(cursor);
+            if (partitionTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
+                // do we need to free anything on the task?
+                final long partitionUpdateSinkAddr = partitionTask.getPartitionUpdateSinkAddr();
+                partitionSubSeq.done(cursor);
+                o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
+                o3CountDownDoneLatch();
+            } else {
+                o3ProcessPartitionSafe(partitionSubSeq, cursor, partitionTask);
+            }
+            return true;
+        }
+
+        cursor = openColumnSubSeq.next();
+        if (cursor > -1) {
+            O3OpenColumnTask openColumnTask = openColumnQueue.get(cursor);
+            if (openColumnTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
+                O3CopyJob.closeColumnIdle(
+                        openColumnTask.getColumnCounter(),
+                        openColumnTask.getTimestampMergeIndexAddr(),
+                        openColumnTask.getTimestampMergeIndexSize(),
+                        openColumnTask.getSrcTimestampFd(),
+                        openColumnTask.getSrcTimestampAddr(),
+                        openColumnTask.getSrcTimestampSize(),
+                        openColumnTask.getPartitionUpdateSinkAddr(),
+                        this
+                );
+                openColumnSubSeq.done(cursor);
+            } else {
+                o3OpenColumnSafe(openColumnSubSeq, cursor, openColumnTask);
+            }
+            return true;
+        }
+
+        cursor = copySubSeq.next();
+        if (cursor > -1) {
+            O3CopyTask copyTask = copyQueue.get(cursor);
+            if (copyTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
+                O3CopyJob.copyIdle(
+                        copyTask.getColumnCounter(),
+                        copyTask.getPartCounter(),
+                        copyTask.getTimestampMergeIndexAddr(),
+                        copyTask.getTimestampMergeIndexSize(),
+                        copyTask.getSrcDataFixFd(),
+                        copyTask.getSrcDataFixAddr(),
+                        copyTask.getSrcDataFixSize(),
+                        copyTask.getSrcDataVarFd(),
+                        copyTask.getSrcDataVarAddr(),
+                        copyTask.getSrcDataVarSize(),
+                        copyTask.getDstFixFd(),
+                        copyTask.getDstFixAddr(),
+                        copyTask.getDstFixSize(),
+                        copyTask.getDstVarFd(),
+                        copyTask.getDstVarAddr(),
+                        copyTask.getDstVarSize(),
+                        copyTask.getSrcTimestampFd(),
+                        copyTask.getSrcTimestampAddr(),
+                        copyTask.getSrcTimestampSize(),
+                        copyTask.getDstKFd(),
+                        copyTask.getDstVFd(),
+                        copyTask.getPartitionUpdateSinkAddr(),
+                        this
+                );
+                copySubSeq.done(cursor);
+            } else {
+                o3CopySafe(cursor);
+            }
+            return true;
+        }
+        return false;
+    }
+
     private void o3ProcessPartitionSafe(Sequence partitionSubSeq, long cursor, O3PartitionTask partitionTask) {
         try {
             O3PartitionJob.processPartition(partitionTask, cursor, partitionSubSeq);
@@ -5392,6 +5847,30 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void o3ReleaseMergeMemory() {
+        // partitions release their reservations as they finish, this is what is left
+        // of the partitions that failed to publish
+        messageBus.getO3MemoryBudget().release(o3MergeMemoryReserved.getAndSet(0));
+    }
+
+    private void o3ReserveMergeMemory(long size) {
+        final O3MemoryBudget budget = messageBus.getO3MemoryBudget();
+        if (!budget.tryAcquire(size)) {
+            LOG.info().$("o3 memory budget exhausted, waiting for partition merges [table=").utf8(tableToken.getTableName())
+                    .$(", reserved=").$(o3MergeMemoryReserved.get())
+                    .$(", used=").$(budget.getUsed())
+                    .$(", limit=").$(budget.getLimit())
+                    .I$();
+            boolean acquired;
+            do {
+                // help draining O3 queues, tasks release merge memory as their partitions finish,
+                // park until memory is released when there is nothing to help with
+                acquired = o3ProcessQueuedTask() ? budget.tryAcquire(size) : budget.tryAcquire(size, O3_MEMORY_BUDGET_WAIT_MILLIS);
+            } while (!acquired);
+        }
+        o3MergeMemoryReserved.addAndGet(size);
+    }
+
     private void o3SetAppendOffset(
             int columnIndex,
             final int columnType,
@@ -5709,6 +6188,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         long srcOoo = rowLo;
         int pCount = 0;
         try {
+            try {
+                o3DecompressPartitions(sortedTimestampsAddr, rowLo, srcOooMax, o3TimestampMax);
+            } catch (Throwable th) {
+                success = false;
+                throw th;
+            }
             resizePartitionUpdateSink();
 
             // One loop iteration per partition.
@@ -5809,6 +6294,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                         continue;
                     }
 
+                    long mergeMemory = 0;
+                    if (!append) {
+                        // merge index is the bulk of native memory the partition task holds until its columns are copied
+                        mergeMemory = newPartitionSize * TIMESTAMP_MERGE_ENTRY_BYTES;
+                        o3ReserveMergeMemory(mergeMemory);
+                    }
+
                     o3PartitionUpdRemaining.incrementAndGet();
                     final O3Basket o3Basket = o3BasketPool.next();
                     o3Basket.checkCapacity(configuration, columnCount, indexCount);
@@ -5828,6 +6320,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     Unsafe.getUnsafe().putLong(partitionUpdateSinkAddr, partitionTimestamp);
                     // original partition timestamp
                     Unsafe.getUnsafe().putLong(partitionUpdateSinkAddr + 6 * Long.BYTES, partitionTimestamp);
+                    Unsafe.getUnsafe().putLong(partitionUpdateSinkAddr + 7 * Long.BYTES, mergeMemory);
 
 
                     if (append) {
@@ -5838,7 +6331,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                             setAppendPosition(srcDataMax, false);
                         } catch (Throwable e) {
                             o3BumpErrorCount();
-                            o3ClockDownPartitionUpdateCount();
+                            o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
                             o3CountDownDoneLatch();
                             throw e;
                         }
@@ -5909,7 +6402,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                                 );
                             } catch (Throwable e) {
                                 if (columnCounter.addAndGet(columnsPublished - columnCount) == 0) {
-                                    o3ClockDownPartitionUpdateCount();
+                                    o3ClockDownPartitionUpdateCount(partitionUpdateSinkAddr);
                                     o3CountDownDoneLatch();
                                 }
                                 throw e;
@@ -5962,8 +6455,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     .$(", partitionsPublished=").$(pCount)
                     .I$();
 
-            o3ConsumePartitionUpdates();
-            o3DoneLatch.await(latchCount);
+            try {
+                o3ConsumePartitionUpdates();
+                o3DoneLatch.await(latchCount);
+            } finally {
+                o3ReleaseMergeMemory();
+            }
 
             o3InError = !success || o3ErrorCount.get() > 0;
             if (success && o3ErrorCount.get() > 0) {
@@ -6892,6 +7389,50 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         processPartitionRemoveCandidates();
     }
 
+    void schedulePartitionCompression() {
+        if (partitionCompressionTxn == txWriter.getTxn() || findColdPartitionIndex() < 0) {
+            return;
+        }
+        final MPSequence seq = messageBus.getPartitionCompressionPubSeq();
+        while (true) {
+            long cursor = seq.next();
+            if (cursor > -1) {
+                messageBus.getPartitionCompressionQueue().get(cursor).of(tableToken);
+                seq.done(cursor);
+                partitionCompressionTxn = txWriter.getTxn();
+                LOG.info().$("scheduled partition compression [table=").utf8(tableToken.getTableName()).I$();
+                return;
+            } else if (cursor == -1) {
+                // next commit schedules it again
+                LOG.info().$("partition compression queue is full [table=").utf8(tableToken.getTableName()).I$();
+                return;
+            }
+            Os.pause();
+        }
+    }
+
+    private boolean schedulePartitionSquash() {
+        if (partitionSquashTxn == txWriter.getTxn()) {
+            // already scheduled by this commit
+            return true;
+        }
+        final MPSequence seq = messageBus.getPartitionSquashPubSeq();
+        while (true) {
+            long cursor = seq.next();
+            if (cursor > -1) {
+                messageBus.getPartitionSquashQueue().get(cursor).of(tableToken);
+                seq.done(cursor);
+                partitionSquashTxn = txWriter.getTxn();
+                LOG.info().$("scheduled partition squash [table=").utf8(tableToken.getTableName()).I$();
+                return true;
+            } else if (cursor == -1) {
+                LOG.info().$("partition squash queue is full, squashing on commit [table=").utf8(tableToken.getTableName()).I$();
+                return false;
+            }
+            Os.pause();
+        }
+    }
+
     private void scheduleRemoveAllPartitions() {
         for (int i = txWriter.getPartitionCount() - 1; i > -1L; i--) {
             long timestamp = txWriter.getPartitionTimestampByIndex(i);
@@ -7011,11 +7552,17 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
-    private void squashPartitionRange(int maxLastSubPartitionCount, int partitionIndexLo, int partitionIndexHi) {
+    private void squashPartitionRange(int maxLastSubPartitionCount, int partitionIndexLo, int partitionIndexHi, boolean deferMidPartitions) {
         if (partitionIndexHi > partitionIndexLo) {
             int subpartitions = partitionIndexHi - partitionIndexLo;
-            int optimalPartitionCount = partitionIndexHi == txWriter.getPartitionCount() ? maxLastSubPartitionCount : MAX_MID_SUB_PARTITION_COUNT;
+            // The most recent logical partition is allowed to have up to cairo.o3.last.partition.max.splits (20 by default) parts.
+            // Any other partition is allowed cairo.o3.mid.partition.max.splits parts (1 by default, i.e. no splits), keeping
+            // more of them makes repeated O3 inserts into older partitions write only the rows after the split point.
+            int optimalPartitionCount = partitionIndexHi == txWriter.getPartitionCount() ? maxLastSubPartitionCount : configuration.getO3MidPartitionMaxSplits();
             if (subpartitions > Math.max(1, optimalPartitionCount)) {
+                if (deferMidPartitions && partitionIndexHi < txWriter.getPartitionCount() && schedulePartitionSquash()) {
+                    return;
+                }
                 squashSplitPartitions(partitionIndexLo, partitionIndexHi, optimalPartitionCount, false);
             } else if (subpartitions == 1) {
                 if (partitionIndexLo >= 0 &&
@@ -7037,7 +7584,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByIndex(partitionIndex));
     }
 
-    private void squashSplitPartitions(long timestampMin, long timestampMax, int maxLastSubPartitionCount) {
+    private void squashSplitPartitions(long timestampMin, long timestampMax, int maxLastSubPartitionCount, boolean deferMidPartitions) {
         if (timestampMin > txWriter.getMaxTimestamp() || txWriter.getPartitionCount() < 2) {
             return;
         }
@@ -7056,7 +7603,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 long newLogicalPartition = txWriter.getLogicalPartitionTimestamp(partitionTimestamp);
 
                 if (logicalPartition != newLogicalPartition) {
-                    squashPartitionRange(maxLastSubPartitionCount, partitionIndexLo, partitionIndex);
+                    squashPartitionRange(maxLastSubPartitionCount, partitionIndexLo, partitionIndex, deferMidPartitions);
 
                     // txn records can be changed by squashing. Reset the position and the partition count.
                     partitionCount = txWriter.getPartitionCount();
@@ -7070,7 +7617,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
             // This can shift last partition timestamp, save what was the last partition timestamp before squashing
             long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
-            squashPartitionRange(maxLastSubPartitionCount, partitionIndexLo, partitionIndex);
+            squashPartitionRange(maxLastSubPartitionCount, partitionIndexLo, partitionIndex, deferMidPartitions);
             if (lastPartitionTimestamp != txWriter.getLastPartitionTimestamp()) {
                 openLastPartition();
             }
@@ -7555,6 +8102,116 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Schedules zone maps and bloom filters for partitions that are no longer appended to, i.e. all partitions
+     * apart from the last logical partition. Partition name txn and size are remembered, so that the zone map
+     * and the bloom filter are re-calculated only when the partition is rewritten or resized by O3 commit.
+     * Scheduled partitions are processed by {@link #tick(boolean)} to keep column scans off the commit path,
+     * partitions that are still pending when writer is closed are processed by {@link #close()}.
+     *
+     * @param schedule when false, current partitions are remembered without scheduling zone maps
+     */
+    private void updateZoneMaps(boolean schedule) {
+        if (zoneMapWriter == null && bloomFilterWriter == null) {
+            return;
+        }
+
+        zoneMapPartitionsTmp.clear();
+        final int partitionCount = txWriter.getPartitionCount();
+        if (partitionCount > 1) {
+            final long lastLogicalPartitionTimestamp = txWriter.getLogicalPartitionTimestamp(txWriter.getLastPartitionTimestamp());
+            final int knownSize = zoneMapPartitions.size();
+            int knownIndex = 0;
+            for (int i = 0; i < partitionCount - 1; i++) {
+                final long timestamp = txWriter.getPartitionTimestampByIndex(i);
+                if (txWriter.getLogicalPartitionTimestamp(timestamp) == lastLogicalPartitionTimestamp) {
+                    // splits of the last partition are still subject to squashing
+                    break;
+                }
+                final long nameTxn = txWriter.getPartitionNameTxn(i);
+                final long size = txWriter.getPartitionSize(i);
+                while (knownIndex < knownSize && zoneMapPartitions.getQuick(knownIndex) < timestamp) {
+                    knownIndex += 3;
+                }
+                final boolean sameDir = knownIndex < knownSize
+                        && zoneMapPartitions.getQuick(knownIndex) == timestamp
+                        && zoneMapPartitions.getQuick(knownIndex + 1) == nameTxn;
+                final long knownPartitionSize = sameDir ? zoneMapPartitions.getQuick(knownIndex + 2) : 0;
+                if (schedule && (!sameDir || knownPartitionSize != size)) {
+                    // partition appended in place keeps statistics of the existing rows
+                    scheduleZoneMap(timestamp, nameTxn, size, knownPartitionSize < size ? knownPartitionSize : 0);
+                }
+                zoneMapPartitionsTmp.add(timestamp, nameTxn);
+                zoneMapPartitionsTmp.add(size);
+            }
+        }
+        zoneMapPartitions.clear();
+        zoneMapPartitions.add(zoneMapPartitionsTmp);
+        if (schedule) {
+            zoneMapRetryDeferred = false;
+        }
+    }
+
+    /**
+     * Schedules zone maps and bloom filters of the partitions that were finalised by a previous writer
+     * without them being written, e.g. when that writer was closed abruptly or could not write the files.
+     * Files are checked by the row count in their header, readers ignore files of a different row count.
+     */
+    private void scheduleMissingZoneMaps() {
+        try {
+            for (int i = 0, n = zoneMapPartitions.size(); i < n; i += 3) {
+                final long timestamp = zoneMapPartitions.getQuick(i);
+                final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+                if (txWriter.isPartitionCompressed(partitionIndex) || txWriter.isPartitionParquet(partitionIndex)) {
+                    continue;
+                }
+                final long nameTxn = zoneMapPartitions.getQuick(i + 1);
+                final long size = zoneMapPartitions.getQuick(i + 2);
+                setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, nameTxn);
+                final int plen = other.size();
+                final long zoneMapRowCount = zoneMapWriter != null
+                        ? readPartitionStatsRowCount(other.trimTo(plen).concat(ZONE_MAP_FILE_NAME))
+                        : size;
+                final long bloomFilterRowCount = bloomFilterWriter != null
+                        ? readPartitionStatsRowCount(other.trimTo(plen).concat(BLOOM_FILTER_FILE_NAME))
+                        : size;
+                if (zoneMapRowCount != size || bloomFilterRowCount != size) {
+                    scheduleZoneMap(timestamp, nameTxn, size, zoneMapRowCount > 0 && zoneMapRowCount < size ? zoneMapRowCount : 0);
+                }
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
+    private long readPartitionStatsRowCount(Path path) {
+        final int fd = ff.openRO(path.$());
+        if (fd < 0) {
+            return -1;
+        }
+        try {
+            return ff.readNonNegativeLong(fd, 0);
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void scheduleZoneMap(long timestamp, long nameTxn, long size, long prevSize) {
+        for (int i = 0, n = zoneMapPendingPartitions.size(); i < n; i += 4) {
+            if (zoneMapPendingPartitions.getQuick(i) == timestamp) {
+                if (zoneMapPendingPartitions.getQuick(i + 1) != nameTxn) {
+                    zoneMapPendingPartitions.setQuick(i + 1, nameTxn);
+                    zoneMapPendingPartitions.setQuick(i + 3, prevSize);
+                }
+                // zone map on disk is still the one the pending entry was scheduled against
+                zoneMapPendingPartitions.setQuick(i + 2, size);
+                return;
+            }
+        }
+        zoneMapPendingPartitions.add(timestamp, nameTxn);
+        zoneMapPendingPartitions.add(size, prevSize);
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -7610,6 +8267,71 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void writePendingZoneMaps() {
+        int failedSize = 0;
+        for (int i = 0, n = zoneMapPendingPartitions.size(); i < n; i += 4) {
+            final long timestamp = zoneMapPendingPartitions.getQuick(i);
+            final long nameTxn = zoneMapPendingPartitions.getQuick(i + 1);
+            final long size = zoneMapPendingPartitions.getQuick(i + 2);
+            final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+            // partition could have been dropped, compressed or converted since it was scheduled
+            if (
+                    partitionIndex > -1
+                            && txWriter.getPartitionNameTxn(partitionIndex) == nameTxn
+                            && txWriter.getPartitionSize(partitionIndex) == size
+                            && !txWriter.isPartitionCompressed(partitionIndex)
+                            && !txWriter.isPartitionParquet(partitionIndex)
+            ) {
+                boolean written = zoneMapWriter == null
+                        || writeZoneMap(timestamp, nameTxn, zoneMapPendingPartitions.getQuick(i + 3), size);
+                written &= bloomFilterWriter == null || writeBloomFilter(timestamp, nameTxn, size);
+                if (!written) {
+                    // keep the partition pending, the next writer also finds its files missing or stale
+                    zoneMapPendingPartitions.arrayCopy(i, failedSize, 4);
+                    failedSize += 4;
+                }
+            }
+        }
+        zoneMapPendingPartitions.setPos(failedSize);
+        zoneMapRetryDeferred = failedSize > 0;
+    }
+
+    private boolean writeBloomFilter(long partitionTimestamp, long partitionNameTxn, long partitionSize) {
+        try {
+            setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+            bloomFilterWriter.write(other, metadata, columnVersionWriter, partitionTimestamp, partitionSize);
+            return true;
+        } catch (CairoException e) {
+            // bloom filter is an optimisation, writer must not fail because of it
+            LOG.error().$("could not write bloom filter [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            return false;
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
+    private boolean writeZoneMap(long partitionTimestamp, long partitionNameTxn, long prevPartitionSize, long partitionSize) {
+        try {
+            setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+            zoneMapWriter.write(other, metadata, columnVersionWriter, partitionTimestamp, prevPartitionSize, partitionSize);
+            return true;
+        } catch (CairoException e) {
+            // zone map is an optimisation, writer must not fail because of it
+            LOG.error().$("could not write zone map [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            return false;
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
     private void writeRestoreMetaTodo() {
         todoMem.putLong(0, ++todoTxn); // write txn, reader will first read txn at offset 24 and then at offset 0
         Unsafe.getUnsafe().storeFence(); // make sure we do not write hash before writing txn (view from another thread)
@@ -7694,7 +8416,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return txWriter;
     }
 
-    void o3ClockDownPartitionUpdateCount() {
+    void o3ClockDownPartitionUpdateCount(long partitionUpdateSinkAddr) {
+        // partition is done with its merge memory, hand the reservation over to other merges
+        final long mergeMemory = Unsafe.getUnsafe().getLong(partitionUpdateSinkAddr + 7 * Long.BYTES);
+        if (mergeMemory > 0) {
+            Unsafe.getUnsafe().putLong(partitionUpdateSinkAddr + 7 * Long.BYTES, 0);
+            o3MergeMemoryReserved.addAndGet(-mergeMemory);
+            messageBus.getO3MemoryBudget().release(mergeMemory);
+        }
         o3PartitionUpdRemaining.decrementAndGet();
     }
 
@@ -33,6 +33,8 @@ public class TableWriterMetrics {
     private final Counter commitCounter;
     private final Counter committedRowCounter;
     private final Counter o3CommitCounter;
+    // Bytes of partition data rewritten by O3 merges into new partition versions.
+    private final Counter o3RewrittenBytesCounter;
     // For write amplification metric, `physicallyWrittenRowCounter / committedRowCounter`.
     private final Counter physicallyWrittenRowCounter;
     private final Counter rollbackCounter;
@@ -43,12 +45,17 @@ public class TableWriterMetrics {
         this.committedRowCounter = metricsRegistry.newCounter("committed_rows");
         this.rollbackCounter = metricsRegistry.newCounter("rollbacks");
         this.physicallyWrittenRowCounter = metricsRegistry.newCounter("physically_written_rows");
+        this.o3RewrittenBytesCounter = metricsRegistry.newCounter("o3_rewritten_bytes");
     }
 
     public void addCommittedRows(long rows) {
         committedRowCounter.add(rows);
     }
 
+    public void addO3RewrittenBytes(long bytes) {
+        o3RewrittenBytesCounter.add(bytes);
+    }
+
     public void addPhysicallyWrittenRows(long rows) {
         physicallyWrittenRowCounter.add(rows);
     }
@@ -65,6 +72,10 @@ public class TableWriterMetrics {
         return o3CommitCounter.getValue();
     }
 
+    public long getO3RewrittenBytes() {
+        return o3RewrittenBytesCounter.getValue();
+    }
+
     public long getPhysicallyWrittenRows() {
         return physicallyWrittenRowCounter.getValue();
     }
@@ -363,6 +363,30 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         }
     }
 
+    /**
+     * Marks partition as compressed. Compressed partition is read only too.
+     *
+     * @param partitionIndex index of the partition
+     */
+    public void setPartitionCompressed(int partitionIndex) {
+        final int offset = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET;
+        final long maskedSize = attachedPartitions.getQuick(offset);
+        attachedPartitions.setQuick(offset, updatePartitionIsReadOnly(maskedSize, true) | (1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET));
+        recordStructureVersion++;
+    }
+
+    /**
+     * Marks partition as stored in Parquet format. Parquet partition is read only too.
+     *
+     * @param partitionIndex index of the partition
+     */
+    public void setPartitionParquet(int partitionIndex) {
+        final int offset = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET;
+        final long maskedSize = attachedPartitions.getQuick(offset);
+        attachedPartitions.setQuick(offset, updatePartitionIsReadOnly(maskedSize, true) | (1L << PARTITION_MASK_PARQUET_BIT_OFFSET));
+        recordStructureVersion++;
+    }
+
     public void setPartitionReadOnly(int partitionIndex, boolean isReadOnly) {
         setPartitionReadOnlyByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, isReadOnly);
     }
@@ -380,6 +404,19 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         setPartitionReadOnlyByRawIndex(findAttachedPartitionRawIndex(timestamp), isReadOnly);
     }
 
+    /**
+     * Clears compressed flag of the partition, once its columns are restored in plain form.
+     * Partition is no longer read only.
+     *
+     * @param partitionIndex index of the partition
+     */
+    public void setPartitionUncompressed(int partitionIndex) {
+        final int offset = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET;
+        final long maskedSize = attachedPartitions.getQuick(offset);
+        attachedPartitions.setQuick(offset, updatePartitionIsReadOnly(maskedSize, false) & ~(1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET));
+        recordStructureVersion++;
+    }
+
     public void setSeqTxn(long seqTxn) {
         this.seqTxn = seqTxn;
     }
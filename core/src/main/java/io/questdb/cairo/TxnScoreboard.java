@@ -31,13 +31,21 @@ import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TxnScoreboard implements Closeable, Mutable {
 
     private static final Log LOG = LogFactory.getLog(TxnScoreboard.class);
+    // Native libraries before version 1 keep a single counter per txn
+    private static final boolean STRIPED = Os.getNativeVersion() > 0;
+    private static final AtomicInteger STRIPE_SEQUENCE = new AtomicInteger();
     private final FilesFacade ff;
     private final int pow2EntryCount;
     private final long size;
+    // Scoreboard counter stripe this instance increments, native code masks
+    // it to the stripe count. Each table reader owns its scoreboard instance,
+    // so readers are spread across the stripes round-robin.
+    private final int stripe;
     private int fd = -1;
     private long mem;
 
@@ -45,6 +53,7 @@ public class TxnScoreboard implements Closeable, Mutable {
         this.ff = ff;
         this.pow2EntryCount = Numbers.ceilPow2(entryCount);
         this.size = TxnScoreboard.getScoreboardSize(pow2EntryCount);
+        this.stripe = STRIPE_SEQUENCE.getAndIncrement();
     }
 
     public static native long getScoreboardSize(int entryCount);
@@ -52,7 +61,7 @@ public class TxnScoreboard implements Closeable, Mutable {
     public boolean acquireTxn(long txn) {
         assert txn > -1;
         final long internalTxn = toInternalTxn(txn);
-        final long response = acquireTxn(mem, internalTxn);
+        final long response = acquireTxn(mem, internalTxn, stripe);
         if (response == 0) {
             // all good
             return true;
@@ -145,15 +154,17 @@ public class TxnScoreboard implements Closeable, Mutable {
     }
 
     public long releaseTxn(long txn) {
-        long released = releaseTxn(mem, txn);
+        long released = releaseTxn(mem, txn, stripe);
         assert released > -1 : "released count " + txn + " must be positive: " + (released + 1);
         return released;
     }
 
-    private static long acquireTxn(long pTxnScoreboard, long txn) {
+    private native static long acquireStripedTxn0(long pTxnScoreboard, long txn, int stripe);
+
+    private static long acquireTxn(long pTxnScoreboard, long txn, int stripe) {
         assert pTxnScoreboard > 0;
         LOG.debug().$("acquire [p=").$(pTxnScoreboard).$(", txn=").$(fromInternalTxn(txn)).$(']').$();
-        return acquireTxn0(pTxnScoreboard, txn);
+        return STRIPED ? acquireStripedTxn0(pTxnScoreboard, txn, stripe) : acquireTxn0(pTxnScoreboard, txn);
     }
 
     private native static long acquireTxn0(long pTxnScoreboard, long txn);
@@ -173,11 +184,13 @@ public class TxnScoreboard implements Closeable, Mutable {
 
     private native static boolean isRangeAvailable0(long pTxnScoreboard, long txnFrom, long txnTo);
 
-    private static long releaseTxn(long pTxnScoreboard, long txn) {
+    private native static long releaseStripedTxn0(long pTxnScoreboard, long txn, int stripe);
+
+    private static long releaseTxn(long pTxnScoreboard, long txn, int stripe) {
         assert pTxnScoreboard > 0;
         LOG.debug().$("release  [p=").$(pTxnScoreboard).$(", txn=").$(txn).$(']').$();
         final long internalTxn = toInternalTxn(txn);
-        return releaseTxn0(pTxnScoreboard, internalTxn);
+        return STRIPED ? releaseStripedTxn0(pTxnScoreboard, internalTxn, stripe) : releaseTxn0(pTxnScoreboard, internalTxn);
     }
 
     private native static long releaseTxn0(long pTxnScoreboard, long txn);
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.*;
+
+import static io.questdb.cairo.ZoneMapWriter.*;
+
+/**
+ * Conjunction of simple column-versus-constant predicates evaluated against partition zone maps
+ * and bloom filters. Data frame cursors consult this filter to skip partitions that cannot contain
+ * rows matching the query filter. The query filter itself is still applied to the rows of remaining partitions.
+ * <p>
+ * Partition is skipped only when statistics prove that no row matches. Missing, stale or corrupt
+ * zone map or bloom filter results in the partition being scanned as usual. Statistics files are
+ * cached by the table reader, see {@link TableReader#getPartitionStats(int, boolean, boolean)}.
+ */
+public class ZoneMapFilter implements QuietCloseable {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 1;
+    public static final int OP_GT = 2;
+    public static final int OP_LE = 3;
+    public static final int OP_LT = 4;
+    private final IntList bloomColumnIndexes = new IntList();
+    private final LongList bloomHashes = new LongList();
+    private final IntList columnIndexes = new IntList();
+    private final BoolList doubleValues = new BoolList();
+    private final IntList ops = new IntList();
+    private final LongList values = new LongList();
+
+    /**
+     * Mirrors comparison operator for predicates where the constant is on the left-hand side.
+     *
+     * @param op comparison operator
+     * @return operator to use when operands are swapped
+     */
+    public static int flip(int op) {
+        switch (op) {
+            case OP_GE:
+                return OP_LE;
+            case OP_GT:
+                return OP_LT;
+            case OP_LE:
+                return OP_GE;
+            case OP_LT:
+                return OP_GT;
+            default:
+                return op;
+        }
+    }
+
+    public static int opOf(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return OP_EQ;
+        }
+        if (Chars.equals(token, '>')) {
+            return OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return OP_GE;
+        }
+        if (Chars.equals(token, '<')) {
+            return OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return OP_LE;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds equality predicate to be checked against partition bloom filters.
+     *
+     * @param columnIndex index of the column
+     * @param hash        hash of the value, see {@link BloomFilterWriter} hash functions
+     */
+    public void addBloomHash(int columnIndex, long hash) {
+        bloomColumnIndexes.add(columnIndex);
+        bloomHashes.add(hash);
+    }
+
+    public void addDouble(int columnIndex, int op, double value) {
+        columnIndexes.add(columnIndex);
+        ops.add(op);
+        values.add(Double.doubleToRawLongBits(value));
+        doubleValues.add(true);
+    }
+
+    public void addLong(int columnIndex, int op, long value) {
+        columnIndexes.add(columnIndex);
+        ops.add(op);
+        values.add(value);
+        doubleValues.add(false);
+    }
+
+    /**
+     * Checks partition zone map against the predicates.
+     *
+     * @param reader         table reader positioned at the transaction used by the query
+     * @param partitionIndex index of the partition
+     * @return true when partition is proven to have no matching rows
+     */
+    public boolean canSkip(TableReader reader, int partitionIndex) {
+        final TxReader txFile = reader.getTxFile();
+        // last partition is still being appended to, it never has zone map or bloom filter
+        if (partitionIndex >= txFile.getPartitionCount() - 1) {
+            return false;
+        }
+
+        final long rowCount = txFile.getPartitionSize(partitionIndex);
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final PartitionStats stats = reader.getPartitionStats(partitionIndex, columnIndexes.size() > 0, bloomColumnIndexes.size() > 0);
+        return (stats.getZoneMap() != 0 && canSkipByZoneMap(reader, stats.getZoneMap(), partitionTimestamp, rowCount))
+                || (stats.getBloomFilter() != 0 && canSkipByBloomFilter(reader, stats.getBloomFilter(), stats.getBloomFilterSize(), partitionTimestamp));
+    }
+
+    @Override
+    public void close() {
+        bloomColumnIndexes.clear();
+        bloomHashes.clear();
+        columnIndexes.clear();
+        doubleValues.clear();
+        ops.clear();
+        values.clear();
+    }
+
+    public int size() {
+        return columnIndexes.size() + bloomColumnIndexes.size();
+    }
+
+    private static boolean mayMatch(double min, double max, int op, double value) {
+        switch (op) {
+            case OP_EQ:
+                return min <= value && value <= max;
+            case OP_GE:
+                return max >= value;
+            case OP_GT:
+                return max > value;
+            case OP_LE:
+                return min <= value;
+            default:
+                return min < value;
+        }
+    }
+
+    private static boolean mayMatch(long min, long max, int op, long value) {
+        switch (op) {
+            case OP_EQ:
+                return min <= value && value <= max;
+            case OP_GE:
+                return max >= value;
+            case OP_GT:
+                return max > value;
+            case OP_LE:
+                return min <= value;
+            default:
+                return min < value;
+        }
+    }
+
+    private static boolean mayMatch(long entry, int columnType, long rowCount, int op, long value, boolean doubleValue) {
+        final long nullCount = Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_NULL_COUNT);
+        final long min = Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_MIN);
+        final long max = Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_MAX);
+        final int tag = ColumnType.tagOf(columnType);
+
+        if (tag == ColumnType.FLOAT || tag == ColumnType.DOUBLE) {
+            // NaN does not satisfy any comparison
+            return nullCount < rowCount && mayMatch(
+                    Double.longBitsToDouble(min),
+                    Double.longBitsToDouble(max),
+                    op,
+                    doubleValue ? Double.longBitsToDouble(value) : value
+            );
+        }
+
+        if (nullCount > 0) {
+            // Comparisons skip nulls, but be conservative in case null sentinel
+            // is compared as a number, e.g. when JIT null checks are disabled.
+            final long nullValue = tag == ColumnType.INT ? Numbers.INT_NaN : Numbers.LONG_NaN;
+            if (doubleValue ? mayMatch(nullValue, nullValue, op, Double.longBitsToDouble(value)) : mayMatch(nullValue, nullValue, op, value)) {
+                return true;
+            }
+            if (nullCount >= rowCount) {
+                return false;
+            }
+        }
+
+        return doubleValue
+                ? mayMatch(min, max, op, Double.longBitsToDouble(value))
+                : mayMatch(min, max, op, value);
+    }
+
+    private boolean canSkipByBloomFilter(TableReader reader, long addr, long fileSize, long partitionTimestamp) {
+        final int columnCount = Unsafe.getUnsafe().getInt(addr + BloomFilterWriter.HEADER_OFFSET_COLUMN_COUNT);
+        final RecordMetadata metadata = reader.getMetadata();
+        final ColumnVersionReader columnVersions = reader.getColumnVersionReader();
+        for (int i = 0, n = bloomColumnIndexes.size(); i < n; i++) {
+            final int columnIndex = bloomColumnIndexes.getQuick(i);
+            final int writerIndex = metadata.getWriterIndex(columnIndex);
+            if (writerIndex >= columnCount) {
+                continue;
+            }
+
+            final long entry = addr + BloomFilterWriter.HEADER_SIZE + (long) writerIndex * BloomFilterWriter.ENTRY_SIZE;
+            if (Unsafe.getUnsafe().getInt(entry + BloomFilterWriter.ENTRY_OFFSET_COLUMN_TYPE) != metadata.getColumnType(columnIndex)) {
+                continue;
+            }
+            if (columnVersions.getColumnNameTxn(partitionTimestamp, writerIndex) != Unsafe.getUnsafe().getLong(entry + BloomFilterWriter.ENTRY_OFFSET_COLUMN_NAME_TXN)) {
+                continue;
+            }
+
+            final long offset = Unsafe.getUnsafe().getLong(entry + BloomFilterWriter.ENTRY_OFFSET_OFFSET);
+            final long bitCount = Unsafe.getUnsafe().getLong(entry + BloomFilterWriter.ENTRY_OFFSET_BIT_COUNT);
+            if (bitCount < Long.SIZE || offset < BloomFilterWriter.HEADER_SIZE || offset + (bitCount >>> 3) > fileSize) {
+                continue;
+            }
+
+            final int hashCount = Unsafe.getUnsafe().getInt(entry + BloomFilterWriter.ENTRY_OFFSET_HASH_COUNT);
+            if (!BloomFilterWriter.mightContain(addr + offset, bitCount, hashCount, bloomHashes.getQuick(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean canSkipByZoneMap(TableReader reader, long addr, long partitionTimestamp, long rowCount) {
+        final int columnCount = Unsafe.getUnsafe().getInt(addr + HEADER_OFFSET_COLUMN_COUNT);
+        final RecordMetadata metadata = reader.getMetadata();
+        final ColumnVersionReader columnVersions = reader.getColumnVersionReader();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final int writerIndex = metadata.getWriterIndex(columnIndex);
+            if (writerIndex >= columnCount) {
+                continue;
+            }
+
+            final long entry = addr + HEADER_SIZE + (long) writerIndex * ENTRY_SIZE;
+            final int columnType = Unsafe.getUnsafe().getInt(entry + ENTRY_OFFSET_COLUMN_TYPE);
+            if (columnType != metadata.getColumnType(columnIndex)) {
+                continue;
+            }
+
+            long columnNameTxn = columnVersions.getColumnNameTxn(partitionTimestamp, writerIndex);
+            if (columnNameTxn != Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_COLUMN_NAME_TXN)) {
+                continue;
+            }
+
+            if (!mayMatch(entry, columnType, rowCount, ops.getQuick(i), values.getQuick(i), doubleValues.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,438 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Persists per-partition column statistics, also known as a zone map, into the partition directory.
+ * <p>
+ * For every fixed-size numeric column the zone map keeps min and max of non-null values and the count of nulls.
+ * Statistics are written once partition stops being the last partition of the table, or when
+ * such a partition is rewritten by O3 commit. When partition grows in place, only the appended rows
+ * are scanned and their statistics are merged into the existing ones. Readers use the statistics
+ * to skip partitions that cannot contain rows matching a filter, see {@link ZoneMapFilter}.
+ * <p>
+ * File structure:
+ * <pre>
+ * struct {
+ *     long partition_row_count;
+ *     int  column_count;
+ *     int  reserved;
+ *     long checksum; // of row count and all column entries
+ *     struct {
+ *         long column_name_txn;
+ *         long null_count;
+ *         long min; // raw double bits for FLOAT and DOUBLE columns
+ *         long max; // raw double bits for FLOAT and DOUBLE columns
+ *         int  column_type; // 0 when column has no statistics
+ *         int  reserved;
+ *     } columns[column_count];
+ * }
+ * </pre>
+ * Statistics are only valid when partition row count and column name txn match what reader sees
+ * in the transaction and column version files. Anything else is ignored by the readers.
+ */
+public class ZoneMapWriter implements QuietCloseable {
+    public static final int ENTRY_OFFSET_COLUMN_NAME_TXN = 0;
+    public static final int ENTRY_OFFSET_COLUMN_TYPE = 32;
+    public static final int ENTRY_OFFSET_MAX = 24;
+    public static final int ENTRY_OFFSET_MIN = 16;
+    public static final int ENTRY_OFFSET_NULL_COUNT = 8;
+    public static final int ENTRY_SIZE = 40;
+    public static final int HEADER_OFFSET_CHECKSUM = 16;
+    public static final int HEADER_OFFSET_COLUMN_COUNT = 8;
+    public static final int HEADER_OFFSET_ROW_COUNT = 0;
+    public static final int HEADER_SIZE = 24;
+    private static final Log LOG = LogFactory.getLog(ZoneMapWriter.class);
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final Path tmpPath = new Path();
+    private long buf;
+    private long bufSize;
+    private long prevBuf;
+    private long prevBufSize;
+
+    public ZoneMapWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    public static long checksum(long address, long rowCount, int columnCount) {
+        return checksum(address, rowCount, columnCount, ENTRY_SIZE);
+    }
+
+    static long checksum(long address, long rowCount, int columnCount, int entrySize) {
+        long checksum = rowCount;
+        for (long p = address + HEADER_SIZE, lim = p + (long) columnCount * entrySize; p < lim; p += Long.BYTES) {
+            checksum = checksum * 31 + Unsafe.getUnsafe().getLong(p);
+        }
+        return checksum;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return columnType > 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether column type uses a sentinel value for nulls. Columns without such value,
+     * BYTE and SHORT, store 0 for rows below column top.
+     *
+     * @param columnType column type
+     * @return true when null is stored as a sentinel value
+     */
+    public static boolean isNullable(int columnType) {
+        final int tag = ColumnType.tagOf(columnType);
+        return tag != ColumnType.BYTE && tag != ColumnType.SHORT;
+    }
+
+    @Override
+    public void close() {
+        if (buf != 0) {
+            buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = 0;
+        }
+        if (prevBuf != 0) {
+            prevBuf = Unsafe.free(prevBuf, prevBufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            prevBufSize = 0;
+        }
+        Misc.free(tmpPath);
+    }
+
+    /**
+     * Calculates statistics for all supported columns of the partition and writes them to the zone map file.
+     * The file is written under a temporary name and then renamed, so that readers never observe partial content.
+     *
+     * @param path               path to the partition directory, it is restored to its original length on return
+     * @param metadata           table metadata
+     * @param columnVersions     column version reader to resolve column tops and name txns
+     * @param partitionTimestamp timestamp of the partition
+     * @param partitionRowCount  number of rows in the partition
+     */
+    public void write(
+            Path path,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersions,
+            long partitionTimestamp,
+            long partitionRowCount
+    ) {
+        write(path, metadata, columnVersions, partitionTimestamp, 0, partitionRowCount);
+    }
+
+    /**
+     * Updates statistics of the partition that has grown in place from prevRowCount rows. Only the appended rows
+     * are scanned for the columns that have valid statistics of the first prevRowCount rows in the existing zone map
+     * file. Other columns are calculated in full.
+     *
+     * @param path               path to the partition directory, it is restored to its original length on return
+     * @param metadata           table metadata
+     * @param columnVersions     column version reader to resolve column tops and name txns
+     * @param partitionTimestamp timestamp of the partition
+     * @param prevRowCount       number of rows the existing zone map was written for, 0 to calculate all rows
+     * @param partitionRowCount  number of rows in the partition
+     */
+    public void write(
+            Path path,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersions,
+            long partitionTimestamp,
+            long prevRowCount,
+            long partitionRowCount
+    ) {
+        final int columnCount = metadata.getColumnCount();
+        final long size = HEADER_SIZE + (long) columnCount * ENTRY_SIZE;
+        if (size > bufSize) {
+            buf = Unsafe.realloc(buf, bufSize, size, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = size;
+        }
+        Vect.memset(buf, size, 0);
+
+        final int plen = path.size();
+        try {
+            final int prevColumnCount = prevRowCount > 0 && prevRowCount < partitionRowCount
+                    ? readPrevious(path.trimTo(plen).concat(TableUtils.ZONE_MAP_FILE_NAME), prevRowCount)
+                    : -1;
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (isSupported(columnType)) {
+                    final int recordIndex = columnVersions.getRecordIndex(partitionTimestamp, i);
+                    long columnTop = columnVersions.getColumnTopByIndexOrDefault(recordIndex, partitionTimestamp, i, -1);
+                    long columnNameTxn = columnVersions.getColumnNameTxnByIndex(recordIndex);
+                    if (columnNameTxn == -1) {
+                        columnNameTxn = columnVersions.getDefaultColumnNameTxn(i);
+                    }
+                    if (columnTop < 0 || columnTop > partitionRowCount) {
+                        // column does not exist in the partition
+                        columnTop = partitionRowCount;
+                    }
+                    final long entry = buf + HEADER_SIZE + (long) i * ENTRY_SIZE;
+                    final long prevEntry = prevBuf + HEADER_SIZE + (long) i * ENTRY_SIZE;
+                    final long lo = i < prevColumnCount
+                            && Unsafe.getUnsafe().getInt(prevEntry + ENTRY_OFFSET_COLUMN_TYPE) == columnType
+                            && Unsafe.getUnsafe().getLong(prevEntry + ENTRY_OFFSET_COLUMN_NAME_TXN) == columnNameTxn
+                            ? prevRowCount : 0;
+                    if (calculate(path.trimTo(plen), metadata.getColumnName(i), columnType, columnNameTxn, columnTop, lo, partitionRowCount, entry)) {
+                        if (lo > 0) {
+                            merge(entry, partitionRowCount - lo, prevEntry, lo, columnType);
+                        }
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_COLUMN_NAME_TXN, columnNameTxn);
+                        Unsafe.getUnsafe().putInt(entry + ENTRY_OFFSET_COLUMN_TYPE, columnType);
+                    } else {
+                        Vect.memset(entry, ENTRY_SIZE, 0);
+                    }
+                }
+            }
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_ROW_COUNT, partitionRowCount);
+            Unsafe.getUnsafe().putInt(buf + HEADER_OFFSET_COLUMN_COUNT, columnCount);
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_CHECKSUM, checksum(buf, partitionRowCount, columnCount));
+
+            path.trimTo(plen).concat(TableUtils.ZONE_MAP_FILE_NAME);
+            tmpPath.of(path).put(".tmp");
+            final int fd = ff.openRW(tmpPath.$(), fileOpenOpts);
+            if (fd < 0) {
+                throw CairoException.critical(ff.errno()).put("could not open [file=").put(tmpPath).put(']');
+            }
+            try {
+                if (ff.write(fd, buf, size, 0) != size) {
+                    throw CairoException.critical(ff.errno()).put("could not write [file=").put(tmpPath).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+            if (ff.rename(tmpPath.$(), path.$()) != Files.FILES_RENAME_OK) {
+                ff.removeQuiet(tmpPath.$());
+                throw CairoException.critical(ff.errno()).put("could not rename [from=").put(tmpPath).put(", to=").put(path).put(']');
+            }
+            LOG.debug().$("written zone map [path=").$(path).$(", rowCount=").$(partitionRowCount).I$();
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private static void calculateByte(long address, long count, long entry) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long p = address, lim = address + count; p < lim; p++) {
+            final byte value = Unsafe.getUnsafe().getByte(p);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, min);
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, max);
+    }
+
+    private static long calculateFloat(long address, long count, long entry) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        long nullCount = 0;
+        for (long p = address, lim = address + count * Float.BYTES; p < lim; p += Float.BYTES) {
+            final float value = Unsafe.getUnsafe().getFloat(p);
+            if (value != value) {
+                nullCount++;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Double.doubleToRawLongBits(min));
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Double.doubleToRawLongBits(max));
+        return nullCount;
+    }
+
+    /**
+     * Merges statistics of two adjacent row ranges into the entry.
+     *
+     * @param entry         statistics of the first range, receives the result
+     * @param rowCount      number of rows in the first range
+     * @param otherEntry    statistics of the second range
+     * @param otherRowCount number of rows in the second range
+     * @param columnType    column type
+     */
+    private static void merge(long entry, long rowCount, long otherEntry, long otherRowCount, int columnType) {
+        final long nullCount = Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_NULL_COUNT);
+        final long otherNullCount = Unsafe.getUnsafe().getLong(otherEntry + ENTRY_OFFSET_NULL_COUNT);
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_NULL_COUNT, nullCount + otherNullCount);
+        if (otherNullCount >= otherRowCount) {
+            // min and max of a range without values are meaningless
+            return;
+        }
+
+        final long otherMin = Unsafe.getUnsafe().getLong(otherEntry + ENTRY_OFFSET_MIN);
+        final long otherMax = Unsafe.getUnsafe().getLong(otherEntry + ENTRY_OFFSET_MAX);
+        if (nullCount >= rowCount) {
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, otherMin);
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, otherMax);
+            return;
+        }
+
+        final long min = Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_MIN);
+        final long max = Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_MAX);
+        final int tag = ColumnType.tagOf(columnType);
+        if (tag == ColumnType.FLOAT || tag == ColumnType.DOUBLE) {
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Double.doubleToRawLongBits(Math.min(Double.longBitsToDouble(min), Double.longBitsToDouble(otherMin))));
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Double.doubleToRawLongBits(Math.max(Double.longBitsToDouble(max), Double.longBitsToDouble(otherMax))));
+        } else {
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Math.min(min, otherMin));
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Math.max(max, otherMax));
+        }
+    }
+
+    /**
+     * Calculates statistics of the partition rows in the [lo, hi) range.
+     */
+    private boolean calculate(
+            Path path,
+            CharSequence columnName,
+            int columnType,
+            long columnNameTxn,
+            long columnTop,
+            long lo,
+            long hi,
+            long entry
+    ) {
+        // column file starts at column top
+        final long fileLo = Math.max(lo, columnTop) - columnTop;
+        final long fileHi = hi - columnTop;
+        final long count = fileHi - fileLo;
+        long nullCount = 0;
+        if (count > 0) {
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            final long mapSize = fileHi << shl;
+            final int fd = ff.openRO(TableUtils.dFile(path, columnName, columnNameTxn));
+            if (fd < 0) {
+                LOG.info().$("could not open column file, zone map skipped [path=").$(path).$(", errno=").$(ff.errno()).I$();
+                return false;
+            }
+            long address = 0;
+            try {
+                if (ff.length(fd) < mapSize) {
+                    LOG.info().$("column file is too short, zone map skipped [path=").$(path).$(", size=").$(mapSize).I$();
+                    return false;
+                }
+                address = TableUtils.mapRO(ff, fd, mapSize, MemoryTag.MMAP_TABLE_WRITER);
+                // only the pages of the requested rows are read
+                final long start = address + (fileLo << shl);
+                switch (ColumnType.tagOf(columnType)) {
+                    case ColumnType.BYTE:
+                        calculateByte(start, count, entry);
+                        break;
+                    case ColumnType.SHORT:
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Vect.minShort(start, count));
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Vect.maxShort(start, count));
+                        break;
+                    case ColumnType.INT:
+                        nullCount = count - Vect.countInt(start, count);
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Vect.minInt(start, count));
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Vect.maxInt(start, count));
+                        break;
+                    case ColumnType.FLOAT:
+                        nullCount = calculateFloat(start, count, entry);
+                        break;
+                    case ColumnType.DOUBLE:
+                        nullCount = count - Vect.countDouble(start, count);
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Double.doubleToRawLongBits(Vect.minDouble(start, count)));
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Double.doubleToRawLongBits(Vect.maxDouble(start, count)));
+                        break;
+                    default:
+                        // LONG, DATE and TIMESTAMP
+                        nullCount = count - Vect.countLong(start, count);
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Vect.minLong(start, count));
+                        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Vect.maxLong(start, count));
+                        break;
+                }
+            } finally {
+                if (address != 0) {
+                    ff.munmap(address, mapSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                ff.close(fd);
+            }
+        }
+
+        // rows below column top
+        final long topCount = Math.min(hi, columnTop) - lo;
+        if (topCount > 0) {
+            if (isNullable(columnType)) {
+                nullCount += topCount;
+            } else {
+                // rows below column top read as 0
+                final long min = count > 0 ? Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_MIN) : 0;
+                final long max = count > 0 ? Unsafe.getUnsafe().getLong(entry + ENTRY_OFFSET_MAX) : 0;
+                Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Math.min(min, 0));
+                Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Math.max(max, 0));
+            }
+        }
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_NULL_COUNT, nullCount);
+        return true;
+    }
+
+    private int readPrevious(Path path, long prevRowCount) {
+        final int fd = ff.openRO(path.$());
+        if (fd < 0) {
+            return -1;
+        }
+        try {
+            final long fileSize = ff.length(fd);
+            if (fileSize < HEADER_SIZE) {
+                return -1;
+            }
+            if (fileSize > prevBufSize) {
+                prevBuf = Unsafe.realloc(prevBuf, prevBufSize, fileSize, MemoryTag.NATIVE_TABLE_WRITER);
+                prevBufSize = fileSize;
+            }
+            if (ff.read(fd, prevBuf, fileSize, 0) != fileSize) {
+                return -1;
+            }
+        } finally {
+            ff.close(fd);
+        }
+        final int columnCount = Unsafe.getUnsafe().getInt(prevBuf + HEADER_OFFSET_COLUMN_COUNT);
+        if (
+                Unsafe.getUnsafe().getLong(prevBuf + HEADER_OFFSET_ROW_COUNT) != prevRowCount
+                        || columnCount < 0
+                        || HEADER_SIZE + (long) columnCount * ENTRY_SIZE > prevBufSize
+                        || Unsafe.getUnsafe().getLong(prevBuf + HEADER_OFFSET_CHECKSUM) != checksum(prevBuf, prevRowCount, columnCount)
+        ) {
+            return -1;
+        }
+        return columnCount;
+    }
+}
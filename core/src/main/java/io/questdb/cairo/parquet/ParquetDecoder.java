@@ -0,0 +1,1254 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.cairo.sql.SymbolLookup;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads flat Parquet files and decodes column chunks into QuestDB column layout.
+ * The file is memory mapped, pages are decoded straight from the mapping.
+ * <p>
+ * Supported are uncompressed and GZIP compressed v1 and v2 data pages with PLAIN or
+ * dictionary encoding, which covers files written by {@link ParquetEncoder}. Compressed
+ * pages are inflated one at a time into a scratch buffer.
+ */
+public class ParquetDecoder implements QuietCloseable {
+    private static final int CHUNK_SLOT_SIZE = 4;
+    private static final int CHUNK_OFFSET_CODEC = 3;
+    private static final int CHUNK_OFFSET_SIZE = 1;
+    private static final int CHUNK_OFFSET_START = 0;
+    private static final int CHUNK_OFFSET_VALUE_COUNT = 2;
+    private static final Log LOG = LogFactory.getLog(ParquetDecoder.class);
+    // per row group, per column: start offset, size, value count and codec of the column chunk
+    private final LongList chunks = new LongList();
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final RleBitPackedDecoder booleanDecoder = new RleBitPackedDecoder();
+    private final RleBitPackedDecoder defLevelDecoder = new RleBitPackedDecoder();
+    private final DeltaBinaryPackedDecoder deltaDecoder = new DeltaBinaryPackedDecoder();
+    private final DeltaBinaryPackedDecoder deltaLengthDecoder = new DeltaBinaryPackedDecoder();
+    // byte array dictionary entries, address of the length prefix of every value
+    private final LongList dictionaryEntries = new LongList();
+    private final RleBitPackedDecoder dictionaryIndexDecoder = new RleBitPackedDecoder();
+    private final IntList physicalTypes = new IntList();
+    private final IntList repetitions = new IntList();
+    private final LongList rowGroupRowCounts = new LongList();
+    private final ThriftCompactReader thrift = new ThriftCompactReader();
+    private final IntList timeUnits = new IntList();
+    private final IntList typeLengths = new IntList();
+    private final DirectUtf8String utf8View = new DirectUtf8String();
+    private final StringSink utf16Sink = new StringSink();
+    private long addr;
+    private long dictionaryAddr;
+    // decompressed dictionary page, entries of byte array dictionary point into it
+    private MemoryCARW dictionaryMem;
+    private int dictionaryValueCount = -1;
+    private int fd = -1;
+    private FilesFacade ff;
+    private long fileSize;
+    private long inflateStream;
+    private boolean pageCompressed;
+    private int pageDefLevelsSize;
+    private int pageEncoding;
+    private MemoryCARW pageMem;
+    private int pageRepLevelsSize;
+    private int pageSize;
+    private int pageType;
+    private int pageUncompressedSize;
+    private int pageValueCount;
+    // values that are not stored as is, i.e. delta encoded, are put together here
+    private MemoryCARW valueMem;
+    private long rowCount;
+
+    @Override
+    public void close() {
+        if (addr != 0) {
+            ff.munmap(addr, fileSize, MemoryTag.MMAP_TABLE_READER);
+            addr = 0;
+        }
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+        fileSize = 0;
+        rowCount = 0;
+        columnNames.clear();
+        physicalTypes.clear();
+        typeLengths.clear();
+        repetitions.clear();
+        timeUnits.clear();
+        rowGroupRowCounts.clear();
+        chunks.clear();
+        dictionaryEntries.clear();
+        pageMem = Misc.free(pageMem);
+        dictionaryMem = Misc.free(dictionaryMem);
+        valueMem = Misc.free(valueMem);
+        if (inflateStream != 0) {
+            Zip.inflateEnd(inflateStream);
+            inflateStream = 0;
+        }
+    }
+
+    /**
+     * Decodes all values of the column and appends them to the given memory in QuestDB
+     * column format. Variable size column types use aux memory, it is ignored otherwise.
+     *
+     * @param columnIndex index of the column in the file
+     * @param columnType  QuestDB column type to decode to, see {@link #isCompatible(int, int)}
+     * @param dataMem     memory to append column data to
+     * @param auxMem      memory to append column aux data to
+     * @param symbols     symbol lookup to translate values of SYMBOL columns into keys
+     */
+    public void decodeColumn(int columnIndex, int columnType, MemoryCARW dataMem, MemoryCARW auxMem, @Nullable SymbolLookup symbols) {
+        if (!isCompatible(columnIndex, columnType)) {
+            throw CairoException.nonCritical().put("parquet column type mismatch [column=").put(columnNames.getQuick(columnIndex))
+                    .put(", type=").put(ColumnType.nameOf(columnType))
+                    .put(']');
+        }
+        final int tag = ColumnType.tagOf(columnType);
+        if (tag == ColumnType.STRING || tag == ColumnType.BINARY) {
+            auxMem.putLong(0);
+        }
+        final int columnCount = columnNames.size();
+        for (int g = 0, n = rowGroupRowCounts.size(); g < n; g++) {
+            final int base = (g * columnCount + columnIndex) * CHUNK_SLOT_SIZE;
+            final long valueCount = chunks.getQuick(base + CHUNK_OFFSET_VALUE_COUNT);
+            if (valueCount != rowGroupRowCounts.getQuick(g)) {
+                throw corrupt("column chunk value count");
+            }
+            decodeChunk(
+                    columnIndex,
+                    columnType,
+                    chunks.getQuick(base + CHUNK_OFFSET_START),
+                    chunks.getQuick(base + CHUNK_OFFSET_SIZE),
+                    valueCount,
+                    (int) chunks.getQuick(base + CHUNK_OFFSET_CODEC),
+                    dataMem,
+                    auxMem,
+                    symbols
+            );
+        }
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    /**
+     * @param name column name, case-insensitive
+     * @return index of the column in the file or -1 when there is no such column
+     */
+    public int getColumnIndex(CharSequence name) {
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            if (Chars.equalsIgnoreCase(columnNames.getQuick(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getColumnName(int columnIndex) {
+        return columnNames.getQuick(columnIndex);
+    }
+
+    public int getRowGroupCount() {
+        return rowGroupRowCounts.size();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isCompatible(int columnIndex, int columnType) {
+        return ParquetTypes.isCompatible(columnType, physicalTypes.getQuick(columnIndex), typeLengths.getQuick(columnIndex));
+    }
+
+    public boolean isOpen() {
+        return addr != 0;
+    }
+
+    public void of(FilesFacade ff, LPSZ path) {
+        close();
+        this.ff = ff;
+        fd = TableUtils.openRO(ff, path, LOG);
+        try {
+            fileSize = ff.length(fd);
+            if (fileSize < 3 * Integer.BYTES) {
+                throw CairoException.critical(0).put("not a parquet file [path=").put(path).put(", size=").put(fileSize).put(']');
+            }
+            addr = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_READER);
+            if (Unsafe.getUnsafe().getInt(addr) != ParquetTypes.MAGIC || Unsafe.getUnsafe().getInt(addr + fileSize - Integer.BYTES) != ParquetTypes.MAGIC) {
+                throw CairoException.critical(0).put("not a parquet file [path=").put(path).put(']');
+            }
+            final long footerSize = Unsafe.getUnsafe().getInt(addr + fileSize - 2 * Integer.BYTES) & 0xffffffffL;
+            final long footerHi = fileSize - 2 * Integer.BYTES;
+            if (footerSize > footerHi - Integer.BYTES) {
+                throw CairoException.critical(0).put("invalid parquet footer size [path=").put(path).put(", size=").put(footerSize).put(']');
+            }
+            parseFileMetadata(footerHi - footerSize, footerHi);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    private static boolean isAscii(long lo, long hi) {
+        long p = lo;
+        for (; p + Long.BYTES <= hi; p += Long.BYTES) {
+            if ((Unsafe.getUnsafe().getLong(p) & 0x8080808080808080L) != 0) {
+                return false;
+            }
+        }
+        for (; p < hi; p++) {
+            if (Unsafe.getUnsafe().getByte(p) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long toMicros(long value, int timeUnit) {
+        switch (timeUnit) {
+            case ParquetTypes.TIME_UNIT_MILLIS:
+                return value * 1000L;
+            case ParquetTypes.TIME_UNIT_NANOS:
+                return value / 1000L;
+            default:
+                return value;
+        }
+    }
+
+    private static long toMillis(long value, int timeUnit) {
+        switch (timeUnit) {
+            case ParquetTypes.TIME_UNIT_MICROS:
+                return value / 1000L;
+            case ParquetTypes.TIME_UNIT_NANOS:
+                return value / 1_000_000L;
+            default:
+                return value;
+        }
+    }
+
+    private void appendNull(int columnType, MemoryCARW dataMem, MemoryCARW auxMem) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.STRING:
+                dataMem.putNullStr();
+                auxMem.putLong(dataMem.getAppendOffset());
+                break;
+            case ColumnType.BINARY:
+                dataMem.putNullBin();
+                auxMem.putLong(dataMem.getAppendOffset());
+                break;
+            case ColumnType.VARCHAR:
+                VarcharTypeDriver.appendValue(dataMem, auxMem, null);
+                break;
+            default:
+                final long size = ColumnType.sizeOf(columnType);
+                TableUtils.setNull(columnType, dataMem.appendAddressFor(size), 1);
+                break;
+        }
+    }
+
+    private void appendValue(
+            int columnType,
+            int timeUnit,
+            long valueAddr,
+            int len,
+            MemoryCARW dataMem,
+            MemoryCARW auxMem,
+            @Nullable SymbolLookup symbols
+    ) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                dataMem.putByte((byte) Unsafe.getUnsafe().getInt(valueAddr));
+                break;
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                dataMem.putShort((short) Unsafe.getUnsafe().getInt(valueAddr));
+                break;
+            case ColumnType.CHAR:
+                dataMem.putChar((char) Unsafe.getUnsafe().getInt(valueAddr));
+                break;
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOINT:
+                dataMem.putInt(Unsafe.getUnsafe().getInt(valueAddr));
+                break;
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                dataMem.putLong(Unsafe.getUnsafe().getLong(valueAddr));
+                break;
+            case ColumnType.DATE:
+                dataMem.putLong(toMillis(Unsafe.getUnsafe().getLong(valueAddr), timeUnit));
+                break;
+            case ColumnType.TIMESTAMP:
+                dataMem.putLong(toMicros(Unsafe.getUnsafe().getLong(valueAddr), timeUnit));
+                break;
+            case ColumnType.FLOAT:
+                dataMem.putFloat(Unsafe.getUnsafe().getFloat(valueAddr));
+                break;
+            case ColumnType.DOUBLE:
+                dataMem.putDouble(Unsafe.getUnsafe().getDouble(valueAddr));
+                break;
+            case ColumnType.UUID:
+                dataMem.putLong128(
+                        Long.reverseBytes(Unsafe.getUnsafe().getLong(valueAddr + Long.BYTES)),
+                        Long.reverseBytes(Unsafe.getUnsafe().getLong(valueAddr))
+                );
+                break;
+            case ColumnType.LONG128:
+                dataMem.putLong128(Unsafe.getUnsafe().getLong(valueAddr), Unsafe.getUnsafe().getLong(valueAddr + Long.BYTES));
+                break;
+            case ColumnType.LONG256:
+                dataMem.putLong256(
+                        Unsafe.getUnsafe().getLong(valueAddr),
+                        Unsafe.getUnsafe().getLong(valueAddr + Long.BYTES),
+                        Unsafe.getUnsafe().getLong(valueAddr + 2 * Long.BYTES),
+                        Unsafe.getUnsafe().getLong(valueAddr + 3 * Long.BYTES)
+                );
+                break;
+            case ColumnType.STRING:
+                dataMem.putStr(toUtf16(valueAddr, len));
+                auxMem.putLong(dataMem.getAppendOffset());
+                break;
+            case ColumnType.VARCHAR:
+                VarcharTypeDriver.appendValue(dataMem, auxMem, utf8View.of(valueAddr, valueAddr + len, isAscii(valueAddr, valueAddr + len)));
+                break;
+            case ColumnType.BINARY:
+                dataMem.putLong(len);
+                dataMem.putBlockOfBytes(valueAddr, len);
+                auxMem.putLong(dataMem.getAppendOffset());
+                break;
+            case ColumnType.SYMBOL:
+                final CharSequence value = toUtf16(valueAddr, len);
+                final int key = symbols != null ? symbols.keyOf(value) : SymbolTable.VALUE_NOT_FOUND;
+                if (key == SymbolTable.VALUE_NOT_FOUND) {
+                    throw CairoException.critical(0).put("symbol value is not found [value=").put(value).put(']');
+                }
+                dataMem.putInt(key);
+                break;
+            default:
+                throw CairoException.nonCritical().put("unsupported column type [type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+    }
+
+    private CairoException corrupt(CharSequence what) {
+        return CairoException.critical(0).put("invalid parquet file [").put(what).put(']');
+    }
+
+    private void decodeChunk(
+            int columnIndex,
+            int columnType,
+            long start,
+            long size,
+            long valueCount,
+            int codec,
+            MemoryCARW dataMem,
+            MemoryCARW auxMem,
+            @Nullable SymbolLookup symbols
+    ) {
+        if (codec != ParquetTypes.CODEC_UNCOMPRESSED && codec != ParquetTypes.CODEC_GZIP) {
+            throw CairoException.nonCritical().put("unsupported parquet compression codec [column=").put(columnNames.getQuick(columnIndex))
+                    .put(", codec=").put(codec)
+                    .put(']');
+        }
+        final boolean optional = repetitions.getQuick(columnIndex) == ParquetTypes.REPETITION_OPTIONAL;
+        final boolean compressed = codec == ParquetTypes.CODEC_GZIP;
+        final long hi = addr + start + size;
+        long p = addr + start;
+        long valuesLeft = valueCount;
+        dictionaryValueCount = -1;
+        while (valuesLeft > 0) {
+            if (p >= hi) {
+                throw corrupt("column chunk is too short");
+            }
+            final long body = parsePageHeader(p, hi);
+            final long bodyHi = body + pageSize;
+            if (pageSize < 0 || bodyHi > hi) {
+                throw corrupt("page size");
+            }
+            switch (pageType) {
+                case ParquetTypes.PAGE_DICTIONARY:
+                    if (compressed) {
+                        // dictionary is referenced by the data pages that follow, it needs own buffer
+                        dictionaryMem = inflatePage(dictionaryMem, body, bodyHi, pageUncompressedSize);
+                        final long lo = dictionaryMem.addressOf(0);
+                        loadDictionary(columnIndex, lo, lo + pageUncompressedSize);
+                    } else {
+                        loadDictionary(columnIndex, body, bodyHi);
+                    }
+                    break;
+                case ParquetTypes.PAGE_DATA: {
+                    long lo = body;
+                    long valuesHi = bodyHi;
+                    if (compressed) {
+                        pageMem = inflatePage(pageMem, body, bodyHi, pageUncompressedSize);
+                        lo = pageMem.addressOf(0);
+                        valuesHi = lo + pageUncompressedSize;
+                    }
+                    long valuesLo = lo;
+                    if (optional) {
+                        if (lo + Integer.BYTES > valuesHi) {
+                            throw corrupt("definition levels size");
+                        }
+                        final int defLevelsSize = Unsafe.getUnsafe().getInt(lo);
+                        valuesLo = lo + Integer.BYTES + defLevelsSize;
+                        if (defLevelsSize < 0 || valuesLo > valuesHi) {
+                            throw corrupt("definition levels size");
+                        }
+                        defLevelDecoder.of(lo + Integer.BYTES, valuesLo, 1);
+                    }
+                    decodePage(columnIndex, columnType, optional, valuesLo, valuesHi, dataMem, auxMem, symbols);
+                    valuesLeft -= pageValueCount;
+                    break;
+                }
+                case ParquetTypes.PAGE_DATA_V2: {
+                    // levels of v2 pages are never compressed, only the values are
+                    final long defLevelsLo = body + pageRepLevelsSize;
+                    long valuesLo = defLevelsLo + pageDefLevelsSize;
+                    long valuesHi = bodyHi;
+                    if (pageRepLevelsSize < 0 || pageDefLevelsSize < 0 || valuesLo > bodyHi) {
+                        throw corrupt("definition levels size");
+                    }
+                    if (optional) {
+                        defLevelDecoder.of(defLevelsLo, valuesLo, 1);
+                    }
+                    if (compressed && pageCompressed) {
+                        final int valuesSize = pageUncompressedSize - pageRepLevelsSize - pageDefLevelsSize;
+                        pageMem = inflatePage(pageMem, valuesLo, bodyHi, valuesSize);
+                        valuesLo = pageMem.addressOf(0);
+                        valuesHi = valuesLo + valuesSize;
+                    }
+                    decodePage(columnIndex, columnType, optional, valuesLo, valuesHi, dataMem, auxMem, symbols);
+                    valuesLeft -= pageValueCount;
+                    break;
+                }
+                default:
+                    // index pages are of no interest
+                    break;
+            }
+            p = bodyHi;
+        }
+    }
+
+    private void decodePage(
+            int columnIndex,
+            int columnType,
+            boolean optional,
+            long lo,
+            long hi,
+            MemoryCARW dataMem,
+            MemoryCARW auxMem,
+            @Nullable SymbolLookup symbols
+    ) {
+        final int physicalType = physicalTypes.getQuick(columnIndex);
+        final int timeUnit = timeUnits.getQuick(columnIndex);
+        final int fixedSize = getFixedSize(columnIndex);
+        final int encoding = pageEncoding;
+        final boolean dictionary = encoding == ParquetTypes.ENCODING_PLAIN_DICTIONARY || encoding == ParquetTypes.ENCODING_RLE_DICTIONARY;
+        long p = lo;
+        switch (encoding) {
+            case ParquetTypes.ENCODING_PLAIN:
+                break;
+            case ParquetTypes.ENCODING_PLAIN_DICTIONARY:
+            case ParquetTypes.ENCODING_RLE_DICTIONARY:
+                if (dictionaryValueCount < 0 || lo >= hi) {
+                    throw corrupt("dictionary page is missing");
+                }
+                dictionaryIndexDecoder.of(lo + 1, hi, Unsafe.getUnsafe().getByte(lo));
+                break;
+            case ParquetTypes.ENCODING_RLE: {
+                if (physicalType != ParquetTypes.TYPE_BOOLEAN) {
+                    throw unsupportedEncoding(columnIndex);
+                }
+                // RLE encoded booleans are prefixed with the length of the encoded data
+                if (lo + Integer.BYTES > hi) {
+                    throw corrupt("page is too short");
+                }
+                final int size = Unsafe.getUnsafe().getInt(lo);
+                if (size < 0 || lo + Integer.BYTES + size > hi) {
+                    throw corrupt("page is too short");
+                }
+                booleanDecoder.of(lo + Integer.BYTES, lo + Integer.BYTES + size, 1);
+                break;
+            }
+            case ParquetTypes.ENCODING_DELTA_BINARY_PACKED:
+                if (physicalType != ParquetTypes.TYPE_INT32 && physicalType != ParquetTypes.TYPE_INT64) {
+                    throw unsupportedEncoding(columnIndex);
+                }
+                deltaDecoder.of(lo, hi);
+                break;
+            case ParquetTypes.ENCODING_DELTA_LENGTH_BYTE_ARRAY:
+                if (physicalType != ParquetTypes.TYPE_BYTE_ARRAY) {
+                    throw unsupportedEncoding(columnIndex);
+                }
+                // lengths of all values come first, followed by the concatenated values
+                deltaLengthDecoder.of(lo, hi);
+                p = deltaLengthDecoder.findEnd();
+                break;
+            case ParquetTypes.ENCODING_DELTA_BYTE_ARRAY:
+                if (physicalType != ParquetTypes.TYPE_BYTE_ARRAY && physicalType != ParquetTypes.TYPE_FIXED_LEN_BYTE_ARRAY) {
+                    throw unsupportedEncoding(columnIndex);
+                }
+                // prefix lengths, shared with the previous value, are followed by the
+                // suffixes in DELTA_LENGTH_BYTE_ARRAY encoding
+                deltaDecoder.of(lo, hi);
+                deltaLengthDecoder.of(deltaDecoder.findEnd(), hi);
+                p = deltaLengthDecoder.findEnd();
+                getValueMem().truncate();
+                break;
+            default:
+                throw unsupportedEncoding(columnIndex);
+        }
+
+        long bitIndex = 0;
+        for (int i = 0; i < pageValueCount; i++) {
+            if (optional && defLevelDecoder.next() == 0) {
+                appendNull(columnType, dataMem, auxMem);
+                continue;
+            }
+
+            if (physicalType == ParquetTypes.TYPE_BOOLEAN) {
+                if (dictionary) {
+                    throw corrupt("dictionary encoded boolean");
+                }
+                if (encoding == ParquetTypes.ENCODING_RLE) {
+                    dataMem.putBool(booleanDecoder.next() == 1);
+                    continue;
+                }
+                final long byteAddr = lo + (bitIndex >>> 3);
+                if (byteAddr >= hi) {
+                    throw corrupt("page is too short");
+                }
+                dataMem.putBool(((Unsafe.getUnsafe().getByte(byteAddr) >>> (bitIndex & 7)) & 1) == 1);
+                bitIndex++;
+                continue;
+            }
+
+            final long valueAddr;
+            final int len;
+            if (dictionary) {
+                final int index = dictionaryIndexDecoder.next();
+                if (index < 0 || index >= dictionaryValueCount) {
+                    throw corrupt("dictionary index");
+                }
+                if (fixedSize > 0) {
+                    valueAddr = dictionaryAddr + (long) index * fixedSize;
+                    len = fixedSize;
+                } else {
+                    final long entry = dictionaryEntries.getQuick(index);
+                    valueAddr = entry + Integer.BYTES;
+                    len = Unsafe.getUnsafe().getInt(entry);
+                }
+            } else if (encoding == ParquetTypes.ENCODING_DELTA_BINARY_PACKED) {
+                // little-endian, int32 values are read from the low half of the long
+                final MemoryCARW mem = getValueMem();
+                mem.putLong(0, deltaDecoder.next());
+                valueAddr = mem.addressOf(0);
+                len = fixedSize;
+            } else if (encoding == ParquetTypes.ENCODING_DELTA_LENGTH_BYTE_ARRAY) {
+                final long valueLen = deltaLengthDecoder.next();
+                if (valueLen < 0 || p + valueLen > hi) {
+                    throw corrupt("byte array length");
+                }
+                valueAddr = p;
+                len = (int) valueLen;
+                p += valueLen;
+            } else if (encoding == ParquetTypes.ENCODING_DELTA_BYTE_ARRAY) {
+                final MemoryCARW mem = getValueMem();
+                final long prefixLen = deltaDecoder.next();
+                final long suffixLen = deltaLengthDecoder.next();
+                if (prefixLen < 0 || prefixLen > mem.getAppendOffset() || suffixLen < 0 || p + suffixLen > hi) {
+                    throw corrupt("byte array length");
+                }
+                // the prefix is already in place, it is the start of the previous value
+                mem.jumpTo(prefixLen);
+                mem.putBlockOfBytes(p, suffixLen);
+                p += suffixLen;
+                valueAddr = mem.addressOf(0);
+                len = (int) mem.getAppendOffset();
+                if (fixedSize > 0 && len != fixedSize) {
+                    throw corrupt("fixed length byte array length");
+                }
+            } else if (fixedSize > 0) {
+                valueAddr = p;
+                len = fixedSize;
+                p += fixedSize;
+                if (p > hi) {
+                    throw corrupt("page is too short");
+                }
+            } else {
+                if (p + Integer.BYTES > hi) {
+                    throw corrupt("page is too short");
+                }
+                len = Unsafe.getUnsafe().getInt(p);
+                valueAddr = p + Integer.BYTES;
+                p = valueAddr + len;
+                if (len < 0 || p > hi) {
+                    throw corrupt("byte array length");
+                }
+            }
+            appendValue(columnType, timeUnit, valueAddr, len, dataMem, auxMem, symbols);
+        }
+    }
+
+    private int getFixedSize(int columnIndex) {
+        switch (physicalTypes.getQuick(columnIndex)) {
+            case ParquetTypes.TYPE_INT32:
+            case ParquetTypes.TYPE_FLOAT:
+                return Integer.BYTES;
+            case ParquetTypes.TYPE_INT64:
+            case ParquetTypes.TYPE_DOUBLE:
+                return Long.BYTES;
+            case ParquetTypes.TYPE_INT96:
+                return 12;
+            case ParquetTypes.TYPE_FIXED_LEN_BYTE_ARRAY:
+                return typeLengths.getQuick(columnIndex);
+            default:
+                return 0;
+        }
+    }
+
+    private MemoryCARW getValueMem() {
+        if (valueMem == null) {
+            valueMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        }
+        return valueMem;
+    }
+
+    private MemoryCARW inflatePage(MemoryCARW mem, long lo, long hi, int uncompressedSize) {
+        if (uncompressedSize < 0) {
+            throw corrupt("uncompressed page size");
+        }
+        if (mem == null) {
+            mem = Vm.getCARWInstance(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        }
+        if (inflateStream == 0) {
+            final long zStream = Zip.inflateInit(true);
+            if (zStream < 0) {
+                throw CairoException.critical(0).put("could not initialize decompressor [error=").put(zStream).put(']');
+            }
+            inflateStream = zStream;
+        }
+        mem.truncate();
+        final long dst = mem.appendAddressFor(uncompressedSize);
+        ParquetGzip.decompress(lo, hi - lo, inflateStream, dst, uncompressedSize);
+        return mem;
+    }
+
+    private void loadDictionary(int columnIndex, long lo, long hi) {
+        if (pageEncoding != ParquetTypes.ENCODING_PLAIN && pageEncoding != ParquetTypes.ENCODING_PLAIN_DICTIONARY) {
+            throw CairoException.nonCritical().put("unsupported parquet dictionary encoding [column=").put(columnNames.getQuick(columnIndex))
+                    .put(", encoding=").put(pageEncoding)
+                    .put(']');
+        }
+        final int fixedSize = getFixedSize(columnIndex);
+        dictionaryAddr = lo;
+        dictionaryEntries.clear();
+        if (fixedSize > 0) {
+            if ((long) pageValueCount * fixedSize > hi - lo) {
+                throw corrupt("dictionary page is too short");
+            }
+        } else {
+            long p = lo;
+            for (int i = 0; i < pageValueCount; i++) {
+                if (p + Integer.BYTES > hi) {
+                    throw corrupt("dictionary page is too short");
+                }
+                dictionaryEntries.add(p);
+                final int len = Unsafe.getUnsafe().getInt(p);
+                p += Integer.BYTES + len;
+                if (len < 0 || p > hi) {
+                    throw corrupt("byte array length");
+                }
+            }
+        }
+        dictionaryValueCount = pageValueCount;
+    }
+
+    private void parseColumnChunk() {
+        long fileOffset = -1;
+        long dataPageOffset = -1;
+        long dictionaryPageOffset = -1;
+        long valueCount = -1;
+        long size = -1;
+        int codec = ParquetTypes.CODEC_UNCOMPRESSED;
+        thrift.structBegin();
+        int type;
+        while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+            switch (thrift.getFieldId()) {
+                case 1:
+                    throw CairoException.nonCritical().put("parquet column chunks in external files are not supported");
+                case 2:
+                    fileOffset = thrift.readI64();
+                    break;
+                case 3:
+                    thrift.structBegin();
+                    while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+                        switch (thrift.getFieldId()) {
+                            case 4:
+                                codec = thrift.readI32();
+                                break;
+                            case 5:
+                                valueCount = thrift.readI64();
+                                break;
+                            case 7:
+                                size = thrift.readI64();
+                                break;
+                            case 9:
+                                dataPageOffset = thrift.readI64();
+                                break;
+                            case 11:
+                                dictionaryPageOffset = thrift.readI64();
+                                break;
+                            default:
+                                thrift.skip(type);
+                                break;
+                        }
+                    }
+                    thrift.structEnd();
+                    break;
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.structEnd();
+
+        if (dataPageOffset < 0) {
+            dataPageOffset = fileOffset;
+        }
+        final long start = dictionaryPageOffset > 0 ? Math.min(dictionaryPageOffset, dataPageOffset) : dataPageOffset;
+        if (start < Integer.BYTES || size < 0 || valueCount < 0 || start + size > fileSize) {
+            throw corrupt("column chunk offset");
+        }
+        chunks.add(start, size);
+        chunks.add(valueCount, codec);
+    }
+
+    private void parseFileMetadata(long lo, long hi) {
+        thrift.of(addr + lo, addr + hi);
+        thrift.structBegin();
+        int type;
+        while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+            switch (thrift.getFieldId()) {
+                case 2: {
+                    final int n = thrift.readListBegin();
+                    for (int i = 0; i < n; i++) {
+                        parseSchemaElement(i);
+                    }
+                    break;
+                }
+                case 3:
+                    rowCount = thrift.readI64();
+                    break;
+                case 4: {
+                    final int n = thrift.readListBegin();
+                    for (int i = 0; i < n; i++) {
+                        parseRowGroup();
+                    }
+                    break;
+                }
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.structEnd();
+
+        long total = 0;
+        for (int i = 0, n = rowGroupRowCounts.size(); i < n; i++) {
+            total += rowGroupRowCounts.getQuick(i);
+        }
+        if (total != rowCount || chunks.size() != rowGroupRowCounts.size() * columnNames.size() * CHUNK_SLOT_SIZE) {
+            throw corrupt("row groups do not match schema");
+        }
+    }
+
+    // returns address of the page body
+    private long parsePageHeader(long lo, long hi) {
+        pageType = -1;
+        pageSize = -1;
+        pageUncompressedSize = -1;
+        pageCompressed = true;
+        pageValueCount = 0;
+        pageEncoding = -1;
+        pageDefLevelsSize = 0;
+        pageRepLevelsSize = 0;
+        thrift.of(lo, hi);
+        thrift.structBegin();
+        int type;
+        while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+            switch (thrift.getFieldId()) {
+                case 1:
+                    pageType = thrift.readI32();
+                    break;
+                case 2:
+                    pageUncompressedSize = thrift.readI32();
+                    break;
+                case 3:
+                    pageSize = thrift.readI32();
+                    break;
+                case 5:
+                case 7:
+                case 8:
+                    // data page, dictionary page and data page v2 headers
+                    final int headerId = thrift.getFieldId();
+                    thrift.structBegin();
+                    while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+                        final int fieldId = thrift.getFieldId();
+                        if (fieldId == 1) {
+                            pageValueCount = thrift.readI32();
+                        } else if (fieldId == 2 && headerId != 8 || fieldId == 4 && headerId == 8) {
+                            pageEncoding = thrift.readI32();
+                        } else if (fieldId == 5 && headerId == 8) {
+                            pageDefLevelsSize = thrift.readI32();
+                        } else if (fieldId == 6 && headerId == 8) {
+                            pageRepLevelsSize = thrift.readI32();
+                        } else if (fieldId == 7 && headerId == 8) {
+                            // compact protocol keeps boolean field value in the field type
+                            pageCompressed = type == ThriftCompactReader.TYPE_BOOLEAN_TRUE;
+                        } else {
+                            thrift.skip(type);
+                        }
+                    }
+                    thrift.structEnd();
+                    break;
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.structEnd();
+        if (pageValueCount < 0) {
+            throw corrupt("page value count");
+        }
+        return thrift.getPosition();
+    }
+
+    private void parseRowGroup() {
+        long rowGroupRowCount = -1;
+        final int chunkCount = chunks.size();
+        thrift.structBegin();
+        int type;
+        while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+            switch (thrift.getFieldId()) {
+                case 1: {
+                    final int n = thrift.readListBegin();
+                    for (int i = 0; i < n; i++) {
+                        parseColumnChunk();
+                    }
+                    break;
+                }
+                case 3:
+                    rowGroupRowCount = thrift.readI64();
+                    break;
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.structEnd();
+        if (rowGroupRowCount < 0 || chunks.size() - chunkCount != columnNames.size() * CHUNK_SLOT_SIZE) {
+            throw corrupt("row group");
+        }
+        rowGroupRowCounts.add(rowGroupRowCount);
+    }
+
+    private void parseSchemaElement(int index) {
+        int physicalType = -1;
+        int typeLength = 0;
+        int repetition = ParquetTypes.REPETITION_REQUIRED;
+        int childCount = 0;
+        int timeUnit = ParquetTypes.TIME_UNIT_UNKNOWN;
+        String name = null;
+        thrift.structBegin();
+        int type;
+        while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+            switch (thrift.getFieldId()) {
+                case 1:
+                    physicalType = thrift.readI32();
+                    break;
+                case 2:
+                    typeLength = thrift.readI32();
+                    break;
+                case 3:
+                    repetition = thrift.readI32();
+                    break;
+                case 4: {
+                    final int len = thrift.readBinaryLength();
+                    final long p = thrift.getPosition();
+                    name = Utf8s.stringFromUtf8Bytes(p, p + len);
+                    thrift.skipBytes(len);
+                    break;
+                }
+                case 5:
+                    childCount = thrift.readI32();
+                    break;
+                case 6: {
+                    final int convertedType = thrift.readI32();
+                    if (convertedType == ParquetTypes.CONVERTED_TIMESTAMP_MILLIS) {
+                        timeUnit = ParquetTypes.TIME_UNIT_MILLIS;
+                    } else if (convertedType == ParquetTypes.CONVERTED_TIMESTAMP_MICROS) {
+                        timeUnit = ParquetTypes.TIME_UNIT_MICROS;
+                    }
+                    break;
+                }
+                case 10: {
+                    final int unit = parseTimestampUnit();
+                    if (unit != ParquetTypes.TIME_UNIT_UNKNOWN) {
+                        timeUnit = unit;
+                    }
+                    break;
+                }
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.structEnd();
+
+        if (index == 0) {
+            // root of the schema
+            return;
+        }
+        if (childCount > 0 || repetition == ParquetTypes.REPETITION_REPEATED) {
+            throw CairoException.nonCritical().put("nested parquet schemas are not supported [column=").put(name).put(']');
+        }
+        columnNames.add(name);
+        physicalTypes.add(physicalType);
+        typeLengths.add(typeLength);
+        repetitions.add(repetition);
+        timeUnits.add(timeUnit);
+    }
+
+    // LogicalType union, only TIMESTAMP is of interest
+    private int parseTimestampUnit() {
+        int unit = ParquetTypes.TIME_UNIT_UNKNOWN;
+        thrift.structBegin();
+        int type;
+        while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+            if (thrift.getFieldId() == 8) {
+                thrift.structBegin();
+                while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+                    if (thrift.getFieldId() == 2) {
+                        // TimeUnit union, field id is the unit
+                        thrift.structBegin();
+                        while ((type = thrift.readFieldBegin()) != ThriftCompactReader.TYPE_STOP) {
+                            unit = thrift.getFieldId();
+                            thrift.skip(type);
+                        }
+                        thrift.structEnd();
+                    } else {
+                        thrift.skip(type);
+                    }
+                }
+                thrift.structEnd();
+            } else {
+                thrift.skip(type);
+            }
+        }
+        thrift.structEnd();
+        return unit;
+    }
+
+    private CharSequence toUtf16(long lo, int len) {
+        utf16Sink.clear();
+        if (!Utf8s.utf8ToUtf16(lo, lo + len, utf16Sink)) {
+            throw corrupt("invalid UTF-8 value");
+        }
+        return utf16Sink;
+    }
+
+    private CairoException unsupportedEncoding(int columnIndex) {
+        return CairoException.nonCritical().put("unsupported parquet encoding [column=").put(columnNames.getQuick(columnIndex))
+                .put(", encoding=").put(pageEncoding)
+                .put(']');
+    }
+
+    /**
+     * Decoder of the DELTA_BINARY_PACKED encoding used for integers and for the
+     * lengths of DELTA_LENGTH_BYTE_ARRAY and DELTA_BYTE_ARRAY values. Values are
+     * stored in blocks of miniblocks, each miniblock holds bit-packed deltas from
+     * the previous value with its own bit width.
+     */
+    private static class DeltaBinaryPackedDecoder {
+        private long bitWidthsLo;
+        private boolean first;
+        private long hi;
+        private long lastValue;
+        private int miniBlockBitWidth;
+        private int miniBlockCount;
+        private int miniBlockIndex;
+        private long miniBlockLo;
+        private long miniBlockRemaining;
+        private long miniBlockValueCount;
+        private long minDelta;
+        private long pos;
+        private long valueCount;
+
+        /**
+         * Returns address of the first byte after the encoded values. Must be called before
+         * the values are read.
+         */
+        long findEnd() {
+            final long lo = pos;
+            long remaining = valueCount - 1;
+            while (remaining > 0) {
+                readVarLong();
+                final long widthsLo = pos;
+                pos += miniBlockCount;
+                if (pos > hi) {
+                    throw corrupt();
+                }
+                for (int i = 0; i < miniBlockCount && remaining > 0; i++) {
+                    pos += miniBlockValueCount * (Unsafe.getUnsafe().getByte(widthsLo + i) & 0xff) / 8;
+                    remaining -= miniBlockValueCount;
+                }
+            }
+            final long end = Math.min(pos, hi);
+            pos = lo;
+            return end;
+        }
+
+        long next() {
+            if (valueCount-- <= 0) {
+                throw corrupt();
+            }
+            if (first) {
+                first = false;
+                return lastValue;
+            }
+            if (miniBlockRemaining == 0) {
+                nextMiniBlock();
+            }
+            final long delta = readPacked((miniBlockValueCount - miniBlockRemaining) * miniBlockBitWidth);
+            miniBlockRemaining--;
+            lastValue += minDelta + delta;
+            return lastValue;
+        }
+
+        void of(long lo, long hi) {
+            this.pos = lo;
+            this.hi = hi;
+            final long blockSize = readVarLong();
+            final long miniBlockCount = readVarLong();
+            this.valueCount = readVarLong();
+            final long firstValue = readVarLong();
+            if (
+                    blockSize <= 0
+                            || blockSize % 128 != 0
+                            || miniBlockCount <= 0
+                            || blockSize % miniBlockCount != 0
+                            || (blockSize / miniBlockCount) % 32 != 0
+                            || valueCount < 0
+            ) {
+                throw corrupt();
+            }
+            this.miniBlockCount = (int) miniBlockCount;
+            this.miniBlockValueCount = blockSize / miniBlockCount;
+            this.miniBlockIndex = this.miniBlockCount;
+            this.miniBlockRemaining = 0;
+            this.lastValue = (firstValue >>> 1) ^ -(firstValue & 1);
+            this.first = true;
+        }
+
+        private CairoException corrupt() {
+            return CairoException.critical(0).put("invalid parquet file [delta binary packed data]");
+        }
+
+        private void nextMiniBlock() {
+            if (miniBlockIndex == miniBlockCount) {
+                final long zigZag = readVarLong();
+                minDelta = (zigZag >>> 1) ^ -(zigZag & 1);
+                bitWidthsLo = pos;
+                pos += miniBlockCount;
+                if (pos > hi) {
+                    throw corrupt();
+                }
+                miniBlockIndex = 0;
+            }
+            miniBlockBitWidth = Unsafe.getUnsafe().getByte(bitWidthsLo + miniBlockIndex++) & 0xff;
+            if (miniBlockBitWidth > 64) {
+                throw corrupt();
+            }
+            miniBlockLo = pos;
+            // the last miniblock may be cut short, reads past the data are checked
+            pos = Math.min(hi, pos + miniBlockValueCount * miniBlockBitWidth / 8);
+            miniBlockRemaining = miniBlockValueCount;
+        }
+
+        private long readPacked(long bitIndex) {
+            long value = 0;
+            for (int i = 0; i < miniBlockBitWidth; ) {
+                final long bit = bitIndex + i;
+                final long byteAddr = miniBlockLo + (bit >>> 3);
+                if (byteAddr >= hi) {
+                    throw corrupt();
+                }
+                final int shift = (int) (bit & 7);
+                final int take = Math.min(8 - shift, miniBlockBitWidth - i);
+                value |= (long) (((Unsafe.getUnsafe().getByte(byteAddr) & 0xff) >>> shift) & ((1 << take) - 1)) << i;
+                i += take;
+            }
+            return value;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos >= hi || shift > 63) {
+                    throw corrupt();
+                }
+                b = Unsafe.getUnsafe().getByte(pos++);
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Decoder of the RLE/bit-packed hybrid encoding used for definition levels,
+     * dictionary indexes and RLE encoded booleans.
+     */
+    private static class RleBitPackedDecoder {
+        private int bitWidth;
+        private long hi;
+        private long packedBitIndex;
+        private long packedLo;
+        private long pos;
+        private boolean rle;
+        private int rleValue;
+        private long runRemaining;
+
+        int next() {
+            if (runRemaining == 0) {
+                readRunHeader();
+            }
+            runRemaining--;
+            if (rle) {
+                return rleValue;
+            }
+            final int value = readPacked(packedBitIndex);
+            packedBitIndex += bitWidth;
+            return value;
+        }
+
+        void of(long lo, long hi, int bitWidth) {
+            if (bitWidth < 0 || bitWidth > 32) {
+                throw CairoException.critical(0).put("invalid parquet file [bit width=").put(bitWidth).put(']');
+            }
+            this.pos = lo;
+            this.hi = hi;
+            this.bitWidth = bitWidth;
+            this.runRemaining = 0;
+        }
+
+        private CairoException corrupt() {
+            return CairoException.critical(0).put("invalid parquet file [RLE/bit-packed data]");
+        }
+
+        private int readPacked(long bitIndex) {
+            int value = 0;
+            for (int i = 0; i < bitWidth; ) {
+                final long bit = bitIndex + i;
+                final long byteAddr = packedLo + (bit >>> 3);
+                if (byteAddr >= hi) {
+                    throw corrupt();
+                }
+                final int shift = (int) (bit & 7);
+                final int take = Math.min(8 - shift, bitWidth - i);
+                value |= (((Unsafe.getUnsafe().getByte(byteAddr) & 0xff) >>> shift) & ((1 << take) - 1)) << i;
+                i += take;
+            }
+            return value;
+        }
+
+        private void readRunHeader() {
+            long header = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos >= hi || shift > 35) {
+                    throw corrupt();
+                }
+                b = Unsafe.getUnsafe().getByte(pos++);
+                header |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            if ((header & 1) == 0) {
+                rle = true;
+                runRemaining = header >>> 1;
+                final int byteWidth = (bitWidth + 7) >>> 3;
+                if (pos + byteWidth > hi) {
+                    throw corrupt();
+                }
+                int value = 0;
+                for (int i = 0; i < byteWidth; i++) {
+                    value |= (Unsafe.getUnsafe().getByte(pos++) & 0xff) << (i << 3);
+                }
+                rleValue = value;
+            } else {
+                rle = false;
+                final long groupCount = header >>> 1;
+                runRemaining = groupCount << 3;
+                packedLo = pos;
+                packedBitIndex = 0;
+                pos = Math.min(hi, pos + groupCount * bitWidth);
+            }
+            if (runRemaining == 0) {
+                throw corrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,554 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.CommitMode;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.PageAddressCache;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8Sequence;
+
+/**
+ * Writes page frames to a Parquet file. Every page frame becomes a row group, column
+ * data is read straight from the frame, a column at a time, and is written as GZIP compressed
+ * PLAIN encoded data pages. Null values are encoded as definition levels, so that they
+ * are understood by other Parquet readers.
+ */
+public class ParquetEncoder implements QuietCloseable {
+    private static final String CREATED_BY = "QuestDB";
+    private static final Log LOG = LogFactory.getLog(ParquetEncoder.class);
+    private static final int PAGE_ROW_COUNT = 128 * 1024;
+    private static final int ROW_GROUP_COLUMN_SLOT_SIZE = 3;
+    private final int commitMode;
+    private final MemoryCARW compressedMem;
+    private final MemoryCARW defLevelMem;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final MemoryCARW headerMem;
+    private final PageAddressCache pageAddressCache;
+    // uncompressed page body, used when page has definition levels
+    private final MemoryCARW pageMem;
+    // per row group: row count followed by file offset, size and uncompressed size of every column chunk
+    private final LongList rowGroups = new LongList();
+    private final ThriftCompactWriter thrift = new ThriftCompactWriter();
+    private final DirectUtf8Sink utf8Sink = new DirectUtf8Sink(64);
+    private final MemoryCARW valueMem;
+    private long chunkUncompressedSize;
+    private long defRunLength;
+    private int defRunLevel;
+    private int fd = -1;
+    private long fileOffset;
+    private long zStream;
+
+    public ParquetEncoder(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+        this.commitMode = configuration.getCommitMode();
+        this.pageAddressCache = new PageAddressCache(configuration);
+        this.headerMem = Vm.getCARWInstance(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.defLevelMem = Vm.getCARWInstance(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.valueMem = Vm.getCARWInstance(1024 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.pageMem = Vm.getCARWInstance(1024 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.compressedMem = Vm.getCARWInstance(1024 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(headerMem);
+        Misc.free(defLevelMem);
+        Misc.free(valueMem);
+        Misc.free(pageMem);
+        Misc.free(compressedMem);
+        Misc.free(utf8Sink);
+        if (zStream != 0) {
+            Zip.deflateEnd(zStream);
+            zStream = 0;
+        }
+    }
+
+    /**
+     * Writes all frames of the cursor to the file. The file is removed on failure.
+     *
+     * @param cursor   page frame cursor
+     * @param metadata metadata of the cursor
+     * @param path     file to write to
+     * @return number of rows written
+     */
+    public long encode(PageFrameCursor cursor, RecordMetadata metadata, LPSZ path) {
+        final int columnCount = metadata.getColumnCount();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (ParquetTypes.getPhysicalType(columnType) < 0) {
+                throw CairoException.nonCritical().put("unsupported column type for parquet [column=").put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(columnType))
+                        .put(']');
+            }
+        }
+
+        if (zStream == 0) {
+            final long z = Zip.deflateInit();
+            if (z < 0) {
+                throw CairoException.critical(0).put("could not initialize compressor [error=").put(z).put(']');
+            }
+            zStream = z;
+        }
+
+        fd = TableUtils.openRW(ff, path, LOG, fileOpenOpts);
+        boolean success = false;
+        try (PageAddressCacheRecord record = new PageAddressCacheRecord()) {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(path).put(']');
+            }
+            fileOffset = 0;
+            rowGroups.clear();
+            headerMem.truncate();
+            headerMem.putInt(ParquetTypes.MAGIC);
+            write(headerMem);
+
+            record.of(cursor, pageAddressCache);
+            final int timestampIndex = metadata.getTimestampIndex();
+            long rowCount = 0;
+            PageFrame frame;
+            while ((frame = cursor.next()) != null) {
+                final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                if (frameRowCount == 0) {
+                    continue;
+                }
+                pageAddressCache.clear();
+                pageAddressCache.of(metadata);
+                pageAddressCache.add(0, frame);
+                record.setFrameIndex(0);
+
+                rowGroups.add(frameRowCount);
+                for (int i = 0; i < columnCount; i++) {
+                    final long chunkOffset = fileOffset;
+                    chunkUncompressedSize = 0;
+                    encodeColumnChunk(
+                            record,
+                            i,
+                            metadata.getColumnType(i),
+                            frame.getPageAddress(i),
+                            frameRowCount,
+                            i != timestampIndex && ParquetTypes.getRepetition(metadata.getColumnType(i)) == ParquetTypes.REPETITION_OPTIONAL
+                    );
+                    rowGroups.add(chunkOffset, fileOffset - chunkOffset);
+                    rowGroups.add(chunkUncompressedSize);
+                }
+                rowCount += frameRowCount;
+            }
+            writeFooter(metadata, rowCount);
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(fd);
+            }
+            success = true;
+            LOG.info().$("parquet file written [path=").$(path).$(", rows=").$(rowCount).$(", size=").$(fileOffset).I$();
+            return rowCount;
+        } finally {
+            ff.close(fd);
+            fd = -1;
+            if (!success) {
+                ff.remove(path);
+            }
+        }
+    }
+
+    private static boolean isNull(int columnType, long address) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.GEOBYTE:
+                return Unsafe.getUnsafe().getByte(address) == GeoHashes.BYTE_NULL;
+            case ColumnType.GEOSHORT:
+                return Unsafe.getUnsafe().getShort(address) == GeoHashes.SHORT_NULL;
+            case ColumnType.GEOINT:
+                return Unsafe.getUnsafe().getInt(address) == GeoHashes.INT_NULL;
+            case ColumnType.INT:
+                return Unsafe.getUnsafe().getInt(address) == Numbers.INT_NaN;
+            case ColumnType.IPv4:
+                return Unsafe.getUnsafe().getInt(address) == Numbers.IPv4_NULL;
+            case ColumnType.GEOLONG:
+                return Unsafe.getUnsafe().getLong(address) == GeoHashes.NULL;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN;
+            case ColumnType.FLOAT:
+                return Float.isNaN(Unsafe.getUnsafe().getFloat(address));
+            case ColumnType.DOUBLE:
+                return Double.isNaN(Unsafe.getUnsafe().getDouble(address));
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + Long.BYTES) == Numbers.LONG_NaN;
+            case ColumnType.LONG256:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + Long.BYTES) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + 2 * Long.BYTES) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + 3 * Long.BYTES) == Numbers.LONG_NaN;
+            default:
+                return false;
+        }
+    }
+
+    private void addDefLevel(int level) {
+        if (level == defRunLevel) {
+            defRunLength++;
+        } else {
+            flushDefRun();
+            defRunLevel = level;
+            defRunLength = 1;
+        }
+    }
+
+    private void encodeBoolean(long pageAddress, long lo, long hi) {
+        int bits = 0;
+        int bitCount = 0;
+        for (long r = lo; r < hi; r++) {
+            if (pageAddress != 0 && Unsafe.getUnsafe().getByte(pageAddress + r) != 0) {
+                bits |= 1 << bitCount;
+            }
+            if (++bitCount == 8) {
+                valueMem.putByte((byte) bits);
+                bits = 0;
+                bitCount = 0;
+            }
+        }
+        if (bitCount > 0) {
+            valueMem.putByte((byte) bits);
+        }
+    }
+
+    private void encodeColumnChunk(
+            PageAddressCacheRecord record,
+            int columnIndex,
+            int columnType,
+            long pageAddress,
+            long rowCount,
+            boolean optional
+    ) {
+        for (long lo = 0; lo < rowCount; lo += PAGE_ROW_COUNT) {
+            final long hi = Math.min(lo + PAGE_ROW_COUNT, rowCount);
+            defLevelMem.truncate();
+            valueMem.truncate();
+            defRunLength = 0;
+            defRunLevel = 1;
+
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                    encodeBoolean(pageAddress, lo, hi);
+                    break;
+                case ColumnType.STRING:
+                    for (long r = lo; r < hi; r++) {
+                        record.setRowIndex(r);
+                        encodeUtf16(record.getStrA(columnIndex));
+                    }
+                    break;
+                case ColumnType.SYMBOL:
+                    for (long r = lo; r < hi; r++) {
+                        record.setRowIndex(r);
+                        encodeUtf16(record.getSymA(columnIndex));
+                    }
+                    break;
+                case ColumnType.VARCHAR:
+                    for (long r = lo; r < hi; r++) {
+                        record.setRowIndex(r);
+                        encodeUtf8(record.getVarcharA(columnIndex));
+                    }
+                    break;
+                case ColumnType.BINARY:
+                    for (long r = lo; r < hi; r++) {
+                        record.setRowIndex(r);
+                        encodeBinary(record.getBin(columnIndex));
+                    }
+                    break;
+                default:
+                    encodeFixed(columnType, pageAddress, lo, hi, optional);
+                    break;
+            }
+            flushDefRun();
+            writeDataPage(hi - lo, optional);
+        }
+    }
+
+    private void encodeBinary(BinarySequence value) {
+        if (value == null) {
+            addDefLevel(0);
+            return;
+        }
+        final long len = value.length();
+        if (len > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("binary value is too large for parquet [size=").put(len).put(']');
+        }
+        valueMem.putInt((int) len);
+        value.copyTo(valueMem.appendAddressFor(len), 0, len);
+        addDefLevel(1);
+    }
+
+    private void encodeFixed(int columnType, long pageAddress, long lo, long hi, boolean optional) {
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final int tag = ColumnType.tagOf(columnType);
+        for (long r = lo; r < hi; r++) {
+            final long address = pageAddress + (r << shift);
+            if (pageAddress == 0 || (optional && isNull(columnType, address))) {
+                if (optional) {
+                    addDefLevel(0);
+                    continue;
+                }
+                // column top of a type without null value, such types are all stored as INT32
+                valueMem.putInt(0);
+                continue;
+            }
+            switch (tag) {
+                case ColumnType.BYTE:
+                case ColumnType.GEOBYTE:
+                    valueMem.putInt(Unsafe.getUnsafe().getByte(address));
+                    break;
+                case ColumnType.SHORT:
+                case ColumnType.GEOSHORT:
+                    valueMem.putInt(Unsafe.getUnsafe().getShort(address));
+                    break;
+                case ColumnType.CHAR:
+                    valueMem.putInt(Unsafe.getUnsafe().getChar(address));
+                    break;
+                case ColumnType.UUID:
+                    // Parquet UUID is big-endian, QuestDB stores it as little-endian lo and hi longs
+                    valueMem.putLong(Long.reverseBytes(Unsafe.getUnsafe().getLong(address + Long.BYTES)));
+                    valueMem.putLong(Long.reverseBytes(Unsafe.getUnsafe().getLong(address)));
+                    break;
+                default:
+                    valueMem.putBlockOfBytes(address, 1L << shift);
+                    break;
+            }
+            if (optional) {
+                addDefLevel(1);
+            }
+        }
+    }
+
+    private void encodeUtf16(CharSequence value) {
+        if (value == null) {
+            addDefLevel(0);
+            return;
+        }
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        valueMem.putInt(utf8Sink.size());
+        valueMem.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+        addDefLevel(1);
+    }
+
+    private void encodeUtf8(Utf8Sequence value) {
+        if (value == null) {
+            addDefLevel(0);
+            return;
+        }
+        final int size = value.size();
+        valueMem.putInt(size);
+        value.writeTo(valueMem.appendAddressFor(size), 0, size);
+        addDefLevel(1);
+    }
+
+    private void flushDefRun() {
+        if (defRunLength > 0) {
+            // RLE run of the RLE/bit-packed hybrid encoding, bit width is 1
+            putVarint(defLevelMem, defRunLength << 1);
+            defLevelMem.putByte((byte) defRunLevel);
+            defRunLength = 0;
+        }
+    }
+
+    private void putVarint(MemoryCARW mem, long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+
+    private void write(MemoryCARW mem) {
+        final long len = mem.getAppendOffset();
+        if (len > 0) {
+            if (ff.write(fd, mem.addressOf(0), len, fileOffset) != len) {
+                throw CairoException.critical(ff.errno()).put("could not write parquet file [fd=").put(fd)
+                        .put(", offset=").put(fileOffset)
+                        .put(", size=").put(len)
+                        .put(']');
+            }
+            fileOffset += len;
+        }
+    }
+
+    private void writeDataPage(long valueCount, boolean optional) {
+        final long defLevelSize = defLevelMem.getAppendOffset();
+        final long pageSize = valueMem.getAppendOffset() + (optional ? Integer.BYTES + defLevelSize : 0);
+        if (pageSize > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("parquet page is too large [size=").put(pageSize).put(']');
+        }
+
+        // page body is compressed as a whole, definition levels included
+        final long body;
+        if (optional) {
+            pageMem.truncate();
+            pageMem.putInt((int) defLevelSize);
+            pageMem.putBlockOfBytes(defLevelMem.addressOf(0), defLevelSize);
+            pageMem.putBlockOfBytes(valueMem.addressOf(0), valueMem.getAppendOffset());
+            body = pageMem.addressOf(0);
+        } else {
+            body = valueMem.addressOf(0);
+        }
+        compressedMem.truncate();
+        ParquetGzip.compress(body, (int) pageSize, zStream, compressedMem);
+        final long compressedSize = compressedMem.getAppendOffset();
+        if (compressedSize > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("parquet page is too large [size=").put(compressedSize).put(']');
+        }
+
+        headerMem.truncate();
+        thrift.of(headerMem);
+        thrift.structBegin();
+        thrift.writeI32Field(1, ParquetTypes.PAGE_DATA);
+        thrift.writeI32Field(2, (int) pageSize);
+        thrift.writeI32Field(3, (int) compressedSize);
+        thrift.fieldBegin(ThriftCompactReader.TYPE_STRUCT, 5);
+        thrift.structBegin();
+        thrift.writeI32Field(1, (int) valueCount);
+        thrift.writeI32Field(2, ParquetTypes.ENCODING_PLAIN);
+        thrift.writeI32Field(3, ParquetTypes.ENCODING_RLE);
+        thrift.writeI32Field(4, ParquetTypes.ENCODING_RLE);
+        thrift.structEnd();
+        thrift.structEnd();
+        chunkUncompressedSize += headerMem.getAppendOffset() + pageSize;
+        write(headerMem);
+        write(compressedMem);
+    }
+
+    private void writeFooter(RecordMetadata metadata, long rowCount) {
+        final int columnCount = metadata.getColumnCount();
+        final int timestampIndex = metadata.getTimestampIndex();
+        final int rowGroupSlotSize = 1 + columnCount * ROW_GROUP_COLUMN_SLOT_SIZE;
+        final int rowGroupCount = rowGroups.size() / rowGroupSlotSize;
+
+        headerMem.truncate();
+        thrift.of(headerMem);
+        thrift.structBegin();
+        thrift.writeI32Field(1, 1);
+
+        // schema, root element followed by the columns
+        thrift.fieldBegin(ThriftCompactReader.TYPE_LIST, 2);
+        thrift.listBegin(ThriftCompactReader.TYPE_STRUCT, columnCount + 1);
+        thrift.structBegin();
+        thrift.writeStringField(4, "schema");
+        thrift.writeI32Field(5, columnCount);
+        thrift.structEnd();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final int physicalType = ParquetTypes.getPhysicalType(columnType);
+            final int convertedType = ParquetTypes.getConvertedType(columnType);
+            thrift.structBegin();
+            thrift.writeI32Field(1, physicalType);
+            if (physicalType == ParquetTypes.TYPE_FIXED_LEN_BYTE_ARRAY) {
+                thrift.writeI32Field(2, ParquetTypes.getTypeLength(columnType));
+            }
+            thrift.writeI32Field(3, i == timestampIndex ? ParquetTypes.REPETITION_REQUIRED : ParquetTypes.getRepetition(columnType));
+            thrift.writeStringField(4, metadata.getColumnName(i));
+            if (convertedType != ParquetTypes.CONVERTED_NONE) {
+                thrift.writeI32Field(6, convertedType);
+            }
+            thrift.structEnd();
+        }
+
+        thrift.writeI64Field(3, rowCount);
+
+        thrift.fieldBegin(ThriftCompactReader.TYPE_LIST, 4);
+        thrift.listBegin(ThriftCompactReader.TYPE_STRUCT, rowGroupCount);
+        for (int g = 0; g < rowGroupCount; g++) {
+            final int base = g * rowGroupSlotSize;
+            final long rowGroupRowCount = rowGroups.getQuick(base);
+            long rowGroupSize = 0;
+            long rowGroupCompressedSize = 0;
+            thrift.structBegin();
+            thrift.fieldBegin(ThriftCompactReader.TYPE_LIST, 1);
+            thrift.listBegin(ThriftCompactReader.TYPE_STRUCT, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final long chunkOffset = rowGroups.getQuick(base + 1 + i * ROW_GROUP_COLUMN_SLOT_SIZE);
+                final long chunkSize = rowGroups.getQuick(base + 2 + i * ROW_GROUP_COLUMN_SLOT_SIZE);
+                final long chunkUncompressedSize = rowGroups.getQuick(base + 3 + i * ROW_GROUP_COLUMN_SLOT_SIZE);
+                rowGroupSize += chunkUncompressedSize;
+                rowGroupCompressedSize += chunkSize;
+                thrift.structBegin();
+                thrift.writeI64Field(2, chunkOffset);
+                thrift.fieldBegin(ThriftCompactReader.TYPE_STRUCT, 3);
+                thrift.structBegin();
+                thrift.writeI32Field(1, ParquetTypes.getPhysicalType(metadata.getColumnType(i)));
+                thrift.fieldBegin(ThriftCompactReader.TYPE_LIST, 2);
+                thrift.listBegin(ThriftCompactReader.TYPE_I32, 2);
+                thrift.putI32(ParquetTypes.ENCODING_PLAIN);
+                thrift.putI32(ParquetTypes.ENCODING_RLE);
+                thrift.fieldBegin(ThriftCompactReader.TYPE_LIST, 3);
+                thrift.listBegin(ThriftCompactReader.TYPE_BINARY, 1);
+                thrift.putString(metadata.getColumnName(i));
+                thrift.writeI32Field(4, ParquetTypes.CODEC_GZIP);
+                thrift.writeI64Field(5, rowGroupRowCount);
+                thrift.writeI64Field(6, chunkUncompressedSize);
+                thrift.writeI64Field(7, chunkSize);
+                thrift.writeI64Field(9, chunkOffset);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            thrift.writeI64Field(2, rowGroupSize);
+            thrift.writeI64Field(3, rowGroupRowCount);
+            thrift.writeI64Field(6, rowGroupCompressedSize);
+            thrift.structEnd();
+        }
+
+        thrift.writeStringField(6, CREATED_BY);
+        thrift.structEnd();
+
+        final long footerSize = headerMem.getAppendOffset();
+        headerMem.putInt((int) footerSize);
+        headerMem.putInt(ParquetTypes.MAGIC);
+        write(headerMem);
+    }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.Zip;
+
+/**
+ * GZIP page compression, the codec every Parquet implementation supports. A compressed
+ * page is a single gzip member: header, raw deflate stream, CRC32 and size of the input.
+ */
+final class ParquetGzip {
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int FLAG_COMMENT = 16;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_HEADER_CRC = 2;
+    private static final int FLAG_NAME = 8;
+    private static final int TRAILER_SIZE = 8;
+
+    private ParquetGzip() {
+    }
+
+    /**
+     * Appends gzip member with the compressed data to the memory.
+     *
+     * @param src     address of the data
+     * @param size    size of the data
+     * @param zStream deflate stream, see {@link Zip#deflateInit()}
+     * @param dst     memory to append to
+     */
+    static void compress(long src, int size, long zStream, MemoryCARW dst) {
+        Vect.memcpy(dst.appendAddressFor(Zip.gzipHeaderLen), Zip.gzipHeader, Zip.gzipHeaderLen);
+        Zip.deflateReset(zStream);
+        Zip.setInput(zStream, src, size);
+        int ret;
+        do {
+            final long out = dst.appendAddressFor(CHUNK_SIZE);
+            ret = Zip.deflate(zStream, out, CHUNK_SIZE, true);
+            if (ret < 0) {
+                throw CairoException.critical(0).put("could not compress parquet page [error=").put(ret).put(']');
+            }
+            // give back unused part of the chunk
+            dst.jumpTo(dst.getAppendOffset() - Zip.availOut(zStream));
+        } while (ret != Zip.Z_STREAM_END);
+        dst.putInt(Zip.crc32(0, src, size));
+        dst.putInt(size);
+    }
+
+    /**
+     * Decompresses gzip member.
+     *
+     * @param src     address of the compressed page
+     * @param srcSize size of the compressed page
+     * @param zStream raw inflate stream, see {@link Zip#inflateInit(boolean)}
+     * @param dst     address to decompress to
+     * @param dstSize uncompressed size of the page
+     */
+    static void decompress(long src, long srcSize, long zStream, long dst, int dstSize) {
+        final long hi = src + srcSize;
+        long p = skipHeader(src, hi);
+        if (p + TRAILER_SIZE > hi) {
+            throw corrupt();
+        }
+
+        Zip.inflateReset(zStream);
+        final long payloadHi = hi - TRAILER_SIZE;
+        long outOffset = 0;
+        while (outOffset < dstSize) {
+            if (Zip.availIn(zStream) == 0) {
+                if (p == payloadHi) {
+                    throw corrupt();
+                }
+                final int len = (int) Math.min(CHUNK_SIZE, payloadHi - p);
+                Zip.setInput(zStream, p, len);
+                p += len;
+            }
+            final int availIn = Zip.availIn(zStream);
+            final int len = (int) Math.min(CHUNK_SIZE, dstSize - outOffset);
+            final int ret = Zip.inflate(zStream, dst + outOffset, len, false);
+            if (ret > 0) {
+                outOffset += ret;
+            } else if ((ret < 0 && ret != Zip.Z_BUF_ERROR) || Zip.availIn(zStream) == availIn) {
+                // error or no progress, e.g. stream ended before all data is produced
+                throw corrupt();
+            }
+        }
+        if (Unsafe.getUnsafe().getInt(payloadHi + Integer.BYTES) != dstSize
+                || Unsafe.getUnsafe().getInt(payloadHi) != Zip.crc32(0, dst, dstSize)) {
+            throw corrupt();
+        }
+    }
+
+    private static CairoException corrupt() {
+        return CairoException.critical(0).put("invalid parquet file [gzip page]");
+    }
+
+    private static long skipHeader(long lo, long hi) {
+        if (lo + Zip.gzipHeaderLen > hi
+                || (Unsafe.getUnsafe().getByte(lo) & 0xff) != 0x1f
+                || (Unsafe.getUnsafe().getByte(lo + 1) & 0xff) != 0x8b
+                || Unsafe.getUnsafe().getByte(lo + 2) != 8) {
+            throw corrupt();
+        }
+        final int flags = Unsafe.getUnsafe().getByte(lo + 3);
+        long p = lo + Zip.gzipHeaderLen;
+        if ((flags & FLAG_EXTRA) != 0) {
+            if (p + Short.BYTES > hi) {
+                throw corrupt();
+            }
+            p += Short.BYTES + (Unsafe.getUnsafe().getShort(p) & 0xffff);
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            p = skipZeroTerminated(p, hi);
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            p = skipZeroTerminated(p, hi);
+        }
+        if ((flags & FLAG_HEADER_CRC) != 0) {
+            p += Short.BYTES;
+        }
+        if (p > hi) {
+            throw corrupt();
+        }
+        return p;
+    }
+
+    private static long skipZeroTerminated(long p, long hi) {
+        while (p < hi) {
+            if (Unsafe.getUnsafe().getByte(p++) == 0) {
+                return p;
+            }
+        }
+        throw corrupt();
+    }
+}
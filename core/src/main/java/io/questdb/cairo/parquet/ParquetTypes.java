@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.ColumnType;
+
+/**
+ * Parquet format constants and mapping between QuestDB column types and Parquet
+ * physical types. Values match the enums of parquet.thrift.
+ */
+public final class ParquetTypes {
+    public static final int CODEC_GZIP = 2;
+    public static final int CODEC_UNCOMPRESSED = 0;
+    public static final int CONVERTED_INT_16 = 16;
+    public static final int CONVERTED_INT_8 = 15;
+    public static final int CONVERTED_NONE = -1;
+    public static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    public static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    public static final int CONVERTED_UINT_16 = 12;
+    public static final int CONVERTED_UTF8 = 0;
+    public static final int ENCODING_DELTA_BINARY_PACKED = 5;
+    public static final int ENCODING_DELTA_BYTE_ARRAY = 7;
+    public static final int ENCODING_DELTA_LENGTH_BYTE_ARRAY = 6;
+    public static final int ENCODING_PLAIN = 0;
+    public static final int ENCODING_PLAIN_DICTIONARY = 2;
+    public static final int ENCODING_RLE = 3;
+    public static final int ENCODING_RLE_DICTIONARY = 8;
+    // "PAR1"
+    public static final int MAGIC = 0x31524150;
+    public static final int PAGE_DATA = 0;
+    public static final int PAGE_DATA_V2 = 3;
+    public static final int PAGE_DICTIONARY = 2;
+    public static final int PAGE_INDEX = 1;
+    public static final int REPETITION_OPTIONAL = 1;
+    public static final int REPETITION_REPEATED = 2;
+    public static final int REPETITION_REQUIRED = 0;
+    public static final int TIME_UNIT_MICROS = 2;
+    public static final int TIME_UNIT_MILLIS = 1;
+    public static final int TIME_UNIT_NANOS = 3;
+    public static final int TIME_UNIT_UNKNOWN = 0;
+    public static final int TYPE_BOOLEAN = 0;
+    public static final int TYPE_BYTE_ARRAY = 6;
+    public static final int TYPE_DOUBLE = 5;
+    public static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+    public static final int TYPE_FLOAT = 4;
+    public static final int TYPE_INT32 = 1;
+    public static final int TYPE_INT64 = 2;
+    public static final int TYPE_INT96 = 3;
+
+    private ParquetTypes() {
+    }
+
+    public static int getConvertedType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return CONVERTED_INT_8;
+            case ColumnType.SHORT:
+                return CONVERTED_INT_16;
+            case ColumnType.CHAR:
+                return CONVERTED_UINT_16;
+            case ColumnType.DATE:
+                return CONVERTED_TIMESTAMP_MILLIS;
+            case ColumnType.TIMESTAMP:
+                return CONVERTED_TIMESTAMP_MICROS;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+            case ColumnType.VARCHAR:
+                return CONVERTED_UTF8;
+            default:
+                return CONVERTED_NONE;
+        }
+    }
+
+    /**
+     * @param columnType QuestDB column type
+     * @return Parquet physical type or -1 when the column type cannot be stored in Parquet
+     */
+    public static int getPhysicalType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+                return TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOLONG:
+                return TYPE_INT64;
+            case ColumnType.FLOAT:
+                return TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return TYPE_DOUBLE;
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+            case ColumnType.LONG256:
+                return TYPE_FIXED_LEN_BYTE_ARRAY;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+            case ColumnType.VARCHAR:
+            case ColumnType.BINARY:
+                return TYPE_BYTE_ARRAY;
+            default:
+                return -1;
+        }
+    }
+
+    public static int getRepetition(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            // these types have no null value
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                return REPETITION_REQUIRED;
+            default:
+                return REPETITION_OPTIONAL;
+        }
+    }
+
+    public static int getTypeLength(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+                return 16;
+            case ColumnType.LONG256:
+                return 32;
+            default:
+                return 0;
+        }
+    }
+
+    public static boolean isCompatible(int columnType, int physicalType, int typeLength) {
+        return getPhysicalType(columnType) == physicalType
+                && (physicalType != TYPE_FIXED_LEN_BYTE_ARRAY || getTypeLength(columnType) == typeLength);
+    }
+}
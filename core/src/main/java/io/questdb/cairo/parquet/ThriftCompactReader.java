@@ -0,0 +1,248 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.IntList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Minimal reader of Thrift compact protocol over native memory. Unknown fields
+ * are skipped with {@link #skip(int)}.
+ */
+public final class ThriftCompactReader {
+    public static final int TYPE_BINARY = 8;
+    public static final int TYPE_BOOLEAN_FALSE = 2;
+    public static final int TYPE_BOOLEAN_TRUE = 1;
+    public static final int TYPE_BYTE = 3;
+    public static final int TYPE_DOUBLE = 7;
+    public static final int TYPE_I16 = 4;
+    public static final int TYPE_I32 = 5;
+    public static final int TYPE_I64 = 6;
+    public static final int TYPE_LIST = 9;
+    public static final int TYPE_MAP = 11;
+    public static final int TYPE_SET = 10;
+    public static final int TYPE_STOP = 0;
+    public static final int TYPE_STRUCT = 12;
+    private static final int MAX_DEPTH = 64;
+    private final IntList fieldIdStack = new IntList();
+    private int fieldId;
+    private long hi;
+    private int lastFieldId;
+    private int listElementType;
+    private long pos;
+
+    public int getFieldId() {
+        return fieldId;
+    }
+
+    public int getListElementType() {
+        return listElementType;
+    }
+
+    public long getPosition() {
+        return pos;
+    }
+
+    public ThriftCompactReader of(long lo, long hi) {
+        this.pos = lo;
+        this.hi = hi;
+        this.lastFieldId = 0;
+        this.fieldId = 0;
+        fieldIdStack.clear();
+        return this;
+    }
+
+    /**
+     * Reads field header. Field id is available via {@link #getFieldId()}.
+     *
+     * @return field type, {@link #TYPE_STOP} at the end of the struct
+     */
+    public int readFieldBegin() {
+        final int b = readByte() & 0xff;
+        final int type = b & 0x0f;
+        if (type == TYPE_STOP) {
+            return TYPE_STOP;
+        }
+        final int delta = b >>> 4;
+        fieldId = delta != 0 ? lastFieldId + delta : (int) unzigzag(readVarint());
+        lastFieldId = fieldId;
+        return type;
+    }
+
+    /**
+     * Reads binary field length, the bytes start at {@link #getPosition()}
+     * and are consumed with {@link #skipBytes(long)}.
+     *
+     * @return length of the binary value
+     */
+    public int readBinaryLength() {
+        final long len = readVarint();
+        if (len < 0 || len > hi - pos) {
+            throw corrupt("binary length");
+        }
+        return (int) len;
+    }
+
+    public int readI32() {
+        return (int) unzigzag(readVarint());
+    }
+
+    public long readI64() {
+        return unzigzag(readVarint());
+    }
+
+    /**
+     * Reads list or set header. Element type is available via {@link #getListElementType()}.
+     *
+     * @return number of elements
+     */
+    public int readListBegin() {
+        final int b = readByte() & 0xff;
+        listElementType = b & 0x0f;
+        int size = b >>> 4;
+        if (size == 15) {
+            final long n = readVarint();
+            if (n < 0 || n > hi - pos) {
+                throw corrupt("list size");
+            }
+            size = (int) n;
+        }
+        return size;
+    }
+
+    public void skip(int type) {
+        skip(type, 0, false);
+    }
+
+    public void skipBytes(long len) {
+        if (len > hi - pos) {
+            throw corrupt("binary length");
+        }
+        pos += len;
+    }
+
+    public void structBegin() {
+        if (fieldIdStack.size() > MAX_DEPTH) {
+            throw corrupt("nesting depth");
+        }
+        fieldIdStack.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void structEnd() {
+        final int top = fieldIdStack.size() - 1;
+        lastFieldId = fieldIdStack.getQuick(top);
+        fieldIdStack.setPos(top);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private CairoException corrupt(String what) {
+        return CairoException.critical(0).put("invalid thrift data [").put(what).put(", offset=").put(pos).put(']');
+    }
+
+    private byte readByte() {
+        if (pos >= hi) {
+            throw corrupt("unexpected end");
+        }
+        return Unsafe.getUnsafe().getByte(pos++);
+    }
+
+    private long readVarint() {
+        long result = 0;
+        int shift = 0;
+        while (shift < 64) {
+            final byte b = readByte();
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        throw corrupt("varint");
+    }
+
+    private void skip(int type, int depth, boolean element) {
+        if (depth > MAX_DEPTH) {
+            throw corrupt("nesting depth");
+        }
+        switch (type) {
+            case TYPE_BOOLEAN_TRUE:
+            case TYPE_BOOLEAN_FALSE:
+                // field value is encoded in the field type, collection elements take a byte
+                if (element) {
+                    readByte();
+                }
+                break;
+            case TYPE_BYTE:
+                readByte();
+                break;
+            case TYPE_I16:
+            case TYPE_I32:
+            case TYPE_I64:
+                readVarint();
+                break;
+            case TYPE_DOUBLE:
+                skipBytes(Double.BYTES);
+                break;
+            case TYPE_BINARY:
+                skipBytes(readBinaryLength());
+                break;
+            case TYPE_LIST:
+            case TYPE_SET: {
+                final int size = readListBegin();
+                final int elementType = listElementType;
+                for (int i = 0; i < size; i++) {
+                    skip(elementType, depth + 1, true);
+                }
+                break;
+            }
+            case TYPE_MAP: {
+                final long size = readVarint();
+                if (size > 0) {
+                    final int kv = readByte() & 0xff;
+                    for (long i = 0; i < size; i++) {
+                        skip(kv >>> 4, depth + 1, true);
+                        skip(kv & 0x0f, depth + 1, true);
+                    }
+                }
+                break;
+            }
+            case TYPE_STRUCT:
+                structBegin();
+                int fieldType;
+                while ((fieldType = readFieldBegin()) != TYPE_STOP) {
+                    skip(fieldType, depth + 1, false);
+                }
+                structEnd();
+                break;
+            default:
+                throw CairoException.critical(0).put("invalid thrift data [type=").put(type).put(", offset=").put(pos).put(']');
+        }
+    }
+}
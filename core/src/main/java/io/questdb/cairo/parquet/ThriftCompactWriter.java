@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.std.IntList;
+import io.questdb.std.str.Utf8StringSink;
+
+/**
+ * Minimal writer of Thrift compact protocol, enough to serialize Parquet metadata.
+ * Fields must be written in ascending id order within a struct.
+ */
+public final class ThriftCompactWriter {
+    private final IntList fieldIdStack = new IntList();
+    private final Utf8StringSink utf8Sink = new Utf8StringSink();
+    private int lastFieldId;
+    private MemoryA mem;
+
+    public void fieldBegin(int type, int fieldId) {
+        final int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta < 16) {
+            mem.putByte((byte) ((delta << 4) | type));
+        } else {
+            mem.putByte((byte) type);
+            putVarint(zigzag(fieldId));
+        }
+        lastFieldId = fieldId;
+    }
+
+    public void listBegin(int elementType, int size) {
+        if (size < 15) {
+            mem.putByte((byte) ((size << 4) | elementType));
+        } else {
+            mem.putByte((byte) (0xf0 | elementType));
+            putVarint(size);
+        }
+    }
+
+    public ThriftCompactWriter of(MemoryA mem) {
+        this.mem = mem;
+        this.lastFieldId = 0;
+        fieldIdStack.clear();
+        return this;
+    }
+
+    public void putBinary(long address, int len) {
+        putVarint(len);
+        mem.putBlockOfBytes(address, len);
+    }
+
+    public void putI32(int value) {
+        putVarint(zigzag(value));
+    }
+
+    public void putI64(long value) {
+        putVarint(zigzag(value));
+    }
+
+    public void putString(CharSequence value) {
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        final int size = utf8Sink.size();
+        putVarint(size);
+        for (int i = 0; i < size; i++) {
+            mem.putByte(utf8Sink.byteAt(i));
+        }
+    }
+
+    public void structBegin() {
+        fieldIdStack.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void structEnd() {
+        mem.putByte((byte) ThriftCompactReader.TYPE_STOP);
+        final int top = fieldIdStack.size() - 1;
+        lastFieldId = fieldIdStack.getQuick(top);
+        fieldIdStack.setPos(top);
+    }
+
+    public void writeBoolField(int fieldId, boolean value) {
+        fieldBegin(value ? ThriftCompactReader.TYPE_BOOLEAN_TRUE : ThriftCompactReader.TYPE_BOOLEAN_FALSE, fieldId);
+    }
+
+    public void writeI32Field(int fieldId, int value) {
+        fieldBegin(ThriftCompactReader.TYPE_I32, fieldId);
+        putI32(value);
+    }
+
+    public void writeI64Field(int fieldId, long value) {
+        fieldBegin(ThriftCompactReader.TYPE_I64, fieldId);
+        putI64(value);
+    }
+
+    public void writeStringField(int fieldId, CharSequence value) {
+        fieldBegin(ThriftCompactReader.TYPE_BINARY, fieldId);
+        putString(value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+}
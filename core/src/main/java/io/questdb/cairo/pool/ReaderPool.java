@@ -27,17 +27,24 @@ package io.questdb.cairo.pool;
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderMetrics;
 import io.questdb.cairo.TableToken;
 import org.jetbrains.annotations.TestOnly;
 
 public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     private final MessageBus messageBus;
+    private final TableReaderMetrics metrics;
     private ReaderListener readerListener;
 
     public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+        this(configuration, messageBus, TableReaderMetrics.DISABLED);
+    }
+
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, TableReaderMetrics metrics) {
         super(configuration, configuration.getReaderPoolMaxSegments(), configuration.getInactiveReaderTTL());
         this.messageBus = messageBus;
+        this.metrics = metrics;
     }
 
     @TestOnly
@@ -52,7 +59,7 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     @Override
     protected R newTenant(TableToken tableToken, Entry<R> entry, int index) {
-        return new R(this, entry, index, tableToken, messageBus, readerListener);
+        return new R(this, entry, index, tableToken, messageBus, metrics, readerListener);
     }
 
     @TestOnly
@@ -73,9 +80,10 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
                 int index,
                 TableToken tableToken,
                 MessageBus messageBus,
+                TableReaderMetrics metrics,
                 ReaderListener readerListener
         ) {
-            super(pool.getConfiguration(), tableToken, messageBus);
+            super(pool.getConfiguration(), tableToken, messageBus, metrics);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
@@ -2,6 +2,8 @@ package io.questdb.cairo.pool;
 
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.*;
 import io.questdb.griffin.model.ExecutionModel;
 import io.questdb.griffin.model.ExpressionNode;
@@ -109,6 +111,11 @@ public final class SqlCompilerPool extends AbstractMultiTenantPool<SqlCompilerPo
             delegate.compileBatch(queryText, sqlExecutionContext, batchCallback);
         }
 
+        @Override
+        public Function compileFilter(CharSequence expression, RecordMetadata metadata, SqlExecutionContext executionContext) throws SqlException {
+            return delegate.compileFilter(expression, metadata, executionContext);
+        }
+
         @Override
         public Entry<C> getEntry() {
             return entry;
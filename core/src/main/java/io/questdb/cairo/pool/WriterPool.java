@@ -291,6 +291,8 @@ public class WriterPool extends AbstractPool {
                 }
                 entries.remove(tableToken.getDirName());
             } else {
+                // process work the adopted writer deferred from its commits, as it is done on return to the pool
+                writer.tick(true);
                 e.writer = writer;
                 writer.setLifecycleManager(e);
                 writer.transferLock(e.lockFd);
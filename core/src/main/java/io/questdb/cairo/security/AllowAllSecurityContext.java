@@ -93,6 +93,10 @@ public class AllowAllSecurityContext implements SecurityContext {
     public void authorizeCopyCancel(SecurityContext cancellingSecurityContext) {
     }
 
+    @Override
+    public void authorizeCopyExport(TableToken tableToken) {
+    }
+
     @Override
     public void authorizeDatabaseSnapshot() {
     }
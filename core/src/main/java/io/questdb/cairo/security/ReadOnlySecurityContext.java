@@ -112,6 +112,11 @@ public class ReadOnlySecurityContext implements SecurityContext {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
     }
 
+    @Override
+    public void authorizeCopyExport(TableToken tableToken) {
+        throw CairoException.authorization().put("Write permission denied").setCacheable(true);
+    }
+
     @Override
     public void authorizeDatabaseSnapshot() {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
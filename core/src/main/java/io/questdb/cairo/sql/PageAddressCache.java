@@ -31,6 +31,7 @@ import io.questdb.std.*;
 public class PageAddressCache implements Mutable {
 
     private final long cacheSizeThreshold;
+    private final IntList columnTypes = new IntList();
     // Index remapping for variable length columns.
     private final IntList varLenColumnIndexes = new IntList();
     private int columnCount;
@@ -63,6 +64,7 @@ public class PageAddressCache implements Mutable {
     @Override
     public void clear() {
         varLenColumnIndexes.clear();
+        columnTypes.clear();
         if (pageAddresses.size() < cacheSizeThreshold) {
             pageAddresses.clear();
             indexPageAddresses.clear();
@@ -80,6 +82,10 @@ public class PageAddressCache implements Mutable {
         return columnCount;
     }
 
+    public int getColumnType(int columnIndex) {
+        return columnTypes.getQuick(columnIndex);
+    }
+
     public boolean isVarLenColumn(int columnIndex) {
         return varLenColumnIndexes.getQuick(columnIndex) > -1;
     }
@@ -116,9 +122,11 @@ public class PageAddressCache implements Mutable {
     public void of(@Transient RecordMetadata metadata) {
         this.columnCount = metadata.getColumnCount();
         this.varLenColumnIndexes.setAll(columnCount, -1);
+        this.columnTypes.setPos(columnCount);
         this.varLenColumnCount = 0;
         for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
             final int columnType = metadata.getColumnType(columnIndex);
+            columnTypes.setQuick(columnIndex, columnType);
             if (ColumnType.isVarSize(columnType)) {
                 varLenColumnIndexes.setQuick(columnIndex, varLenColumnCount++);
             }
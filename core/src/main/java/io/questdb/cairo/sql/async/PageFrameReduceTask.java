@@ -40,6 +40,7 @@ public class PageFrameReduceTask implements Closeable {
     public static final byte TYPE_FILTER = 0;
     public static final byte TYPE_GROUP_BY = 1;
     public static final byte TYPE_GROUP_BY_NOT_KEYED = 2;
+    public static final byte TYPE_HASH_JOIN_BUILD = 3;
     private static final String exceptionMessage = "unexpected filter error";
 
     // Used to pass the list of column page frame addresses to a JIT-compiled filter.
@@ -27,6 +27,7 @@ package io.questdb.cairo.sql.async;
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -52,10 +53,12 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private final T atom;
     private final AtomicInteger cancelReason = new AtomicInteger(SqlExecutionCircuitBreaker.STATE_OK);
     private final MillisecondClock clock;
+    private final FilesFacade ff;
     private final LongList frameRowCounts = new LongList();
     private final PageFrameReduceTaskFactory localTaskFactory;
     private final MessageBus messageBus;
     private final PageAddressCache pageAddressCache;
+    private final int prefetchFrameCount;
     private final AtomicInteger reduceCounter = new AtomicInteger(0);
     private final PageFrameReducer reducer;
     private final byte taskType; // PageFrameReduceTask.TYPE_*
@@ -71,6 +74,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     // Local reduce task used when there is no slots in the queue to dispatch tasks.
     private PageFrameReduceTask localTask;
     private PageFrameCursor pageFrameCursor;
+    private int prefetchFrameIndex;
     private boolean readyToDispatch;
     private PageAddressCacheRecord record;
     private RingQueue<PageFrameReduceTask> reduceQueue;
@@ -92,6 +96,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         this.atom = atom;
         this.reducer = reducer;
         this.clock = configuration.getMillisecondClock();
+        this.ff = configuration.getFilesFacade();
+        this.prefetchFrameCount = Files.POSIX_MADV_WILLNEED > -1 ? configuration.getSqlPageFramePrefetchCount() : 0;
         this.localTaskFactory = localTaskFactory;
         this.taskType = taskType;
     }
@@ -164,6 +170,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         frameCount = 0;
         dispatchStartFrameIndex = 0;
         collectedFrameIndex = -1;
+        prefetchFrameIndex = 0;
         readyToDispatch = false;
         pageAddressCache.clear();
         atom.clear();
@@ -404,6 +411,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             id = newId;
             dispatchStartFrameIndex = 0;
             collectedFrameIndex = -1;
+            prefetchFrameIndex = 0;
             reduceCounter.set(0);
             valid.set(true);
             cancelReason.set(SqlExecutionCircuitBreaker.STATE_OK);
@@ -470,6 +478,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
                     reducePubSeq.done(cursor);
                     dispatchStartFrameIndex = i + 1;
                     dispatched = true;
+                    prefetchFrames(i + 1 + prefetchFrameCount);
                     break;
                 } else if (cursor == -1) {
                     idle = false;
@@ -523,6 +532,45 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         circuitBreaker.setFd(executionContextCircuitBreaker.getFd());
     }
 
+    private void prefetch(long address, long size) {
+        if (address != 0 && size > 0) {
+            // madvise() requires page aligned address
+            final long alignedAddress = address - address % Files.PAGE_SIZE;
+            ff.madvise(alignedAddress, address + size - alignedAddress, Files.POSIX_MADV_WILLNEED);
+        }
+    }
+
+    /**
+     * Asks the OS to read ahead column pages of the frames that are next in line for dispatch.
+     * Frame memory is mmapped, so without the hint reduce workers take page faults on cold
+     * partitions. Reading ahead overlaps the I/O with filtering of the frames already in flight.
+     *
+     * @param frameIndexHi frame index, exclusive, up to which the frames should be read ahead
+     */
+    private void prefetchFrames(int frameIndexHi) {
+        if (prefetchFrameCount == 0) {
+            return;
+        }
+        // row counts are released once the last frame is collected
+        final int hi = Math.min(frameIndexHi, frameRowCounts.size());
+        for (; prefetchFrameIndex < hi; prefetchFrameIndex++) {
+            final long frameRowCount = frameRowCounts.getQuick(prefetchFrameIndex);
+            for (int columnIndex = 0, n = pageAddressCache.getColumnCount(); columnIndex < n; columnIndex++) {
+                final int columnType = pageAddressCache.getColumnType(columnIndex);
+                final long pageAddress = pageAddressCache.getPageAddress(prefetchFrameIndex, columnIndex);
+                if (ColumnType.isVarSize(columnType)) {
+                    prefetch(pageAddress, pageAddressCache.getPageSize(prefetchFrameIndex, columnIndex));
+                    prefetch(
+                            pageAddressCache.getIndexPageAddress(prefetchFrameIndex, columnIndex),
+                            ColumnType.getDriver(columnType).getAuxVectorSize(frameRowCount)
+                    );
+                } else {
+                    prefetch(pageAddress, frameRowCount << ColumnType.pow2SizeOf(columnType));
+                }
+            }
+        }
+    }
+
     private boolean stealWork(
             RingQueue<PageFrameReduceTask> queue,
             MCSequence reduceSubSeq,
@@ -544,6 +592,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             localTask.setType(taskType);
         }
         localTask.of(this, dispatchStartFrameIndex++);
+        prefetchFrames(dispatchStartFrameIndex + prefetchFrameCount);
 
         try {
             LOG.debug()
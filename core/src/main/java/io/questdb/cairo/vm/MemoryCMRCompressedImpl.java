@@ -0,0 +1,143 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnCodec;
+import io.questdb.cairo.DecodedColumnCache;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+
+// contiguous readable memory over compressed column file, file is decompressed on open into
+// an entry of the shared cache, readers of the same file share the decompressed data
+public class MemoryCMRCompressedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRCompressedImpl.class);
+    private final DecodedColumnCache cache;
+    private final StringSink key = new StringSink();
+    private final int tableId;
+    private DecodedColumnCache.Entry entry;
+
+    public MemoryCMRCompressedImpl(DecodedColumnCache cache, int tableId, FilesFacade ff, LPSZ name, long size, boolean stableStrings) {
+        super(stableStrings);
+        this.cache = cache;
+        this.tableId = tableId;
+        of(ff, name, 0, size, MemoryTag.NATIVE_TABLE_READER, 0);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        pageAddress = 0;
+        size = 0;
+        if (entry != null) {
+            cache.release(entry);
+            entry = null;
+        }
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("compressed column cannot be extended [size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    public int getFd() {
+        return -1;
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        key.clear();
+        key.put(tableId).put(':').put(name);
+        final DecodedColumnCache.Entry entry = cache.acquire(key);
+        try {
+            synchronized (entry) {
+                if (!entry.isLoaded()) {
+                    decompress(ff, name, entry);
+                }
+            }
+            final long rawSize = entry.getDataSize();
+            if (size < 0) {
+                size = rawSize;
+            } else if (size > rawSize) {
+                throw CairoException.critical(0).put("compressed column is too short [file=").put(name)
+                        .put(", size=").put(rawSize)
+                        .put(", expected=").put(size)
+                        .put(']');
+            }
+        } catch (Throwable th) {
+            cache.release(entry);
+            throw th;
+        }
+        this.entry = entry;
+        this.pageAddress = entry.getDataAddress();
+        this.size = size;
+        LOG.debug().$("opened compressed column [file=").$(name).$(", size=").$(size).I$();
+    }
+
+    private void decompress(FilesFacade ff, LPSZ name, DecodedColumnCache.Entry entry) {
+        final int fd = TableUtils.openRO(ff, name, LOG);
+        long src = 0;
+        long fileSize = 0;
+        try {
+            fileSize = ff.length(fd);
+            if (fileSize < ColumnCodec.HEADER_SIZE) {
+                throw CairoException.critical(ff.errno()).put("invalid compressed column file [file=").put(name)
+                        .put(", size=").put(fileSize)
+                        .put(']');
+            }
+            src = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_READER);
+            final long rawSize = ColumnCodec.getRawSize(src, fileSize);
+            cache.reserve(entry, rawSize);
+            final MemoryCARW buf = entry.getDataBuffer();
+            buf.truncate();
+            buf.extend(rawSize);
+            if (rawSize > 0) {
+                ColumnCodec.decompress(src, fileSize, buf.addressOf(0), rawSize);
+            }
+            buf.jumpTo(rawSize);
+        } finally {
+            if (src != 0) {
+                ff.munmap(src, fileSize, MemoryTag.MMAP_TABLE_READER);
+            }
+            ff.close(fd);
+        }
+        cache.publish(entry);
+        LOG.debug().$("decompressed [file=").$(name).$(", size=").$(entry.getDataSize()).I$();
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DecodedColumnCache;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+
+// contiguous readable memory over column data that has no column file, such as
+// column chunks of Parquet partitions; data is decoded into an entry of the shared cache
+// by the caller, memory keeps a reference to the entry until closed
+public class MemoryCMRDecodedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private DecodedColumnCache cache;
+    private DecodedColumnCache.Entry entry;
+
+    public MemoryCMRDecodedImpl() {
+        super(true);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        pageAddress = 0;
+        size = 0;
+        if (entry != null) {
+            cache.release(entry);
+            entry = null;
+            cache = null;
+        }
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("decoded column cannot be extended [size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    public int getFd() {
+        return -1;
+    }
+
+    /**
+     * Points the memory at the loaded cache entry and adds a reference to it.
+     *
+     * @param cache cache the entry belongs to
+     * @param entry loaded entry
+     * @param aux   true to read auxiliary data of var-size column
+     */
+    public void of(DecodedColumnCache cache, DecodedColumnCache.Entry entry, boolean aux) {
+        cache.retain(entry);
+        close();
+        this.cache = cache;
+        this.entry = entry;
+        if (aux) {
+            size = entry.getAuxSize();
+            pageAddress = entry.getAuxAddress();
+        } else {
+            size = entry.getDataSize();
+            pageAddress = entry.getDataAddress();
+        }
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -24,6 +24,7 @@
 
 package io.questdb.cairo.vm;
 
+import io.questdb.cairo.DecodedColumnCache;
 import io.questdb.cairo.vm.api.*;
 import io.questdb.log.Log;
 import io.questdb.std.Files;
@@ -94,6 +95,10 @@ public class Vm {
         return new MemoryCMRImpl();
     }
 
+    public static MemoryMR getCompressedMRInstance(DecodedColumnCache cache, int tableId, FilesFacade ff, LPSZ name, long size, boolean stableStrings) {
+        return new MemoryCMRCompressedImpl(cache, tableId, ff, name, size, stableStrings);
+    }
+
     public static MemoryMA getMAInstance(int commitMode) {
         return new MemoryPMARImpl(commitMode);
     }
@@ -65,6 +65,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private static final int WAL_APPLY_FAILED = -2;
     private static final int WAL_APPLY_IGNORE_ERROR = -1;
     private final CairoEngine engine;
+    private final WalApplyLagSlo lagSlo;
     private final int lookAheadTransactionCount;
     private final WalMetrics metrics;
     private final MicrosecondClock microClock;
@@ -89,6 +90,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         walEventReader = new WalEventReader(configuration.getFilesFacade());
         metrics = engine.getMetrics().walMetrics();
         lookAheadTransactionCount = configuration.getWalApplyLookAheadTransactionCount();
+        lagSlo = engine.getWalApplyLagSlo();
         tableTimeQuotaMicros = configuration.getWalApplyTableTimeQuota() >= 0 ? configuration.getWalApplyTableTimeQuota() * 1000L : Timestamps.DAY_MICROS;
     }
 
@@ -235,9 +237,11 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
                 isTerminating = runStatus.isTerminating();
                 final long timeLimit = microClock.getTicks() + tableTimeQuotaMicros;
+                final long tableLagSlo = lagSlo.getLagSlo(tableToken);
+                long lastAppliedCommitTimestamp = Long.MAX_VALUE;
                 boolean firstRun = true;
                 WHILE_TRANSACTION_CURSOR:
-                while (!isTerminating && ((finishedAll = microClock.getTicks() <= timeLimit) || firstRun) && transactionLogCursor.hasNext()) {
+                while (!isTerminating && ((finishedAll = hasApplyQuota(tableLagSlo, timeLimit, lastAppliedCommitTimestamp)) || firstRun) && transactionLogCursor.hasNext()) {
                     firstRun = false;
                     final int walId = transactionLogCursor.getWalId();
                     final int segmentId = transactionLogCursor.getSegmentId();
@@ -277,6 +281,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                 writer.setSeqTxn(seqTxn);
                                 structuralChangeCursor.next().apply(writer, true);
                                 walTelemetryFacade.store(WAL_TXN_STRUCTURE_CHANGE_APPLIED, tableToken, walId, seqTxn, -1L, -1L, microClock.getTicks() - start);
+                                lastAppliedCommitTimestamp = commitTimestamp;
                             } else {
                                 // Something messed up in sequencer.
                                 // There is a transaction in WAL but no structure change record.
@@ -335,6 +340,9 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                 iTransaction++;
                                 physicalRowsAdded += writer.getPhysicallyWrittenRowsSinceLastCommit();
                             }
+                            if (added != -2L) {
+                                lastAppliedCommitTimestamp = commitTimestamp;
+                            }
                             if (added == -2L || isTerminating) {
                                 // transaction cursor goes beyond prepared transactionMeta or termination requested. Re-run the loop.
                                 break WHILE_TRANSACTION_CURSOR;
@@ -346,6 +354,9 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 if (!finishedAll || isTerminating) {
                     writer.commitSeqTxn();
                 }
+                if (lastAppliedCommitTimestamp != Long.MAX_VALUE) {
+                    tableSequencerAPI.getTxnTracker(tableToken).notifyApplied(lastAppliedCommitTimestamp);
+                }
 
                 if (totalTransactionCount > 0) {
                     LOG.info().$("job ")
@@ -373,6 +384,16 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         TelemetryWalTask.store(walTelemetry, event, tableToken.getTableId(), walId, seqTxn, rowCount, physicalRowCount, latencyUs);
     }
 
+    private boolean hasApplyQuota(long tableLagSlo, long timeLimit, long lastAppliedCommitTimestamp) {
+        final long now = microClock.getTicks();
+        if (tableLagSlo > -1) {
+            // table with lag SLO keeps the worker while it is behind the SLO
+            return now <= timeLimit || now - lastAppliedCommitTimestamp > tableLagSlo;
+        }
+        // tables without SLO give way to the tables behind their SLO
+        return now <= timeLimit && !lagSlo.isBreached(now);
+    }
+
     private long processWalCommit(
             TableWriter writer,
             int walId,
@@ -383,7 +404,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
             long commitTimestamp
     ) {
         try (WalEventReader eventReader = walEventReader) {
-            final WalEventCursor walEventCursor = eventReader.of(walPath, WAL_FORMAT_VERSION, segmentTxn);
+            final WalEventCursor walEventCursor = eventReader.of(walPath, segmentTxn);
             final byte walTxnType = walEventCursor.getType();
             switch (walTxnType) {
                 case DATA:
@@ -394,6 +415,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                         walTelemetryFacade.store(WAL_TXN_APPLY_START, writer.getTableToken(), walId, seqTxn, -1L, -1L, start - commitTimestamp);
                         final long rowsAdded = writer.commitWalTransaction(
                                 walPath,
+                                eventReader.isCompactTimestamp(),
                                 !dataInfo.isOutOfOrder(),
                                 dataInfo.getStartRowID(),
                                 dataInfo.getEndRowID(),
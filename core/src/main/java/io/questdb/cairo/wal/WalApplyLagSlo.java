@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
+import io.questdb.std.LowerCaseCharSequenceIntHashMap;
+import io.questdb.std.ObjList;
+
+/**
+ * Apply lag SLOs of tables which have priority over other tables when WAL transactions are applied.
+ * A table with an SLO keeps its apply worker for as long as its oldest unapplied commit is older
+ * than the SLO, regardless of the per-table time quota. While any such table is behind its SLO,
+ * tables without an SLO give up their worker after each transaction, so that notifications of the
+ * lagging tables reach the workers sooner.
+ */
+public class WalApplyLagSlo {
+    private static final long BREACH_CHECK_INTERVAL_MICROS = 1000;
+    private final CairoEngine engine;
+    private volatile boolean breached;
+    private volatile long breachCheckTimestamp = Long.MIN_VALUE;
+
+    public WalApplyLagSlo(CairoEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Returns apply lag SLO of the table in microseconds or -1 when the table does not have an SLO.
+     */
+    public long getLagSlo(TableToken tableToken) {
+        final int millis = engine.getConfiguration().getWalApplyLagSlo().get(tableToken.getTableName());
+        return millis > -1 ? millis * 1000L : -1;
+    }
+
+    /**
+     * Returns true when any of the tables with an SLO has unapplied commits older than its SLO.
+     * The result is re-evaluated at most once in {@link #BREACH_CHECK_INTERVAL_MICROS}.
+     */
+    public boolean isBreached(long now) {
+        final LowerCaseCharSequenceIntHashMap lagSlo = engine.getConfiguration().getWalApplyLagSlo();
+        if (lagSlo.size() == 0) {
+            return false;
+        }
+        if (now - breachCheckTimestamp < BREACH_CHECK_INTERVAL_MICROS) {
+            return breached;
+        }
+
+        boolean breached = false;
+        final ObjList<CharSequence> tableNames = lagSlo.keys();
+        for (int i = 0, n = tableNames.size(); i < n && !breached; i++) {
+            final CharSequence tableName = tableNames.getQuick(i);
+            final TableToken tableToken = engine.getTableTokenIfExists(tableName);
+            if (tableToken != null && tableToken.isWal() && !engine.isTableDropped(tableToken)) {
+                final SeqTxnTracker txnTracker = engine.getTableSequencerAPI().getTxnTracker(tableToken);
+                final long lagStartTimestamp = txnTracker.getLagStartTimestamp();
+                breached = lagStartTimestamp > 0
+                        && txnTracker.getWriterTxn() < txnTracker.getSeqTxn()
+                        && !txnTracker.isSuspended()
+                        && now - lagStartTimestamp > lagSlo.get(tableName) * 1000L;
+            }
+        }
+        this.breached = breached;
+        breachCheckTimestamp = now;
+        return breached;
+    }
+}
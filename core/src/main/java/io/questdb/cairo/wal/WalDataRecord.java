@@ -78,6 +78,10 @@ public class WalDataRecord implements Record, Sinkable {
     // only for tests
     @SuppressWarnings("SameParameterValue")
     public long getDesignatedTimestampRowId(int col) {
+        if (reader.isCompactTimestamp()) {
+            // compact segments do not store row numbers, the row number is the record index
+            return recordIndex;
+        }
         final long offset = 2 * recordIndex * Long.BYTES + Long.BYTES;
         final int absoluteColumnIndex = getPrimaryColumnIndex(col);
         return reader.getColumn(absoluteColumnIndex).getLong(offset);
@@ -257,7 +261,7 @@ public class WalDataRecord implements Record, Sinkable {
     }
 
     private long getDesignatedTimestamp(int col) {
-        final long offset = 2 * recordIndex * Long.BYTES;
+        final long offset = reader.isCompactTimestamp() ? recordIndex * Long.BYTES : 2 * recordIndex * Long.BYTES;
         final int absoluteColumnIndex = getPrimaryColumnIndex(col);
         return reader.getColumn(absoluteColumnIndex).getLong(offset);
     }
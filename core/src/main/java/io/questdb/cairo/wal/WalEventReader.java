@@ -46,6 +46,7 @@ public class WalEventReader implements Closeable {
     private final WalEventCursor eventCursor;
     private final MemoryMR eventMem;
     private final FilesFacade ff;
+    private int formatVersion;
 
     public WalEventReader(FilesFacade ff) {
         this.ff = ff;
@@ -59,7 +60,11 @@ public class WalEventReader implements Closeable {
         Misc.free(eventMem);
     }
 
-    public WalEventCursor of(Path path, int expectedVersion, long segmentTxn) {
+    public boolean isCompactTimestamp() {
+        return formatVersion == WAL_FORMAT_VERSION_COMPACT_TIMESTAMP;
+    }
+
+    public WalEventCursor of(Path path, long segmentTxn) {
         int trimTo = path.size();
         try {
             final int pathLen = path.size();
@@ -112,7 +117,10 @@ public class WalEventReader implements Closeable {
                 eventCursor.openOffset(-1);
             }
 
-            validateMetaVersion(eventMem, WAL_FORMAT_OFFSET_32, expectedVersion);
+            formatVersion = eventMem.getInt(WAL_FORMAT_OFFSET_32);
+            if (formatVersion != WAL_FORMAT_VERSION_COMPACT_TIMESTAMP) {
+                validateMetaVersion(eventMem, WAL_FORMAT_OFFSET_32, WAL_FORMAT_VERSION);
+            }
             return eventCursor;
         } catch (Throwable e) {
             close();
@@ -43,6 +43,7 @@ import static io.questdb.cairo.wal.WalUtils.*;
 class WalEventWriter implements Closeable {
     private final MemoryMARW eventMem = Vm.getMARWInstance();
     private final FilesFacade ff;
+    private final int formatVersion;
     private final StringSink sink = new StringSink();
     private int indexFd;
     private AtomicIntList initialSymbolCounts;
@@ -53,9 +54,10 @@ class WalEventWriter implements Closeable {
     private ObjList<CharSequenceIntHashMap> txnSymbolMaps;
     private final CairoConfiguration configuration;
 
-    WalEventWriter(CairoConfiguration configuration) {
+    WalEventWriter(CairoConfiguration configuration, int formatVersion) {
         this.configuration = configuration;
         this.ff = configuration.getFilesFacade();
+        this.formatVersion = formatVersion;
     }
 
     @Override
@@ -152,7 +154,7 @@ class WalEventWriter implements Closeable {
 
     private void init() {
         eventMem.putInt(0);
-        eventMem.putInt(WAL_FORMAT_VERSION);
+        eventMem.putInt(formatVersion);
         eventMem.putInt(-1);
 
         appendIndex(WALE_HEADER_SIZE);
@@ -293,9 +295,18 @@ class WalEventWriter implements Closeable {
         // Not truncating the files saves from reading complexity.
     }
 
-    void sync() {
-        eventMem.sync(false);
-        ff.fsync(indexFd);
+    void registerFds(WalGroupCommit.Ticket ticket) {
+        ticket.add(eventMem.getFd());
+        ticket.add(indexFd);
+    }
+
+    void sync(boolean async) {
+        eventMem.sync(async);
+        if (!async) {
+            // the index is appended via write(), there is no async flavour of fsync,
+            // leave flushing it to the OS, same as MS_ASYNC does for the column files
+            ff.fsync(indexFd);
+        }
     }
 
     int truncate() {
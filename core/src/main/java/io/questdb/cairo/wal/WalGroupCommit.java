@@ -0,0 +1,160 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Batches the durability barrier of WAL writers committing in sync mode. A committing writer
+ * schedules the flush of its files, registers their descriptors with its {@link Ticket} and
+ * waits for the ticket to be synced. The first writer to arrive becomes the leader: it waits up
+ * to the configured delay for other writers to join and then fsyncs the descriptors of every
+ * ticket queued so far, while the other writers are parked. Failed fsync is reported to the
+ * writer that registered the descriptor.
+ */
+public class WalGroupCommit {
+    private static final Log LOG = LogFactory.getLog(WalGroupCommit.class);
+    private final ObjList<Ticket> batch = new ObjList<>();
+    private final CairoConfiguration configuration;
+    private final ObjList<Ticket> queue = new ObjList<>();
+    private final AtomicLong syncCount = new AtomicLong();
+    private boolean leaderActive;
+
+    public WalGroupCommit(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Blocks until files registered with the ticket are synced.
+     *
+     * @param ticket ticket of the calling writer
+     * @throws CairoException when any of the files could not be synced
+     */
+    public void await(Ticket ticket) {
+        boolean interrupted = false;
+        synchronized (this) {
+            ticket.done = false;
+            ticket.errno = -1;
+            queue.add(ticket);
+            while (!ticket.done && leaderActive) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // keep waiting, leader may be syncing descriptors of the ticket
+                    interrupted = true;
+                }
+            }
+            if (!ticket.done) {
+                leaderActive = true;
+            }
+        }
+        if (!ticket.done) {
+            sync();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (ticket.errno != 0) {
+            throw CairoException.critical(ticket.errno).put("could not fsync WAL files");
+        }
+    }
+
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    public boolean isEnabled() {
+        return configuration.getWalGroupCommitDelay() > -1;
+    }
+
+    private void sync() {
+        try {
+            final long delay = configuration.getWalGroupCommitDelay();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay * 1000);
+            }
+            synchronized (this) {
+                batch.addAll(queue);
+                queue.clear();
+            }
+            final FilesFacade ff = configuration.getFilesFacade();
+            for (int i = 0, n = batch.size(); i < n; i++) {
+                final Ticket ticket = batch.getQuick(i);
+                try {
+                    for (int j = 0, m = ticket.fds.size(); j < m; j++) {
+                        ff.fsync(ticket.fds.getQuick(j));
+                    }
+                    ticket.errno = 0;
+                } catch (CairoException e) {
+                    ticket.errno = e.getErrno();
+                    LOG.critical().$("could not fsync WAL files [errno=").$(e.getErrno())
+                            .$(", msg=").$(e.getFlyweightMessage())
+                            .I$();
+                }
+            }
+            syncCount.incrementAndGet();
+            LOG.debug().$("synced WAL group commit [tickets=").$(batch.size()).I$();
+        } finally {
+            synchronized (this) {
+                // tickets that were not synced keep the error status
+                for (int i = 0, n = batch.size(); i < n; i++) {
+                    batch.getQuick(i).done = true;
+                }
+                batch.clear();
+                leaderActive = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * File descriptors of a writer commit to be synced by the group. Ticket is reused by its
+     * writer across commits, descriptors must stay open until {@link #await(Ticket)} returns.
+     */
+    public static class Ticket {
+        private final IntList fds = new IntList();
+        private boolean done;
+        private int errno;
+
+        public void add(int fd) {
+            if (fd > -1) {
+                fds.add(fd);
+            }
+        }
+
+        public void clear() {
+            fds.clear();
+        }
+    }
+}
@@ -40,12 +40,12 @@ import java.io.Closeable;
 
 import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
 import static io.questdb.cairo.wal.WalTxnType.DATA;
-import static io.questdb.cairo.wal.WalUtils.WAL_FORMAT_VERSION;
 
 public class WalReader implements Closeable {
     private static final Log LOG = LogFactory.getLog(WalReader.class);
     private final int columnCount;
     private final ObjList<MemoryMR> columns;
+    private final boolean compactTimestamp;
     private final WalDataCursor dataCursor = new WalDataCursor();
     private final WalEventCursor eventCursor;
     private final WalEventReader events;
@@ -75,7 +75,8 @@ public class WalReader implements Closeable {
             events = new WalEventReader(ff);
             LOG.debug().$("open [table=").$(tableName).I$();
             int pathLen = path.size();
-            eventCursor = events.of(path.slash().put(segmentId), WAL_FORMAT_VERSION, -1L);
+            eventCursor = events.of(path.slash().put(segmentId), -1L);
+            compactTimestamp = events.isCompactTimestamp();
             path.trimTo(pathLen);
             openSymbolMaps(eventCursor, configuration);
             path.slash().put(segmentId);
@@ -148,6 +149,10 @@ public class WalReader implements Closeable {
         return walName;
     }
 
+    public boolean isCompactTimestamp() {
+        return compactTimestamp;
+    }
+
     public long openSegment() {
         try {
             if (ff.exists(path.$())) {
@@ -195,7 +200,7 @@ public class WalReader implements Closeable {
                             columns,
                             dataMemIndex,
                             dataMem,
-                            columnIndex == getTimestampIndex() ? dataMemSize << 1 : dataMemSize
+                            columnIndex == getTimestampIndex() && !compactTimestamp ? dataMemSize << 1 : dataMemSize
                     );
                     Misc.free(columns.getAndSetQuick(auxMemIndex, null));
                 }
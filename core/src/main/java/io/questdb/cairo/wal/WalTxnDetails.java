@@ -192,14 +192,14 @@ public class WalTxnDetails {
                     tempPath.trimTo(rootLen).concat(WAL_NAME_BASE).put(walId).slash().put(segmentId);
 
                     if (prevWalId != walId || prevSegmentId != segmentId || prevSegmentTxn + 1 != segmentTxn) {
-                        walEventCursor = eventReader.of(tempPath, WAL_FORMAT_VERSION, segmentTxn);
+                        walEventCursor = eventReader.of(tempPath, segmentTxn);
                         prevWalId = walId;
                         prevSegmentId = segmentId;
                         prevSegmentTxn = segmentTxn;
                     } else {
                         // This is same WALE file, just read next txn transaction.
                         if (!walEventCursor.hasNext()) {
-                            walEventCursor = eventReader.of(tempPath, WAL_FORMAT_VERSION, segmentTxn);
+                            walEventCursor = eventReader.of(tempPath, segmentTxn);
                         }
                     }
 
@@ -60,6 +60,8 @@ public class WalUtils {
     public static final long WALE_MAX_TXN_OFFSET_32 = 0L;
     public static final int WAL_FORMAT_OFFSET_32 = Integer.BYTES;
     public static final int WAL_FORMAT_VERSION = 0;
+    // designated timestamp is stored as 8-byte values instead of timestamp and row number pairs
+    public static final int WAL_FORMAT_VERSION_COMPACT_TIMESTAMP = 1;
     public static final int WAL_SEQUENCER_FORMAT_VERSION_V1 = 0;
     public static final int WAL_SEQUENCER_FORMAT_VERSION_V2 = 1;
     public static final String WAL_INDEX_FILE_NAME = "_wal_index.d";
@@ -50,7 +50,7 @@ import io.questdb.std.str.*;
 import org.jetbrains.annotations.NotNull;
 
 import static io.questdb.cairo.TableUtils.*;
-import static io.questdb.cairo.wal.WalUtils.WAL_NAME_BASE;
+import static io.questdb.cairo.wal.WalUtils.*;
 import static io.questdb.cairo.wal.seq.TableSequencer.NO_TXN;
 
 public class WalWriter implements TableWriterAPI {
@@ -62,10 +62,13 @@ public class WalWriter implements TableWriterAPI {
     };
     private final AlterOperation alterOp = new AlterOperation();
     private final ObjList<MemoryMA> columns;
+    private final boolean compactTimestamp;
     private final CairoConfiguration configuration;
     private final DdlListener ddlListener;
     private final WalEventWriter events;
     private final FilesFacade ff;
+    private final WalGroupCommit groupCommit;
+    private final WalGroupCommit.Ticket groupCommitTicket = new WalGroupCommit.Ticket();
     private final AtomicIntList initialSymbolCounts;
     private final IntList localSymbolIds;
     private final MetadataValidatorService metaValidatorSvc = new MetadataValidatorService();
@@ -114,6 +117,7 @@ public class WalWriter implements TableWriterAPI {
             TableSequencerAPI tableSequencerAPI,
             DdlListener ddlListener,
             WalDirectoryPolicy walDirectoryPolicy,
+            WalGroupCommit groupCommit,
             Metrics metrics
     ) {
         LOG.info().$("open '").utf8(tableToken.getDirName()).$('\'').$();
@@ -122,7 +126,9 @@ public class WalWriter implements TableWriterAPI {
         this.ddlListener = ddlListener;
         this.mkDirMode = configuration.getMkDirMode();
         this.ff = configuration.getFilesFacade();
+        this.compactTimestamp = configuration.isWalSegmentCompactTimestampEnabled();
         this.walDirectoryPolicy = walDirectoryPolicy;
+        this.groupCommit = groupCommit;
         this.tableToken = tableToken;
         final int walId = tableSequencerAPI.getNextWalId(tableToken);
         this.walName = WAL_NAME_BASE + walId;
@@ -149,7 +155,7 @@ public class WalWriter implements TableWriterAPI {
             initialSymbolCounts = new AtomicIntList(columnCount);
             localSymbolIds = new IntList(columnCount);
 
-            events = new WalEventWriter(configuration);
+            events = new WalEventWriter(configuration, compactTimestamp ? WAL_FORMAT_VERSION_COMPACT_TIMESTAMP : WAL_FORMAT_VERSION);
             events.of(symbolMaps, initialSymbolCounts, symbolMapNullFlags);
 
             configureColumns();
@@ -262,7 +268,19 @@ public class WalWriter implements TableWriterAPI {
                 lastSegmentTxn = events.appendData(currentTxnStartRowNum, segmentRowCount, txnMinTimestamp, txnMaxTimestamp, txnOutOfOrder);
                 // flush disk before getting next txn
                 final int commitMode = configuration.getCommitMode();
-                if (commitMode != CommitMode.NOSYNC) {
+                if (commitMode == CommitMode.SYNC && groupCommit.isEnabled()) {
+                    // schedule the flush and wait for the fsync shared with other writers
+                    sync(CommitMode.ASYNC);
+                    groupCommitTicket.clear();
+                    for (int i = 0, n = columns.size(); i < n; i++) {
+                        MemoryMA column = columns.getQuick(i);
+                        if (column != null) {
+                            groupCommitTicket.add(column.getFd());
+                        }
+                    }
+                    events.registerFds(groupCommitTicket);
+                    groupCommit.await(groupCommitTicket);
+                } else if (commitMode != CommitMode.NOSYNC) {
                     sync(commitMode);
                 }
                 final long seqTxn = getSequencerTxn();
@@ -515,7 +533,7 @@ public class WalWriter implements TableWriterAPI {
                                     path,
                                     newSegmentId,
                                     columnName,
-                                    columnIndex == timestampIndex ? -columnType : columnType,
+                                    columnIndex == timestampIndex && !compactTimestamp ? -columnType : columnType,
                                     currentTxnStartRowNum,
                                     uncommittedRows,
                                     newColumnFiles,
@@ -1239,7 +1257,7 @@ public class WalWriter implements TableWriterAPI {
             metadata.switchTo(path, segmentPathLen, isTruncateFilesOnClose());
             events.openEventFile(path, segmentPathLen, isTruncateFilesOnClose(), tableToken.isSystem());
             if (commitMode != CommitMode.NOSYNC) {
-                events.sync();
+                events.sync(commitMode == CommitMode.ASYNC);
             }
 
             if (dirFd != -1) {
@@ -1395,7 +1413,10 @@ public class WalWriter implements TableWriterAPI {
             // there is no need to add a record about it to the new segment event file.
             lastSegmentTxn = events.appendData(0, uncommittedRows, txnMinTimestamp, txnMaxTimestamp, txnOutOfOrder);
         }
-        events.sync();
+        final int commitMode = configuration.getCommitMode();
+        if (commitMode != CommitMode.NOSYNC) {
+            events.sync(commitMode == CommitMode.ASYNC);
+        }
     }
 
     private void rowAppend(ObjList<Runnable> activeNullSetters, long rowTimestamp) {
@@ -1438,7 +1459,7 @@ public class WalWriter implements TableWriterAPI {
                 assert auxMem != null;
                 dataMemOffset = ColumnType.getDriver(columnType).setAppendAuxMemAppendPosition(auxMem, rowCount);
             } else {
-                dataMemOffset = rowCount << ColumnType.getWalDataColumnShl(columnType, columnIndex == metadata.getTimestampIndex());
+                dataMemOffset = rowCount << ColumnType.getWalDataColumnShl(columnType, columnIndex == metadata.getTimestampIndex() && !compactTimestamp);
             }
             dataMem.jumpTo(dataMemOffset);
         }
@@ -1538,7 +1559,7 @@ public class WalWriter implements TableWriterAPI {
                 column.sync(async);
             }
         }
-        events.sync();
+        events.sync(async);
     }
 
     private class MetadataValidatorService implements MetadataServiceStub {
@@ -2147,7 +2168,12 @@ public class WalWriter implements TableWriterAPI {
 
         private void setTimestamp(long value) {
             // avoid lookups by having a designated field with primaryColumn
-            getPrimaryColumn(timestampIndex).putLong128(value, segmentRowCount);
+            if (compactTimestamp) {
+                // row number is implied by the position of the timestamp in the segment
+                getPrimaryColumn(timestampIndex).putLong(value);
+            } else {
+                getPrimaryColumn(timestampIndex).putLong128(value, segmentRowCount);
+            }
             setRowValueNotNull(timestampIndex);
             this.timestamp = value;
         }
@@ -25,12 +25,16 @@
 package io.questdb.cairo.wal.seq;
 
 import io.questdb.std.Unsafe;
-import org.jetbrains.annotations.TestOnly;
 
 public class SeqTxnTracker {
+    private static final long LAG_START_TIMESTAMP_OFFSET;
     private static final long SEQ_TXN_OFFSET;
     private static final long SUSPENDED_STATE_OFFSET;
     private static final long WRITER_TXN_OFFSET;
+    // Commit timestamp of the oldest transaction not yet applied to the table, 0 when the table is up-to-date.
+    // The value is an estimate used to prioritise WAL apply, see WalApplyLagSlo.
+    @SuppressWarnings("FieldMayBeFinal")
+    private volatile long lagStartTimestamp = 0;
     @SuppressWarnings("FieldMayBeFinal")
     private volatile long seqTxn = -1;
     // -1 suspended
@@ -39,12 +43,14 @@ public class SeqTxnTracker {
     private volatile int suspendedState = 0;
     private volatile long writerTxn = -1;
 
-    @TestOnly
+    public long getLagStartTimestamp() {
+        return lagStartTimestamp;
+    }
+
     public long getSeqTxn() {
         return seqTxn;
     }
 
-    @TestOnly
     public long getWriterTxn() {
         return writerTxn;
     }
@@ -66,11 +72,16 @@ public class SeqTxnTracker {
         return writerTxn != -1;
     }
 
-    @TestOnly
     public boolean isSuspended() {
         return suspendedState < 0;
     }
 
+    public void notifyApplied(long appliedCommitTimestamp) {
+        // Called by apply job before notifyCommitReadable(). Transactions after the applied one
+        // were committed no earlier than the applied one.
+        lagStartTimestamp = appliedCommitTimestamp;
+    }
+
     public boolean notifyCommitReadable(long newWriterTxn) {
         // This is only called under TableWriter lock
         // with no threads race
@@ -78,7 +89,11 @@ public class SeqTxnTracker {
         if (newWriterTxn > -1) {
             suspendedState = 1;
         }
-        return newWriterTxn < seqTxn;
+        if (newWriterTxn < seqTxn) {
+            return true;
+        }
+        lagStartTimestamp = 0;
+        return false;
     }
 
     public boolean notifyOnCheck(long newSeqTxn) {
@@ -91,7 +106,7 @@ public class SeqTxnTracker {
         return writerTxn < seqTxn && suspendedState > 0;
     }
 
-    public boolean notifyOnCommit(long newSeqTxn) {
+    public boolean notifyOnCommit(long newSeqTxn, long commitTimestamp) {
         // Updates seqTxn and returns true if the commit should post notification
         // to run ApplyWal2TableJob for the table
         long stxn = seqTxn;
@@ -101,6 +116,10 @@ public class SeqTxnTracker {
             }
             stxn = seqTxn;
         }
+        if (writerTxn < newSeqTxn) {
+            // the table was up-to-date, this commit starts the lag
+            Unsafe.cas(this, LAG_START_TIMESTAMP_OFFSET, 0, commitTimestamp);
+        }
         // Return that Apply job notification is needed
         // when there is some new work for ApplyWal2Table job
         return (stxn == -1 || writerTxn == (newSeqTxn - 1)) && suspendedState >= 0;
@@ -115,6 +134,7 @@ public class SeqTxnTracker {
     }
 
     static {
+        LAG_START_TIMESTAMP_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "lagStartTimestamp");
         SEQ_TXN_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "seqTxn");
         WRITER_TXN_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "writerTxn");
         SUSPENDED_STATE_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "suspendedState");
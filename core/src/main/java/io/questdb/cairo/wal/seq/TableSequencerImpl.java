@@ -120,7 +120,7 @@ public class TableSequencerImpl implements TableSequencer {
         final long timestamp = microClock.getTicks();
         final long txn = tableTransactionLog.addEntry(getStructureVersion(), WalUtils.DROP_TABLE_WALID, 0, 0, timestamp, 0, 0, 0);
         metadata.dropTable();
-        notifyTxnCommitted(Long.MAX_VALUE);
+        notifyTxnCommitted(Long.MAX_VALUE, 0);
         engine.getWalListener().tableDropped(tableToken, txn, timestamp);
     }
 
@@ -259,7 +259,7 @@ public class TableSequencerImpl implements TableSequencer {
                 txn = tableTransactionLog.endMetadataChangeEntry();
 
                 if (!metadata.isSuspended()) {
-                    notifyTxnCommitted(txn);
+                    notifyTxnCommitted(txn, timestamp);
                     if (!tableToken.equals(oldTableToken)) {
                         engine.getWalListener().tableRenamed(tableToken, txn, timestamp, oldTableToken);
                     } else {
@@ -302,7 +302,7 @@ public class TableSequencerImpl implements TableSequencer {
         }
 
         if (!metadata.isSuspended()) {
-            notifyTxnCommitted(txn);
+            notifyTxnCommitted(txn, timestamp);
             engine.getWalListener().dataTxnCommitted(tableToken, txn, timestamp, walId, segmentId, segmentTxn);
         }
         return txn;
@@ -333,14 +333,14 @@ public class TableSequencerImpl implements TableSequencer {
         }
         long lastTxn = tableTransactionLog.lastTxn();
         LOG.info().$("reloaded table sequencer [name=").utf8(tableToken.getDirName()).$(", lastTxn=").$(lastTxn).I$();
-        seqTxnTracker.notifyOnCommit(lastTxn);
+        seqTxnTracker.notifyOnCommit(lastTxn, microClock.getTicks());
         return tableToken = metadata.getTableToken();
     }
 
     @Override
     public void resumeTable() {
         metadata.resumeTable();
-        notifyTxnCommitted(Long.MAX_VALUE);
+        notifyTxnCommitted(Long.MAX_VALUE, 0);
         seqTxnTracker.setUnsuspended();
     }
 
@@ -391,8 +391,8 @@ public class TableSequencerImpl implements TableSequencer {
         return tableTransactionLog.addEntry(getStructureVersion(), walId, segmentId, segmentTxn, timestamp, txnMinTimestamp, txnMaxTimestamp, txnRowCount);
     }
 
-    private void notifyTxnCommitted(long txn) {
-        if (txn == Long.MAX_VALUE || seqTxnTracker.notifyOnCommit(txn)) {
+    private void notifyTxnCommitted(long txn, long timestamp) {
+        if (txn == Long.MAX_VALUE || seqTxnTracker.notifyOnCommit(txn, timestamp)) {
             engine.notifyWalTxnCommitted(tableToken);
         }
     }
@@ -278,15 +278,17 @@ public class TableTransactionLog implements Closeable {
         private FilesFacade ff;
         private MemorySerializer serializer;
         private long txnMetaAddress;
+        private long txnMetaMapOffset;
         private long txnMetaOffset;
         private long txnMetaOffsetHi;
 
         @Override
         public void close() {
             if (txnMetaAddress > 0) {
-                ff.munmap(txnMetaAddress, txnMetaOffsetHi, MemoryTag.MMAP_TX_LOG_CURSOR);
+                ff.munmap(txnMetaAddress, txnMetaOffsetHi - txnMetaMapOffset, MemoryTag.MMAP_TX_LOG_CURSOR);
                 txnMetaAddress = 0;
             }
+            txnMetaMapOffset = 0;
             txnMetaOffset = 0;
             txnMetaOffsetHi = 0;
         }
@@ -332,10 +334,12 @@ public class TableTransactionLog implements Closeable {
                         txnMetaOffsetHi = ff.readNonNegativeLong(txnMetaIndexFd, maxStructureVersion * Long.BYTES);
 
                         if (txnMetaOffsetHi > txnMetaOffset) {
+                            // map only the changes after structureVersionLo, the log itself is never truncated
+                            txnMetaMapOffset = Files.floorPageSize(txnMetaOffset);
                             txnMetaAddress = ff.mmap(
                                     txnMetaFd,
-                                    txnMetaOffsetHi,
-                                    0L,
+                                    txnMetaOffsetHi - txnMetaMapOffset,
+                                    txnMetaMapOffset,
                                     Files.MAP_RO,
                                     MemoryTag.MMAP_TX_LOG_CURSOR
                             );
@@ -343,7 +347,8 @@ public class TableTransactionLog implements Closeable {
                                 txnMetaAddress = 0;
                                 close();
                             } else {
-                                txnMetaMem.of(txnMetaAddress, txnMetaOffsetHi);
+                                txnMetaMem.of(txnMetaAddress, txnMetaOffsetHi - txnMetaMapOffset);
+                                txnMetaMem.shiftAddressRight(txnMetaMapOffset);
                                 return;
                             }
                         }
@@ -245,6 +245,16 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         public NanosecondClock getNanosecondClock() {
             return httpContextConfiguration.getNanosecondClock();
         }
+
+        @Override
+        public int getTailConnectionLimit() {
+            return 4;
+        }
+
+        @Override
+        public boolean isTailEnabled() {
+            return false;
+        }
     }
 
     public class DefaultLineHttpProcessorConfiguration implements LineHttpProcessorConfiguration {
@@ -52,8 +52,10 @@ public final class HttpConstants {
     public static final Utf8String URL_PARAM_DELIMITER = new Utf8String("delimiter");
     public static final Utf8String URL_PARAM_EXPLAIN = new Utf8String("explain");
     public static final Utf8String URL_PARAM_FILENAME = new Utf8String("filename");
+    public static final Utf8String URL_PARAM_FILTER = new Utf8String("filter");
     public static final Utf8String URL_PARAM_FMT = new Utf8String("fmt");
     public static final Utf8String URL_PARAM_FORCE_HEADER = new Utf8String("forceHeader");
+    public static final Utf8String URL_PARAM_FROM = new Utf8String("from");
     public static final Utf8String URL_PARAM_LIMIT = new Utf8String("limit");
     public static final Utf8String URL_PARAM_MAX_UNCOMMITTED_ROWS = new Utf8String("maxUncommittedRows");
     public static final Utf8String URL_PARAM_NAME = new Utf8String("name");
@@ -61,12 +63,14 @@ public final class HttpConstants {
     public static final Utf8String URL_PARAM_O3_MAX_LAG = new Utf8String("o3MaxLag");
     public static final Utf8String URL_PARAM_OVERWRITE = new Utf8String("overwrite");
     public static final Utf8String URL_PARAM_PARTITION_BY = new Utf8String("partitionBy");
+    public static final Utf8String URL_PARAM_POLL = new Utf8String("poll");
     public static final Utf8String URL_PARAM_QUERY = new Utf8String("query");
     public static final Utf8String URL_PARAM_QUOTE_LARGE_NUM = new Utf8String("quoteLargeNum");
     public static final Utf8String URL_PARAM_SKIP_LEV = new Utf8String("skipLev");
     public static final Utf8String URL_PARAM_SRC = new Utf8String("src");
     public static final Utf8String URL_PARAM_STATUS_FORMAT = new Utf8String("f");
     public static final Utf8String URL_PARAM_STATUS_TABLE_NAME = new Utf8String("j");
+    public static final Utf8String URL_PARAM_TABLE = new Utf8String("table");
     public static final Utf8String URL_PARAM_TIMESTAMP = new Utf8String("timestamp");
     public static final Utf8String URL_PARAM_TIMINGS = new Utf8String("timings");
 
@@ -813,6 +813,7 @@ public class HttpResponseSink implements Closeable, Mutable {
         httpStatusMap.put(413, "Content Too Large");
         httpStatusMap.put(415, "Bad request");
         httpStatusMap.put(416, "Request range not satisfiable");
+        httpStatusMap.put(429, "Too Many Requests");
         httpStatusMap.put(431, "Headers too large");
         httpStatusMap.put(500, "Internal server error");
     }
@@ -38,6 +38,7 @@ import io.questdb.std.str.Utf8String;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpServer implements Closeable {
 
@@ -206,6 +207,29 @@ public class HttpServer implements Closeable {
             }
         });
 
+        if (configuration.getJsonQueryProcessorConfiguration().isTailEnabled()) {
+            server.bind(new HttpRequestProcessorFactory() {
+                private final AtomicInteger tailConnectionCount = new AtomicInteger();
+
+                @Override
+                public String getUrl() {
+                    return "/tail";
+                }
+
+                @Override
+                public HttpRequestProcessor newInstance() {
+                    return new TableTailProcessor(
+                            configuration.getJsonQueryProcessorConfiguration(),
+                            configuration.getDispatcherConfiguration(),
+                            cairoEngine,
+                            tailConnectionCount,
+                            workerPool.getWorkerCount(),
+                            sharedWorkerCount
+                    );
+                }
+            });
+        }
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public String getUrl() {
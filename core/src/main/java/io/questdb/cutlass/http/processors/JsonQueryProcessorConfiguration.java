@@ -53,4 +53,8 @@ public interface JsonQueryProcessorConfiguration {
     default byte getRequiredAuthType() {
         return SecurityContext.AUTH_TYPE_CREDENTIALS;
     }
+
+    int getTailConnectionLimit();
+
+    boolean isTailEnabled();
 }
@@ -0,0 +1,472 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.TableMetadata;
+import io.questdb.cairo.sql.TableReferenceOutOfDateException;
+import io.questdb.cutlass.http.*;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.log.LogRecord;
+import io.questdb.network.*;
+import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.Utf8s;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.questdb.cutlass.http.HttpConstants.*;
+
+/**
+ * Streams rows as they are committed to a table. The response is chunked CSV, that starts
+ * with the column names and stays open until the client disconnects or the requested number
+ * of rows has been sent.
+ * <p>
+ * URL parameters:
+ * <ul>
+ *     <li>table - name of the table to tail, required</li>
+ *     <li>filter - optional boolean expression rows must satisfy, e.g. {@code sym = 'A' and price > 10}</li>
+ *     <li>from - {@code top} to stream existing rows before the new ones, only new rows are streamed by default</li>
+ *     <li>limit - number of rows to stream before completing the response, unlimited by default</li>
+ *     <li>poll - interval in milliseconds between checks for newly committed rows</li>
+ *     <li>delimiter - single character CSV delimiter</li>
+ * </ul>
+ * The number of concurrent streams is limited by {@code http.tail.connection.limit}, as each
+ * stream holds a table reader for as long as it stays open.
+ * <p>
+ * The tail follows row ids, hence it is suited for append-only tables. Truncating the table
+ * restarts the tail from the first row, changing the table structure completes the response.
+ */
+public class TableTailProcessor implements HttpRequestProcessor, Closeable {
+    static final long DEFAULT_POLL_INTERVAL_MILLIS = 100;
+    static final int TAIL_DONE = 7;
+    static final int TAIL_FLUSH = 6;
+    static final int TAIL_HEADER = 0;
+    static final int TAIL_METADATA = 1;
+    static final int TAIL_POLL = 2;
+    static final int TAIL_RECORD = 4;
+    static final int TAIL_RECORD_START = 3;
+    static final int TAIL_RECORD_SUFFIX = 5;
+    // State is thread local for the same reasons as in TextQueryProcessor.
+    private static final LocalValue<TableTailProcessorState> LV = new LocalValue<>();
+    private static final Log LOG = LogFactory.getLog(TableTailProcessor.class);
+    private static final long MAX_POLL_INTERVAL_MILLIS = 60_000;
+    private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
+    private final MillisecondClock clock;
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final JsonQueryProcessorConfiguration configuration;
+    // shared by processors of all HTTP workers
+    private final AtomicInteger connectionCount;
+    private final int connectionLimit;
+    private final IODispatcherConfiguration dispatcherConfiguration;
+    private final int doubleScale;
+    private final CairoEngine engine;
+    private final int floatScale;
+    private final byte requiredAuthType;
+    private final SqlExecutionContextImpl sqlExecutionContext;
+
+    public TableTailProcessor(
+            JsonQueryProcessorConfiguration configuration,
+            IODispatcherConfiguration dispatcherConfiguration,
+            CairoEngine engine,
+            AtomicInteger connectionCount,
+            int workerCount,
+            int sharedWorkerCount
+    ) {
+        this.configuration = configuration;
+        this.connectionCount = connectionCount;
+        this.connectionLimit = configuration.getTailConnectionLimit();
+        this.dispatcherConfiguration = dispatcherConfiguration;
+        // suspend event deadlines are compared against dispatcher clock
+        this.clock = dispatcherConfiguration.getClock();
+        this.engine = engine;
+        this.doubleScale = configuration.getDoubleScale();
+        this.floatScale = configuration.getFloatScale();
+        this.requiredAuthType = configuration.getRequiredAuthType();
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount, sharedWorkerCount);
+        this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB4);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(circuitBreaker);
+    }
+
+    @Override
+    public byte getRequiredAuthType() {
+        return requiredAuthType;
+    }
+
+    @Override
+    public void onRequestComplete(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        TableTailProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new TableTailProcessorState(context));
+        } else {
+            state.clear();
+        }
+
+        final HttpChunkedResponse response = context.getChunkedResponse();
+        if (!parseUrl(response, context.getRequestHeader(), state)) {
+            readyForNextRequest(context);
+            return;
+        }
+
+        if (connectionCount.incrementAndGet() > connectionLimit) {
+            connectionCount.decrementAndGet();
+            info(state).$("tail connection limit reached [limit=").$(connectionLimit).I$();
+            sendException(response, 0, "too many tail connections [limit=" + connectionLimit + ']', 429, state);
+            readyForNextRequest(context);
+            return;
+        }
+        // released by the state when the stream completes or the connection is closed
+        state.connectionCount = connectionCount;
+
+        try {
+            sqlExecutionContext.with(context.getSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+            final TableToken tableToken = engine.verifyTableName(state.tableName);
+            // authorize before taking a reader, unauthorized requests must not hold readers
+            final long metadataVersion;
+            columnNames.clear();
+            try (TableMetadata tableMetadata = engine.getTableMetadata(tableToken)) {
+                metadataVersion = tableMetadata.getMetadataVersion();
+                for (int i = 0, n = tableMetadata.getColumnCount(); i < n; i++) {
+                    columnNames.add(tableMetadata.getColumnName(i));
+                }
+            }
+            context.getSecurityContext().authorizeSelect(tableToken, columnNames);
+
+            state.reader = engine.getReader(tableToken, metadataVersion);
+            state.cursor = new TableReaderTailRecordCursor();
+            state.cursor.of(state.reader);
+            state.metadata = state.reader.getMetadata();
+            state.metadataVersion = state.reader.getMetadataVersion();
+            state.columnCount = state.metadata.getColumnCount();
+
+            if (state.filterText.length() > 0) {
+                try (SqlCompiler compiler = engine.getSqlCompiler()) {
+                    state.filter = compiler.compileFilter(state.filterText, state.metadata, sqlExecutionContext);
+                }
+                state.filter.init(state.cursor, sqlExecutionContext);
+            }
+
+            if (!state.fromTop) {
+                state.cursor.toBottom();
+            }
+            info(state).$("tail [table=").utf8(state.tableName)
+                    .$(", filter=`").utf8(state.filterText)
+                    .$("`, fromTop=").$(state.fromTop)
+                    .$(", limit=").$(state.stop)
+                    .$(", poll=").$(state.pollIntervalMillis)
+                    .I$();
+        } catch (SqlException e) {
+            syntaxError(response, state, e);
+            state.clear();
+            readyForNextRequest(context);
+            return;
+        } catch (CairoException | CairoError | TableReferenceOutOfDateException e) {
+            logInternalError(e, state);
+            sendException(response, 0, e.getMessage(), 400, state);
+            state.clear();
+            readyForNextRequest(context);
+            return;
+        }
+        resumeSend(context);
+    }
+
+    @Override
+    public void parkRequest(HttpConnectionContext context, boolean pausedQuery) {
+        TableTailProcessorState state = LV.get(context);
+        if (state != null) {
+            state.pausedQuery = pausedQuery;
+        }
+    }
+
+    @Override
+    public void resumeSend(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        TableTailProcessorState state = LV.get(context);
+        if (state == null) {
+            return;
+        }
+        try {
+            doResumeSend(context, state);
+        } catch (CairoError | CairoException e) {
+            // headers and possibly rows are already sent, the only
+            // thing we can do is to log the error and disconnect
+            logInternalError(e, state);
+            state.clear();
+            throw ServerDisconnectException.INSTANCE;
+        }
+    }
+
+    private static void readyForNextRequest(HttpConnectionContext context) {
+        LOG.info().$("all sent [fd=").$(context.getFd())
+                .$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent())
+                .$(", nCompletedRequests=").$(context.getNCompletedRequests() + 1)
+                .$(", totalBytesSent=").$(context.getTotalBytesSent()).I$();
+    }
+
+    private void doResumeSend(
+            HttpConnectionContext context,
+            TableTailProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException {
+        sqlExecutionContext.with(context.getSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+        LOG.debug().$("resume [fd=").$(context.getFd()).I$();
+
+        if (!state.pausedQuery) {
+            context.resumeResponseSend();
+        } else {
+            state.pausedQuery = false;
+        }
+        // dispatcher has already released its side of the poll event
+        state.suspendEvent = Misc.free(state.suspendEvent);
+
+        final HttpChunkedResponse response = context.getChunkedResponse();
+        final RecordMetadata metadata = state.metadata;
+        final int columnCount = state.columnCount;
+
+        OUT:
+        while (true) {
+            try {
+                SWITCH:
+                switch (state.queryState) {
+                    case TAIL_HEADER:
+                        header(response);
+                        state.queryState = TAIL_METADATA;
+                        // fall through
+                    case TAIL_METADATA:
+                        state.columnIndex = 0;
+                        while (state.columnIndex < columnCount) {
+                            if (state.columnIndex > 0) {
+                                response.putAscii(state.delimiter);
+                            }
+                            response.putQuote().escapeJsonStr(metadata.getColumnName(state.columnIndex)).putQuote();
+                            state.columnIndex++;
+                            response.bookmark();
+                        }
+                        response.putEOL();
+                        response.bookmark();
+                        state.queryState = TAIL_POLL;
+                        // fall through
+                    case TAIL_POLL:
+                        if (!state.cursor.reload()) {
+                            state.queryState = TAIL_FLUSH;
+                            break;
+                        }
+                        if (state.reader.getMetadataVersion() != state.metadataVersion) {
+                            // column indexes streamed so far no longer match the table
+                            info(state).$("table structure changed, tail complete").$();
+                            state.queryState = TAIL_DONE;
+                            break;
+                        }
+                        state.queryState = TAIL_RECORD_START;
+                        // fall through
+                    case TAIL_RECORD_START:
+                        final Record record = state.cursor.getRecord();
+                        while (true) {
+                            if (!state.cursor.hasNext()) {
+                                state.queryState = TAIL_FLUSH;
+                                break SWITCH;
+                            }
+                            if (state.filter == null || state.filter.getBool(record)) {
+                                state.record = record;
+                                break;
+                            }
+                        }
+                        state.queryState = TAIL_RECORD;
+                        state.columnIndex = 0;
+                        // fall through
+                    case TAIL_RECORD:
+                        while (state.columnIndex < columnCount) {
+                            if (state.columnIndex > 0) {
+                                response.putAscii(state.delimiter);
+                            }
+                            TextQueryProcessor.putValue(response, metadata.getColumnType(state.columnIndex), state.record, state.columnIndex, doubleScale, floatScale);
+                            state.columnIndex++;
+                            response.bookmark();
+                        }
+                        state.queryState = TAIL_RECORD_SUFFIX;
+                        // fall through
+                    case TAIL_RECORD_SUFFIX:
+                        response.putEOL();
+                        response.bookmark();
+                        state.record = null;
+                        state.queryState = ++state.count < state.stop ? TAIL_RECORD_START : TAIL_DONE;
+                        break;
+                    case TAIL_FLUSH:
+                        // rows the client is waiting for must not sit in the buffer while we wait
+                        response.sendChunk(false);
+                        state.queryState = TAIL_POLL;
+                        // do not hold the table reader on behalf of the client that went away
+                        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                        state.suspendEvent = SuspendEventFactory.newInstance(dispatcherConfiguration);
+                        state.suspendEvent.setDeadline(clock.getTicks() + state.pollIntervalMillis);
+                        // no-op circuit breaker keeps the poll deadline intact, the stream is not subject to query timeout
+                        throw QueryPausedException.instance(state.suspendEvent, SqlExecutionCircuitBreaker.NOOP_CIRCUIT_BREAKER);
+                    case TAIL_DONE:
+                        // release the reader before the client receives the last chunk
+                        state.close();
+                        response.done();
+                        break OUT;
+                    default:
+                        break OUT;
+                }
+            } catch (NoSpaceLeftInResponseBufferException ignored) {
+                if (response.resetToBookmark()) {
+                    response.sendChunk(false);
+                } else {
+                    // single column value does not fit response buffer,
+                    // there is no way to send it, disconnect
+                    info(state).$("Response buffer is too small, state=").$(state.queryState).$();
+                    throw PeerDisconnectedException.INSTANCE;
+                }
+            }
+        }
+        readyForNextRequest(context);
+    }
+
+    private LogRecord error(TableTailProcessorState state) {
+        return LOG.error().$('[').$(state.getFd()).$("] ");
+    }
+
+    private void header(HttpChunkedResponse response) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        response.status(200, CONTENT_TYPE_CSV);
+        response.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        response.sendHeader();
+    }
+
+    private LogRecord info(TableTailProcessorState state) {
+        return LOG.info().$('[').$(state.getFd()).$("] ");
+    }
+
+    private void logInternalError(Throwable e, TableTailProcessorState state) {
+        if (e instanceof CairoException) {
+            final CairoException ce = (CairoException) e;
+            if (ce.isInterruption()) {
+                info(state).$("tail cancelled [reason=`").$(ce.getFlyweightMessage())
+                        .$("`, table=").utf8(state.tableName)
+                        .I$();
+            } else {
+                error(state).$("error [msg=`").$(ce.getFlyweightMessage())
+                        .$("`, errno=").$(ce.getErrno())
+                        .$(", table=").utf8(state.tableName)
+                        .I$();
+            }
+        } else {
+            LOG.critical().$('[').$(state.getFd()).$("] internal error [ex=").$(e)
+                    .$(", table=").utf8(state.tableName)
+                    .I$();
+        }
+    }
+
+    private boolean parseUrl(
+            HttpChunkedResponse response,
+            HttpRequestHeader request,
+            TableTailProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final DirectUtf8Sequence tableName = request.getUrlParam(URL_PARAM_TABLE);
+        if (tableName == null || tableName.size() == 0) {
+            sendException(response, 0, "table name missing", 400, state);
+            return false;
+        }
+        if (!Utf8s.utf8ToUtf16(tableName, state.tableName)) {
+            sendException(response, 0, "Bad UTF8 encoding in table name", 400, state);
+            return false;
+        }
+
+        final DirectUtf8Sequence filter = request.getUrlParam(URL_PARAM_FILTER);
+        if (filter != null && !Utf8s.utf8ToUtf16(filter, state.filterText)) {
+            sendException(response, 0, "Bad UTF8 encoding in filter", 400, state);
+            return false;
+        }
+
+        final DirectUtf8Sequence limit = request.getUrlParam(URL_PARAM_LIMIT);
+        if (limit != null) {
+            try {
+                final long stop = Numbers.parseLong(limit);
+                if (stop > 0) {
+                    state.stop = stop;
+                }
+            } catch (NumericException ignore) {
+                // stream is unlimited
+            }
+        }
+
+        final DirectUtf8Sequence poll = request.getUrlParam(URL_PARAM_POLL);
+        if (poll != null) {
+            try {
+                state.pollIntervalMillis = Math.max(1, Math.min(Numbers.parseLong(poll), MAX_POLL_INTERVAL_MILLIS));
+            } catch (NumericException ignore) {
+                // default poll interval
+            }
+        }
+
+        final DirectUtf8Sequence delimiter = request.getUrlParam(URL_PARAM_DELIMITER);
+        if (delimiter != null && delimiter.size() == 1) {
+            state.delimiter = (char) delimiter.byteAt(0);
+        }
+
+        state.fromTop = Utf8s.equalsNcAscii("top", request.getUrlParam(URL_PARAM_FROM));
+        return true;
+    }
+
+    private void sendException(
+            HttpChunkedResponse response,
+            int position,
+            CharSequence message,
+            int responseCode,
+            TableTailProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        response.status(responseCode, CONTENT_TYPE_JSON);
+        response.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        response.sendHeader();
+        JsonQueryProcessorState.prepareExceptionJson(response, position, message, state.filterText);
+    }
+
+    private void syntaxError(
+            HttpChunkedResponse response,
+            TableTailProcessorState state,
+            FlyweightMessageContainer container
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        info(state).$("syntax-error [filter=`").utf8(state.filterText)
+                .$("`, at=").$(container.getPosition())
+                .$(", message=`").$(container.getFlyweightMessage()).$('`').I$();
+        sendException(response, container.getPosition(), container.getFlyweightMessage(), 400, state);
+    }
+}
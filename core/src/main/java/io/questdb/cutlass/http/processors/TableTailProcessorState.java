@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderTailRecordCursor;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.network.SuspendEvent;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TableTailProcessorState implements Mutable, Closeable {
+    final StringSink filterText = new StringSink();
+    final StringSink tableName = new StringSink();
+    private final HttpConnectionContext httpConnectionContext;
+    int columnCount;
+    int columnIndex;
+    AtomicInteger connectionCount;
+    long count;
+    TableReaderTailRecordCursor cursor;
+    char delimiter = ',';
+    Function filter;
+    boolean fromTop;
+    RecordMetadata metadata;
+    long metadataVersion;
+    boolean pausedQuery = false;
+    long pollIntervalMillis;
+    int queryState;
+    // owned by the cursor
+    TableReader reader;
+    Record record;
+    long stop;
+    SuspendEvent suspendEvent;
+
+    public TableTailProcessorState(HttpConnectionContext httpConnectionContext) {
+        this.httpConnectionContext = httpConnectionContext;
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        close();
+        filterText.clear();
+        tableName.clear();
+        columnCount = 0;
+        columnIndex = 0;
+        count = 0;
+        delimiter = ',';
+        fromTop = false;
+        metadata = null;
+        metadataVersion = -1;
+        pausedQuery = false;
+        pollIntervalMillis = TableTailProcessor.DEFAULT_POLL_INTERVAL_MILLIS;
+        queryState = TableTailProcessor.TAIL_HEADER;
+        reader = null;
+        record = null;
+        stop = Long.MAX_VALUE;
+    }
+
+    @Override
+    public void close() {
+        if (connectionCount != null) {
+            connectionCount.decrementAndGet();
+            connectionCount = null;
+        }
+        filter = Misc.free(filter);
+        // the cursor owns the table reader and returns it to the pool
+        cursor = Misc.free(cursor);
+        suspendEvent = Misc.free(suspendEvent);
+    }
+
+    public int getFd() {
+        return httpConnectionContext.getFd();
+    }
+}
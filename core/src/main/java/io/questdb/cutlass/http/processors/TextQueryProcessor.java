@@ -250,7 +250,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                 && (tok.byteAt(i) | 32) == 'p';
     }
 
-    private static void putGeoHashStringValue(HttpChunkedResponse response, long value, int type) {
+    static void putGeoHashStringValue(HttpChunkedResponse response, long value, int type) {
         if (value == GeoHashes.NULL) {
             response.putAscii("null");
         } else {
@@ -265,26 +265,121 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
-    private static void putIPv4Value(HttpChunkedResponse response, Record rec, int col) {
+    static void putIPv4Value(HttpChunkedResponse response, Record rec, int col) {
         final int ip = rec.getIPv4(col);
         if (ip != Numbers.IPv4_NULL) {
             Numbers.intToIPv4Sink(response, ip);
         }
     }
 
-    private static void putStringOrNull(HttpChunkedResponse r, CharSequence str) {
+    static void putStringOrNull(HttpChunkedResponse r, CharSequence str) {
         if (str != null) {
             r.putQuote().escapeJsonStr(str).putQuote();
         }
     }
 
-    private static void putUuidOrNull(HttpChunkedResponse response, long lo, long hi) {
+    static void putUuidOrNull(HttpChunkedResponse response, long lo, long hi) {
         if (Uuid.isNull(lo, hi)) {
             return;
         }
         Numbers.appendUuid(lo, hi, response);
     }
 
+    static void putValue(HttpChunkedResponse response, int type, Record rec, int col, int doubleScale, int floatScale) {
+        long l;
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                response.put(rec.getBool(col));
+                break;
+            case ColumnType.BYTE:
+                response.put((int) rec.getByte(col));
+                break;
+            case ColumnType.DOUBLE:
+                double d = rec.getDouble(col);
+                if (d == d) {
+                    response.put(d, doubleScale);
+                }
+                break;
+            case ColumnType.FLOAT:
+                float f = rec.getFloat(col);
+                if (f == f) {
+                    response.put(f, floatScale);
+                }
+                break;
+            case ColumnType.INT:
+                final int i = rec.getInt(col);
+                if (i > Integer.MIN_VALUE) {
+                    response.put(i);
+                }
+                break;
+            case ColumnType.LONG:
+                l = rec.getLong(col);
+                if (l > Long.MIN_VALUE) {
+                    response.put(l);
+                }
+                break;
+            case ColumnType.DATE:
+                l = rec.getDate(col);
+                if (l > Long.MIN_VALUE) {
+                    response.putAscii('"').putISODateMillis(l).putAscii('"');
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                l = rec.getTimestamp(col);
+                if (l > Long.MIN_VALUE) {
+                    response.putAscii('"').putISODate(l).putAscii('"');
+                }
+                break;
+            case ColumnType.SHORT:
+                response.put(rec.getShort(col));
+                break;
+            case ColumnType.CHAR:
+                char c = rec.getChar(col);
+                if (c > 0) {
+                    response.put(c);
+                }
+                break;
+            case ColumnType.NULL:
+            case ColumnType.BINARY:
+            case ColumnType.RECORD:
+                break;
+            case ColumnType.STRING:
+                putStringOrNull(response, rec.getStrA(col));
+                break;
+            case ColumnType.SYMBOL:
+                putStringOrNull(response, rec.getSymA(col));
+                break;
+            case ColumnType.LONG256:
+                rec.getLong256(col, response);
+                break;
+            case ColumnType.GEOBYTE:
+                putGeoHashStringValue(response, rec.getGeoByte(col), type);
+                break;
+            case ColumnType.GEOSHORT:
+                putGeoHashStringValue(response, rec.getGeoShort(col), type);
+                break;
+            case ColumnType.GEOINT:
+                putGeoHashStringValue(response, rec.getGeoInt(col), type);
+                break;
+            case ColumnType.GEOLONG:
+                putGeoHashStringValue(response, rec.getGeoLong(col), type);
+                break;
+            case ColumnType.UUID:
+                putUuidOrNull(response, rec.getLong128Lo(col), rec.getLong128Hi(col));
+                break;
+            case ColumnType.LONG128:
+                throw new UnsupportedOperationException();
+            case ColumnType.IPv4:
+                putIPv4Value(response, rec, col);
+                break;
+            case ColumnType.VARCHAR:
+                rec.getVarchar(col, response);
+                break;
+            default:
+                assert false;
+        }
+    }
+
     private static void readyForNextRequest(HttpConnectionContext context) {
         LOG.info().$("all sent [fd=").$(context.getFd())
                 .$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent())
@@ -379,7 +474,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                             if (state.columnIndex > 0) {
                                 response.putAscii(state.delimiter);
                             }
-                            putValue(response, state.metadata.getColumnType(state.columnIndex), state.record, state.columnIndex);
+                            putValue(response, state.metadata.getColumnType(state.columnIndex), state.record, state.columnIndex, doubleScale, floatScale);
                             state.columnIndex++;
                             response.bookmark();
                         }
@@ -548,101 +643,6 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         return true;
     }
 
-    private void putValue(HttpChunkedResponse response, int type, Record rec, int col) {
-        long l;
-        switch (ColumnType.tagOf(type)) {
-            case ColumnType.BOOLEAN:
-                response.put(rec.getBool(col));
-                break;
-            case ColumnType.BYTE:
-                response.put((int) rec.getByte(col));
-                break;
-            case ColumnType.DOUBLE:
-                double d = rec.getDouble(col);
-                if (d == d) {
-                    response.put(d, doubleScale);
-                }
-                break;
-            case ColumnType.FLOAT:
-                float f = rec.getFloat(col);
-                if (f == f) {
-                    response.put(f, floatScale);
-                }
-                break;
-            case ColumnType.INT:
-                final int i = rec.getInt(col);
-                if (i > Integer.MIN_VALUE) {
-                    response.put(i);
-                }
-                break;
-            case ColumnType.LONG:
-                l = rec.getLong(col);
-                if (l > Long.MIN_VALUE) {
-                    response.put(l);
-                }
-                break;
-            case ColumnType.DATE:
-                l = rec.getDate(col);
-                if (l > Long.MIN_VALUE) {
-                    response.putAscii('"').putISODateMillis(l).putAscii('"');
-                }
-                break;
-            case ColumnType.TIMESTAMP:
-                l = rec.getTimestamp(col);
-                if (l > Long.MIN_VALUE) {
-                    response.putAscii('"').putISODate(l).putAscii('"');
-                }
-                break;
-            case ColumnType.SHORT:
-                response.put(rec.getShort(col));
-                break;
-            case ColumnType.CHAR:
-                char c = rec.getChar(col);
-                if (c > 0) {
-                    response.put(c);
-                }
-                break;
-            case ColumnType.NULL:
-            case ColumnType.BINARY:
-            case ColumnType.RECORD:
-                break;
-            case ColumnType.STRING:
-                putStringOrNull(response, rec.getStrA(col));
-                break;
-            case ColumnType.SYMBOL:
-                putStringOrNull(response, rec.getSymA(col));
-                break;
-            case ColumnType.LONG256:
-                rec.getLong256(col, response);
-                break;
-            case ColumnType.GEOBYTE:
-                putGeoHashStringValue(response, rec.getGeoByte(col), type);
-                break;
-            case ColumnType.GEOSHORT:
-                putGeoHashStringValue(response, rec.getGeoShort(col), type);
-                break;
-            case ColumnType.GEOINT:
-                putGeoHashStringValue(response, rec.getGeoInt(col), type);
-                break;
-            case ColumnType.GEOLONG:
-                putGeoHashStringValue(response, rec.getGeoLong(col), type);
-                break;
-            case ColumnType.UUID:
-                putUuidOrNull(response, rec.getLong128Lo(col), rec.getLong128Hi(col));
-                break;
-            case ColumnType.LONG128:
-                throw new UnsupportedOperationException();
-            case ColumnType.IPv4:
-                putIPv4Value(response, rec, col);
-                break;
-            case ColumnType.VARCHAR:
-                rec.getVarchar(col, response);
-                break;
-            default:
-                assert false;
-        }
-    }
-
     private void sendConfirmation(HttpChunkedResponse response) throws PeerDisconnectedException, PeerIsSlowToReadException {
         response.putAscii("DDL Success\n");
         response.sendChunk(true);
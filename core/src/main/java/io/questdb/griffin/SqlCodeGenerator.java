@@ -62,6 +62,8 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -143,6 +145,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final FunctionParser functionParser;
     private final IntList groupByFunctionPositions = new IntList();
     private final ObjObjHashMap<IntList, ObjList<WindowFunction>> groupedWindow = new ObjObjHashMap<>();
+    private final ObjList<ExpressionNode> indexIntersectionNodes = new ObjList<>();
     private final IntHashSet intHashSet = new IntHashSet();
     private final ObjectPool<IntList> intListPool = new ObjectPool<>(IntList::new, 4);
     private final MemoryCARW jitIRMem;
@@ -166,6 +169,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final ObjList<VectorAggregateFunction> tempVaf = new ObjList<>();
     private final IntList tempVecConstructorArgIndexes = new IntList();
     private final ObjList<VectorAggregateFunctionConstructor> tempVecConstructors = new ObjList<>();
+    private final Utf8StringSink utf8Sink = new Utf8StringSink();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
     private final WhereClauseParser whereClauseParser = new WhereClauseParser();
     // a bitset of string/symbol columns forced to be serialised as varchar
@@ -486,6 +490,165 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return true;
     }
 
+    private void addBloomFilterPredicate(ZoneMapFilter zoneMapFilter, int columnIndex, int columnType, Function value) {
+        final int valueTag = ColumnType.tagOf(value.getType());
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                if (valueTag == ColumnType.BYTE || valueTag == ColumnType.SHORT || valueTag == ColumnType.INT || valueTag == ColumnType.LONG) {
+                    final long l = value.getLong(null);
+                    if (l != Numbers.LONG_NaN) {
+                        zoneMapFilter.addBloomHash(columnIndex, BloomFilterWriter.hashLong(l));
+                    }
+                }
+                break;
+            case ColumnType.UUID:
+                if (valueTag == ColumnType.UUID) {
+                    final long lo = value.getLong128Lo(null);
+                    final long hi = value.getLong128Hi(null);
+                    if (!Uuid.isNull(lo, hi)) {
+                        zoneMapFilter.addBloomHash(columnIndex, BloomFilterWriter.hashLong128(lo, hi));
+                    }
+                } else if (valueTag == ColumnType.STRING) {
+                    final CharSequence cs = value.getStrA(null);
+                    if (cs != null) {
+                        try {
+                            Uuid.checkDashesAndLength(cs);
+                            zoneMapFilter.addBloomHash(columnIndex, BloomFilterWriter.hashLong128(Uuid.parseLo(cs), Uuid.parseHi(cs)));
+                        } catch (NumericException ignore) {
+                            // invalid UUID literal, leave it to the filter to report or match nothing
+                        }
+                    }
+                }
+                break;
+            case ColumnType.STRING:
+                if (valueTag == ColumnType.STRING) {
+                    final CharSequence cs = value.getStrA(null);
+                    if (cs != null) {
+                        zoneMapFilter.addBloomHash(columnIndex, BloomFilterWriter.hashChars(cs));
+                    }
+                }
+                break;
+            case ColumnType.VARCHAR:
+                if (valueTag == ColumnType.STRING) {
+                    final CharSequence cs = value.getStrA(null);
+                    if (cs != null) {
+                        utf8Sink.clear();
+                        utf8Sink.put(cs);
+                        zoneMapFilter.addBloomHash(columnIndex, BloomFilterWriter.hashUtf8(utf8Sink));
+                    }
+                } else if (valueTag == ColumnType.VARCHAR) {
+                    final Utf8Sequence us = value.getVarcharA(null);
+                    if (us != null) {
+                        zoneMapFilter.addBloomHash(columnIndex, BloomFilterWriter.hashUtf8(us));
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addZoneMapPredicates(
+            ZoneMapFilter zoneMapFilter,
+            ExpressionNode node,
+            RecordMetadata readerMeta,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (node.type != ExpressionNode.OPERATION || node.paramCount != 2) {
+            return;
+        }
+
+        if (SqlKeywords.isAndKeyword(node.token)) {
+            addZoneMapPredicates(zoneMapFilter, node.lhs, readerMeta, executionContext);
+            addZoneMapPredicates(zoneMapFilter, node.rhs, readerMeta, executionContext);
+            return;
+        }
+
+        int op = ZoneMapFilter.opOf(node.token);
+        if (op == -1) {
+            return;
+        }
+
+        final ExpressionNode columnNode;
+        final ExpressionNode valueNode;
+        if (node.lhs.type == ExpressionNode.LITERAL) {
+            columnNode = node.lhs;
+            valueNode = node.rhs;
+        } else if (node.rhs.type == ExpressionNode.LITERAL) {
+            columnNode = node.rhs;
+            valueNode = node.lhs;
+            op = ZoneMapFilter.flip(op);
+        } else {
+            return;
+        }
+
+        final int columnIndex = readerMeta.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int columnType = readerMeta.getColumnType(columnIndex);
+        final boolean zoneMap = configuration.isPartitionZoneMapEnabled() && ZoneMapWriter.isSupported(columnType);
+        final boolean bloomFilter = op == ZoneMapFilter.OP_EQ && configuration.isPartitionBloomFilterEnabled() && BloomFilterWriter.isSupported(columnType);
+        if (!zoneMap && !bloomFilter) {
+            return;
+        }
+
+        // limit ourselves to literal constants, e.g. 42 or -42
+        if (
+                valueNode.type != ExpressionNode.CONSTANT
+                        && !(valueNode.type == ExpressionNode.OPERATION && valueNode.paramCount == 1
+                        && Chars.equals(valueNode.token, '-') && valueNode.rhs != null && valueNode.rhs.type == ExpressionNode.CONSTANT)
+        ) {
+            return;
+        }
+
+        final Function value = functionParser.parseFunction(valueNode, readerMeta, executionContext);
+        try {
+            if (!value.isConstant()) {
+                return;
+            }
+            if (bloomFilter) {
+                addBloomFilterPredicate(zoneMapFilter, columnIndex, columnType, value);
+            }
+            if (!zoneMap) {
+                return;
+            }
+            final int columnTag = ColumnType.tagOf(columnType);
+            switch (ColumnType.tagOf(value.getType())) {
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                    final long l = value.getLong(null);
+                    if (l != Numbers.LONG_NaN && (op != ZoneMapFilter.OP_EQ || (columnTag != ColumnType.FLOAT && columnTag != ColumnType.DOUBLE))) {
+                        zoneMapFilter.addLong(columnIndex, op, l);
+                    }
+                    break;
+                case ColumnType.TIMESTAMP:
+                    if (columnTag == ColumnType.TIMESTAMP) {
+                        final long ts = value.getTimestamp(null);
+                        if (ts != Numbers.LONG_NaN) {
+                            zoneMapFilter.addLong(columnIndex, op, ts);
+                        }
+                    }
+                    break;
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                    // equality on floating point values is not exact in SQL, don't bother
+                    final double d = value.getDouble(null);
+                    if (d == d && op != ZoneMapFilter.OP_EQ) {
+                        zoneMapFilter.addDouble(columnIndex, op, d);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            Misc.free(value);
+        }
+    }
+
     private void backupWhereClause(ExpressionNode node) {
         processNodeQueryModels(node, backupWhereClauseRef);
     }
@@ -526,6 +689,18 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return false;
     }
 
+    private void collectIndexIntersectionPredicates(ExpressionNode node, RecordMetadata metadata) {
+        if (node == null) {
+            return;
+        }
+        if (isAndKeyword(node.token)) {
+            collectIndexIntersectionPredicates(node.lhs, metadata);
+            collectIndexIntersectionPredicates(node.rhs, metadata);
+        } else if (isIndexIntersectionPredicate(node, metadata)) {
+            indexIntersectionNodes.add(node);
+        }
+    }
+
     @Nullable
     private Function compileFilter(
             IntrinsicModel intrinsicModel,
@@ -625,6 +800,31 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    /**
+     * Collects top-level "column op constant" conjuncts of the filter, which can be checked
+     * against partition zone maps. The filter itself is left intact.
+     */
+    private @Nullable ZoneMapFilter compileZoneMapFilter(
+            @Nullable ExpressionNode filterExpr,
+            RecordMetadata readerMeta,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (filterExpr == null || (!configuration.isPartitionZoneMapEnabled() && !configuration.isPartitionBloomFilterEnabled())) {
+            return null;
+        }
+        ZoneMapFilter zoneMapFilter = new ZoneMapFilter();
+        try {
+            addZoneMapPredicates(zoneMapFilter, filterExpr, readerMeta, executionContext);
+        } catch (Throwable th) {
+            Misc.free(zoneMapFilter);
+            throw th;
+        }
+        if (zoneMapFilter.size() == 0) {
+            return Misc.free(zoneMapFilter);
+        }
+        return zoneMapFilter;
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -789,7 +989,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -827,6 +1028,25 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                final int workerCount = executionContext.getSharedWorkerCount();
+                // Parallel build makes no sense for a single worker.
+                if (configuration.isSqlParallelHashJoinEnabled() && workerCount > 1 && slave.supportsPageFrameCursor()) {
+                    return new AsyncHashJoinLightRecordCursorFactory(
+                            configuration,
+                            executionContext.getMessageBus(),
+                            metadata,
+                            master,
+                            slave,
+                            keyTypes,
+                            valueTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            context,
+                            reduceTaskFactory,
+                            workerCount
+                    );
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -927,6 +1147,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    private Function createIndexIntersectionValue(ExpressionNode node) {
+        return StrConstant.newInstance(isNullKeyword(node.token) ? null : node.token);
+    }
+
     @NotNull
     private JoinRecordMetadata createJoinMetadata(
             CharSequence masterAlias,
@@ -1795,6 +2019,118 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    /**
+     * Builds factory that resolves the key column values together with predicates on other indexed
+     * symbol columns, e.g. {@code sym1 = 'a' and sym2 in ('x', 'y')}, as an intersection of index
+     * row id sets. Predicates consumed by the intersection are removed from the intrinsic model filter.
+     * Excluded key column values are subtracted from the intersection.
+     *
+     * @return factory or null when the filter has no suitable predicates on indexed symbol columns
+     */
+    private RecordCursorFactory generateIndexIntersection(
+            IntrinsicModel intrinsicModel,
+            RecordMetadata metadata,
+            RecordMetadata myMeta,
+            AbstractDataFrameCursorFactory dfcFactory,
+            int keyColumnIndex,
+            boolean orderByTimestamp,
+            IntList columnIndexes,
+            IntList columnSizes,
+            boolean supportsRandomAccess,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        indexIntersectionNodes.clear();
+        collectIndexIntersectionPredicates(intrinsicModel.filter, metadata);
+        final int nodeCount = indexIntersectionNodes.size();
+        if (nodeCount == 0) {
+            return null;
+        }
+
+        // the first term must be a positive one, key column values are excluded with "!=" or "not in"
+        final boolean keyNegated = intrinsicModel.keyValueFuncs.size() == 0;
+        int positiveNodeIndex = -1;
+        if (keyNegated) {
+            for (int i = 0; i < nodeCount; i++) {
+                final CharSequence token = indexIntersectionNodes.getQuick(i).token;
+                if (!isNotKeyword(token) && !Chars.equals(token, "!=")) {
+                    positiveNodeIndex = i;
+                    break;
+                }
+            }
+            if (positiveNodeIndex == -1) {
+                return null;
+            }
+            final ExpressionNode positiveNode = indexIntersectionNodes.getQuick(positiveNodeIndex);
+            indexIntersectionNodes.setQuick(positiveNodeIndex, indexIntersectionNodes.getQuick(0));
+            indexIntersectionNodes.setQuick(0, positiveNode);
+        }
+
+        final IntList termColumnIndexes = new IntList(nodeCount + 1);
+        final BoolList termNegated = new BoolList(nodeCount + 1);
+        final ObjList<ObjList<Function>> termValues = new ObjList<>(nodeCount + 1);
+        if (!keyNegated) {
+            termColumnIndexes.add(keyColumnIndex);
+            termNegated.add(false);
+            termValues.add(new ObjList<>(intrinsicModel.keyValueFuncs));
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            ExpressionNode node = indexIntersectionNodes.getQuick(i);
+            final boolean negated = isNotKeyword(node.token) || Chars.equals(node.token, "!=");
+            if (isNotKeyword(node.token)) {
+                node = node.rhs;
+            }
+
+            final ExpressionNode column;
+            final ObjList<Function> values = new ObjList<>();
+            if (node.paramCount < 3) {
+                column = node.lhs.type == LITERAL ? node.lhs : node.rhs;
+                values.add(createIndexIntersectionValue(column == node.lhs ? node.rhs : node.lhs));
+            } else {
+                // "in" with the column as the last argument
+                column = node.args.getLast();
+                for (int j = node.paramCount - 2; j > -1; j--) {
+                    values.add(createIndexIntersectionValue(node.args.getQuick(j)));
+                }
+            }
+            termColumnIndexes.add(metadata.getColumnIndexQuiet(column.token));
+            termNegated.add(negated);
+            termValues.add(values);
+        }
+
+        if (keyNegated) {
+            termColumnIndexes.add(keyColumnIndex);
+            termNegated.add(true);
+            termValues.add(new ObjList<>(intrinsicModel.keyExcludedValueFuncs));
+        }
+
+        intrinsicModel.filter = removeIndexIntersectionPredicates(intrinsicModel.filter);
+        Function filter = compileFilter(intrinsicModel, myMeta, executionContext);
+        if (filter != null && filter.isConstant()) {
+            try {
+                if (!filter.getBool(null)) {
+                    Misc.free(dfcFactory);
+                    return new EmptyTableRecordCursorFactory(myMeta);
+                }
+            } finally {
+                filter = Misc.free(filter);
+            }
+        }
+
+        return new DataFrameRecordCursorFactory(
+                configuration,
+                myMeta,
+                dfcFactory,
+                new SymbolIndexIntersectionRowCursorFactory(termColumnIndexes, termNegated, termValues, filter, columnIndexes),
+                orderByTimestamp,
+                filter,
+                false,
+                columnIndexes,
+                columnSizes,
+                supportsRandomAccess
+        );
+    }
+
     private RecordCursorFactory generateIntersectOrExceptAllFactory(
             QueryModel model,
             SqlExecutionContext executionContext,
@@ -2104,7 +2440,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -4750,7 +5087,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 return new EmptyTableRecordCursorFactory(myMeta);
             }
 
-            DataFrameCursorFactory dfcFactory;
+            AbstractDataFrameCursorFactory dfcFactory;
 
             if (latestByColumnCount > 0) {
                 Function filter = compileFilter(intrinsicModel, myMeta, executionContext);
@@ -4883,6 +5220,30 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
 
+                if (
+                        (nKeyValues == 0 || nKeyExcludedValues == 0)
+                                && !orderByKeyColumn
+                                && indexDirection == BitmapIndexReader.DIR_FORWARD
+                                && !orderDescendingByDesignatedTimestampOnly
+                                && configuration.isSqlIndexIntersectionEnabled()
+                ) {
+                    final RecordCursorFactory factory = generateIndexIntersection(
+                            intrinsicModel,
+                            metadata,
+                            myMeta,
+                            dfcFactory,
+                            keyColumnIndex,
+                            orderByTimestamp,
+                            columnIndexes,
+                            columnSizes,
+                            supportsRandomAccess,
+                            executionContext
+                    );
+                    if (factory != null) {
+                        return factory;
+                    }
+                }
+
                 if (nKeyExcludedValues == 0) {
                     Function filter = compileFilter(intrinsicModel, myMeta, executionContext);
                     if (filter != null && filter.isConstant()) {
@@ -5087,6 +5448,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 rowFactory = new DataFrameRowCursorFactory();
             }
 
+            dfcFactory.setZoneMapFilter(compileZoneMapFilter(intrinsicModel.filter, metadata, executionContext));
             model.setWhereClause(intrinsicModel.filter);
             return new DataFrameRecordCursorFactory(
                     configuration,
@@ -5332,6 +5694,61 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    private boolean isIndexIntersectionConstant(ExpressionNode node) {
+        return node.type == CONSTANT && (isNullKeyword(node.token) || Chars.isQuoted(node.token));
+    }
+
+    /**
+     * Checks for predicate in one of the forms, where the column is an indexed symbol:
+     * {@code sym = 'a'}, {@code sym != 'a'}, {@code sym in ('a', 'b')} or {@code not sym in ('a', 'b')}.
+     */
+    private boolean isIndexIntersectionPredicate(ExpressionNode node, RecordMetadata metadata) {
+        if (isNotKeyword(node.token)) {
+            return node.rhs != null && isInKeyword(node.rhs.token) && isIndexIntersectionPredicate(node.rhs, metadata);
+        }
+
+        final ExpressionNode column;
+        if (Chars.equals(node.token, '=') || Chars.equals(node.token, "!=")) {
+            if (node.paramCount != 2) {
+                return false;
+            }
+            if (node.lhs.type == LITERAL && isIndexIntersectionConstant(node.rhs)) {
+                column = node.lhs;
+            } else if (node.rhs.type == LITERAL && isIndexIntersectionConstant(node.lhs)) {
+                column = node.rhs;
+            } else {
+                return false;
+            }
+        } else if (isInKeyword(node.token)) {
+            if (node.paramCount < 2) {
+                return false;
+            }
+            if (node.paramCount == 2) {
+                column = node.lhs;
+                if (!isIndexIntersectionConstant(node.rhs)) {
+                    return false;
+                }
+            } else {
+                column = node.args.getLast();
+                for (int i = 0, n = node.paramCount - 1; i < n; i++) {
+                    if (!isIndexIntersectionConstant(node.args.getQuick(i))) {
+                        return false;
+                    }
+                }
+            }
+            if (column.type != LITERAL) {
+                return false;
+            }
+        } else {
+            return false;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        return columnIndex > -1
+                && ColumnType.isSymbol(metadata.getColumnType(columnIndex))
+                && metadata.isColumnIndexed(columnIndex);
+    }
+
     private boolean isKeyedTemporalJoin(RecordMetadata masterMetadata, RecordMetadata slaveMetadata) {
         // Check if we can simplify ASOF JOIN ON (ts) to ASOF JOIN.
         if (listColumnFilterA.size() == 1 && listColumnFilterB.size() == 1) {
@@ -5513,6 +5930,31 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    private ExpressionNode removeIndexIntersectionPredicates(ExpressionNode node) {
+        if (node == null) {
+            return null;
+        }
+        if (isAndKeyword(node.token)) {
+            final ExpressionNode lhs = removeIndexIntersectionPredicates(node.lhs);
+            final ExpressionNode rhs = removeIndexIntersectionPredicates(node.rhs);
+            if (lhs == null) {
+                return rhs;
+            }
+            if (rhs == null) {
+                return lhs;
+            }
+            node.lhs = lhs;
+            node.rhs = rhs;
+            return node;
+        }
+        for (int i = 0, n = indexIntersectionNodes.size(); i < n; i++) {
+            if (indexIntersectionNodes.getQuick(i) == node) {
+                return null;
+            }
+        }
+        return node;
+    }
+
     private void restoreWhereClause(ExpressionNode node) {
         processNodeQueryModels(node, RESTORE_WHERE_CLAUSE);
     }
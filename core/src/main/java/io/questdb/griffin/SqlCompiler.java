@@ -24,6 +24,8 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.model.ExecutionModel;
 import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.griffin.model.QueryModel;
@@ -37,6 +39,8 @@ public interface SqlCompiler extends QuietCloseable, Mutable {
 
     void compileBatch(CharSequence queryText, SqlExecutionContext sqlExecutionContext, BatchCallback batchCallback) throws Exception;
 
+    Function compileFilter(CharSequence expression, RecordMetadata metadata, SqlExecutionContext executionContext) throws SqlException;
+
     QueryBuilder query();
 
     @TestOnly
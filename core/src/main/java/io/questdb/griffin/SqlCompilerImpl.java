@@ -306,6 +306,36 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         }
     }
 
+    /**
+     * Compiles standalone boolean expression, e.g. the text that would follow WHERE keyword,
+     * against the supplied metadata. The expression is not optimised in any way, columns are
+     * resolved by name directly against the metadata. The caller owns the returned function.
+     *
+     * @param expression       - boolean expression text
+     * @param metadata         - metadata of the record the filter will be evaluated on
+     * @param executionContext - SQL execution context
+     * @return filter function
+     * @throws SqlException when expression is empty, malformed or not boolean
+     */
+    @Override
+    public Function compileFilter(
+            @NotNull CharSequence expression,
+            @NotNull RecordMetadata metadata,
+            @NotNull SqlExecutionContext executionContext
+    ) throws SqlException {
+        clear();
+        lexer.of(expression);
+        final ExpressionNode node = parser.expr(lexer, (QueryModel) null, this);
+        if (node == null) {
+            throw SqlException.$(0, "filter expression expected");
+        }
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok != null) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put(']');
+        }
+        return codeGenerator.compileBooleanFilter(node, metadata, executionContext);
+    }
+
     public CairoEngine getEngine() {
         return engine;
     }
@@ -1368,6 +1398,30 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         );
     }
 
+    private RecordCursorFactory compileCopyExport(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
+        assert model.isExport();
+
+        final ExpressionNode target = model.getTarget();
+        final TableToken tableToken = tableExistsOrFail(target.position, GenericLexer.unquote(target.token), executionContext);
+        // the query below checks SELECT permission, export also writes to the server file system
+        executionContext.getSecurityContext().authorizeCopyExport(tableToken);
+        final ExpressionNode fileNameNode = model.getFileName();
+        final int fileNamePosition = fileNameNode.position;
+        // file name token is backed by lexer, which is reused by the query below
+        final String fileName = Chars.toString(GenericLexer.assertNoDots(GenericLexer.unquote(fileNameNode.token), fileNamePosition));
+
+        final RecordCursorFactory factory = query()
+                .$("select * from '")
+                .$(tableToken.getTableName())
+                .$("'")
+                .compile(executionContext).getRecordCursorFactory();
+        if (!factory.supportsPageFrameCursor()) {
+            Misc.free(factory);
+            throw SqlException.$(target.position, "table does not support export");
+        }
+        return new CopyExportFactory(configuration, factory, fileName, fileNamePosition);
+    }
+
     private void compileDeallocate(SqlExecutionContext executionContext) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -1555,6 +1609,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             final RecordCursorFactory copyFactory;
             if (copyModel.isCancel()) {
                 copyFactory = compileCopyCancel(executionContext, copyModel);
+            } else if (copyModel.isExport()) {
+                copyFactory = compileCopyExport(executionContext, copyModel);
             } else {
                 copyFactory = compileCopy(executionContext.getSecurityContext(), copyModel);
             }
@@ -34,6 +34,7 @@ import io.questdb.griffin.engine.table.ShowColumnsRecordCursorFactory;
 import io.questdb.griffin.engine.table.ShowPartitionsRecordCursorFactory;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.FlyweightCharSequence;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
@@ -266,6 +267,56 @@ public class SqlOptimiser implements Mutable {
         return false;
     }
 
+    /**
+     * Returns the number of minutes "sample by" buckets are shifted by relative to UTC-aligned
+     * timestamp_floor() buckets, or Integer.MIN_VALUE when the shift cannot be expressed that way.
+     * Fixed-offset time zones fold into the shift together with the "with offset" value. Named
+     * time zones are left to the sampler, which has its own handling of DST transitions. Month and
+     * year samplers anchor the offset within the calendar month, which fixed-width shifting does
+     * not reproduce either.
+     */
+    private static int sampleByShiftMinutes(ExpressionNode sampleBy, ExpressionNode sampleByOffset, ExpressionNode sampleByTimezoneName) {
+        int tzMinutes = 0;
+        if (sampleByTimezoneName != null && !SqlKeywords.isUTC(sampleByTimezoneName.token)) {
+            if (sampleByTimezoneName.type != CONSTANT || !Chars.isQuoted(sampleByTimezoneName.token)) {
+                return Integer.MIN_VALUE;
+            }
+            final long tzOffset = Timestamps.parseOffset(GenericLexer.unquote(sampleByTimezoneName.token));
+            if (tzOffset == Numbers.LONG_NaN) {
+                return Integer.MIN_VALUE;
+            }
+            tzMinutes = Numbers.decodeLowInt(tzOffset);
+        }
+
+        int offsetMinutes = 0;
+        if (!SqlKeywords.isZeroOffset(sampleByOffset.token)) {
+            if (sampleByOffset.type != CONSTANT) {
+                return Integer.MIN_VALUE;
+            }
+            final long offset = Timestamps.parseOffset(GenericLexer.unquote(sampleByOffset.token));
+            if (offset == Numbers.LONG_NaN) {
+                return Integer.MIN_VALUE;
+            }
+            offsetMinutes = Numbers.decodeLowInt(offset);
+        }
+
+        if (offsetMinutes == tzMinutes) {
+            return 0;
+        }
+
+        switch (sampleBy.token.charAt(sampleBy.token.length() - 1)) {
+            case 'U':
+            case 'T':
+            case 's':
+            case 'm':
+            case 'h':
+            case 'd':
+                return offsetMinutes - tzMinutes;
+            default:
+                return Integer.MIN_VALUE;
+        }
+    }
+
     private static void unlinkDependencies(QueryModel model, int parent, int child) {
         model.getJoinModels().getQuick(parent).removeDependency(child);
     }
@@ -2638,6 +2689,18 @@ public class SqlOptimiser implements Mutable {
         return SqlUtil.nextColumn(queryColumnPool, expressionNodePool, alias, column);
     }
 
+    private ExpressionNode nextDateAddMinutes(int minutes, ExpressionNode timestamp) {
+        final ExpressionNode node = expressionNodePool.next().of(FUNCTION, "dateadd", 0, timestamp.position);
+        node.paramCount = 3;
+        // function arguments are stored in reverse order
+        node.args.add(timestamp);
+        CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
+        characterStoreEntry.put(minutes);
+        node.args.add(expressionNodePool.next().of(CONSTANT, characterStoreEntry.toImmutable(), 0, timestamp.position));
+        node.args.add(expressionNodePool.next().of(CONSTANT, "'m'", 0, timestamp.position));
+        return node;
+    }
+
     private ExpressionNode nextLiteral(CharSequence token, int position) {
         return SqlUtil.nextLiteral(expressionNodePool, token, position);
     }
@@ -4414,7 +4477,8 @@ public class SqlOptimiser implements Mutable {
             if (
                     sampleBy != null
                             && timestamp != null
-                            && (sampleByOffset != null && SqlKeywords.isZeroOffset(sampleByOffset.token) && (sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token)))
+                            && sampleByOffset != null
+                            && sampleByShiftMinutes(sampleBy, sampleByOffset, sampleByTimezoneName) != Integer.MIN_VALUE
                             && (sampleByFill.size() == 0 || (sampleByFill.size() == 1 && SqlKeywords.isNoneKeyword(sampleByFill.getQuick(0).token)))
                             && sampleByUnit == null
             ) {
@@ -4567,16 +4631,26 @@ public class SqlOptimiser implements Mutable {
                 rhs.paramCount = 0;
                 rhs.type = LITERAL;
 
+                // Buckets start at "offset" minutes past local time boundaries. With a fixed-offset
+                // time zone both shifts fold into one, and the bucket key becomes:
+                // dateadd('m', shift, timestamp_floor(unit, dateadd('m', -shift, ts)))
+                final int shiftMinutes = sampleByShiftMinutes(sampleBy, sampleByOffset, sampleByTimezoneName);
+                ExpressionNode bucket = top;
                 top.lhs = lhs;
-                top.rhs = rhs;
+                if (shiftMinutes != 0) {
+                    top.rhs = nextDateAddMinutes(-shiftMinutes, rhs);
+                    bucket = nextDateAddMinutes(shiftMinutes, top);
+                } else {
+                    top.rhs = rhs;
+                }
 
                 model.getBottomUpColumns().setQuick(
                         timestampPos,
-                        queryColumnPool.next().of(timestampAlias, top)
+                        queryColumnPool.next().of(timestampAlias, bucket)
                 );
 
                 if (timestampOnly || nested.getGroupBy().size() > 0) {
-                    nested.addGroupBy(top);
+                    nested.addGroupBy(bucket);
                 }
 
                 // check if order by is already present
@@ -438,6 +438,24 @@ public class SqlParser {
             return model;
         }
 
+        if (isToKeyword(tok)) {
+            final ExpressionNode fileName = expectExpr(lexer, sqlParserCallback);
+            if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
+                throw SqlException.$(fileName.position, "file name expected");
+            }
+
+            CopyModel model = copyModelPool.next();
+            model.setTarget(target);
+            model.setFileName(fileName);
+            model.setExport(true);
+
+            tok = optTok(lexer);
+            if (tok != null && !isSemicolon(tok)) {
+                throw SqlException.unexpectedToken(lexer.lastTokenPosition(), tok);
+            }
+            return model;
+        }
+
         if (isFromKeyword(tok)) {
             final ExpressionNode fileName = expectExpr(lexer, sqlParserCallback);
             if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
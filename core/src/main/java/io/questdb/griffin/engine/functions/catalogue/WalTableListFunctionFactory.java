@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.wal.seq.TableTransactionLogFile;
+import io.questdb.cairo.wal.seq.TransactionLogCursor;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
@@ -47,6 +48,7 @@ public class WalTableListFunctionFactory implements FunctionFactory {
     private static final Log LOG = LogFactory.getLog(WalTableListFunctionFactory.class);
     private static final RecordMetadata METADATA;
     private static final String SIGNATURE = "wal_tables()";
+    private static final int applyLagMicrosColumn;
     private static final int nameColumn;
     private static final int sequencerTxnColumn;
     private static final int suspendedColumn;
@@ -173,6 +175,7 @@ public class WalTableListFunctionFactory implements FunctionFactory {
             }
 
             public class TableListRecord implements Record {
+                private long applyLagMicros;
                 private long sequencerTxn;
                 private boolean suspendedFlag;
                 private String tableName;
@@ -198,6 +201,9 @@ public class WalTableListFunctionFactory implements FunctionFactory {
                     if (col == sequencerTxnColumn) {
                         return sequencerTxn;
                     }
+                    if (col == applyLagMicrosColumn) {
+                        return applyLagMicros;
+                    }
                     return Numbers.LONG_NaN;
                 }
 
@@ -250,9 +256,18 @@ public class WalTableListFunctionFactory implements FunctionFactory {
                         TableUtils.safeReadTxn(txReader, millisecondClock, spinLockTimeout);
                         writerTxn = txReader.getSeqTxn();
                         writerLagTxnCount = txReader.getLagTxnCount();
+                        applyLagMicros = 0;
+                        if (sequencerTxn > writerTxn) {
+                            // age of the oldest commit not yet applied to the table
+                            try (TransactionLogCursor cursor = engine.getTableSequencerAPI().getCursor(tableToken, writerTxn)) {
+                                if (cursor.hasNext()) {
+                                    applyLagMicros = Math.max(0, engine.getConfiguration().getMicrosecondClock().getTicks() - cursor.getCommitTimestamp());
+                                }
+                            }
+                        }
                         return true;
                     } catch (CairoException ex) {
-                        if (ex.errnoReadPathDoesNotExist()) {
+                        if (ex.errnoReadPathDoesNotExist() || ex.isTableDropped()) {
                             return false;
                         }
                         throw ex;
@@ -274,6 +289,8 @@ public class WalTableListFunctionFactory implements FunctionFactory {
         writerLagTxnCountColumn = metadata.getColumnCount() - 1;
         metadata.add(new TableColumnMetadata("sequencerTxn", ColumnType.LONG));
         sequencerTxnColumn = metadata.getColumnCount() - 1;
+        metadata.add(new TableColumnMetadata("applyLagMicros", ColumnType.LONG));
+        applyLagMicrosColumn = metadata.getColumnCount() - 1;
         METADATA = metadata;
     }
 }
@@ -40,8 +40,10 @@ import org.jetbrains.annotations.NotNull;
  * We use an algorithm similar to B.P. Welford's which works by first aggregating sum of squares of
  * independent and dependent variables Sxy = sum[(X - meanX) * (Y - meanY)].
  * Computation of covariance is then simple, e.g. covariance = Sxy / (n - 1)
+ * Partial aggregates computed by parallel GROUP BY are combined with Chan's pairwise formula.
  *
  * @see <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Online">Welford's algorithm</a>
+ * @see <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Parallel_algorithm">Chan's parallel algorithm</a>
  */
 public abstract class AbstractCovarGroupByFunction extends DoubleFunction implements GroupByFunction, BinaryFunction {
     protected final Function xFunction;
@@ -110,6 +112,37 @@ public abstract class AbstractCovarGroupByFunction extends DoubleFunction implem
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 3);
+        if (srcCount == 0) {
+            return;
+        }
+        double srcMeanX = srcValue.getDouble(valueIndex);
+        double srcMeanY = srcValue.getDouble(valueIndex + 1);
+        double srcSumXY = srcValue.getDouble(valueIndex + 2);
+        long destCount = destValue.getLong(valueIndex + 3);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcMeanX);
+            destValue.putDouble(valueIndex + 1, srcMeanY);
+            destValue.putDouble(valueIndex + 2, srcSumXY);
+            destValue.putLong(valueIndex + 3, srcCount);
+            return;
+        }
+        double destMeanX = destValue.getDouble(valueIndex);
+        double destMeanY = destValue.getDouble(valueIndex + 1);
+        double destSumXY = destValue.getDouble(valueIndex + 2);
+
+        long count = destCount + srcCount;
+        double deltaX = srcMeanX - destMeanX;
+        double deltaY = srcMeanY - destMeanY;
+        double factor = (double) destCount * srcCount / count;
+        destValue.putDouble(valueIndex, destMeanX + deltaX * srcCount / count);
+        destValue.putDouble(valueIndex + 1, destMeanY + deltaY * srcCount / count);
+        destValue.putDouble(valueIndex + 2, destSumXY + srcSumXY + deltaX * deltaY * factor);
+        destValue.putLong(valueIndex + 3, count);
+    }
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex + 2, value);
@@ -126,7 +159,7 @@ public abstract class AbstractCovarGroupByFunction extends DoubleFunction implem
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return BinaryFunction.super.supportsParallelism();
     }
 
     protected void aggregate(MapValue mapValue, double x, double y) {
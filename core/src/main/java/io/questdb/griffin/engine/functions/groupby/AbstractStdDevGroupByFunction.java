@@ -39,8 +39,10 @@ import org.jetbrains.annotations.NotNull;
  * The abstract class, in addition, provides a method to aggregate univariate statistics.
  * We use the B.P. Welford algorithm which works by first aggregating sum of squares Sxx = sum[(X - mean) ^ 2].
  * Computation of standard deviation and variance is then simple (e.g. variance = Sxx / (n - 1), standard deviation = sqrt(variance))
+ * Partial aggregates computed by parallel GROUP BY are combined with Chan's pairwise formula.
  *
  * @see <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Welford's_online_algorithm">Welford's algorithm</a>
+ * @see <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Parallel_algorithm">Chan's parallel algorithm</a>
  */
 public abstract class AbstractStdDevGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
     protected final Function arg;
@@ -97,6 +99,33 @@ public abstract class AbstractStdDevGroupByFunction extends DoubleFunction imple
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 2);
+        if (srcCount == 0) {
+            return;
+        }
+        double srcMean = srcValue.getDouble(valueIndex);
+        double srcSum = srcValue.getDouble(valueIndex + 1);
+        long destCount = destValue.getLong(valueIndex + 2);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcMean);
+            destValue.putDouble(valueIndex + 1, srcSum);
+            destValue.putLong(valueIndex + 2, srcCount);
+            return;
+        }
+        double destMean = destValue.getDouble(valueIndex);
+        double destSum = destValue.getDouble(valueIndex + 1);
+
+        long count = destCount + srcCount;
+        double delta = srcMean - destMean;
+        // factor is computed in double to avoid long overflow on the counts product
+        double factor = (double) destCount * srcCount / count;
+        destValue.putDouble(valueIndex, destMean + delta * srcCount / count);
+        destValue.putDouble(valueIndex + 1, destSum + srcSum + delta * delta * factor);
+        destValue.putLong(valueIndex + 2, count);
+    }
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex, value);
@@ -112,7 +141,7 @@ public abstract class AbstractStdDevGroupByFunction extends DoubleFunction imple
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return UnaryFunction.super.supportsParallelism();
     }
 
     protected void aggregate(MapValue mapValue, double value) {
@@ -35,73 +35,64 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByLongHistogram;
 import io.questdb.std.Numbers;
-import io.questdb.std.ObjList;
-import io.questdb.std.histogram.org.HdrHistogram.Histogram;
 
 public class ApproxPercentileLongGroupByFunction extends DoubleFunction implements GroupByFunction, BinaryFunction {
     private final Function exprFunc;
     private final int funcPosition;
-    private final ObjList<Histogram> histograms = new ObjList<>();
+    private final GroupByLongHistogram histogramA;
+    private final GroupByLongHistogram histogramB;
     private final Function percentileFunc;
-    private final int precision;
-    private int histogramIndex;
     private int valueIndex;
 
     public ApproxPercentileLongGroupByFunction(Function exprFunc, Function percentileFunc, int precision, int funcPosition) {
         assert precision >= 0 && precision <= 5;
         this.exprFunc = exprFunc;
         this.percentileFunc = percentileFunc;
-        this.precision = precision;
         this.funcPosition = funcPosition;
+        histogramA = new GroupByLongHistogram(precision);
+        histogramB = new GroupByLongHistogram(precision);
     }
 
     @Override
     public void clear() {
-        histograms.clear();
-        histogramIndex = 0;
+        histogramA.resetPtr();
+        histogramB.resetPtr();
     }
 
     @Override
     public void computeFirst(MapValue mapValue, Record record, long rowId) {
-        final Histogram histogram;
-        if (histograms.size() <= histogramIndex) {
-            // We pre-size the histogram for [1, 1000] range to avoid resizes in some basic use cases
-            // like CPU load percentile or latency in millis.
-            histograms.extendAndSet(histogramIndex, histogram = new Histogram(1, 1000, precision));
-            histogram.setAutoResize(true);
-        } else {
-            histogram = histograms.getQuick(histogramIndex);
-            histogram.reset();
-        }
-
         final long val = exprFunc.getLong(record);
         if (val != Numbers.LONG_NaN) {
-            histogram.recordValue(val);
+            histogramA.of(0).recordValue(val);
+            mapValue.putLong(valueIndex, histogramA.ptr());
+        } else {
+            mapValue.putLong(valueIndex, 0);
         }
-        mapValue.putLong(valueIndex, histogramIndex++);
     }
 
     @Override
     public void computeNext(MapValue mapValue, Record record, long rowId) {
-        final Histogram histogram = histograms.getQuick(mapValue.getInt(valueIndex));
         final long val = exprFunc.getLong(record);
         if (val != Numbers.LONG_NaN) {
-            histogram.recordValue(val);
+            histogramA.of(mapValue.getLong(valueIndex)).recordValue(val);
+            mapValue.putLong(valueIndex, histogramA.ptr());
         }
     }
 
     @Override
     public double getDouble(Record rec) {
-        if (histograms.size() == 0) {
+        final long ptr = rec.getLong(valueIndex);
+        if (ptr == 0) {
             return Double.NaN;
         }
-
-        final Histogram histogram = histograms.getQuick(rec.getInt(valueIndex));
-        if (histogram.getTotalCount() == 0) {
+        histogramA.of(ptr);
+        if (histogramA.totalCount() == 0) {
             return Double.NaN;
         }
-        return histogram.getValueAtPercentile(percentileFunc.getDouble(null) * 100);
+        return histogramA.valueAtPercentile(percentileFunc.getDouble(null) * 100);
     }
 
     @Override
@@ -142,7 +133,7 @@ public class ApproxPercentileLongGroupByFunction extends DoubleFunction implemen
     @Override
     public void initValueTypes(ArrayColumnTypes columnTypes) {
         valueIndex = columnTypes.getColumnCount();
-        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.LONG); // GroupByLongHistogram pointer
     }
 
     @Override
@@ -155,18 +146,39 @@ public class ApproxPercentileLongGroupByFunction extends DoubleFunction implemen
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcPtr = srcValue.getLong(valueIndex);
+        if (srcPtr == 0) {
+            return;
+        }
+        final long destPtr = destValue.getLong(valueIndex);
+        if (destPtr == 0) {
+            destValue.putLong(valueIndex, srcPtr);
+            return;
+        }
+        histogramA.of(destPtr).merge(histogramB.of(srcPtr));
+        destValue.putLong(valueIndex, histogramA.ptr());
+    }
+
+    @Override
+    public void setAllocator(GroupByAllocator allocator) {
+        histogramA.setAllocator(allocator);
+        histogramB.setAllocator(allocator);
+    }
+
     @Override
     public void setEmpty(MapValue mapValue) {
-        mapValue.putLong(valueIndex, 0L);
+        mapValue.putLong(valueIndex, 0);
     }
 
     @Override
     public void setNull(MapValue mapValue) {
-        mapValue.putLong(valueIndex, Numbers.LONG_NaN);
+        mapValue.putLong(valueIndex, 0);
     }
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return BinaryFunction.super.supportsParallelism();
     }
 }
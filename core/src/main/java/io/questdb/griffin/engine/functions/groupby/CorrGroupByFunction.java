@@ -39,8 +39,10 @@ import org.jetbrains.annotations.NotNull;
  * We use an algorithm similar to B.P. Welford's which works by first aggregating sum of squares of
  * independent and dependent variables Sxx = sum[(X - meanX) ^ 2], Syy = sum[(Y - meanY) ^ 2], Sxy = sum[(X - meanX) * (Y - meanY)].
  * Computation of correlation is then simple, e.g. correlation = Sxy / sqrt(Sxx * Syy)
+ * Partial aggregates computed by parallel GROUP BY are combined with Chan's pairwise formula.
  *
  * @see <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Online">Welford's algorithm</a>
+ * @see <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Parallel_algorithm">Chan's parallel algorithm</a>
  */
 public class CorrGroupByFunction extends DoubleFunction implements GroupByFunction, BinaryFunction {
     protected final Function xFunction;
@@ -133,6 +135,45 @@ public class CorrGroupByFunction extends DoubleFunction implements GroupByFuncti
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 5);
+        if (srcCount == 0) {
+            return;
+        }
+        double srcMeanX = srcValue.getDouble(valueIndex);
+        double srcSumX = srcValue.getDouble(valueIndex + 1);
+        double srcMeanY = srcValue.getDouble(valueIndex + 2);
+        double srcSumY = srcValue.getDouble(valueIndex + 3);
+        double srcSumXY = srcValue.getDouble(valueIndex + 4);
+        long destCount = destValue.getLong(valueIndex + 5);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcMeanX);
+            destValue.putDouble(valueIndex + 1, srcSumX);
+            destValue.putDouble(valueIndex + 2, srcMeanY);
+            destValue.putDouble(valueIndex + 3, srcSumY);
+            destValue.putDouble(valueIndex + 4, srcSumXY);
+            destValue.putLong(valueIndex + 5, srcCount);
+            return;
+        }
+        double destMeanX = destValue.getDouble(valueIndex);
+        double destSumX = destValue.getDouble(valueIndex + 1);
+        double destMeanY = destValue.getDouble(valueIndex + 2);
+        double destSumY = destValue.getDouble(valueIndex + 3);
+        double destSumXY = destValue.getDouble(valueIndex + 4);
+
+        long count = destCount + srcCount;
+        double deltaX = srcMeanX - destMeanX;
+        double deltaY = srcMeanY - destMeanY;
+        double factor = (double) destCount * srcCount / count;
+        destValue.putDouble(valueIndex, destMeanX + deltaX * srcCount / count);
+        destValue.putDouble(valueIndex + 1, destSumX + srcSumX + deltaX * deltaX * factor);
+        destValue.putDouble(valueIndex + 2, destMeanY + deltaY * srcCount / count);
+        destValue.putDouble(valueIndex + 3, destSumY + srcSumY + deltaY * deltaY * factor);
+        destValue.putDouble(valueIndex + 4, destSumXY + srcSumXY + deltaX * deltaY * factor);
+        destValue.putLong(valueIndex + 5, count);
+    }
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex + 4, value);
@@ -151,7 +192,7 @@ public class CorrGroupByFunction extends DoubleFunction implements GroupByFuncti
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return BinaryFunction.super.supportsParallelism();
     }
 
     protected void aggregate(MapValue mapValue, double x, double y) {
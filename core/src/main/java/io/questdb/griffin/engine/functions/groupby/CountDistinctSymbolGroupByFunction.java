@@ -37,62 +37,56 @@ import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.griffin.engine.functions.columns.SymbolColumn;
-import io.questdb.std.BitSet;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByBitSet;
 import io.questdb.std.Numbers;
-import io.questdb.std.ObjList;
 
 import static io.questdb.cairo.sql.SymbolTable.VALUE_IS_NULL;
 
 public class CountDistinctSymbolGroupByFunction extends LongFunction implements UnaryFunction, GroupByFunction {
     private final Function arg;
-    private final int setInitialCapacity;
-    private final ObjList<BitSet> sets = new ObjList<>();
+    private final GroupByBitSet setA;
+    private final GroupByBitSet setB;
     private int knownSymbolCount = -1;
-    private int setIndex;
     private int valueIndex;
 
     public CountDistinctSymbolGroupByFunction(Function arg, int setInitialCapacity) {
         this.arg = arg;
-        this.setInitialCapacity = setInitialCapacity * BitSet.BITS_PER_WORD;
+        setA = new GroupByBitSet(setInitialCapacity * GroupByBitSet.BITS_PER_WORD);
+        setB = new GroupByBitSet(setInitialCapacity * GroupByBitSet.BITS_PER_WORD);
     }
 
     @Override
     public void clear() {
-        sets.clear();
-        setIndex = 0;
+        setA.resetPtr();
+        setB.resetPtr();
         knownSymbolCount = -1;
     }
 
     @Override
     public void computeFirst(MapValue mapValue, Record record, long rowId) {
-        final BitSet set;
-        if (sets.size() <= setIndex) {
-            sets.extendAndSet(setIndex, set = new BitSet(setInitialCapacity));
-        } else {
-            set = sets.getQuick(setIndex);
-            set.clear();
-        }
-
         final int val = arg.getInt(record);
         if (val != VALUE_IS_NULL) {
-            set.set(val);
-            mapValue.putLong(valueIndex, 1L);
+            mapValue.putLong(valueIndex, 1);
+            setA.of(0).set(val);
+            mapValue.putLong(valueIndex + 1, setA.ptr());
         } else {
-            mapValue.putLong(valueIndex, 0L);
+            mapValue.putLong(valueIndex, 0);
+            mapValue.putLong(valueIndex + 1, 0);
         }
-        mapValue.putInt(valueIndex + 1, setIndex++);
     }
 
     @Override
     public void computeNext(MapValue mapValue, Record record, long rowId) {
-        final BitSet set = sets.getQuick(mapValue.getInt(valueIndex + 1));
         final int val = arg.getInt(record);
         if (val != VALUE_IS_NULL) {
-            if (set.get(val)) {
+            final long ptr = mapValue.getLong(valueIndex + 1);
+            if (setA.of(ptr).get(val)) {
                 return;
             }
-            set.set(val);
+            setA.set(val);
             mapValue.addLong(valueIndex, 1);
+            mapValue.putLong(valueIndex + 1, setA.ptr());
         }
     }
 
@@ -142,9 +136,9 @@ public class CountDistinctSymbolGroupByFunction extends LongFunction implements
 
     @Override
     public void initValueTypes(ArrayColumnTypes columnTypes) {
-        this.valueIndex = columnTypes.getColumnCount();
-        columnTypes.add(ColumnType.LONG);
-        columnTypes.add(ColumnType.INT);
+        valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG); // count
+        columnTypes.add(ColumnType.LONG); // GroupByBitSet pointer
     }
 
     @Override
@@ -162,29 +156,61 @@ public class CountDistinctSymbolGroupByFunction extends LongFunction implements
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex);
+        if (srcCount == 0 || srcCount == Numbers.LONG_NaN) {
+            return;
+        }
+        long srcPtr = srcValue.getLong(valueIndex + 1);
+
+        long destCount = destValue.getLong(valueIndex);
+        if (destCount == 0 || destCount == Numbers.LONG_NaN) {
+            destValue.putLong(valueIndex, srcCount);
+            destValue.putLong(valueIndex + 1, srcPtr);
+            return;
+        }
+        long destPtr = destValue.getLong(valueIndex + 1);
+
+        setA.of(destPtr);
+        setB.of(srcPtr);
+        setA.merge(setB);
+        destValue.putLong(valueIndex, setA.cardinality());
+        destValue.putLong(valueIndex + 1, setA.ptr());
+    }
+
+    @Override
+    public void setAllocator(GroupByAllocator allocator) {
+        setA.setAllocator(allocator);
+        setB.setAllocator(allocator);
+    }
+
     @Override
     public void setEmpty(MapValue mapValue) {
         mapValue.putLong(valueIndex, 0L);
+        mapValue.putLong(valueIndex + 1, 0);
     }
 
     @Override
     public void setLong(MapValue mapValue, long value) {
         mapValue.putLong(valueIndex, value);
+        mapValue.putLong(valueIndex + 1, 0);
     }
 
     @Override
     public void setNull(MapValue mapValue) {
         mapValue.putLong(valueIndex, Numbers.LONG_NaN);
+        mapValue.putLong(valueIndex + 1, 0);
     }
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        // Symbol keys are consistent across workers only when they come from the table's symbol table.
+        return arg instanceof SymbolColumn && UnaryFunction.super.supportsParallelism();
     }
 
     @Override
     public void toTop() {
         UnaryFunction.super.toTop();
-        setIndex = 0;
     }
 }
@@ -108,6 +108,34 @@ public class KSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 2);
+        if (srcCount == 0) {
+            return;
+        }
+        double srcSum = srcValue.getDouble(valueIndex);
+        double srcC = srcValue.getDouble(valueIndex + 1);
+        if (destValue.getLong(valueIndex + 2) == 0) {
+            destValue.putDouble(valueIndex, srcSum);
+            destValue.putDouble(valueIndex + 1, srcC);
+            destValue.putLong(valueIndex + 2, srcCount);
+            return;
+        }
+        // the compensated source value is (srcSum - srcC), add both parts as Kahan steps
+        double sum = destValue.getDouble(valueIndex);
+        double c = destValue.getDouble(valueIndex + 1);
+        double y = srcSum - c;
+        double t = sum + y;
+        c = t - sum - y;
+        sum = t;
+        y = -srcC - c;
+        t = sum + y;
+        destValue.putDouble(valueIndex, t);
+        destValue.putDouble(valueIndex + 1, t - sum - y);
+        destValue.addLong(valueIndex + 2, srcCount);
+    }
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex, value);
@@ -122,6 +150,6 @@ public class KSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return UnaryFunction.super.supportsParallelism();
     }
 }
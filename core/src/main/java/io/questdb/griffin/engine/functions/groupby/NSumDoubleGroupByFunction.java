@@ -99,6 +99,25 @@ public class NSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 2);
+        if (srcCount == 0) {
+            return;
+        }
+        double srcSum = srcValue.getDouble(valueIndex);
+        double srcC = srcValue.getDouble(valueIndex + 1);
+        if (destValue.getLong(valueIndex + 2) == 0) {
+            destValue.putDouble(valueIndex, srcSum);
+            destValue.putDouble(valueIndex + 1, srcC);
+            destValue.putLong(valueIndex + 2, srcCount);
+            return;
+        }
+        // Neumaier step over the source sum, the compensations of both sides simply add up
+        sum(destValue, srcSum, destValue.getDouble(valueIndex), destValue.getDouble(valueIndex + 1) + srcC);
+        destValue.addLong(valueIndex + 2, srcCount);
+    }
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex, value);
@@ -113,7 +132,7 @@ public class NSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return UnaryFunction.super.supportsParallelism();
     }
 
     @Override
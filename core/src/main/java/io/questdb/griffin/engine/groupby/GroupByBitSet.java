@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Specialized flyweight bit set used in {@link io.questdb.griffin.engine.functions.GroupByFunction}s.
+ * <p>
+ * Uses provided {@link GroupByAllocatorImpl} to allocate the underlying buffer. Grows the buffer when needed.
+ * <p>
+ * Buffer layout is the following:
+ * <pre>
+ * | capacity (in words) | padding | long array |
+ * +---------------------+---------+------------+
+ * |       4 bytes       | 4 bytes |     -      |
+ * +---------------------+---------+------------+
+ * </pre>
+ */
+public class GroupByBitSet {
+    public static final int BITS_PER_WORD = 64;
+    private static final long HEADER_SIZE = 2 * Integer.BYTES;
+    private final int initialCapacity;
+    private GroupByAllocator allocator;
+    private long ptr;
+
+    /**
+     * @param initialCapacity initial capacity in bits.
+     */
+    public GroupByBitSet(int initialCapacity) {
+        this.initialCapacity = wordIndex(Math.max(initialCapacity, BITS_PER_WORD) - 1) + 1;
+    }
+
+    /**
+     * Returns capacity in bits.
+     */
+    public int capacity() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr) * BITS_PER_WORD : 0;
+    }
+
+    /**
+     * Returns number of set bits.
+     */
+    public long cardinality() {
+        long count = 0;
+        for (int i = 0, n = words(); i < n; i++) {
+            count += Long.bitCount(wordAt(i));
+        }
+        return count;
+    }
+
+    public boolean get(int bitIndex) {
+        assert bitIndex >= 0;
+        final int wordIndex = wordIndex(bitIndex);
+        return wordIndex < words() && (wordAt(wordIndex) & 1L << bitIndex) != 0L;
+    }
+
+    /**
+     * Sets all bits present in the source set.
+     */
+    public void merge(GroupByBitSet srcSet) {
+        final int srcWords = srcSet.words();
+        checkCapacity(srcWords);
+        for (int i = 0; i < srcWords; i++) {
+            final long p = ptr + HEADER_SIZE + 8L * i;
+            Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) | srcSet.wordAt(i));
+        }
+    }
+
+    public GroupByBitSet of(long ptr) {
+        if (ptr == 0) {
+            this.ptr = allocator.malloc(HEADER_SIZE + 8L * initialCapacity);
+            Vect.memset(this.ptr + HEADER_SIZE, 8L * initialCapacity, 0);
+            Unsafe.getUnsafe().putInt(this.ptr, initialCapacity);
+        } else {
+            this.ptr = ptr;
+        }
+        return this;
+    }
+
+    public long ptr() {
+        return ptr;
+    }
+
+    public void resetPtr() {
+        ptr = 0;
+    }
+
+    public void set(int bitIndex) {
+        assert bitIndex >= 0;
+        final int wordIndex = wordIndex(bitIndex);
+        checkCapacity(wordIndex + 1);
+        final long p = ptr + HEADER_SIZE + 8L * wordIndex;
+        Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) | 1L << bitIndex);
+    }
+
+    public void setAllocator(GroupByAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> 6;
+    }
+
+    private void checkCapacity(int wordsRequired) {
+        final int words = words();
+        if (words < wordsRequired) {
+            final int newWords = Math.max(2 * words, wordsRequired);
+            ptr = allocator.realloc(ptr, HEADER_SIZE + 8L * words, HEADER_SIZE + 8L * newWords);
+            Vect.memset(ptr + HEADER_SIZE + 8L * words, 8L * (newWords - words), 0);
+            Unsafe.getUnsafe().putInt(ptr, newWords);
+        }
+    }
+
+    private long wordAt(int index) {
+        return Unsafe.getUnsafe().getLong(ptr + HEADER_SIZE + 8L * index);
+    }
+
+    private int words() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr) : 0;
+    }
+}
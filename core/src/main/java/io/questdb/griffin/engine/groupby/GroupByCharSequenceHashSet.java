@@ -0,0 +1,271 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.Chars;
+import io.questdb.std.Hash;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Specialized flyweight hash set used in {@link io.questdb.griffin.engine.functions.GroupByFunction}s.
+ * <p>
+ * Uses provided {@link GroupByAllocatorImpl} to allocate the underlying buffer and key copies.
+ * Grows the buffer when needed.
+ * <p>
+ * Buffer layout is the following:
+ * <pre>
+ * | capacity (in entries) | size (in entries) | size limit (in entries) | padding | entry array |
+ * +-----------------------+-------------------+-------------------------+---------+-------------+
+ * |        4 bytes        |      4 bytes      |         4 bytes         | 4 bytes |      -      |
+ * +-----------------------+-------------------+-------------------------+---------+-------------+
+ * </pre>
+ * Each entry is a pair of key pointer (8 bytes) and key hash code (8 bytes). Zero key pointer
+ * stands for an empty entry. Keys are copied into the allocator memory with the following layout:
+ * <pre>
+ * | length (in chars) | char array |
+ * +-------------------+------------+
+ * |      4 bytes      |     -      |
+ * +-------------------+------------+
+ * </pre>
+ * Merge doesn't copy keys, so the merged set references the source set's key memory. That's fine
+ * as long as both sets are allocated with the same allocator.
+ */
+public class GroupByCharSequenceHashSet {
+    private static final long ENTRY_SIZE = 2 * Long.BYTES;
+    private static final long HEADER_SIZE = 4 * Integer.BYTES;
+    private static final long KEY_HEADER_SIZE = Integer.BYTES;
+    private static final int MIN_INITIAL_CAPACITY = 16;
+    private static final long SIZE_LIMIT_OFFSET = 2 * Integer.BYTES;
+    private static final long SIZE_OFFSET = Integer.BYTES;
+    private final int initialCapacity;
+    private final double loadFactor;
+    private GroupByAllocator allocator;
+    private int mask;
+    private long ptr;
+
+    public GroupByCharSequenceHashSet(int initialCapacity, double loadFactor) {
+        if (loadFactor <= 0d || loadFactor >= 1d) {
+            throw new IllegalArgumentException("0 < loadFactor < 1");
+        }
+        this.initialCapacity = Numbers.ceilPow2((int) (Math.max(initialCapacity, MIN_INITIAL_CAPACITY) / loadFactor));
+        this.loadFactor = loadFactor;
+    }
+
+    /**
+     * Adds key to hash set preserving key uniqueness.
+     *
+     * @param key key to be added.
+     * @return false if key is already in the set and true otherwise.
+     */
+    public boolean add(@NotNull CharSequence key) {
+        int index = keyIndex(key);
+        if (index < 0) {
+            return false;
+        }
+        addAt(index, key);
+        return true;
+    }
+
+    public void addAt(int index, @NotNull CharSequence key) {
+        final int len = key.length();
+        final long keyPtr = allocator.malloc(KEY_HEADER_SIZE + 2L * len);
+        Unsafe.getUnsafe().putInt(keyPtr, len);
+        for (int i = 0; i < len; i++) {
+            Unsafe.getUnsafe().putChar(keyPtr + KEY_HEADER_SIZE + 2L * i, key.charAt(i));
+        }
+        addEntryAt(index, keyPtr, Chars.hashCode(key));
+    }
+
+    public int capacity() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr) : 0;
+    }
+
+    public int keyIndex(@NotNull CharSequence key) {
+        final int hashCode = Chars.hashCode(key);
+        int index = Hash.spread(hashCode) & mask;
+        do {
+            final long entryPtr = entryPtr(index);
+            final long keyPtr = Unsafe.getUnsafe().getLong(entryPtr);
+            if (keyPtr == 0) {
+                return index;
+            }
+            if (hashCode == Unsafe.getUnsafe().getLong(entryPtr + Long.BYTES) && equals(keyPtr, key)) {
+                return -index - 1;
+            }
+            index = (index + 1) & mask;
+        } while (true);
+    }
+
+    public void merge(GroupByCharSequenceHashSet srcSet) {
+        final int size = size();
+        // Math.max is here for overflow protection.
+        final int newSize = Math.max(size + srcSet.size(), size);
+        final int sizeLimit = sizeLimit();
+        if (sizeLimit < newSize) {
+            int newSizeLimit = sizeLimit;
+            int newCapacity = capacity();
+            while (newSizeLimit < newSize) {
+                newSizeLimit *= 2;
+                newCapacity *= 2;
+            }
+            rehash(newCapacity, newSizeLimit);
+        }
+
+        for (long p = srcSet.ptr + HEADER_SIZE, lim = srcSet.ptr + HEADER_SIZE + ENTRY_SIZE * srcSet.capacity(); p < lim; p += ENTRY_SIZE) {
+            final long keyPtr = Unsafe.getUnsafe().getLong(p);
+            if (keyPtr != 0) {
+                final int hashCode = (int) Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                final int index = keyIndex(keyPtr, hashCode);
+                if (index >= 0) {
+                    addEntryAt(index, keyPtr, hashCode);
+                }
+            }
+        }
+    }
+
+    public GroupByCharSequenceHashSet of(long ptr) {
+        if (ptr == 0) {
+            this.ptr = allocator.malloc(HEADER_SIZE + ENTRY_SIZE * initialCapacity);
+            Vect.memset(this.ptr + HEADER_SIZE, ENTRY_SIZE * initialCapacity, 0);
+            Unsafe.getUnsafe().putInt(this.ptr, initialCapacity);
+            Unsafe.getUnsafe().putInt(this.ptr + SIZE_OFFSET, 0);
+            Unsafe.getUnsafe().putInt(this.ptr + SIZE_LIMIT_OFFSET, (int) (initialCapacity * loadFactor));
+            mask = initialCapacity - 1;
+        } else {
+            this.ptr = ptr;
+            mask = capacity() - 1;
+        }
+        return this;
+    }
+
+    public long ptr() {
+        return ptr;
+    }
+
+    public void resetPtr() {
+        ptr = 0;
+    }
+
+    public void setAllocator(GroupByAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public int size() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr + SIZE_OFFSET) : 0;
+    }
+
+    public int sizeLimit() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr + SIZE_LIMIT_OFFSET) : 0;
+    }
+
+    private static boolean equals(long keyPtr, CharSequence key) {
+        final int len = key.length();
+        if (Unsafe.getUnsafe().getInt(keyPtr) != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (Unsafe.getUnsafe().getChar(keyPtr + KEY_HEADER_SIZE + 2L * i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equals(long keyPtrA, long keyPtrB) {
+        final int len = Unsafe.getUnsafe().getInt(keyPtrA);
+        return len == Unsafe.getUnsafe().getInt(keyPtrB)
+                && Vect.memeq(keyPtrA + KEY_HEADER_SIZE, keyPtrB + KEY_HEADER_SIZE, 2L * len);
+    }
+
+    private void addEntryAt(int index, long keyPtr, int hashCode) {
+        setEntryAt(index, keyPtr, hashCode);
+        int size = size();
+        int sizeLimit = sizeLimit();
+        Unsafe.getUnsafe().putInt(ptr + SIZE_OFFSET, ++size);
+        if (size >= sizeLimit) {
+            rehash(capacity() << 1, sizeLimit << 1);
+        }
+    }
+
+    private long entryPtr(int index) {
+        return ptr + HEADER_SIZE + ENTRY_SIZE * index;
+    }
+
+    private int keyIndex(long keyPtr, int hashCode) {
+        int index = Hash.spread(hashCode) & mask;
+        do {
+            final long entryPtr = entryPtr(index);
+            final long k = Unsafe.getUnsafe().getLong(entryPtr);
+            if (k == 0) {
+                return index;
+            }
+            if (hashCode == Unsafe.getUnsafe().getLong(entryPtr + Long.BYTES) && equals(k, keyPtr)) {
+                return -index - 1;
+            }
+            index = (index + 1) & mask;
+        } while (true);
+    }
+
+    private void rehash(int newCapacity, int newSizeLimit) {
+        if (newCapacity < 0) {
+            throw CairoException.nonCritical().put("set capacity overflow");
+        }
+
+        final int oldSize = size();
+        final int oldCapacity = capacity();
+
+        long oldPtr = ptr;
+        ptr = allocator.malloc(ENTRY_SIZE * newCapacity + HEADER_SIZE);
+        Vect.memset(ptr + HEADER_SIZE, ENTRY_SIZE * newCapacity, 0);
+        Unsafe.getUnsafe().putInt(ptr, newCapacity);
+        Unsafe.getUnsafe().putInt(ptr + SIZE_OFFSET, oldSize);
+        Unsafe.getUnsafe().putInt(ptr + SIZE_LIMIT_OFFSET, newSizeLimit);
+        mask = newCapacity - 1;
+
+        for (long p = oldPtr + HEADER_SIZE, lim = oldPtr + HEADER_SIZE + ENTRY_SIZE * oldCapacity; p < lim; p += ENTRY_SIZE) {
+            final long keyPtr = Unsafe.getUnsafe().getLong(p);
+            if (keyPtr != 0) {
+                final int hashCode = (int) Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                int index = Hash.spread(hashCode) & mask;
+                while (Unsafe.getUnsafe().getLong(entryPtr(index)) != 0) {
+                    index = (index + 1) & mask;
+                }
+                setEntryAt(index, keyPtr, hashCode);
+            }
+        }
+
+        allocator.free(oldPtr, HEADER_SIZE + ENTRY_SIZE * oldCapacity);
+    }
+
+    private void setEntryAt(int index, long keyPtr, int hashCode) {
+        final long entryPtr = entryPtr(index);
+        Unsafe.getUnsafe().putLong(entryPtr, keyPtr);
+        Unsafe.getUnsafe().putLong(entryPtr + Long.BYTES, hashCode);
+    }
+}
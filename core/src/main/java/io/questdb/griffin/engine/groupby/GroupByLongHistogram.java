@@ -0,0 +1,211 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Specialized flyweight histogram used in {@link io.questdb.griffin.engine.functions.GroupByFunction}s.
+ * Counts are laid out the same way as in an auto-resizing HdrHistogram {@code Histogram} with
+ * lowest discernible value of 1, so that percentiles computed over both match.
+ * <p>
+ * Uses provided {@link GroupByAllocator} to allocate the underlying buffer. Grows the buffer
+ * one bucket at a time, when a recorded value doesn't fit in the current counts array.
+ * <p>
+ * Buffer layout is the following:
+ * <pre>
+ * | counts length (in longs) | padding | total count | long array |
+ * +--------------------------+---------+-------------+------------+
+ * |         4 bytes          | 4 bytes |   8 bytes   |     -      |
+ * +--------------------------+---------+-------------+------------+
+ * </pre>
+ */
+public class GroupByLongHistogram {
+    private static final long HEADER_SIZE = 2 * Long.BYTES;
+    private static final long TOTAL_COUNT_OFFSET = Long.BYTES;
+    private final int leadingZeroCountBase;
+    private final int subBucketCount;
+    private final int subBucketHalfCount;
+    private final int subBucketHalfCountMagnitude;
+    private final long subBucketMask;
+    private GroupByAllocator allocator;
+    private long ptr;
+
+    public GroupByLongHistogram(int numberOfSignificantValueDigits) {
+        if (numberOfSignificantValueDigits < 0 || numberOfSignificantValueDigits > 5) {
+            throw new IllegalArgumentException("numberOfSignificantValueDigits must be between 0 and 5");
+        }
+        // We need single unit resolution up to 2 * 10^digits, see AbstractHistogram.
+        final long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, numberOfSignificantValueDigits);
+        final int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestValueWithSingleUnitResolution) / Math.log(2));
+        subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        subBucketCount = 1 << subBucketCountMagnitude;
+        subBucketHalfCount = subBucketCount / 2;
+        subBucketMask = subBucketCount - 1;
+        leadingZeroCountBase = 64 - subBucketCountMagnitude;
+    }
+
+    public long countAt(int index) {
+        return Unsafe.getUnsafe().getLong(ptr + HEADER_SIZE + 8L * index);
+    }
+
+    public int length() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr) : 0;
+    }
+
+    public void merge(GroupByLongHistogram srcHistogram) {
+        final int srcLength = srcHistogram.length();
+        if (length() < srcLength) {
+            resize(srcLength);
+        }
+        for (int i = 0; i < srcLength; i++) {
+            final long count = srcHistogram.countAt(i);
+            if (count != 0) {
+                addCountAt(i, count);
+            }
+        }
+        Unsafe.getUnsafe().putLong(ptr + TOTAL_COUNT_OFFSET, totalCount() + srcHistogram.totalCount());
+    }
+
+    public GroupByLongHistogram of(long ptr) {
+        if (ptr == 0) {
+            final int length = lengthForBuckets(1);
+            this.ptr = allocator.malloc(HEADER_SIZE + 8L * length);
+            Vect.memset(this.ptr + HEADER_SIZE, 8L * length, 0);
+            Unsafe.getUnsafe().putInt(this.ptr, length);
+            Unsafe.getUnsafe().putLong(this.ptr + TOTAL_COUNT_OFFSET, 0);
+        } else {
+            this.ptr = ptr;
+        }
+        return this;
+    }
+
+    public long ptr() {
+        return ptr;
+    }
+
+    public void recordValue(long value) {
+        if (value < 0) {
+            throw CairoException.nonCritical().put("Histogram recorded value cannot be negative.");
+        }
+        final int index = countsIndex(value);
+        if (index >= length()) {
+            resize(lengthForBuckets(bucketsNeededToCover(value)));
+        }
+        addCountAt(index, 1);
+        Unsafe.getUnsafe().putLong(ptr + TOTAL_COUNT_OFFSET, totalCount() + 1);
+    }
+
+    public void resetPtr() {
+        ptr = 0;
+    }
+
+    public void setAllocator(GroupByAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public long totalCount() {
+        return ptr != 0 ? Unsafe.getUnsafe().getLong(ptr + TOTAL_COUNT_OFFSET) : 0;
+    }
+
+    /**
+     * Same as AbstractHistogram#getValueAtPercentile().
+     */
+    public long valueAtPercentile(double percentile) {
+        // Truncate to 0..100%, and remove 1 ulp to avoid roundoff overruns into next bucket when we
+        // subsequently round up to the nearest integer.
+        final double requestedPercentile = Math.min(Math.max(Math.nextAfter(percentile, Double.NEGATIVE_INFINITY), 0.0D), 100.0D);
+        final long countAtPercentile = Math.max((long) Math.ceil((requestedPercentile * totalCount()) / 100.0D), 1);
+        long totalToCurrentIndex = 0;
+        for (int i = 0, n = length(); i < n; i++) {
+            totalToCurrentIndex += countAt(i);
+            if (totalToCurrentIndex >= countAtPercentile) {
+                final long valueAtIndex = valueFromIndex(i);
+                return percentile == 0.0 ? lowestEquivalentValue(valueAtIndex) : highestEquivalentValue(valueAtIndex);
+            }
+        }
+        return 0;
+    }
+
+    private void addCountAt(int index, long count) {
+        final long p = ptr + HEADER_SIZE + 8L * index;
+        Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) + count);
+    }
+
+    private int bucketIndex(long value) {
+        return leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+    }
+
+    private int bucketsNeededToCover(long value) {
+        long smallestUntrackableValue = subBucketCount;
+        int bucketsNeeded = 1;
+        while (smallestUntrackableValue <= value) {
+            if (smallestUntrackableValue > (Long.MAX_VALUE / 2)) {
+                return bucketsNeeded + 1;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketsNeeded++;
+        }
+        return bucketsNeeded;
+    }
+
+    private int countsIndex(long value) {
+        final int bucketIndex = bucketIndex(value);
+        final int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + subBucketIndex - subBucketHalfCount;
+    }
+
+    private long highestEquivalentValue(long value) {
+        return lowestEquivalentValue(value) + (1L << bucketIndex(value)) - 1;
+    }
+
+    private int lengthForBuckets(int buckets) {
+        return (buckets + 1) * subBucketHalfCount;
+    }
+
+    private long lowestEquivalentValue(long value) {
+        final int bucketIndex = bucketIndex(value);
+        return (value >>> bucketIndex) << bucketIndex;
+    }
+
+    private void resize(int newLength) {
+        final int oldLength = length();
+        ptr = allocator.realloc(ptr, HEADER_SIZE + 8L * oldLength, HEADER_SIZE + 8L * newLength);
+        Vect.memset(ptr + HEADER_SIZE + 8L * oldLength, 8L * (newLength - oldLength), 0);
+        Unsafe.getUnsafe().putInt(ptr, newLength);
+    }
+
+    private long valueFromIndex(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex) << bucketIndex;
+    }
+}
@@ -0,0 +1,380 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.ShardedMapAtom;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Holds per-worker hash tables for the parallel build phase of hash join. Each hash table
+ * maps slave join key to a linked list of slave row ids. List nodes are allocated with
+ * {@link GroupByAllocator}, so that per-worker lists may be merged by linking them together.
+ * <p>
+ * Map value layout is the following:
+ * <pre>
+ * | head node pointer | tail node pointer | row count |
+ * +-------------------+-------------------+-----------+
+ * |      8 bytes      |      8 bytes      |  8 bytes  |
+ * +-------------------+-------------------+-----------+
+ * </pre>
+ * Each list node holds slave row id (8 bytes) followed by the next node pointer (8 bytes).
+ * Row ids are page frame based, i.e. they're built with {@link Rows#toRowID(int, long)}
+ * from frame index and row index within the frame.
+ */
+public class AsyncHashJoinBuildAtom implements StatefulAtom, ShardedMapAtom, Closeable, Reopenable {
+    public static final int COUNT_VALUE_INDEX = 2;
+    public static final int HEAD_VALUE_INDEX = 0;
+    public static final int TAIL_VALUE_INDEX = 1;
+    // We use the first 8 bits of a hash code to determine the shard, hence 128 as the max number of shards.
+    private static final int MAX_SHARDS = 128;
+    private static final long NEXT_OFFSET = Long.BYTES;
+    private static final long NODE_SIZE = 2 * Long.BYTES;
+    private static final MapValueMergeFunction MERGE_FUNCTION = AsyncHashJoinBuildAtom::mergeRowIds;
+    private final CairoConfiguration configuration;
+    private final ColumnTypes keyTypes;
+    private final Particle ownerParticle;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<Particle> perWorkerParticles;
+    private final int shardCount;
+    private final int shardCountShr;
+    private final int shardingThreshold;
+    private final RecordSink slaveKeySink;
+    private final ColumnTypes valueTypes;
+    private GroupByAllocator allocator;
+    private volatile boolean sharded;
+
+    public AsyncHashJoinBuildAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink slaveKeySink,
+            int workerCount
+    ) {
+        // We don't want to pay for merging redundant maps, so we limit their number.
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.configuration = configuration;
+            this.shardingThreshold = configuration.getGroupByShardingThreshold();
+            this.keyTypes = new ArrayColumnTypes().addAll(keyTypes);
+            this.valueTypes = new ArrayColumnTypes().addAll(valueTypes);
+            this.slaveKeySink = slaveKeySink;
+
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+
+            shardCount = Math.min(Numbers.ceilPow2(2 * workerCount), MAX_SHARDS);
+            shardCountShr = Integer.numberOfLeadingZeros(shardCount) + 1;
+            ownerParticle = new Particle();
+            perWorkerParticles = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerParticles.extendAndSet(i, new Particle());
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public static long getNextNode(long nodePtr) {
+        return Unsafe.getUnsafe().getLong(nodePtr + NEXT_OFFSET);
+    }
+
+    public static long getRowId(long nodePtr) {
+        return Unsafe.getUnsafe().getLong(nodePtr);
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own particle anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public int acquire(int workerId, ExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1) {
+            // Owner thread is free to use its own particle anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Appends the given row id to the row id list stored in the map value.
+     * Safe to be called concurrently for values that belong to different maps.
+     */
+    public void appendRowId(MapValue value, long rowId) {
+        final long nodePtr = allocator.malloc(NODE_SIZE);
+        Unsafe.getUnsafe().putLong(nodePtr, rowId);
+        Unsafe.getUnsafe().putLong(nodePtr + NEXT_OFFSET, 0);
+        if (value.isNew()) {
+            value.putLong(HEAD_VALUE_INDEX, nodePtr);
+            value.putLong(TAIL_VALUE_INDEX, nodePtr);
+            value.putLong(COUNT_VALUE_INDEX, 1);
+        } else {
+            Unsafe.getUnsafe().putLong(value.getLong(TAIL_VALUE_INDEX) + NEXT_OFFSET, nodePtr);
+            value.putLong(TAIL_VALUE_INDEX, nodePtr);
+            value.addLong(COUNT_VALUE_INDEX, 1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        sharded = false;
+        ownerParticle.close();
+        for (int i = 0, n = perWorkerParticles.size(); i < n; i++) {
+            Particle p = perWorkerParticles.getQuick(i);
+            Misc.free(p);
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerParticle);
+        Misc.freeObjList(perWorkerParticles);
+    }
+
+    // Thread-unsafe, should be used by query owner thread only.
+    public Particle getOwnerParticle() {
+        return ownerParticle;
+    }
+
+    public Particle getParticle(int slotId) {
+        if (slotId == -1) {
+            return ownerParticle;
+        }
+        return perWorkerParticles.getQuick(slotId);
+    }
+
+    // Thread-unsafe, should be used by query owner thread only.
+    public ObjList<Particle> getPerWorkerParticles() {
+        return perWorkerParticles;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public RecordSink getSlaveKeySink() {
+        return slaveKeySink;
+    }
+
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    // Thread-unsafe, should be used by query owner thread only.
+    public Map mergeNonShardedMap() {
+        final Map destMap = ownerParticle.getMap();
+        final int perWorkerMapCount = perWorkerParticles.size();
+
+        long sizeEstimate = destMap.size();
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            final Map srcMap = perWorkerParticles.getQuick(i).getMap();
+            sizeEstimate += srcMap.size();
+        }
+
+        if (sizeEstimate > 0) {
+            // Pre-size the destination map, so that we don't have to resize it later.
+            destMap.setKeyCapacity((int) sizeEstimate);
+        }
+
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            final Map srcMap = perWorkerParticles.getQuick(i).getMap();
+            destMap.merge(srcMap, MERGE_FUNCTION);
+            srcMap.close();
+        }
+
+        return destMap;
+    }
+
+    @Override
+    public void mergeShard(int slotId, int shardIndex) {
+        assert sharded;
+
+        final Map destMap = ownerParticle.getShardMaps().getQuick(shardIndex);
+        final int perWorkerMapCount = perWorkerParticles.size();
+
+        long sizeEstimate = destMap.size();
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            final Particle srcParticle = perWorkerParticles.getQuick(i);
+            final Map srcMap = srcParticle.getShardMaps().getQuick(shardIndex);
+            sizeEstimate += srcMap.size();
+        }
+
+        if (sizeEstimate > 0) {
+            // Pre-size the destination map, so that we don't have to resize it later.
+            destMap.setKeyCapacity((int) sizeEstimate);
+        }
+
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            final Particle srcParticle = perWorkerParticles.getQuick(i);
+            final Map srcMap = srcParticle.getShardMaps().getQuick(shardIndex);
+            destMap.merge(srcMap, MERGE_FUNCTION);
+            srcMap.close();
+        }
+    }
+
+    @Override
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void reopen() {
+        ownerParticle.reopen();
+        for (int i = 0, n = perWorkerParticles.size(); i < n; i++) {
+            Particle p = perWorkerParticles.getQuick(i);
+            p.reopen();
+        }
+    }
+
+    public void setAllocator(GroupByAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public void shardAll() {
+        ownerParticle.shard();
+        for (int i = 0, n = perWorkerParticles.size(); i < n; i++) {
+            Particle p = perWorkerParticles.getQuick(i);
+            p.shard();
+        }
+    }
+
+    public void tryShard(Particle particle) {
+        if (particle.isSharded()) {
+            return;
+        }
+        if (particle.getMap().size() > shardingThreshold || sharded) {
+            particle.shard();
+            sharded = true;
+        }
+    }
+
+    private static void mergeRowIds(MapValue destValue, MapValue srcValue) {
+        // Link the source list to the tail of the destination list.
+        Unsafe.getUnsafe().putLong(destValue.getLong(TAIL_VALUE_INDEX) + NEXT_OFFSET, srcValue.getLong(HEAD_VALUE_INDEX));
+        destValue.putLong(TAIL_VALUE_INDEX, srcValue.getLong(TAIL_VALUE_INDEX));
+        destValue.addLong(COUNT_VALUE_INDEX, srcValue.getLong(COUNT_VALUE_INDEX));
+    }
+
+    public class Particle implements Reopenable, QuietCloseable {
+        private final Map map; // non-sharded partial result
+        private final ObjList<Map> shards; // this.map split into shards
+        private boolean sharded;
+
+        private Particle() {
+            this.map = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+            this.shards = new ObjList<>(shardCount);
+        }
+
+        @Override
+        public void close() {
+            sharded = false;
+            map.close();
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                Map m = shards.getQuick(i);
+                Misc.free(m);
+            }
+        }
+
+        public Map getMap() {
+            return map;
+        }
+
+        public Map getShardMap(int hashCode) {
+            return shards.getQuick(hashCode >>> shardCountShr);
+        }
+
+        public ObjList<Map> getShardMaps() {
+            return shards;
+        }
+
+        public boolean isSharded() {
+            return sharded;
+        }
+
+        @Override
+        public void reopen() {
+            map.reopen();
+        }
+
+        private void reopenShards() {
+            // Expect that data volume will grow at least 2x.
+            int targetKeyCapacity = Math.max((int) (map.size() / shardCount) * 2, configuration.getSqlSmallMapKeyCapacity());
+            int targetPageSize = Math.max((int) (map.getUsedHeapSize() / shardCount) * 2, configuration.getSqlSmallMapPageSize());
+
+            int size = shards.size();
+            if (size == 0) {
+                for (int i = 0; i < shardCount; i++) {
+                    shards.add(MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes, targetKeyCapacity, targetPageSize));
+                }
+            } else {
+                assert size == shardCount;
+                for (int i = 0, n = shards.size(); i < n; i++) {
+                    Map m = shards.getQuick(i);
+                    if (m != null) {
+                        m.reopen(targetKeyCapacity, targetPageSize);
+                    }
+                }
+            }
+        }
+
+        private void shard() {
+            if (sharded) {
+                return;
+            }
+
+            reopenShards();
+
+            if (map.size() > 0) {
+                RecordCursor cursor = map.getCursor();
+                MapRecord record = map.getRecord();
+                while (cursor.hasNext()) {
+                    final int hashCode = record.keyHashCode();
+                    final Map shard = getShardMap(hashCode);
+                    MapKey shardKey = shard.withKey();
+                    record.copyToKey(shardKey);
+                    MapValue shardValue = shardKey.createValue(hashCode);
+                    record.copyValue(shardValue);
+                }
+            }
+
+            map.close();
+            sharded = true;
+        }
+    }
+}
@@ -0,0 +1,533 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByAllocatorFactory;
+import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.*;
+import io.questdb.std.*;
+import io.questdb.tasks.GroupByMergeShardTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * Inner hash join that builds the slave hash table in parallel. Slave page frames are dispatched
+ * to the shared workers, each of them populating its own hash table with slave row ids. Partial hash
+ * tables are then merged, shard by shard when they're large, and probed by the query owner thread.
+ * Slave records are read straight from the page frames, so the slave factory has to support
+ * page frame cursors. Unlike in {@link HashJoinLightRecordCursorFactory}, slave rows matching
+ * the same master row don't necessarily come in the slave scan order.
+ */
+public class AsyncHashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final PageFrameReducer BUILD = AsyncHashJoinLightRecordCursorFactory::build;
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinLightRecordCursorFactory.class);
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncHashJoinLightRecordCursor cursor;
+    private final PageFrameSequence<AsyncHashJoinBuildAtom> frameSequence;
+    private final RecordSink masterSink;
+    private final int workerCount;
+
+    public AsyncHashJoinLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Transient @NotNull ArrayColumnTypes joinColumnTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes, // this expected to be LONGs, we store row id list references in map
+            @NotNull RecordSink masterSink,
+            @NotNull RecordSink slaveKeySink,
+            int columnSplit,
+            @NotNull JoinContext joinContext,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        try {
+            this.masterSink = masterSink;
+            AsyncHashJoinBuildAtom atom = new AsyncHashJoinBuildAtom(configuration, joinColumnTypes, valueTypes, slaveKeySink, workerCount);
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, BUILD, reduceTaskFactory, PageFrameReduceTask.TYPE_HASH_JOIN_BUILD);
+            this.cursor = new AsyncHashJoinLightRecordCursor(configuration, messageBus, columnSplit);
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final int order = slaveFactory.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        try {
+            cursor.of(masterCursor, frameSequence.of(slaveFactory, executionContext, collectSubSeq, order), executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Hash Join Light");
+        sink.meta("workers").val(workerCount);
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    private static void build(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncHashJoinBuildAtom atom = task.getFrameSequence(AsyncHashJoinBuildAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final AsyncHashJoinBuildAtom.Particle particle = atom.getParticle(slotId);
+        final RecordSink slaveKeySink = atom.getSlaveKeySink();
+        try {
+            record.setRowIndex(0);
+            final long baseRowId = record.getRowId();
+
+            if (!particle.isSharded()) {
+                final Map map = particle.getMap();
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+
+                    final MapKey key = map.withKey();
+                    slaveKeySink.copy(record, key);
+                    atom.appendRowId(key.createValue(), baseRowId + r);
+                }
+            } else {
+                // The first map is used to write keys.
+                final Map lookupShard = particle.getShardMaps().getQuick(0);
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+
+                    final MapKey lookupKey = lookupShard.withKey();
+                    slaveKeySink.copy(record, lookupKey);
+                    lookupKey.commit();
+                    final int hashCode = lookupKey.hash();
+
+                    final Map shard = particle.getShardMap(hashCode);
+                    final MapKey shardKey;
+                    if (shard != lookupShard) {
+                        shardKey = shard.withKey();
+                        shardKey.copyFrom(lookupKey);
+                    } else {
+                        shardKey = lookupKey;
+                    }
+                    atom.appendRowId(shardKey.createValue(hashCode), baseRowId + r);
+                }
+            }
+            atom.tryShard(particle);
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(cursor);
+        Misc.free(frameSequence);
+    }
+
+    private class AsyncHashJoinLightRecordCursor extends AbstractJoinCursor {
+        private final GroupByAllocator allocator;
+        private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch(); // used for merge shard workers
+        private final MessageBus messageBus;
+        private final JoinRecord record;
+        private final AtomicBooleanCircuitBreaker sharedCircuitBreaker = new AtomicBooleanCircuitBreaker(); // used to signal cancellation to merge shard workers
+        private final PageAddressCacheRecord slaveRecord = new PageAddressCacheRecord();
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private int frameLimit;
+        private PageFrameSequence<AsyncHashJoinBuildAtom> frameSequence;
+        private boolean isMapBuilt;
+        private boolean isOpen;
+        private Map map; // set when the slave hash table isn't sharded
+        private Record masterRecord;
+        private long nodePtr;
+        private ObjList<Map> shards; // set when the slave hash table is sharded
+        private long size = -1;
+
+        public AsyncHashJoinLightRecordCursor(CairoConfiguration configuration, MessageBus messageBus, int columnSplit) {
+            super(columnSplit);
+            this.allocator = GroupByAllocatorFactory.createThreadSafeAllocator(configuration);
+            this.messageBus = messageBus;
+            record = new JoinRecord(columnSplit);
+            isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                size = -1;
+                map = null;
+                shards = null;
+                nodePtr = 0;
+                Misc.free(slaveRecord);
+                super.close();
+
+                if (frameSequence != null) {
+                    LOG.debug()
+                            .$("closing [shard=").$(frameSequence.getShard())
+                            .$(", frameCount=").$(frameLimit)
+                            .I$();
+
+                    if (frameLimit > -1) {
+                        frameSequence.await();
+                    }
+                    frameSequence.clear();
+                }
+                // Free the allocator last, after the workers are done with the frame sequence.
+                Misc.free(allocator);
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public boolean hasNext() {
+            buildMapOfSlaveRecords();
+
+            if (nodePtr != 0) {
+                nodePtr = positionSlaveRecord(nodePtr);
+                return true;
+            }
+
+            while (masterCursor.hasNext()) {
+                final MapValue value = findSlaveRows();
+                if (value != null) {
+                    // we know the row id list is not empty
+                    nodePtr = positionSlaveRecord(value.getLong(AsyncHashJoinBuildAtom.HEAD_VALUE_INDEX));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.newSymbolTable(columnIndex);
+            }
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public long size() {
+            if (size > -1) {
+                return size;
+            }
+            buildMapOfSlaveRecords();
+            long size = 0;
+            try {
+                masterCursor.toTop();
+                while (masterCursor.hasNext()) {
+                    final MapValue value = findSlaveRows();
+                    if (value != null) {
+                        size += value.getLong(AsyncHashJoinBuildAtom.COUNT_VALUE_INDEX);
+                    }
+                }
+            } finally {
+                masterCursor.toTop();
+            }
+            return this.size = size;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            nodePtr = 0;
+        }
+
+        private void buildMapOfSlaveRecords() {
+            if (isMapBuilt) {
+                return;
+            }
+
+            if (frameLimit == -1) {
+                frameSequence.prepareForDispatch();
+                frameLimit = frameSequence.getFrameCount() - 1;
+            }
+
+            int frameIndex = -1;
+            boolean allFramesActive = true;
+            try {
+                do {
+                    final long cursor = frameSequence.next();
+                    if (cursor > -1) {
+                        PageFrameReduceTask task = frameSequence.getTask(cursor);
+                        LOG.debug()
+                                .$("collected [shard=").$(frameSequence.getShard())
+                                .$(", frameIndex=").$(task.getFrameIndex())
+                                .$(", frameCount=").$(frameSequence.getFrameCount())
+                                .$(", active=").$(frameSequence.isActive())
+                                .$(", cursor=").$(cursor)
+                                .I$();
+                        if (task.hasError()) {
+                            throw CairoException.nonCritical().put(task.getErrorMsg());
+                        }
+
+                        allFramesActive &= frameSequence.isActive();
+                        frameIndex = task.getFrameIndex();
+
+                        frameSequence.collect(cursor, false);
+                    } else if (cursor == -2) {
+                        break; // No frames to build the hash table from.
+                    } else {
+                        Os.pause();
+                    }
+                } while (frameIndex < frameLimit);
+            } catch (Throwable e) {
+                LOG.error().$("hash join build error [ex=").$(e).I$();
+                if (e instanceof CairoException) {
+                    CairoException ce = (CairoException) e;
+                    if (ce.isInterruption()) {
+                        throwTimeoutException();
+                    } else {
+                        throw ce;
+                    }
+                }
+                throw CairoException.nonCritical().put(e.getMessage());
+            }
+
+            if (!allFramesActive) {
+                throwTimeoutException();
+            }
+
+            final AsyncHashJoinBuildAtom atom = frameSequence.getAtom();
+            if (!atom.isSharded()) {
+                // No sharding was necessary, so the maps are small, and we merge them ourselves.
+                map = atom.mergeNonShardedMap();
+            } else {
+                // We had to shard the maps, so they must be big.
+                shards = mergeShards(atom);
+            }
+
+            slaveRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+            isMapBuilt = true;
+        }
+
+        private MapValue findSlaveRows() {
+            if (map != null) {
+                final MapKey key = map.withKey();
+                key.put(masterRecord, masterSink);
+                return key.findValue();
+            }
+
+            // The first shard is used to write keys.
+            final Map lookupShard = shards.getQuick(0);
+            final MapKey lookupKey = lookupShard.withKey();
+            lookupKey.put(masterRecord, masterSink);
+            lookupKey.commit();
+            final int hashCode = lookupKey.hash();
+
+            final Map shard = frameSequence.getAtom().getOwnerParticle().getShardMap(hashCode);
+            if (shard == lookupShard) {
+                return lookupKey.findValue();
+            }
+            final MapKey shardKey = shard.withKey();
+            shardKey.copyFrom(lookupKey);
+            return shardKey.findValue();
+        }
+
+        private ObjList<Map> mergeShards(AsyncHashJoinBuildAtom atom) {
+            sharedCircuitBreaker.reset();
+            doneLatch.reset();
+
+            // First, make sure to shard all non-sharded maps, if any.
+            atom.shardAll();
+
+            // Next, merge each set of partial shard maps into the final shard map. This is done in parallel.
+            final int shardCount = atom.getShardCount();
+            final RingQueue<GroupByMergeShardTask> queue = messageBus.getGroupByMergeShardQueue();
+            final MPSequence pubSeq = messageBus.getGroupByMergeShardPubSeq();
+            final MCSequence subSeq = messageBus.getGroupByMergeShardSubSeq();
+
+            int queuedCount = 0;
+            int ownCount = 0;
+            int reclaimed = 0;
+            int total = 0;
+
+            try {
+                for (int i = 0; i < shardCount; i++) {
+                    long cursor = pubSeq.next();
+                    if (cursor < 0) {
+                        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                        atom.mergeShard(-1, i);
+                        ownCount++;
+                    } else {
+                        queue.get(cursor).of(sharedCircuitBreaker, doneLatch, atom, i);
+                        pubSeq.done(cursor);
+                        queuedCount++;
+                    }
+                    total++;
+                }
+            } catch (Throwable e) {
+                sharedCircuitBreaker.cancel();
+                throw e;
+            } finally {
+                // Consume the queue until all the tasks we published are done, see AsyncGroupByRecordCursor.
+                while (!doneLatch.done(queuedCount)) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        sharedCircuitBreaker.cancel();
+                    }
+
+                    long cursor = subSeq.next();
+                    if (cursor > -1) {
+                        GroupByMergeShardTask task = queue.get(cursor);
+                        GroupByMergeShardJob.run(-1, task, subSeq, cursor);
+                        reclaimed++;
+                    } else {
+                        Os.pause();
+                    }
+                }
+            }
+
+            if (sharedCircuitBreaker.checkIfTripped()) {
+                throwTimeoutException();
+            }
+
+            LOG.debug().$("merge shards done [total=").$(total)
+                    .$(", ownCount=").$(ownCount)
+                    .$(", reclaimed=").$(reclaimed)
+                    .$(", queuedCount=").$(queuedCount).I$();
+
+            return atom.getOwnerParticle().getShardMaps();
+        }
+
+        private void of(
+                RecordCursor masterCursor,
+                PageFrameSequence<AsyncHashJoinBuildAtom> frameSequence,
+                SqlExecutionContext executionContext
+        ) {
+            final AsyncHashJoinBuildAtom atom = frameSequence.getAtom();
+            atom.setAllocator(allocator);
+            if (!isOpen) {
+                isOpen = true;
+                atom.reopen();
+            }
+            this.masterCursor = masterCursor;
+            this.frameSequence = frameSequence;
+            this.circuitBreaker = executionContext.getCircuitBreaker();
+            masterRecord = masterCursor.getRecord();
+            record.of(masterRecord, slaveRecord);
+            map = null;
+            shards = null;
+            nodePtr = 0;
+            size = -1;
+            frameLimit = -1;
+            isMapBuilt = false;
+        }
+
+        /**
+         * Points the slave record at the row referenced by the given row id list node.
+         *
+         * @return the next node pointer or 0 if there are no more nodes in the list
+         */
+        private long positionSlaveRecord(long nodePtr) {
+            final long rowId = AsyncHashJoinBuildAtom.getRowId(nodePtr);
+            slaveRecord.setFrameIndex(Rows.toPartitionIndex(rowId));
+            slaveRecord.setRowIndex(Rows.toLocalRowID(rowId));
+            return AsyncHashJoinBuildAtom.getNextNode(nodePtr);
+        }
+
+        private void throwTimeoutException() {
+            if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+                throw CairoException.queryCancelled();
+            } else {
+                throw CairoException.queryTimedOut();
+            }
+        }
+    }
+}
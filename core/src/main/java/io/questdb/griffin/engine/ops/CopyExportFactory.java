@@ -0,0 +1,117 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.ops;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.parquet.ParquetEncoder;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.SingleValueRecordCursor;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Executes COPY table TO 'file' statement. Table page frames are written to a Parquet
+ * file in the COPY root directory. Like {@link CopyFactory} the statement is executed
+ * on record cursor initialization; the cursor returns the number of rows written.
+ */
+public class CopyExportFactory extends AbstractRecordCursorFactory {
+    private final static GenericRecordMetadata METADATA = new GenericRecordMetadata();
+    private final RecordCursorFactory base;
+    private final CharSequence copyRoot;
+    private final ParquetEncoder encoder;
+    private final FilesFacade ff;
+    private final String fileName;
+    private final int fileNamePosition;
+    private final Path path = new Path();
+    private final ExportRecord record = new ExportRecord();
+    private final SingleValueRecordCursor cursor = new SingleValueRecordCursor(record);
+
+    public CopyExportFactory(CairoConfiguration configuration, RecordCursorFactory base, String fileName, int fileNamePosition) {
+        super(METADATA);
+        this.base = base;
+        this.fileName = fileName;
+        this.fileNamePosition = fileNamePosition;
+        this.ff = configuration.getFilesFacade();
+        this.copyRoot = configuration.getSqlCopyInputRoot();
+        this.encoder = new ParquetEncoder(configuration);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        path.of(copyRoot).concat(fileName).$();
+        if (ff.exists(path)) {
+            throw SqlException.$(fileNamePosition, "file already exists [file=").put(fileName).put(']');
+        }
+        try (PageFrameCursor pageFrameCursor = base.getPageFrameCursor(executionContext, ORDER_ASC)) {
+            record.rowCount = encoder.encode(pageFrameCursor, base.getMetadata(), path);
+        }
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Copy to parquet");
+        sink.child(base);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(encoder);
+        Misc.free(path);
+    }
+
+    private static class ExportRecord implements Record {
+        private long rowCount;
+
+        @Override
+        public long getLong(int col) {
+            return rowCount;
+        }
+    }
+
+    static {
+        METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+    }
+}
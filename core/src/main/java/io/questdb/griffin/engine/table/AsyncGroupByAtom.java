@@ -38,6 +38,7 @@ import io.questdb.griffin.engine.groupby.GroupByAllocator;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
 import io.questdb.griffin.engine.groupby.GroupByUtils;
+import io.questdb.griffin.engine.groupby.ShardedMapAtom;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
@@ -47,7 +48,7 @@ import java.io.Closeable;
 
 import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
 
-public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Plannable {
+public class AsyncGroupByAtom implements StatefulAtom, ShardedMapAtom, Closeable, Reopenable, Plannable {
     // We use the first 8 bits of a hash code to determine the shard, hence 128 as the max number of shards.
     private static final int MAX_SHARDS = 128;
     private final ObjList<Function> bindVarFunctions;
@@ -154,6 +155,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
     }
 
+    @Override
     public int acquire(int workerId, ExecutionCircuitBreaker circuitBreaker) {
         if (workerId == -1) {
             // Owner thread is free to use the original functions anytime.
@@ -319,6 +321,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return sharded;
     }
 
+    @Override
     public void mergeShard(int slotId, int shardIndex) {
         assert sharded;
 
@@ -346,6 +349,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    @Override
     public void release(int slotId) {
         perWorkerLocks.releaseSlot(slotId);
     }
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.BoolList;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.RoaringBitmap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Resolves conjunction of predicates on indexed symbol columns, e.g.
+ * {@code sym1 = 'a' and sym2 in ('x', 'y') and sym3 != 'z'}, without touching column data.
+ * <p>
+ * Each term is a symbol column with a list of values. For every data frame, row ids of all values
+ * in a term are collected from the bitmap index into a compressed bitmap, and the bitmaps of
+ * the terms are intersected, or subtracted for negated terms. The first term must not be negated.
+ * Rows are returned in table order, the optional filter is applied to the rows that remain.
+ */
+public class SymbolIndexIntersectionRowCursorFactory implements RowCursorFactory {
+    private final RoaringBitmap bitmap = new RoaringBitmap();
+    private final IntersectionRowCursor cursor;
+    private final Function filter;
+    // symbol keys of the term values, offsets into the list are stored in keyOffsets
+    private final IntList keyOffsets = new IntList();
+    private final IntList keys = new IntList();
+    private final RoaringBitmap termBitmap = new RoaringBitmap();
+    private final IntList termColumnIndexes;
+    private final BoolList termNegated;
+    private final ObjList<ObjList<Function>> termValues;
+
+    public SymbolIndexIntersectionRowCursorFactory(
+            IntList termColumnIndexes,
+            BoolList termNegated,
+            ObjList<ObjList<Function>> termValues,
+            @Nullable Function filter,
+            IntList columnIndexes
+    ) {
+        assert termColumnIndexes.size() > 1 && !termNegated.get(0);
+        this.termColumnIndexes = termColumnIndexes;
+        this.termNegated = termNegated;
+        this.termValues = termValues;
+        this.filter = filter;
+        this.cursor = new IntersectionRowCursor(filter, columnIndexes);
+    }
+
+    @Override
+    public RowCursor getCursor(DataFrame dataFrame) {
+        bitmap.clear();
+        addRows(0, dataFrame, bitmap);
+        for (int i = 1, n = termColumnIndexes.size(); i < n && !bitmap.isEmpty(); i++) {
+            termBitmap.clear();
+            addRows(i, dataFrame, termBitmap);
+            if (termNegated.get(i)) {
+                bitmap.andNot(termBitmap);
+            } else {
+                bitmap.and(termBitmap);
+            }
+        }
+        cursor.of(bitmap.cursor(), dataFrame);
+        return cursor;
+    }
+
+    @Override
+    public void init(TableReader tableReader, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        for (int i = 0, n = termValues.size(); i < n; i++) {
+            Function.init(termValues.getQuick(i), tableReader, sqlExecutionContext);
+        }
+    }
+
+    @Override
+    public boolean isEntity() {
+        return false;
+    }
+
+    @Override
+    public boolean isUsingIndex() {
+        return true;
+    }
+
+    @Override
+    public void prepareCursor(TableReader tableReader) {
+        keys.clear();
+        keyOffsets.clear();
+        for (int i = 0, n = termValues.size(); i < n; i++) {
+            keyOffsets.add(keys.size());
+            final StaticSymbolTable symbolTable = tableReader.getSymbolMapReader(termColumnIndexes.getQuick(i));
+            final ObjList<Function> values = termValues.getQuick(i);
+            for (int j = 0, m = values.size(); j < m; j++) {
+                final int symbolKey = symbolTable.keyOf(values.getQuick(j).getSymbol(null));
+                if (symbolKey != SymbolTable.VALUE_NOT_FOUND) {
+                    keys.add(TableUtils.toIndexKey(symbolKey));
+                }
+            }
+        }
+        keyOffsets.add(keys.size());
+        cursor.record.of(tableReader);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Index intersection scan");
+        sink.attr("intersect").val('[');
+        for (int i = 0, n = termColumnIndexes.size(); i < n; i++) {
+            if (i > 0) {
+                sink.val(',');
+            }
+            sink.putBaseColumnNameNoRemap(termColumnIndexes.getQuick(i));
+            sink.val(termNegated.get(i) ? " not in " : " in ").val('[');
+            final ObjList<Function> values = termValues.getQuick(i);
+            for (int j = 0, m = values.size(); j < m; j++) {
+                if (j > 0) {
+                    sink.val(',');
+                }
+                final Function value = values.getQuick(j);
+                if (value.isConstant()) {
+                    final CharSequence symbol = value.getSymbol(null);
+                    sink.val(symbol != null ? symbol : "null");
+                } else {
+                    sink.val(value);
+                }
+            }
+            sink.val(']');
+        }
+        sink.val(']');
+        if (filter != null) {
+            sink.attr("filter").val(filter);
+        }
+    }
+
+    private void addRows(int term, DataFrame dataFrame, RoaringBitmap target) {
+        final BitmapIndexReader indexReader = dataFrame.getBitmapIndexReader(termColumnIndexes.getQuick(term), BitmapIndexReader.DIR_FORWARD);
+        final long rowLo = dataFrame.getRowLo();
+        final long rowHi = dataFrame.getRowHi() - 1;
+        for (int i = keyOffsets.getQuick(term), n = keyOffsets.getQuick(term + 1); i < n; i++) {
+            final RowCursor rowCursor = indexReader.getCursor(true, keys.getQuick(i), rowLo, rowHi);
+            while (rowCursor.hasNext()) {
+                target.add(rowCursor.next());
+            }
+        }
+    }
+
+    private static class IntersectionRowCursor implements RowCursor {
+        private final Function filter;
+        private final TableReaderSelectedColumnRecord record;
+        private long rowId;
+        private RoaringBitmap.Cursor rows;
+
+        private IntersectionRowCursor(Function filter, IntList columnIndexes) {
+            this.filter = filter;
+            this.record = new TableReaderSelectedColumnRecord(columnIndexes);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (rows.hasNext()) {
+                final long rowId = rows.next();
+                if (filter == null) {
+                    this.rowId = rowId;
+                    return true;
+                }
+                record.setRecordIndex(rowId);
+                if (filter.getBool(record)) {
+                    this.rowId = rowId;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long next() {
+            return rowId;
+        }
+
+        private void of(RoaringBitmap.Cursor rows, DataFrame dataFrame) {
+            this.rows = rows;
+            if (filter != null) {
+                record.jumpTo(dataFrame.getPartitionIndex(), 0);
+            }
+        }
+    }
+}
@@ -44,6 +44,7 @@ public final class Os {
     public static final int WINDOWS = 3;
     public static final int _32Bit = -2;
     public static final int type;
+    private static final int nativeVersion;
 
     private Os() {
     }
@@ -116,6 +117,16 @@ public final class Os {
 
     public static native int getEnvironmentType();
 
+    /**
+     * Returns version of the native library API. Libraries built before the version
+     * was introduced report 0, Java code falls back to the old native calls for them.
+     *
+     * @return native library API version
+     */
+    public static int getNativeVersion() {
+        return nativeVersion;
+    }
+
     public static native int getPid();
 
     /**
@@ -184,6 +195,8 @@ public final class Os {
 
     private static native long generateKrbToken(long spn);
 
+    private static native int getNativeVersion0();
+
     private static void loadLib(String lib) {
         InputStream is = Os.class.getResourceAsStream(lib);
         if (is == null) {
@@ -217,6 +230,14 @@ public final class Os {
         }
     }
 
+    private static int loadNativeVersion() {
+        try {
+            return getNativeVersion0();
+        } catch (UnsatisfiedLinkError e) {
+            return 0;
+        }
+    }
+
     private static native int setCurrentThreadAffinity0(int cpu);
 
     static {
@@ -250,5 +271,6 @@ public final class Os {
         } else {
             type = _32Bit;
         }
+        nativeVersion = type == _32Bit ? 0 : loadNativeVersion();
     }
 }
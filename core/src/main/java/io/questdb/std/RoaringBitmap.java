@@ -0,0 +1,521 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative longs, such as row ids, in the spirit of Roaring bitmaps.
+ * <p>
+ * Values are split into high bits, used as the container key, and the low 16 bits, stored
+ * in the container. Sparse containers keep sorted arrays of the low bits and switch to a
+ * fixed 8KB bitmap once they exceed {@link #ARRAY_CONTAINER_MAX_SIZE} values. Set operations
+ * are performed in place, container by container, so intersecting two sets with few common
+ * keys touches little memory.
+ * <p>
+ * Containers are retained on {@link #clear()} and are reused by subsequent additions.
+ */
+public class RoaringBitmap implements Mutable {
+    static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final int INITIAL_CONTAINER_CAPACITY = 16;
+    private final Cursor cursor = new Cursor();
+    // scratch space to merge two array containers
+    private final char[] mergeBuf = new char[2 * ARRAY_CONTAINER_MAX_SIZE];
+    private Container[] containers = new Container[INITIAL_CONTAINER_CAPACITY];
+    private long[] keys = new long[INITIAL_CONTAINER_CAPACITY];
+    private int size;
+
+    /**
+     * Adds value to the set. Adding values in ascending order is the fast path.
+     *
+     * @param value non-negative value
+     */
+    public void add(long value) {
+        assert value >= 0;
+        final long key = value >>> 16;
+        final int index;
+        if (size > 0 && keys[size - 1] == key) {
+            index = size - 1;
+        } else {
+            final int pos = binarySearch(key);
+            if (pos < 0) {
+                index = -pos - 1;
+                insertContainer(index, key);
+            } else {
+                index = pos;
+            }
+        }
+        containers[index].add((char) value);
+    }
+
+    /**
+     * Retains only the values that are present in the other set.
+     */
+    public void and(RoaringBitmap other) {
+        int w = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            final long key = keys[i];
+            final long otherKey = other.keys[j];
+            if (key < otherKey) {
+                i++;
+            } else if (key > otherKey) {
+                j++;
+            } else {
+                final Container c = containers[i];
+                c.and(other.containers[j]);
+                if (c.cardinality > 0) {
+                    keep(i, w++);
+                }
+                i++;
+                j++;
+            }
+        }
+        size = w;
+    }
+
+    /**
+     * Removes the values that are present in the other set.
+     */
+    public void andNot(RoaringBitmap other) {
+        int w = 0;
+        for (int i = 0, j = 0; i < size; i++) {
+            final long key = keys[i];
+            while (j < other.size && other.keys[j] < key) {
+                j++;
+            }
+            final Container c = containers[i];
+            if (j < other.size && other.keys[j] == key) {
+                c.andNot(other.containers[j]);
+            }
+            if (c.cardinality > 0) {
+                keep(i, w++);
+            }
+        }
+        size = w;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(long value) {
+        if (value < 0) {
+            return false;
+        }
+        final int pos = binarySearch(value >>> 16);
+        return pos > -1 && containers[pos].contains((char) value);
+    }
+
+    /**
+     * Returns cursor over the values in ascending order. The cursor is reused between calls,
+     * and it must not be used after this set is modified.
+     *
+     * @return cursor positioned before the first value
+     */
+    public Cursor cursor() {
+        cursor.of();
+        return cursor;
+    }
+
+    public long getCardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds all values of the other set to this set.
+     */
+    public void or(RoaringBitmap other) {
+        int i = 0;
+        for (int j = 0; j < other.size; j++) {
+            final long otherKey = other.keys[j];
+            while (i < size && keys[i] < otherKey) {
+                i++;
+            }
+            if (i < size && keys[i] == otherKey) {
+                containers[i].or(other.containers[j]);
+            } else {
+                insertContainer(i, otherKey);
+                containers[i].copyFrom(other.containers[j]);
+            }
+            i++;
+        }
+    }
+
+    private int binarySearch(long key) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final long midKey = keys[mid];
+            if (midKey < key) {
+                lo = mid + 1;
+            } else if (midKey > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    private void insertContainer(int index, long key) {
+        if (size == keys.length) {
+            final int capacity = size << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        // reuse container retained past the current size
+        Container c = containers[size];
+        if (c == null) {
+            c = new Container();
+        }
+        c.clear();
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = c;
+        size++;
+    }
+
+    private void keep(int from, int to) {
+        if (from != to) {
+            // swap, so that the dropped container is retained for reuse
+            final Container c = containers[to];
+            containers[to] = containers[from];
+            containers[from] = c;
+            keys[to] = keys[from];
+        }
+    }
+
+    private final class Container {
+        private final long[] words = new long[BITMAP_WORDS];
+        private boolean bitmap;
+        private int cardinality;
+        private char[] values = new char[16];
+
+        private void add(char value) {
+            if (bitmap) {
+                final long mask = 1L << value;
+                final int w = value >>> 6;
+                if ((words[w] & mask) == 0) {
+                    words[w] |= mask;
+                    cardinality++;
+                }
+                return;
+            }
+
+            int pos;
+            if (cardinality == 0 || values[cardinality - 1] < value) {
+                pos = cardinality;
+            } else {
+                pos = Arrays.binarySearch(values, 0, cardinality, value);
+                if (pos > -1) {
+                    return;
+                }
+                pos = -pos - 1;
+            }
+
+            if (cardinality == ARRAY_CONTAINER_MAX_SIZE) {
+                toBitmap();
+                add(value);
+                return;
+            }
+            ensureCapacity(cardinality + 1);
+            System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+            values[pos] = value;
+            cardinality++;
+        }
+
+        private void and(Container other) {
+            if (bitmap) {
+                if (other.bitmap) {
+                    int count = 0;
+                    for (int i = 0; i < BITMAP_WORDS; i++) {
+                        count += Long.bitCount(words[i] &= other.words[i]);
+                    }
+                    cardinality = count;
+                    if (cardinality <= ARRAY_CONTAINER_MAX_SIZE) {
+                        toArray();
+                    }
+                } else {
+                    // result is no larger than the other array
+                    ensureCapacity(other.cardinality);
+                    int w = 0;
+                    for (int i = 0, n = other.cardinality; i < n; i++) {
+                        final char v = other.values[i];
+                        if ((words[v >>> 6] & (1L << v)) != 0) {
+                            values[w++] = v;
+                        }
+                    }
+                    Arrays.fill(words, 0);
+                    bitmap = false;
+                    cardinality = w;
+                }
+            } else if (other.bitmap) {
+                int w = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    final char v = values[i];
+                    if (other.containsBit(v)) {
+                        values[w++] = v;
+                    }
+                }
+                cardinality = w;
+            } else {
+                int w = 0;
+                for (int i = 0, j = 0, n = other.cardinality; i < cardinality && j < n; ) {
+                    final char a = values[i];
+                    final char b = other.values[j];
+                    if (a < b) {
+                        i++;
+                    } else if (a > b) {
+                        j++;
+                    } else {
+                        values[w++] = a;
+                        i++;
+                        j++;
+                    }
+                }
+                cardinality = w;
+            }
+        }
+
+        private void andNot(Container other) {
+            if (bitmap) {
+                if (other.bitmap) {
+                    int count = 0;
+                    for (int i = 0; i < BITMAP_WORDS; i++) {
+                        count += Long.bitCount(words[i] &= ~other.words[i]);
+                    }
+                    cardinality = count;
+                } else {
+                    for (int i = 0, n = other.cardinality; i < n; i++) {
+                        final char v = other.values[i];
+                        final long mask = 1L << v;
+                        final int w = v >>> 6;
+                        if ((words[w] & mask) != 0) {
+                            words[w] &= ~mask;
+                            cardinality--;
+                        }
+                    }
+                }
+                if (cardinality <= ARRAY_CONTAINER_MAX_SIZE) {
+                    toArray();
+                }
+            } else {
+                int w = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    final char v = values[i];
+                    if (!other.contains(v)) {
+                        values[w++] = v;
+                    }
+                }
+                cardinality = w;
+            }
+        }
+
+        private void clear() {
+            if (bitmap) {
+                Arrays.fill(words, 0);
+                bitmap = false;
+            }
+            cardinality = 0;
+        }
+
+        private boolean contains(char value) {
+            return bitmap ? containsBit(value) : Arrays.binarySearch(values, 0, cardinality, value) > -1;
+        }
+
+        private boolean containsBit(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        private void copyFrom(Container other) {
+            if (other.bitmap) {
+                System.arraycopy(other.words, 0, words, 0, BITMAP_WORDS);
+                bitmap = true;
+            } else {
+                ensureCapacity(other.cardinality);
+                System.arraycopy(other.values, 0, values, 0, other.cardinality);
+            }
+            cardinality = other.cardinality;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (values.length < capacity) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_CONTAINER_MAX_SIZE, Math.max(capacity, values.length << 1)));
+            }
+        }
+
+        private void or(Container other) {
+            if (!bitmap && other.bitmap) {
+                toBitmap();
+            }
+            if (bitmap) {
+                if (other.bitmap) {
+                    int count = 0;
+                    for (int i = 0; i < BITMAP_WORDS; i++) {
+                        count += Long.bitCount(words[i] |= other.words[i]);
+                    }
+                    cardinality = count;
+                } else {
+                    for (int i = 0, n = other.cardinality; i < n; i++) {
+                        add(other.values[i]);
+                    }
+                }
+                return;
+            }
+
+            int w = 0;
+            int i = 0;
+            int j = 0;
+            final int n = other.cardinality;
+            while (i < cardinality && j < n) {
+                final char a = values[i];
+                final char b = other.values[j];
+                if (a < b) {
+                    mergeBuf[w++] = a;
+                    i++;
+                } else if (a > b) {
+                    mergeBuf[w++] = b;
+                    j++;
+                } else {
+                    mergeBuf[w++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                mergeBuf[w++] = values[i++];
+            }
+            while (j < n) {
+                mergeBuf[w++] = other.values[j++];
+            }
+
+            if (w > ARRAY_CONTAINER_MAX_SIZE) {
+                for (int k = 0; k < w; k++) {
+                    final char v = mergeBuf[k];
+                    words[v >>> 6] |= 1L << v;
+                }
+                bitmap = true;
+            } else {
+                ensureCapacity(w);
+                System.arraycopy(mergeBuf, 0, values, 0, w);
+            }
+            cardinality = w;
+        }
+
+        private void toArray() {
+            ensureCapacity(cardinality);
+            int w = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[w++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+                words[i] = 0;
+            }
+            bitmap = false;
+        }
+
+        private void toBitmap() {
+            for (int i = 0; i < cardinality; i++) {
+                final char v = values[i];
+                words[v >>> 6] |= 1L << v;
+            }
+            bitmap = true;
+        }
+    }
+
+    /**
+     * Iterates values of the set in ascending order.
+     */
+    public class Cursor {
+        private Container container;
+        private int containerIndex;
+        private long high;
+        private int position;
+        private long word;
+        private int wordIndex;
+
+        public boolean hasNext() {
+            while (container != null) {
+                if (container.bitmap) {
+                    while (word == 0 && ++wordIndex < BITMAP_WORDS) {
+                        word = container.words[wordIndex];
+                    }
+                    if (word != 0) {
+                        return true;
+                    }
+                } else if (position < container.cardinality) {
+                    return true;
+                }
+                nextContainer();
+            }
+            return false;
+        }
+
+        /**
+         * Returns next value, must be called after {@link #hasNext()} returned true.
+         *
+         * @return next value
+         */
+        public long next() {
+            if (container.bitmap) {
+                final long value = high | ((long) wordIndex << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return value;
+            }
+            return high | container.values[position++];
+        }
+
+        private void nextContainer() {
+            if (++containerIndex < size) {
+                container = containers[containerIndex];
+                high = keys[containerIndex] << 16;
+                position = 0;
+                wordIndex = -1;
+                word = 0;
+            } else {
+                container = null;
+            }
+        }
+
+        private void of() {
+            containerIndex = -1;
+            nextContainer();
+        }
+    }
+}
@@ -25,12 +25,12 @@
 package io.questdb.tasks;
 
 import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
-import io.questdb.griffin.engine.table.AsyncGroupByAtom;
+import io.questdb.griffin.engine.groupby.ShardedMapAtom;
 import io.questdb.mp.CountDownLatchSPI;
 import io.questdb.std.Mutable;
 
 public class GroupByMergeShardTask implements Mutable {
-    private AsyncGroupByAtom atom;
+    private ShardedMapAtom atom;
     private AtomicBooleanCircuitBreaker circuitBreaker;
     private CountDownLatchSPI doneLatch;
     private int shardIndex = -1;
@@ -42,7 +42,7 @@ public class GroupByMergeShardTask implements Mutable {
         circuitBreaker = null;
     }
 
-    public AsyncGroupByAtom getAtom() {
+    public ShardedMapAtom getAtom() {
         return atom;
     }
 
@@ -58,7 +58,7 @@ public class GroupByMergeShardTask implements Mutable {
         return shardIndex;
     }
 
-    public void of(AtomicBooleanCircuitBreaker circuitBreaker, CountDownLatchSPI doneLatch, AsyncGroupByAtom atom, int shardIndex) {
+    public void of(AtomicBooleanCircuitBreaker circuitBreaker, CountDownLatchSPI doneLatch, ShardedMapAtom atom, int shardIndex) {
         this.circuitBreaker = circuitBreaker;
         this.doneLatch = doneLatch;
         this.atom = atom;
@@ -108,6 +108,7 @@ open module io.questdb {
     exports io.questdb.cutlass.line.tcp.auth;
     exports io.questdb.cairo.frm;
     exports io.questdb.cairo.frm.file;
+    exports io.questdb.cairo.parquet;
     exports io.questdb.std.histogram.org.HdrHistogram;
     exports io.questdb.client;
     exports io.questdb.std.bytes;
@@ -145,6 +145,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
         Assert.assertEquals(12, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getDoubleScale());
         Assert.assertEquals("Keep-Alive: timeout=5, max=10000" + Misc.EOL, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getKeepAliveHeader());
+        Assert.assertFalse(configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().isTailEnabled());
+        Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getTailConnectionLimit());
 
         Assert.assertFalse(configuration.getHttpServerConfiguration().isPessimisticHealthCheckEnabled());
         Assert.assertEquals(SecurityContext.AUTH_TYPE_CREDENTIALS, configuration.getHttpServerConfiguration().getRequiredAuthType());
@@ -251,6 +253,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(256, configuration.getCairoConfiguration().getPageFrameReduceRowIdListCapacity());
         Assert.assertEquals(16, configuration.getCairoConfiguration().getPageFrameReduceColumnListCapacity());
         Assert.assertEquals(100_000, configuration.getCairoConfiguration().getGroupByShardingThreshold());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
         Assert.assertEquals(128 * 1024, configuration.getCairoConfiguration().getGroupByAllocatorDefaultChunkSize());
 
         Assert.assertEquals(SqlJitMode.JIT_MODE_ENABLED, configuration.getCairoConfiguration().getSqlJitMode());
@@ -987,6 +990,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
             Assert.assertSame(FilesFacadeImpl.INSTANCE, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFilesFacade());
             Assert.assertEquals("Keep-Alive: timeout=10, max=50000" + Misc.EOL, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getKeepAliveHeader());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().isTailEnabled());
+            Assert.assertEquals(16, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getTailConnectionLimit());
 
 
             Assert.assertEquals(167903521, configuration.getLineUdpReceiverConfiguration().getBindIPv4Address());
@@ -1230,6 +1235,30 @@ public class PropServerConfigurationTest {
         newPropServerConfiguration(root, properties, null, new BuildInformationHolder());
     }
 
+    @Test
+    public void testWalApplyLagSlo() throws Exception {
+        Properties properties = new Properties();
+        CairoConfiguration cairoConfig = newPropServerConfiguration(root, properties, null, new BuildInformationHolder()).getCairoConfiguration();
+        Assert.assertEquals(0, cairoConfig.getWalApplyLagSlo().size());
+
+        properties.setProperty(PropertyKey.CAIRO_WAL_APPLY_LAG_SLO.getPropertyPath(), "trades=500, Quotes = 2000");
+        cairoConfig = newPropServerConfiguration(root, properties, null, new BuildInformationHolder()).getCairoConfiguration();
+        Assert.assertEquals(2, cairoConfig.getWalApplyLagSlo().size());
+        Assert.assertEquals(500, cairoConfig.getWalApplyLagSlo().get("TRADES"));
+        Assert.assertEquals(2000, cairoConfig.getWalApplyLagSlo().get("quotes"));
+        Assert.assertEquals(-1, cairoConfig.getWalApplyLagSlo().get("banana"));
+
+        for (String invalid : new String[]{"trades", "=500", "trades=abc", "trades=-1"}) {
+            properties.setProperty(PropertyKey.CAIRO_WAL_APPLY_LAG_SLO.getPropertyPath(), invalid);
+            try {
+                newPropServerConfiguration(root, properties, null, new BuildInformationHolder());
+                Assert.fail("Should fail for " + invalid);
+            } catch (ServerConfigurationException e) {
+                TestUtils.assertContains(e.getMessage(), PropertyKey.CAIRO_WAL_APPLY_LAG_SLO.getPropertyPath());
+            }
+        }
+    }
+
     private void assertInputWorkRootCantBeSetTo(Properties properties, String value) throws JsonException {
         try {
             properties.setProperty(PropertyKey.CAIRO_SQL_COPY_ROOT.getPropertyPath(), value);
@@ -1374,6 +1403,7 @@ public class PropServerConfigurationTest {
         Assert.assertFalse(configuration.isSqlParallelFilterEnabled());
         Assert.assertFalse(configuration.isSqlParallelFilterPreTouchEnabled());
         Assert.assertFalse(configuration.isSqlParallelGroupByEnabled());
+        Assert.assertTrue(configuration.isSqlParallelHashJoinEnabled());
         Assert.assertEquals(1000, configuration.getSqlPageFrameMaxRows());
         Assert.assertEquals(100, configuration.getSqlPageFrameMinRows());
         Assert.assertEquals(128, configuration.getPageFrameReduceShardCount());
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Numbers;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BloomFilterTest extends AbstractCairoTest {
+    private final AtomicInteger skippedPartitionOpenCount = new AtomicInteger();
+    private final FilesFacade bloomFilterFf = new TestFilesFacadeImpl() {
+        @Override
+        public int openRO(LPSZ name) {
+            if (Utf8s.containsAscii(name, "2024-01-01") && Utf8s.endsWithAscii(name, ".d")) {
+                skippedPartitionOpenCount.incrementAndGet();
+            }
+            return super.openRO(name);
+        }
+    };
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_BLOOM_FILTER_ENABLED, true);
+    }
+
+    @Test
+    public void testColumnAddedLater() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x add column c long");
+            insert("insert into x (id, c, ts) values (100, 42, '2024-01-04T00:00:00.000000Z')");
+            insert("insert into x (id, c, ts) values (101, 43, '2024-01-05T00:00:00.000000Z')");
+            // partition directory name carries the txn it was created in
+            assertBloomFilter("2024-01-04.1", true);
+            assertSql(
+                    "id\tc\n" +
+                            "100\t42\n",
+                    "select id, c from x where c = 42"
+            );
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_BLOOM_FILTER_ENABLED, false);
+            createTable();
+            assertBloomFilter("2024-01-01", false);
+            assertSql(
+                    "id\ttrace\n" +
+                            "15\ttrace-15\n",
+                    "select id, trace from x where id = 15"
+            );
+        });
+    }
+
+    @Test
+    public void testLongEquality() throws Exception {
+        assertMemoryLeak(bloomFilterFf, () -> {
+            createTable();
+            assertBloomFilter("2024-01-01", true);
+            assertBloomFilter("2024-01-02", true);
+            // last partition is not finalised yet
+            assertBloomFilter("2024-01-03", false);
+
+            engine.releaseAllReaders();
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "id\ttrace\n" +
+                            "14\ttrace-14\n",
+                    "select id, trace from x where id = 14"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+
+            // value is not in the table
+            engine.releaseAllReaders();
+            skippedPartitionOpenCount.set(0);
+            assertSql("id\n", "select id from x where id = 1000 and ts < '2024-01-03'");
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+
+            // partition has matching rows
+            engine.releaseAllReaders();
+            assertSql(
+                    "id\ttrace\n" +
+                            "5\ttrace-5\n",
+                    "select id, trace from x where id = 5"
+            );
+            Assert.assertTrue(skippedPartitionOpenCount.get() > 0);
+        });
+    }
+
+    @Test
+    public void testO3RewritesBloomFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            insert("insert into x (id, trace, ts) values (1000, 'trace-1000', '2024-01-01T12:00:00.000000Z')");
+            assertSql(
+                    "id\ttrace\tts\n" +
+                            "1000\ttrace-1000\t2024-01-01T12:00:00.000000Z\n",
+                    "select id, trace, ts from x where id = 1000"
+            );
+            assertSql(
+                    "id\ttrace\tts\n" +
+                            "1000\ttrace-1000\t2024-01-01T12:00:00.000000Z\n",
+                    "select id, trace, ts from x where trace = 'trace-1000'"
+            );
+        });
+    }
+
+    @Test
+    public void testStringEquality() throws Exception {
+        assertMemoryLeak(bloomFilterFf, () -> {
+            createTable();
+            engine.releaseAllReaders();
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "id\ts\n" +
+                            "15\tstr-15\n",
+                    "select id, s from x where s = 'str-15'"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+        });
+    }
+
+    @Test
+    public void testUuidEquality() throws Exception {
+        assertMemoryLeak(bloomFilterFf, () -> {
+            createTable();
+            final StringSink uuid = new StringSink();
+            try (
+                    RecordCursorFactory factory = select("select u from x where id = 15");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                Assert.assertTrue(cursor.hasNext());
+                Numbers.appendUuid(cursor.getRecord().getLong128Lo(0), cursor.getRecord().getLong128Hi(0), uuid);
+            }
+
+            engine.releaseAllReaders();
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "id\n" +
+                            "15\n",
+                    "select id from x where u = '" + uuid + "'"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+        });
+    }
+
+    @Test
+    public void testVarcharEquality() throws Exception {
+        assertMemoryLeak(bloomFilterFf, () -> {
+            createTable();
+            engine.releaseAllReaders();
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "id\ttrace\n" +
+                            "15\ttrace-15\n",
+                    "select id, trace from x where trace = 'trace-15'"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+
+            // non-ascii values
+            engine.releaseAllReaders();
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "id\ttrace\n" +
+                            "16\tтрейс-16-ok\n",
+                    "select id, trace from x where trace = 'трейс-16-ok'"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+        });
+    }
+
+    private void assertBloomFilter(String partitionName, boolean exists) {
+        final TableToken tableToken = engine.verifyTableName("x");
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(partitionName).concat(TableUtils.BLOOM_FILTER_FILE_NAME).$();
+            Assert.assertEquals(exists, configuration.getFilesFacade().exists(path));
+        }
+    }
+
+    private void createTable() throws Exception {
+        ddl("create table x as (" +
+                "select" +
+                " x id," +
+                " (case when x = 16 then 'трейс-16-ok' else 'trace-' || x end)::varchar trace," +
+                " 'str-' || x s," +
+                " rnd_uuid4() u," +
+                " timestamp_sequence('2024-01-01', 144 * 60 * 1000000L) ts" +
+                " from long_sequence(30)" +
+                ") timestamp(ts) partition by DAY");
+    }
+}
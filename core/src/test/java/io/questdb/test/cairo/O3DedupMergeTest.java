@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.DedupColumnCommitAddresses;
+import io.questdb.cairo.O3DedupMerge;
+import io.questdb.std.*;
+import io.questdb.test.AbstractTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+public class O3DedupMergeTest extends AbstractTest {
+    // INT with column top, LONG, UUID and BYTE dedup keys
+    private static final int[] KEY_SIZES = {4, 8, 16, 1};
+    private static final int[] KEY_TYPES = {ColumnType.INT, ColumnType.LONG, ColumnType.UUID, ColumnType.BYTE};
+
+    @Test
+    public void testLargeConflicts() throws Exception {
+        // conflict ranges wide enough for the key fingerprints
+        assertMergeSameAsNative(300, 200);
+    }
+
+    @Test
+    public void testSmallConflicts() throws Exception {
+        // too few rows in the conflict ranges to build the key fingerprints
+        assertMergeSameAsNative(4, 3);
+    }
+
+    @Test
+    public void testUnbalancedConflicts() throws Exception {
+        // many O3 rows matched by few column rows and the other way around
+        assertMergeSameAsNative(150, 2);
+        assertMergeSameAsNative(2, 150);
+    }
+
+    private static int compareKeys(long[] l, long[] r) {
+        for (int k = 1; k < l.length; k++) {
+            final int diff = Long.compare(l[k], r[k]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static void putKeys(long[][] keyData, int keyIndex, long row, long[] keys) {
+        final long address = keyData[keyIndex][0] + row * KEY_SIZES[keyIndex];
+        switch (keyIndex) {
+            case 0:
+                Unsafe.getUnsafe().putInt(address, (int) keys[1]);
+                break;
+            case 1:
+                Unsafe.getUnsafe().putLong(address, keys[2]);
+                break;
+            case 2:
+                // UUID lo and hi
+                Unsafe.getUnsafe().putLong(address, keys[4]);
+                Unsafe.getUnsafe().putLong(address + 8, keys[3]);
+                break;
+            default:
+                Unsafe.getUnsafe().putByte(address, (byte) keys[5]);
+                break;
+        }
+    }
+
+    private static long[] randomKeys(Rnd rnd, long ts, boolean intKeyNull) {
+        // ts, int key, long key, uuid hi, uuid lo, byte key from small ranges for the keys to match
+        return new long[]{
+                ts,
+                intKeyNull ? Numbers.INT_NaN : rnd.nextInt(4),
+                rnd.nextInt(4),
+                rnd.nextInt(2),
+                rnd.nextInt(2),
+                rnd.nextInt(2)
+        };
+    }
+
+    private void assertMergeSameAsNative(int maxO3RowsPerTs, int maxColumnRowsPerTs) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            final int tsCount = 20;
+            final ArrayList<long[]> columnRows = new ArrayList<>();
+            final ArrayList<long[]> o3Rows = new ArrayList<>();
+            for (int ts = 1; ts <= tsCount; ts++) {
+                final int columnRowCount = rnd.nextInt(maxColumnRowsPerTs + 1);
+                for (int i = 0; i < columnRowCount; i++) {
+                    columnRows.add(randomKeys(rnd, ts, false));
+                }
+                // O3 rows are deduplicated, keys are unique per timestamp
+                final int o3RowCount = rnd.nextInt(maxO3RowsPerTs + 1);
+                final ArrayList<long[]> tsO3Rows = new ArrayList<>();
+                for (int i = 0; i < o3RowCount; i++) {
+                    final long[] keys = randomKeys(rnd, ts, rnd.nextInt(8) == 0);
+                    if (tsO3Rows.stream().noneMatch(r -> compareKeys(r, keys) == 0)) {
+                        tsO3Rows.add(keys);
+                    }
+                }
+                Collections.shuffle(tsO3Rows, new java.util.Random(rnd.nextLong()));
+                o3Rows.addAll(tsO3Rows);
+            }
+            // INT key column is added to the table after the first quarter of the rows
+            final long columnTop = columnRows.size() / 4;
+            for (int i = 0; i < columnTop; i++) {
+                columnRows.get(i)[1] = Numbers.INT_NaN;
+            }
+
+            final int srcCount = columnRows.size();
+            final int indexCount = o3Rows.size();
+            final long[][] columnKeyData = new long[KEY_SIZES.length][];
+            final long[][] o3KeyData = new long[KEY_SIZES.length][];
+            try (
+                    DirectLongList src = new DirectLongList(Math.max(srcCount, 1), MemoryTag.NATIVE_DEFAULT);
+                    DirectLongList index = new DirectLongList(Math.max(indexCount * 2, 1), MemoryTag.NATIVE_DEFAULT);
+                    DirectLongList nativeDest = new DirectLongList((srcCount + indexCount) * 2L + 2, MemoryTag.NATIVE_DEFAULT);
+                    DirectLongList javaDest = new DirectLongList((srcCount + indexCount) * 2L + 2, MemoryTag.NATIVE_DEFAULT);
+                    DedupColumnCommitAddresses keys = new DedupColumnCommitAddresses()
+            ) {
+                try {
+                    for (int k = 0; k < KEY_SIZES.length; k++) {
+                        final long columnSize = Math.max((long) srcCount * KEY_SIZES[k], 1);
+                        final long o3Size = Math.max((long) indexCount * KEY_SIZES[k], 1);
+                        columnKeyData[k] = new long[]{Unsafe.malloc(columnSize, MemoryTag.NATIVE_DEFAULT), columnSize};
+                        o3KeyData[k] = new long[]{Unsafe.malloc(o3Size, MemoryTag.NATIVE_DEFAULT), o3Size};
+                    }
+                    for (int i = 0; i < srcCount; i++) {
+                        src.add(columnRows.get(i)[0]);
+                        for (int k = 0; k < KEY_SIZES.length; k++) {
+                            putKeys(columnKeyData, k, i, columnRows.get(i));
+                        }
+                    }
+                    final Integer[] order = new Integer[indexCount];
+                    for (int i = 0; i < indexCount; i++) {
+                        order[i] = i;
+                        for (int k = 0; k < KEY_SIZES.length; k++) {
+                            putKeys(o3KeyData, k, i, o3Rows.get(i));
+                        }
+                    }
+                    // O3 index is sorted by timestamp and dedup keys
+                    Arrays.sort(order, Comparator.<Integer>comparingLong(i -> o3Rows.get(i)[0]).thenComparing((l, r) -> compareKeys(o3Rows.get(l), o3Rows.get(r))));
+                    for (int i = 0; i < indexCount; i++) {
+                        index.add(o3Rows.get(order[i])[0]);
+                        index.add(order[i]);
+                    }
+
+                    keys.setDedupColumnCount(KEY_SIZES.length);
+                    final long keysAddr = keys.allocateBlock();
+                    for (int k = 0; k < KEY_SIZES.length; k++) {
+                        final long top = k == 0 ? columnTop : 0;
+                        keys.setArrayValues(
+                                keysAddr,
+                                k,
+                                KEY_TYPES[k],
+                                KEY_SIZES[k],
+                                top,
+                                columnKeyData[k][0],
+                                o3KeyData[k][0],
+                                0L,
+                                0L,
+                                0L
+                        );
+                    }
+
+                    final long nativeCount = Vect.mergeDedupTimestampWithLongIndexIntKeys(
+                            src.getAddress(),
+                            0,
+                            srcCount - 1,
+                            index.getAddress(),
+                            0,
+                            indexCount - 1,
+                            nativeDest.getAddress(),
+                            KEY_SIZES.length,
+                            keys.getAddress(keysAddr)
+                    );
+                    final long javaCount = O3DedupMerge.merge(
+                            src.getAddress(),
+                            0,
+                            srcCount - 1,
+                            index.getAddress(),
+                            0,
+                            indexCount - 1,
+                            javaDest.getAddress(),
+                            KEY_SIZES.length,
+                            keys.getAddress(keysAddr)
+                    );
+                    Assert.assertEquals(nativeCount, javaCount);
+                    Assert.assertTrue(javaCount >= Math.max(srcCount, indexCount));
+                    for (long i = 0, n = javaCount * 2; i < n; i++) {
+                        if (nativeDest.get(i) != javaDest.get(i)) {
+                            Assert.fail("merge index mismatch [pos=" + i / 2 + ", native=" + nativeDest.get(i) + ", java=" + javaDest.get(i) + ']');
+                        }
+                    }
+                } finally {
+                    for (int k = 0; k < KEY_SIZES.length; k++) {
+                        if (columnKeyData[k] != null) {
+                            Unsafe.free(columnKeyData[k][0], columnKeyData[k][1], MemoryTag.NATIVE_DEFAULT);
+                        }
+                        if (o3KeyData[k] != null) {
+                            Unsafe.free(o3KeyData[k][0], o3KeyData[k][1], MemoryTag.NATIVE_DEFAULT);
+                        }
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.O3MemoryBudget;
+import io.questdb.std.Os;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class O3MemoryBudgetTest {
+
+    @Test
+    public void testAcquireOverLimitWhenEmpty() {
+        final O3MemoryBudget budget = new O3MemoryBudget(100);
+        Assert.assertTrue(budget.tryAcquire(150));
+        Assert.assertFalse(budget.tryAcquire(1));
+        budget.release(150);
+        Assert.assertEquals(0, budget.getUsed());
+    }
+
+    @Test
+    public void testAcquireTimesOut() {
+        final O3MemoryBudget budget = new O3MemoryBudget(100);
+        Assert.assertTrue(budget.tryAcquire(80));
+        Assert.assertFalse(budget.tryAcquire(50, 1));
+        Assert.assertEquals(80, budget.getUsed());
+    }
+
+    @Test
+    public void testAcquireWaitsForRelease() throws Exception {
+        final O3MemoryBudget budget = new O3MemoryBudget(100);
+        Assert.assertTrue(budget.tryAcquire(80));
+
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiter = new Thread(() -> {
+            if (budget.tryAcquire(50, TimeUnit.MINUTES.toMillis(1))) {
+                acquired.countDown();
+            }
+        });
+        waiter.start();
+
+        Os.sleep(10);
+        Assert.assertEquals(1, acquired.getCount());
+        budget.release(80);
+        // waiter is woken up by the release rather than by its timeout
+        Assert.assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        waiter.join();
+        Assert.assertEquals(50, budget.getUsed());
+    }
+}
@@ -0,0 +1,492 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoConfigurationWrapper;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.DecodedColumnCache;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.parquet.ParquetDecoder;
+import io.questdb.cairo.security.ReadOnlySecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Zip;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+public class ParquetPartitionTest extends AbstractCairoTest {
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        inputRoot = TestUtils.unchecked(() -> temp.newFolder("parquet" + System.nanoTime()).getAbsolutePath());
+        Zip.init();
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Test
+    public void testAttachAsLastPartitionRejected() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 1);
+            exportPartition("x", "2024-01-02", "last.parquet");
+            ddl("create table y as (x where ts < '2024-01-02') timestamp(ts) partition by DAY");
+            makeAttachable("y", "2024-01-02", "last.parquet");
+            assertException(
+                    "alter table y attach partition list '2024-01-02'",
+                    0,
+                    "parquet partition cannot be attached as the last partition",
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testAttachParquetMrFileV1() throws Exception {
+        // written by parquet-mr 1.13.1 with PARQUET_1_0 writer version, uncompressed, dictionary encoding on
+        testAttachParquetMrFile("/parquet/parquet-mr-v1.parquet");
+    }
+
+    @Test
+    public void testAttachParquetMrFileV2Delta() throws Exception {
+        // written by parquet-mr 1.13.1 with PARQUET_2_0 writer version, uncompressed, dictionary encoding off,
+        // 100 rows per page, k = 0..999 being the row number:
+        //   l    required int64                       k * k * k, negated for odd k
+        //   i    optional int32                       MAX_INT - k for even k, MIN_INT + k for odd k, null when k % 7 == 0
+        //   str  optional binary (STRING)             'prefix_' || (k / 100) || '_' || k, null when k % 10 == 9
+        //   ts   required int64 TIMESTAMP(MILLIS)     2024-01-02 plus k minutes
+        // integers are DELTA_BINARY_PACKED across several blocks, strings are DELTA_BYTE_ARRAY
+        assertMemoryLeak(() -> {
+            ddl("create table y (l long, i int, str string, ts timestamp) timestamp(ts) partition by DAY");
+            insert("insert into y values (1, 1, 'x', '2024-01-01T00:00:00.000000Z')");
+            insert("insert into y values (2, 2, 'y', '2024-01-03T00:00:00.000000Z')");
+            copyTestResource("/parquet/parquet-mr-v2-delta.parquet", "parquet-mr.parquet");
+            makeAttachable("y", "2024-01-02", "parquet-mr.parquet");
+            ddl("alter table y attach partition list '2024-01-02'");
+
+            // sum of string lengths is 10701 for the 900 values less 1 for each of the 100 nulls
+            assertSql(
+                    "count\tsum\tmin\tmax\tcount1\tsum1\tcount2\tsum2\tmin1\tmax1\n" +
+                            "1000\t-499250000\t-997002999\t994011992\t857\t-2147483079\t900\t10601\t2024-01-02T00:00:00.000000Z\t2024-01-02T16:39:00.000000Z\n",
+                    "select count(), sum(l), min(l), max(l), count(i), sum(i), count(str), sum(length(str)), min(ts), max(ts) from y where ts in '2024-01-02'"
+            );
+            assertSql(
+                    "l\ti\tstr\tts\n" +
+                            "0\tNaN\tprefix_0_0\t2024-01-02T00:00:00.000000Z\n" +
+                            "-1\t-2147483647\tprefix_0_1\t2024-01-02T00:01:00.000000Z\n" +
+                            "8\t2147483645\tprefix_0_2\t2024-01-02T00:02:00.000000Z\n" +
+                            "994011992\t2147482649\tprefix_9_998\t2024-01-02T16:38:00.000000Z\n" +
+                            "-997002999\t-2147482649\t\t2024-01-02T16:39:00.000000Z\n",
+                    "y where ts in '2024-01-02' and (ts < '2024-01-02T00:03' or ts > '2024-01-02T16:37')"
+            );
+        });
+    }
+
+    @Test
+    public void testAttachParquetMrFileV2Gzip() throws Exception {
+        // written by parquet-mr 1.13.1 with PARQUET_2_0 writer version, GZIP, dictionary encoding on
+        testAttachParquetMrFile("/parquet/parquet-mr-v2-gzip.parquet");
+    }
+
+    @Test
+    public void testAttachRoundTrip() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 1);
+            exportPartition("x", "2024-01-02", "day2.parquet");
+
+            ddl("create table y as (x where ts not in '2024-01-02') timestamp(ts) partition by DAY");
+            makeAttachable("y", "2024-01-02", "day2.parquet");
+            ddl("alter table y attach partition list '2024-01-02'");
+
+            assertSqlCursors("x", "y");
+            // symbol values of the attached partition are added to the symbol map
+            assertSqlCursors("x where sym = 's5'", "y where sym = 's5'");
+            assertSql(
+                    "count\n" +
+                            "12\n",
+                    "select count() from y where ts in '2024-01-02'"
+            );
+
+            // partition is read-only
+            insert("insert into y (l, ts) values (42, '2024-01-02T01:00:00.000000Z')");
+            assertSql(
+                    "count\n" +
+                            "0\n",
+                    "select count() from y where l = 42"
+            );
+
+            assertException("alter table y rename column l to l2", 0, "cannot rename column, table has parquet partitions", false);
+            assertException("alter table y alter column sym add index", 12, "cannot create index, table has parquet partitions", false);
+            assertException("alter table y detach partition list '2024-01-02'", 36, "DETACH_ERR_PARQUET", false);
+
+            // table remains writable
+            ddl("alter table y add column extra int");
+            insert("insert into y (l, ts, extra) values (43, '2024-01-03T23:00:00.000000Z', 1)");
+            assertSql(
+                    "l\textra\tts\n" +
+                            "15\tNaN\t2024-01-02T04:00:00.000000Z\n" +
+                            "43\t1\t2024-01-03T23:00:00.000000Z\n",
+                    "select l, extra, ts from y where l in (15, 43)"
+            );
+
+            ddl("alter table y drop partition list '2024-01-02'");
+            ddl("alter table y drop column extra");
+            assertSqlCursors("x where ts not in '2024-01-02'", "y where l <> 43");
+        });
+    }
+
+    @Test
+    public void testAttachTypeMismatchRejected() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table z as (" +
+                    "select x::double l, timestamp_sequence('2024-01-02', 2 * 60 * 60 * 1000000L) ts from long_sequence(12)" +
+                    ") timestamp(ts) partition by DAY");
+            assertSql("rows\n12\n", "copy z to 'mismatch.parquet'");
+
+            createTable("y", 1);
+            ddl("alter table y drop partition list '2024-01-02'");
+            makeAttachable("y", "2024-01-02", "mismatch.parquet");
+            assertException("alter table y attach partition list '2024-01-02'", 0, "parquet column type mismatch", false);
+        });
+    }
+
+    @Test
+    public void testDecodedColumnMemoryLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 1);
+            exportPartition("x", "2024-01-02", "limit.parquet");
+            ddl("create table y as (x where ts not in '2024-01-02') timestamp(ts) partition by DAY");
+            makeAttachable("y", "2024-01-02", "limit.parquet");
+            ddl("alter table y attach partition list '2024-01-02'");
+
+            final CairoConfiguration limitedConfiguration = new CairoConfigurationWrapper(configuration) {
+                @Override
+                public long getReaderDecodedColumnMemoryLimit() {
+                    return 64;
+                }
+            };
+            try (TableReader reader = newOffPoolReader(limitedConfiguration, "y")) {
+                reader.openPartition(1);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "increase cairo.reader.decoded.column.memory.limit");
+            }
+        });
+    }
+
+    @Test
+    public void testDecodedColumnsSharedByReaders() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 1);
+            exportPartition("x", "2024-01-02", "shared.parquet");
+            ddl("create table y as (x where ts not in '2024-01-02') timestamp(ts) partition by DAY");
+            makeAttachable("y", "2024-01-02", "shared.parquet");
+            ddl("alter table y attach partition list '2024-01-02'");
+
+            final DecodedColumnCache cache = engine.getMessageBus().getDecodedColumnCache();
+            final long usedBefore = cache.getUsed();
+            final int entryCountBefore = cache.getEntryCount();
+            try (TableReader reader1 = getReader("y"); TableReader reader2 = getReader("y")) {
+                Assert.assertNotSame(reader1, reader2);
+                Assert.assertEquals(12, reader1.openPartition(1));
+                final long used = cache.getUsed();
+                final int entryCount = cache.getEntryCount();
+                Assert.assertTrue(used > usedBefore);
+                Assert.assertEquals(entryCountBefore + 14, entryCount);
+
+                // second reader of the same partition uses the same data
+                Assert.assertEquals(12, reader2.openPartition(1));
+                Assert.assertEquals(used, cache.getUsed());
+                Assert.assertEquals(entryCount, cache.getEntryCount());
+            }
+            engine.releaseAllReaders();
+            // released columns stay cached until they are inactive
+            Assert.assertEquals(14, cache.getUnpinnedCount());
+            engine.releaseInactive();
+            Assert.assertEquals(usedBefore, cache.getUsed());
+            Assert.assertEquals(entryCountBefore, cache.getEntryCount());
+        });
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 1);
+            assertSql("rows\n36\n", "copy x to 'x.parquet'");
+            assertException("copy x to 'x.parquet'", 10, "file already exists", false);
+
+            try (
+                    Path path = new Path();
+                    ParquetDecoder decoder = new ParquetDecoder();
+                    MemoryCARW dataMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+                    MemoryCARW auxMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                decoder.of(configuration.getFilesFacade(), path.of(inputRoot).concat("x.parquet").$());
+                Assert.assertEquals(36, decoder.getRowCount());
+                // one row group per partition
+                Assert.assertEquals(3, decoder.getRowGroupCount());
+                Assert.assertEquals(14, decoder.getColumnCount());
+
+                final int l = decoder.getColumnIndex("L");
+                decoder.decodeColumn(l, ColumnType.LONG, dataMem, auxMem, null);
+                for (int i = 0; i < 36; i++) {
+                    Assert.assertEquals(i + 1, dataMem.getLong(i * 8L));
+                }
+
+                dataMem.truncate();
+                auxMem.truncate();
+                decoder.decodeColumn(decoder.getColumnIndex("str"), ColumnType.STRING, dataMem, auxMem, null);
+                TestUtils.assertEquals("a1", dataMem.getStrA(auxMem.getLong(0)));
+                Assert.assertNull(dataMem.getStrA(auxMem.getLong(2 * 8)));
+            }
+        });
+    }
+
+    @Test
+    public void testExportCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table z as (" +
+                    "select x % 10 l, ('s' || (x % 3))::symbol sym, timestamp_sequence('2024-01-01', 1000000L) ts from long_sequence(100000)" +
+                    ") timestamp(ts) partition by DAY");
+            assertSql("rows\n100000\n", "copy z to 'z.parquet'");
+            try (
+                    Path path = new Path();
+                    ParquetDecoder decoder = new ParquetDecoder();
+                    MemoryCARW dataMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+                    MemoryCARW auxMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                path.of(inputRoot).concat("z.parquet").$();
+                // 16 bytes of longs and at least 6 bytes of symbol values per row uncompressed
+                Assert.assertTrue(configuration.getFilesFacade().length(path) < 100000L * 22 / 4);
+
+                decoder.of(configuration.getFilesFacade(), path);
+                decoder.decodeColumn(decoder.getColumnIndex("l"), ColumnType.LONG, dataMem, auxMem, null);
+                for (int i = 0; i < 100000; i++) {
+                    Assert.assertEquals((i + 1) % 10, dataMem.getLong(i * 8L));
+                }
+                dataMem.truncate();
+                auxMem.truncate();
+                decoder.decodeColumn(decoder.getColumnIndex("sym"), ColumnType.STRING, dataMem, auxMem, null);
+                TestUtils.assertEquals("s1", dataMem.getStrA(auxMem.getLong(99999 * 8L)));
+            }
+        });
+    }
+
+    @Test
+    public void testExportDeniedToReadOnlyContext() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 1);
+            final SqlExecutionContext readOnlyContext = new SqlExecutionContextImpl(engine, 1)
+                    .with(ReadOnlySecurityContext.INSTANCE, bindVariableService, null, -1, null);
+            try (SqlCompiler compiler = engine.getSqlCompiler()) {
+                compiler.compile("copy x to 'denied.parquet'", readOnlyContext);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "Write permission denied");
+            }
+            try (Path path = new Path()) {
+                Assert.assertFalse(configuration.getFilesFacade().exists(path.of(inputRoot).concat("denied.parquet").$()));
+            }
+        });
+    }
+
+    @Test
+    public void testExportReadableByPyArrow() throws Exception {
+        // interoperability check against an independent Parquet implementation, runs where pyarrow is installed
+        Assume.assumeTrue("".equals(runPython("import pyarrow.parquet")));
+        assertMemoryLeak(() -> {
+            createTable("x", 1);
+            assertSql("rows\n36\n", "copy x to 'x.parquet'");
+            final String file = inputRoot + Files.SEPARATOR + "x.parquet";
+            TestUtils.assertEquals(
+                    "36\n666\n9\ns6\n",
+                    runPython(
+                            "import pyarrow.parquet as pq\n" +
+                                    "t = pq.read_table('" + file + "')\n" +
+                                    "print(t.num_rows)\n" +
+                                    "print(sum(t.column('l').to_pylist()))\n" +
+                                    "print(t.column('i').null_count)\n" +
+                                    "print(t.column('sym')[5])\n"
+                    )
+            );
+        });
+    }
+
+    @Test
+    public void testExportLargePartitionPaged() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 12_000);
+            exportPartition("x", "2024-01-02", "large.parquet");
+            ddl("create table y as (x where ts not in '2024-01-02') timestamp(ts) partition by DAY");
+            makeAttachable("y", "2024-01-02", "large.parquet");
+            ddl("alter table y attach partition list '2024-01-02'");
+            assertSqlCursors("x", "y");
+        });
+    }
+
+    // returns process output, or null when python is not available or the script fails
+    private static String runPython(String script) {
+        try {
+            final Process process = new ProcessBuilder("python3", "-c", script).redirectErrorStream(true).start();
+            try (InputStream in = process.getInputStream()) {
+                final String output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                if (!process.waitFor(60, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                    process.destroyForcibly();
+                    return null;
+                }
+                return output;
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void copyTestResource(String resourceName, String fileName) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path src = new Path(); Path dst = new Path()) {
+            src.of(TestUtils.getTestResourcePath(resourceName)).$();
+            dst.of(inputRoot).concat(fileName).$();
+            Assert.assertEquals(0, ff.copy(src, dst));
+        }
+    }
+
+    private void createTable(String tableName, int rowsPerStep) throws Exception {
+        final long step = 2 * 60 * 60 * 1000000L / rowsPerStep;
+        ddl("create table " + tableName + " as (" +
+                "select" +
+                " x l," +
+                " x % 2 = 0 b," +
+                " (x % 100)::byte bt," +
+                " (x * 10)::short sh," +
+                " case when x % 4 = 0 then null else x::int end i," +
+                " x * 0.5f f," +
+                " case when x % 5 = 0 then null else x * 1.5 end d," +
+                " case when x % 3 = 0 then null else 'a' || x end str," +
+                " case when x % 3 = 1 then null else ('v' || x)::varchar end vch," +
+                " ('s' || (x % 7))::symbol sym," +
+                " rnd_uuid4() u," +
+                " rnd_long256() l256," +
+                " cast(x as date) dt," +
+                " timestamp_sequence('2024-01-01', " + step + ") ts" +
+                " from long_sequence(" + (36L * rowsPerStep) + ")" +
+                ") timestamp(ts) partition by DAY");
+    }
+
+    private void exportPartition(String tableName, String partition, String fileName) throws Exception {
+        ddl("create table tmp as (" + tableName + " where ts in '" + partition + "') timestamp(ts) partition by DAY");
+        try (
+                RecordCursorFactory factory = select("copy tmp to '" + fileName + "'");
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            Assert.assertTrue(cursor.hasNext());
+        }
+        drop("drop table tmp");
+    }
+
+    /**
+     * Attaches a file that was written by parquet-mr rather than by COPY TO. The file has 12 rows
+     * for 2024-01-02, one every 2 hours, with k = 0..11 being the row number:
+     * <pre>
+     * l    required int64                     100 + k
+     * b    required boolean                   k is even
+     * i    optional int32                     k * 1000, null when k % 4 == 3
+     * d    optional double                    k * 0.25, null when k % 5 == 4
+     * str  optional binary (STRING)           'pmr_' || k, null when k % 3 == 2
+     * sym  required binary (STRING)           's' || (k % 3)
+     * u    required fixed_len_byte_array(16)  11111111-2222-3333-4444-00000000000k (UUID)
+     * ts   required int64                     TIMESTAMP(MICROS, true)
+     * </pre>
+     */
+    private void testAttachParquetMrFile(String resourceName) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table y (l long, b boolean, i int, d double, str string, sym symbol, u uuid, ts timestamp) timestamp(ts) partition by DAY");
+            insert("insert into y values (1, false, 1, 1.0, 'x', 's0', '11111111-2222-3333-4444-ffffffffffff', '2024-01-01T00:00:00.000000Z')");
+            insert("insert into y values (2, false, 2, 2.0, 'y', 's9', '11111111-2222-3333-4444-ffffffffffff', '2024-01-03T00:00:00.000000Z')");
+            copyTestResource(resourceName, "parquet-mr.parquet");
+            makeAttachable("y", "2024-01-02", "parquet-mr.parquet");
+            ddl("alter table y attach partition list '2024-01-02'");
+
+            assertSql(
+                    "l\tb\ti\td\tstr\tsym\tu\tts\n" +
+                            "100\ttrue\t0\t0.0\tpmr_0\ts0\t11111111-2222-3333-4444-000000000000\t2024-01-02T00:00:00.000000Z\n" +
+                            "101\tfalse\t1000\t0.25\tpmr_1\ts1\t11111111-2222-3333-4444-000000000001\t2024-01-02T02:00:00.000000Z\n" +
+                            "102\ttrue\t2000\t0.5\t\ts2\t11111111-2222-3333-4444-000000000002\t2024-01-02T04:00:00.000000Z\n" +
+                            "103\tfalse\tNaN\t0.75\tpmr_3\ts0\t11111111-2222-3333-4444-000000000003\t2024-01-02T06:00:00.000000Z\n" +
+                            "104\ttrue\t4000\tNaN\tpmr_4\ts1\t11111111-2222-3333-4444-000000000004\t2024-01-02T08:00:00.000000Z\n" +
+                            "105\tfalse\t5000\t1.25\t\ts2\t11111111-2222-3333-4444-000000000005\t2024-01-02T10:00:00.000000Z\n" +
+                            "106\ttrue\t6000\t1.5\tpmr_6\ts0\t11111111-2222-3333-4444-000000000006\t2024-01-02T12:00:00.000000Z\n" +
+                            "107\tfalse\tNaN\t1.75\tpmr_7\ts1\t11111111-2222-3333-4444-000000000007\t2024-01-02T14:00:00.000000Z\n" +
+                            "108\ttrue\t8000\t2.0\t\ts2\t11111111-2222-3333-4444-000000000008\t2024-01-02T16:00:00.000000Z\n" +
+                            "109\tfalse\t9000\tNaN\tpmr_9\ts0\t11111111-2222-3333-4444-000000000009\t2024-01-02T18:00:00.000000Z\n" +
+                            "110\ttrue\t10000\t2.5\tpmr_10\ts1\t11111111-2222-3333-4444-00000000000a\t2024-01-02T20:00:00.000000Z\n" +
+                            "111\tfalse\tNaN\t2.75\t\ts2\t11111111-2222-3333-4444-00000000000b\t2024-01-02T22:00:00.000000Z\n",
+                    "y where ts in '2024-01-02'"
+            );
+            assertSql(
+                    "sym\tcount\tsum\n" +
+                            "s0\t5\t419\n" +
+                            "s1\t4\t422\n" +
+                            "s2\t4\t426\n" +
+                            "s9\t1\t2\n",
+                    "select sym, count(), sum(l) from y order by sym"
+            );
+        });
+    }
+
+    private void makeAttachable(String tableName, String partition, String fileName) {
+        final TableToken tableToken = engine.verifyTableName(tableName);
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path src = new Path(); Path dst = new Path()) {
+            dst.of(configuration.getRoot()).concat(tableToken).concat(partition).put(configuration.getAttachPartitionSuffix()).slash$();
+            Assert.assertEquals(0, ff.mkdirs(dst, configuration.getMkDirMode()));
+            dst.concat(TableUtils.PARQUET_PARTITION_FILE_NAME).$();
+            src.of(inputRoot).concat(fileName).$();
+            Assert.assertEquals(0, ff.copy(src, dst));
+        }
+    }
+}
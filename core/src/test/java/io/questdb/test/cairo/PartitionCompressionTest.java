@@ -0,0 +1,360 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionCompressionTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        Zip.init();
+        // one day, in millis
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_COMPRESSION_MIN_AGE, 24 * 60 * 60 * 1000L);
+    }
+
+    @Test
+    public void testAddIndexRejected() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException("alter table x alter column sym add index", -1, "table has compressed partitions", false);
+        });
+    }
+
+    @Test
+    public void testCodecRoundTrip() throws Exception {
+        assertMemoryLeak(() -> {
+            final int n = 10_000;
+            final long size = n * 8L;
+            final long src = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            final long dst = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            final long zStream = Zip.deflateInit();
+            try (MemoryCARW buf = Vm.getCARWInstance(1024 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+                final int[] codecs = {ColumnCodec.CODEC_DEFLATE, ColumnCodec.CODEC_DELTA_OF_DELTA, ColumnCodec.CODEC_RLE};
+                for (int codec : codecs) {
+                    for (int i = 0; i < n; i++) {
+                        Unsafe.getUnsafe().putLong(src + i * 8L, 1_000_000L + i * 10L + (i % 7 == 0 ? -3 : 0));
+                    }
+                    ColumnCodec.compress(src, size, codec, zStream, buf);
+                    Assert.assertTrue(buf.getAppendOffset() < size);
+                    Assert.assertEquals(size, ColumnCodec.getRawSize(buf.addressOf(0), buf.getAppendOffset()));
+                    ColumnCodec.decompress(buf.addressOf(0), buf.getAppendOffset(), dst, size);
+                    for (int i = 0; i < n; i++) {
+                        Assert.assertEquals(Unsafe.getUnsafe().getLong(src + i * 8L), Unsafe.getUnsafe().getLong(dst + i * 8L));
+                    }
+                }
+            } finally {
+                Zip.deflateEnd(zStream);
+                Unsafe.free(src, size, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(dst, size, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testDecompressedColumnMemoryLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            // columns are decompressed when partition opens
+            node1.setProperty(PropertyKey.CAIRO_READER_LAZY_COLUMN_MAPPING_ENABLED, false);
+            createTables();
+            final CairoConfiguration limitedConfiguration = new CairoConfigurationWrapper(configuration) {
+                @Override
+                public long getReaderDecodedColumnMemoryLimit() {
+                    return 64;
+                }
+            };
+            try (TableReader reader = newOffPoolReader(limitedConfiguration, "x")) {
+                Assert.assertTrue(reader.getTxFile().isPartitionCompressed(0));
+                reader.openPartition(0);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "increase cairo.reader.decoded.column.memory.limit");
+            }
+        });
+    }
+
+    @Test
+    public void testDecompressedColumnsSharedByReaders() throws Exception {
+        assertMemoryLeak(() -> {
+            // columns are decompressed when partition opens
+            node1.setProperty(PropertyKey.CAIRO_READER_LAZY_COLUMN_MAPPING_ENABLED, false);
+            createTables();
+            final DecodedColumnCache cache = engine.getMessageBus().getDecodedColumnCache();
+            final long usedBefore = cache.getUsed();
+            final int entryCountBefore = cache.getEntryCount();
+            try (TableReader reader1 = getReader("x"); TableReader reader2 = getReader("x")) {
+                Assert.assertNotSame(reader1, reader2);
+                Assert.assertEquals(12, reader1.openPartition(0));
+                final long used = cache.getUsed();
+                final int entryCount = cache.getEntryCount();
+                Assert.assertTrue(used > usedBefore);
+                // l, sym, d, s (2 files), vc (2 files), designated timestamp is not compressed
+                Assert.assertEquals(entryCountBefore + 7, entryCount);
+
+                // second reader of the same partition uses the same data
+                Assert.assertEquals(12, reader2.openPartition(0));
+                Assert.assertEquals(used, cache.getUsed());
+                Assert.assertEquals(entryCount, cache.getEntryCount());
+            }
+            engine.releaseAllReaders();
+            // released columns stay cached until they are inactive
+            Assert.assertEquals(7, cache.getUnpinnedCount());
+            engine.releaseInactive();
+            Assert.assertEquals(usedBefore, cache.getUsed());
+            Assert.assertEquals(entryCountBefore, cache.getEntryCount());
+        });
+    }
+
+    @Test
+    public void testDecodedColumnsEvicted() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertCompressedPartitionCount(3);
+            final CairoConfiguration limitedConfiguration = new CairoConfigurationWrapper(configuration) {
+                @Override
+                public long getReaderDecodedColumnMemoryLimit() {
+                    // column l of two compressed partitions
+                    return 2 * 12 * Long.BYTES;
+                }
+            };
+            try (
+                    CairoEngine limitedEngine = new CairoEngine(limitedConfiguration);
+                    SqlExecutionContext limitedContext = TestUtils.createSqlExecutionCtx(limitedEngine)
+            ) {
+                final DecodedColumnCache cache = limitedEngine.getMessageBus().getDecodedColumnCache();
+                final String[] expected = {"sum\n78\n", "sum\n222\n", "sum\n366\n"};
+                // scans read more compressed partitions than the cache holds, columns
+                // of the partitions that are not in use are evicted to make room
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int i = 0; i < 3; i++) {
+                        TestUtils.assertSql(
+                                limitedEngine,
+                                limitedContext,
+                                "select sum(l) from x where ts in '2024-01-0" + (i + 1) + "'",
+                                sink,
+                                expected[i]
+                        );
+                        Assert.assertTrue(cache.getUsed() <= cache.getLimit());
+                    }
+                }
+                Assert.assertEquals(2, cache.getUnpinnedCount());
+                Assert.assertEquals(2, cache.getEntryCount());
+
+                // a scan that pins more than the limit still fails
+                try {
+                    TestUtils.assertSql(limitedEngine, limitedContext, "select sum(l) from x", sink, "");
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "increase cairo.reader.decoded.column.memory.limit");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCommitDoesNotCompress() throws Exception {
+        assertMemoryLeak(() -> {
+            insertRows("BYPASS WAL");
+            assertCompressedPartitionCount(0);
+
+            final long txn;
+            try (TableReader reader = getReader("x")) {
+                txn = reader.getTxn();
+            }
+            compressPartitions();
+            assertCompressedPartitionCount(3);
+            try (TableReader reader = getReader("x")) {
+                // each partition is published in a txn of its own
+                Assert.assertEquals(txn + 3, reader.getTxn());
+                Assert.assertEquals(60, reader.size());
+            }
+            assertSqlCursors("y", "x");
+
+            // nothing left to compress
+            compressPartitions();
+            assertCompressedPartitionCount(3);
+        });
+    }
+
+    @Test
+    public void testDetachRejected() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException("alter table x detach partition list '2024-01-01'", -1, "could not detach partition", false);
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_COMPRESSION_MIN_AGE, 0);
+            createTables();
+            assertCompressedPartitionCount(0);
+            assertSqlCursors("y", "x");
+        });
+    }
+
+    @Test
+    public void testQueryCompressedPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            // the last two partitions are too young
+            assertCompressedPartitionCount(3);
+            assertSqlCursors("y", "x");
+            assertSqlCursors("y where sym = 'b' and l > 20", "x where sym = 'b' and l > 20");
+            assertSqlCursors(
+                    "select sym, count(), sum(l), max(s) from y order by sym",
+                    "select sym, count(), sum(l), max(s) from x order by sym"
+            );
+        });
+    }
+
+    @Test
+    public void testO3AppendToCompressedPartition() throws Exception {
+        // row is after the last row of the partition, it is appended in place
+        testO3IntoCompressedPartition("2024-01-01T23:00:00.000000Z");
+    }
+
+    @Test
+    public void testO3MergeIntoCompressedPartition() throws Exception {
+        // row is in between the rows of the partition, the partition is rewritten
+        testO3IntoCompressedPartition("2024-01-01T09:00:00.000000Z");
+    }
+
+    @Test
+    public void testO3IntoCompressedPartitionWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables("WAL");
+            insert("insert into x (l, sym, s, vc, ts) values (-1, 'z', 'late', 'late', '2024-01-01T09:00:00.000000Z')");
+            drainWalQueue();
+            assertSql("count\n1\n", "select count() from x where l = -1");
+            assertSqlCursors("y", "x where l <> -1");
+            assertCompressedPartitionCount(2);
+            compressPartitions();
+            assertCompressedPartitionCount(3);
+            assertSql("l\tts\n-1\t2024-01-01T09:00:00.000000Z\n", "select l, ts from x where l = -1");
+            Assert.assertFalse(engine.getTableSequencerAPI().isSuspended(engine.verifyTableName("x")));
+        });
+    }
+
+    @Test
+    public void testO3RowsKeptWithReaderOpen() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(12, reader.openPartition(0));
+                insert("insert into x (l, ts) values (-1, '2024-01-01T23:00:00.000000Z')");
+                reader.reload();
+                Assert.assertFalse(reader.getTxFile().isPartitionCompressed(0));
+                Assert.assertEquals(13, reader.openPartition(0));
+                Assert.assertEquals(61, reader.size());
+
+                // the job compresses the partition again
+                compressPartitions();
+                reader.reload();
+                Assert.assertTrue(reader.getTxFile().isPartitionCompressed(0));
+                Assert.assertEquals(13, reader.openPartition(0));
+                Assert.assertEquals(61, reader.size());
+            }
+            assertSql("count\n1\n", "select count() from x where l = -1");
+        });
+    }
+
+    private void assertCompressedPartitionCount(int expected) {
+        try (TableReader reader = getReader("x")) {
+            final TxReader txFile = reader.getTxFile();
+            int count = 0;
+            for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+                if (txFile.isPartitionCompressed(i)) {
+                    count++;
+                }
+            }
+            Assert.assertEquals(expected, count);
+        }
+    }
+
+    private void testO3IntoCompressedPartition(String timestamp) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            insert("insert into x (l, sym, s, vc, ts) values (-1, 'z', 'late', 'late', '" + timestamp + "')");
+            // late row is kept, the partition is compressed again by the job
+            assertCompressedPartitionCount(2);
+            final String expected = "l\tsym\ts\tvc\tts\n-1\tz\tlate\tlate\t" + timestamp + "\n";
+            assertSql(expected, "select l, sym, s, vc, ts from x where l = -1");
+            assertSqlCursors("y", "x where l <> -1");
+            compressPartitions();
+            assertCompressedPartitionCount(3);
+            assertSql(expected, "select l, sym, s, vc, ts from x where l = -1");
+            assertSql(expected, "select l, sym, s, vc, ts from x where ts = '" + timestamp + "'");
+            assertSqlCursors("y", "x where l <> -1");
+        });
+    }
+
+    private void compressPartitions() {
+        new PartitionCompressionJob(engine).drain(0);
+    }
+
+    private void createTables() throws Exception {
+        createTables("BYPASS WAL");
+    }
+
+    private void createTables(String walMode) throws Exception {
+        insertRows(walMode);
+        compressPartitions();
+    }
+
+    private void insertRows(String walMode) throws Exception {
+        final String select = "select" +
+                " x l," +
+                " rnd_symbol('a', 'b', 'c') sym," +
+                " rnd_double() d," +
+                " rnd_str(3, 10, 1) s," +
+                " rnd_varchar(3, 10, 1) vc," +
+                " timestamp_sequence('2024-01-01', 2 * 60 * 60 * 1000000L) ts" +
+                " from long_sequence(60)";
+        ddl("create table y as (" + select + ") timestamp(ts) partition by NONE");
+        ddl("create table x (l long, sym symbol, d double, s string, vc varchar, ts timestamp) timestamp(ts) partition by DAY " + walMode);
+        // commit one row at a time, partitions age while rows are inserted
+        for (int i = 0; i < 60; i++) {
+            insert("insert into x select * from y limit " + i + ", " + (i + 1));
+            if (walMode.equals("WAL")) {
+                drainWalQueue();
+            }
+        }
+    }
+}
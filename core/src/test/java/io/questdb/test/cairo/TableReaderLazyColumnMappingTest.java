@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8s;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TableReaderLazyColumnMappingTest extends AbstractCairoTest {
+    private static final int COLUMN_COUNT = 40;
+    private final AtomicInteger narrowColumnOpenCount = new AtomicInteger();
+    private final AtomicInteger otherColumnOpenCount = new AtomicInteger();
+    private final FilesFacade countingFf = new TestFilesFacadeImpl() {
+        @Override
+        public int openRO(LPSZ name) {
+            if (Utf8s.endsWithAscii(name, ".d") || Utf8s.endsWithAscii(name, ".i")) {
+                if (Utf8s.endsWithAscii(name, "c3.d") || Utf8s.endsWithAscii(name, "c7.d")) {
+                    narrowColumnOpenCount.incrementAndGet();
+                } else {
+                    otherColumnOpenCount.incrementAndGet();
+                }
+            }
+            return super.openRO(name);
+        }
+    };
+
+    @Test
+    public void testAppendToDeferredColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("sum\n134550\n", "select sum(c3) from x");
+            // c7 is not mapped yet, it has to be mapped to the new partition size
+            insert("insert into x (c3, c7, v, ts) values (1, 2, 'xyz', '2024-01-03T23:59:00.000000Z')");
+            assertSql("sum\tcount\n313952\t301\n", "select sum(c7), count() from x");
+            assertSql(
+                    "c3\tc7\tv\n" +
+                            "1\t2\txyz\n",
+                    "select c3, c7, v from x where ts = '2024-01-03T23:59:00.000000Z'"
+            );
+        });
+    }
+
+    @Test
+    public void testColumnAdded() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("sum\n134550\n", "select sum(c3) from x");
+            ddl("alter table x add column z long");
+            insert("insert into x (c3, z, ts) values (5, 42, '2024-01-03T23:59:00.000000Z')");
+            assertSql("sum\tsum1\tcount\n134555\t42\t301\n", "select sum(c3), sum(z), count() from x");
+            assertSql("c7\tv\n49\tv-7\n", "select c7, v from x where ts = '2024-01-01T01:40:48.000000Z'");
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(countingFf, () -> {
+            node1.setProperty(PropertyKey.CAIRO_READER_LAZY_COLUMN_MAPPING_ENABLED, false);
+            createTable();
+            engine.releaseAllReaders();
+            resetCounts();
+            assertSql("sum\tsum1\n134550\t313950\n", "select sum(c3), sum(c7) from x");
+            Assert.assertEquals(6, narrowColumnOpenCount.get());
+            Assert.assertTrue(otherColumnOpenCount.get() >= 3 * COLUMN_COUNT);
+        });
+    }
+
+    @Test
+    public void testMaxMappedColumns() throws Exception {
+        assertMemoryLeak(countingFf, () -> {
+            node1.setProperty(PropertyKey.CAIRO_INACTIVE_READER_MAX_MAPPED_COLUMNS, 4);
+            createTable();
+            engine.releaseAllReaders();
+            assertSql("sum\tsum1\n134550\t313950\n", "select sum(c3), sum(c7) from x");
+
+            // only the columns of the two latest partitions stay mapped while the reader is in the pool
+            resetCounts();
+            assertSql("sum\tsum1\n134550\t313950\n", "select sum(c3), sum(c7) from x");
+            Assert.assertEquals(2, narrowColumnOpenCount.get());
+            Assert.assertEquals(0, otherColumnOpenCount.get());
+
+            // no limit
+            node1.setProperty(PropertyKey.CAIRO_INACTIVE_READER_MAX_MAPPED_COLUMNS, 0);
+            engine.releaseAllReaders();
+            assertSql("sum\tsum1\n134550\t313950\n", "select sum(c3), sum(c7) from x");
+            resetCounts();
+            assertSql("sum\tsum1\n134550\t313950\n", "select sum(c3), sum(c7) from x");
+            Assert.assertEquals(0, narrowColumnOpenCount.get());
+            Assert.assertEquals(0, otherColumnOpenCount.get());
+        });
+    }
+
+    @Test
+    public void testNarrowQueryMapsProjectedColumnsOnly() throws Exception {
+        assertMemoryLeak(countingFf, () -> {
+            createTable();
+            engine.releaseAllReaders();
+            resetCounts();
+            assertSql("sum\tsum1\n134550\t313950\n", "select sum(c3), sum(c7) from x");
+            Assert.assertEquals(6, narrowColumnOpenCount.get());
+            Assert.assertEquals(0, otherColumnOpenCount.get());
+
+            // record cursor path, timestamp column is read to find the interval
+            engine.releaseAllReaders();
+            resetCounts();
+            assertSql(
+                    "c3\tc7\n" +
+                            "75\t175\n",
+                    "select c3, c7 from x where ts = '2024-01-01T06:00:00.000000Z'"
+            );
+            Assert.assertEquals(2, narrowColumnOpenCount.get());
+            Assert.assertEquals(1, otherColumnOpenCount.get());
+
+            // wide query still sees all the columns
+            assertSql(
+                    "c0\tc3\tc7\tc39\tv\n" +
+                            "0\t75\t175\t975\tv-25\n",
+                    "select c0, c3, c7, c39, v from x where ts = '2024-01-01T06:00:00.000000Z'"
+            );
+        });
+    }
+
+    private void createTable() throws Exception {
+        final StringBuilder ddl = new StringBuilder("create table x as (select ");
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            ddl.append("(x - 1) * ").append(i).append(" c").append(i).append(", ");
+        }
+        // 100 rows per day
+        ddl.append("('v-' || (x - 1))::varchar v, timestamp_sequence('2024-01-01', 864000000L) ts from long_sequence(300)) timestamp(ts) partition by day");
+        ddl(ddl);
+    }
+
+    private void resetCounts() {
+        narrowColumnOpenCount.set(0);
+        otherColumnOpenCount.set(0);
+    }
+}
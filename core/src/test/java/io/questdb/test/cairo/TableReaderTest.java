@@ -24,6 +24,7 @@
 
 package io.questdb.test.cairo;
 
+import io.questdb.Metrics;
 import io.questdb.PropertyKey;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
@@ -2499,6 +2500,57 @@ public class TableReaderTest extends AbstractCairoTest {
         testReload(PartitionBy.DAY, 10, 60L * 60000, MUST_NOT_SWITCH);
     }
 
+    @Test
+    public void testReloadMetrics() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = "reload_metrics";
+            TableModel model = new TableModel(configuration, tableName, PartitionBy.DAY);
+            model.col("i", ColumnType.INT).col("sym", ColumnType.SYMBOL);
+            model.timestamp();
+            AbstractCairoTest.create(model);
+
+            final TableReaderMetrics readerMetrics = Metrics.enabled().tableReader();
+            try (
+                    TableReader reader = new TableReader(configuration, engine.verifyTableName(tableName), null, readerMetrics);
+                    TableWriter writer = newOffPoolWriter(configuration, tableName, metrics)
+            ) {
+                Assert.assertFalse(reader.reload());
+                Assert.assertEquals(0, readerMetrics.getReloadCount());
+
+                long timestamp = TimestampFormatUtils.parseUTCTimestamp("2024-01-01T10:00:00.000000Z");
+                // append to the open partition twice, then to a new partition
+                for (int i = 0; i < 3; i++) {
+                    if (i == 2) {
+                        timestamp += Timestamps.DAY_MICROS;
+                    }
+                    for (int j = 0; j < 10; j++) {
+                        TableWriter.Row row = writer.newRow(timestamp++);
+                        row.putInt(0, j);
+                        row.putSym(1, "s" + (i * 10 + j));
+                        row.append();
+                    }
+                    writer.commit();
+
+                    Assert.assertTrue(reader.reload());
+                    Assert.assertEquals(10 * (i + 1), reader.size());
+                    Assert.assertEquals(i + 1, readerMetrics.getReloadCount());
+                    // first partition of an empty table is not an append to the open partition
+                    Assert.assertEquals(i, readerMetrics.getIncrementalReloadCount());
+                    Assert.assertEquals(10 * (i + 1), reader.getSymbolMapReader(1).getSymbolCount());
+                }
+
+                Assert.assertFalse(reader.reload());
+                Assert.assertEquals(3, readerMetrics.getReloadCount());
+
+                writer.truncate();
+                Assert.assertTrue(reader.reload());
+                Assert.assertEquals(0, reader.size());
+                Assert.assertEquals(4, readerMetrics.getReloadCount());
+                Assert.assertEquals(2, readerMetrics.getIncrementalReloadCount());
+            }
+        });
+    }
+
     @Test
     public void testReloadNonPartitioned() throws Exception {
         testReload(PartitionBy.NONE, 10, 60L * 60000, DO_NOT_CARE);
@@ -444,6 +444,45 @@ public class TxnScoreboardTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testReleaseByAnotherScoreboard() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int scoreboardCount = 8;
+            final TxnScoreboard[] scoreboards = new TxnScoreboard[scoreboardCount];
+            try (final Path shmPath = new Path()) {
+                for (int i = 0; i < scoreboardCount; i++) {
+                    scoreboards[i] = new TxnScoreboard(TestFilesFacadeImpl.INSTANCE, 1024).ofRW(shmPath.of(root));
+                }
+                // every scoreboard counts its readers on its own stripe, the reader count
+                // of txn must add up the stripes
+                for (int i = 0; i < scoreboardCount; i++) {
+                    Assert.assertTrue(scoreboards[i].acquireTxn(10));
+                }
+                for (int i = 0; i < scoreboardCount; i++) {
+                    Assert.assertTrue(scoreboards[i].acquireTxn(11));
+                }
+                Assert.assertEquals(scoreboardCount, scoreboards[0].getActiveReaderCount(10));
+                Assert.assertEquals(scoreboardCount, scoreboards[0].getActiveReaderCount(11));
+
+                // release all readers of txn 10 from a single scoreboard
+                for (int i = 0; i < scoreboardCount; i++) {
+                    Assert.assertEquals(scoreboardCount - i - 1, scoreboards[0].releaseTxn(10));
+                    Assert.assertEquals(i < scoreboardCount - 1 ? 10 : 11, scoreboards[1].getMin());
+                }
+                Assert.assertTrue(scoreboards[1].isTxnAvailable(10));
+
+                // release txn 11 readers from the scoreboards that did not acquire them
+                for (int i = 0; i < scoreboardCount; i++) {
+                    scoreboards[(i + 1) % scoreboardCount].releaseTxn(11);
+                    Assert.assertEquals(scoreboardCount - i - 1, scoreboards[i].getActiveReaderCount(11));
+                }
+                Assert.assertTrue(scoreboards[0].isRangeAvailable(10, 12));
+            } finally {
+                Misc.free(scoreboards);
+            }
+        });
+    }
+
     @Test
     public void testStartContention() throws Exception {
         int readers = 8;
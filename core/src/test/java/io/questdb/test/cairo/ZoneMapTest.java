@@ -0,0 +1,278 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TableWriter;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8s;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ZoneMapTest extends AbstractCairoTest {
+    private final AtomicInteger skippedPartitionOpenCount = new AtomicInteger();
+    private final FilesFacade zoneMapFf = new TestFilesFacadeImpl() {
+        @Override
+        public int openRO(LPSZ name) {
+            if (Utf8s.containsAscii(name, "2024-01-01") && Utf8s.endsWithAscii(name, "v.d")) {
+                skippedPartitionOpenCount.incrementAndGet();
+            }
+            return super.openRO(name);
+        }
+    };
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAP_ENABLED, true);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAP_ENABLED, false);
+            createTable();
+            assertZoneMap("2024-01-01", false);
+            assertSql(
+                    "v\td\tts\n" +
+                            "6\t9.0\t2024-01-02T16:00:00.000000Z\n",
+                    "x where v = 6"
+            );
+        });
+    }
+
+    @Test
+    public void testFilterDouble() throws Exception {
+        assertMemoryLeak(zoneMapFf, () -> {
+            createTable();
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "v\td\tts\n" +
+                            "4\t6.0\t2024-01-02T00:00:00.000000Z\n" +
+                            "5\t7.5\t2024-01-02T08:00:00.000000Z\n" +
+                            "6\t9.0\t2024-01-02T16:00:00.000000Z\n",
+                    "x where d > 5.0 and d < 10.0"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+        });
+    }
+
+    @Test
+    public void testFilterLong() throws Exception {
+        assertMemoryLeak(zoneMapFf, () -> {
+            createTable();
+            assertZoneMap("2024-01-01", true);
+            assertZoneMap("2024-01-02", true);
+            // last partition is not finalised yet
+            assertZoneMap("2024-01-03", false);
+
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "v\td\tts\n" +
+                            "6\t9.0\t2024-01-02T16:00:00.000000Z\n",
+                    "x where v = 6"
+            );
+            assertSql(
+                    "v\td\tts\n" +
+                            "8\t12.0\t2024-01-03T08:00:00.000000Z\n" +
+                            "7\t10.5\t2024-01-03T00:00:00.000000Z\n",
+                    "x where 6 < v and v < 9 order by ts desc"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+
+            // partition has matching rows
+            assertSql(
+                    "v\td\tts\n" +
+                            "1\t1.5\t2024-01-01T00:00:00.000000Z\n",
+                    "x where v <= 1"
+            );
+            Assert.assertTrue(skippedPartitionOpenCount.get() > 0);
+        });
+    }
+
+    @Test
+    public void testFilterWithInterval() throws Exception {
+        assertMemoryLeak(zoneMapFf, () -> {
+            createTable();
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "v\td\tts\n" +
+                            "4\t6.0\t2024-01-02T00:00:00.000000Z\n",
+                    "x where ts in '2024-01-01;2d' and v between 4 and 4 and v >= 4"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+        });
+    }
+
+    @Test
+    public void testO3AppendMergesZoneMap() throws Exception {
+        assertMemoryLeak(zoneMapFf, () -> {
+            createTable();
+            // rows are appended to the first partition in place, without null value
+            // affecting min and max of the existing rows
+            insert("insert into x values (100, null, '2024-01-01T20:00:00.000000Z')");
+            insert("insert into x values (101, 0.5, '2024-01-01T21:00:00.000000Z')");
+
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "v\td\tts\n" +
+                            "4\t6.0\t2024-01-02T00:00:00.000000Z\n" +
+                            "5\t7.5\t2024-01-02T08:00:00.000000Z\n" +
+                            "6\t9.0\t2024-01-02T16:00:00.000000Z\n",
+                    "x where d > 5.0 and d < 10.0"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+
+            assertSql(
+                    "v\td\tts\n" +
+                            "100\tNaN\t2024-01-01T20:00:00.000000Z\n" +
+                            "101\t0.5\t2024-01-01T21:00:00.000000Z\n",
+                    "x where v > 50"
+            );
+            assertSql(
+                    "v\td\tts\n" +
+                            "101\t0.5\t2024-01-01T21:00:00.000000Z\n",
+                    "x where d < 1.0"
+            );
+            Assert.assertTrue(skippedPartitionOpenCount.get() > 0);
+        });
+    }
+
+    @Test
+    public void testO3RewritesZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            // O3 insert into the first partition extends its max value
+            insert("insert into x values (100, 150.0, '2024-01-01T12:00:00.000000Z')");
+            assertSql(
+                    "v\td\tts\n" +
+                            "100\t150.0\t2024-01-01T12:00:00.000000Z\n",
+                    "x where v > 50"
+            );
+            assertSql(
+                    "v\td\tts\n" +
+                            "100\t150.0\t2024-01-01T12:00:00.000000Z\n",
+                    "x where d >= 150"
+            );
+        });
+    }
+
+    @Test
+    public void testWriteFailureRetriedOnClose() throws Exception {
+        final AtomicInteger failCount = new AtomicInteger(1);
+        final FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public int rename(LPSZ from, LPSZ to) {
+                if (Utf8s.endsWithAscii(to, TableUtils.ZONE_MAP_FILE_NAME) && failCount.getAndDecrement() > 0) {
+                    return Files.FILES_RENAME_ERR_OTHER;
+                }
+                return super.rename(from, to);
+            }
+        };
+        assertMemoryLeak(ff, () -> {
+            createTable();
+            // first partition failed when pooled writer was ticked, it stays pending
+            assertZoneMap("2024-01-01", false);
+            assertZoneMap("2024-01-02", true);
+
+            engine.releaseAllWriters();
+            assertZoneMap("2024-01-01", true);
+        });
+    }
+
+    @Test
+    public void testZoneMapScheduledOnOpen() throws Exception {
+        assertMemoryLeak(zoneMapFf, () -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAP_ENABLED, false);
+            createTable();
+            engine.releaseAllWriters();
+            assertZoneMap("2024-01-01", false);
+
+            // partitions finalised by the previous writer get zone maps without new rows being committed
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAP_ENABLED, true);
+            try (TableWriter ignore = newOffPoolWriter(configuration, "x")) {
+                assertZoneMap("2024-01-01", false);
+            }
+            assertZoneMap("2024-01-01", true);
+            assertZoneMap("2024-01-02", true);
+            assertZoneMap("2024-01-03", false);
+
+            skippedPartitionOpenCount.set(0);
+            assertSql(
+                    "v\td\tts\n" +
+                            "6\t9.0\t2024-01-02T16:00:00.000000Z\n",
+                    "x where v = 6"
+            );
+            Assert.assertEquals(0, skippedPartitionOpenCount.get());
+        });
+    }
+
+    @Test
+    public void testZoneMapWrittenOnClose() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (v long, d double, ts timestamp) timestamp(ts) partition by DAY");
+            engine.releaseAllWriters();
+            try (TableWriter writer = newOffPoolWriter(configuration, "x")) {
+                for (int i = 0; i < 9; i++) {
+                    TableWriter.Row row = writer.newRow(i * 8 * Timestamps.HOUR_MICROS);
+                    row.putLong(0, i + 1);
+                    row.putDouble(1, (i + 1) * 1.5);
+                    row.append();
+                }
+                writer.commit();
+                // writer is not ticked, zone maps are still pending
+                assertZoneMap("1970-01-01", false);
+            }
+            assertZoneMap("1970-01-01", true);
+            assertZoneMap("1970-01-02", true);
+            assertZoneMap("1970-01-03", false);
+        });
+    }
+
+    private void assertZoneMap(String partitionName, boolean exists) {
+        final TableToken tableToken = engine.verifyTableName("x");
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(partitionName).concat(TableUtils.ZONE_MAP_FILE_NAME).$();
+            Assert.assertEquals(exists, configuration.getFilesFacade().exists(path));
+        }
+    }
+
+    private void createTable() throws Exception {
+        ddl("create table x as (" +
+                "select x v, x * 1.5 d, timestamp_sequence('2024-01-01', 8 * 60 * 60 * 1000000L) ts from long_sequence(9)" +
+                ") timestamp(ts) partition by DAY");
+    }
+}
@@ -28,8 +28,10 @@ import io.questdb.PropertyKey;
 import io.questdb.cairo.*;
 import io.questdb.cairo.wal.WalUtils;
 import io.questdb.cairo.wal.WalWriter;
+import io.questdb.cairo.wal.seq.TableMetadataChangeLog;
 import io.questdb.cairo.wal.seq.TableTransactionLog;
 import io.questdb.cairo.wal.seq.TransactionLogCursor;
+import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.std.ObjList;
 import io.questdb.std.Rnd;
 import io.questdb.std.str.Path;
@@ -161,6 +163,39 @@ public class TableSequencerImplTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testMetadataChangeLogFromLateVersion() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            TableModel model = new TableModel(configuration, tableName, PartitionBy.HOUR)
+                    .col("int", ColumnType.INT)
+                    .timestamp("ts")
+                    .wal();
+            createTable(model);
+
+            // enough changes for the metadata log to span several pages
+            final int iterations = 500;
+            final TableToken tableToken = engine.verifyTableName(tableName);
+            try (WalWriter ww = engine.getWalWriter(tableToken)) {
+                for (int i = 0; i < iterations; i++) {
+                    addColumn(ww, "newCol" + i, ColumnType.INT);
+                }
+            }
+
+            for (long structureVersionLo : new long[]{0, 1, iterations / 2, iterations - 1, iterations}) {
+                try (TableMetadataChangeLog changeLog = engine.getTableSequencerAPI().getMetadataChangeLogSlow(tableToken, structureVersionLo)) {
+                    long changeCount = 0;
+                    while (changeLog.hasNext()) {
+                        AlterOperation alterOperation = (AlterOperation) changeLog.next();
+                        Assert.assertEquals(AlterOperation.ADD_COLUMN, alterOperation.getCommand());
+                        changeCount++;
+                    }
+                    Assert.assertEquals(iterations - structureVersionLo, changeCount);
+                }
+            }
+        });
+    }
+
     @Test
     public void testTxnDistressedCursorRace() throws Exception {
         int readers = 3;
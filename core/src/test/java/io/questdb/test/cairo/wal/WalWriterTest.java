@@ -32,10 +32,12 @@ import io.questdb.cairo.wal.*;
 import io.questdb.griffin.SqlUtil;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
 import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.*;
 import io.questdb.std.str.*;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.cairo.TableModel;
+import io.questdb.test.mp.TestWorkerPool;
 import io.questdb.test.std.TestFilesFacadeImpl;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -794,6 +796,33 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCoalesceInOrderTransactions() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_APPLY_COALESCE_ENABLED, true);
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createTable(testName.getMethodName());
+
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T20:00:00.000000Z')");
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T21:00:00.000000Z')");
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T23:00:00.000000Z')");
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T22:00:00.000000Z')");
+
+            final long commitsBefore = engine.getMetrics().tableWriter().getCommitCount();
+            drainWalQueue();
+
+            // All transactions are applied with a single commit.
+            Assert.assertEquals(1, engine.getMetrics().tableWriter().getCommitCount() - commitsBefore);
+            assertSql(
+                    "a\tb\tts\n" +
+                            "0\t\t2023-08-04T20:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T21:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T22:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T23:00:00.000000Z\n",
+                    tableToken.getTableName()
+            );
+        });
+    }
+
     @Test
     public void testCommit() throws Exception {
         assertMemoryLeak(() -> {
@@ -929,6 +958,138 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCommitAsyncDoesNotFlushSynchronously() throws Exception {
+        final AtomicInteger syncFlushes = new AtomicInteger();
+        final FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public void fsync(int fd) {
+                syncFlushes.incrementAndGet();
+                super.fsync(fd);
+            }
+
+            @Override
+            public void msync(long addr, long len, boolean async) {
+                if (!async) {
+                    syncFlushes.incrementAndGet();
+                }
+                super.msync(addr, len, async);
+            }
+        };
+        node1.setProperty(PropertyKey.CAIRO_COMMIT_MODE, "async");
+
+        assertMemoryLeak(ff, () -> {
+            TableToken tableToken = createTable(testName.getMethodName());
+
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                for (int i = 0; i < 10; i++) {
+                    TableWriter.Row row = walWriter.newRow(0);
+                    row.putByte(0, (byte) i);
+                    row.append();
+
+                    syncFlushes.set(0);
+                    walWriter.commit();
+                    // column files and the event log are flushed asynchronously,
+                    // sequencer transaction log is the only file flushed synchronously
+                    assertEquals(1, syncFlushes.get());
+                }
+            }
+
+            drainWalQueue();
+            assertSql("count\n10\n", "select count() from " + tableToken.getTableName());
+        });
+    }
+
+    @Test
+    public void testCompactTimestampRollsUncommittedRowsToNewSegment() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_SEGMENT_COMPACT_TIMESTAMP_ENABLED, true);
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createTable(testName.getMethodName());
+
+            final String walName;
+            try (WalWriter walWriter1 = engine.getWalWriter(tableToken)) {
+                try (WalWriter walWriter2 = engine.getWalWriter(tableToken)) {
+                    walName = walWriter2.getWalName();
+
+                    TableWriter.Row row = walWriter2.newRow(3000);
+                    row.putByte(0, (byte) 1);
+                    row.append();
+                    walWriter2.commit();
+
+                    row = walWriter2.newRow(2000);
+                    row.putByte(0, (byte) 2);
+                    row.append();
+                    row = walWriter2.newRow(1000);
+                    row.putByte(0, (byte) 3);
+                    row.append();
+
+                    // uncommitted rows of walWriter2 are copied to a new segment
+                    addColumn(walWriter1, "c", ColumnType.INT);
+                    walWriter2.commit();
+                }
+            }
+
+            try (WalReader reader = engine.getWalReader(sqlExecutionContext.getSecurityContext(), tableToken, walName, 1, 2)) {
+                assertTrue(reader.isCompactTimestamp());
+                assertEquals(2, reader.size());
+
+                final RecordCursor cursor = reader.getDataCursor();
+                final Record record = cursor.getRecord();
+                assertTrue(cursor.hasNext());
+                assertEquals(2, record.getByte(0));
+                assertEquals(2000, record.getTimestamp(2));
+                assertEquals(0, ((WalDataRecord) record).getDesignatedTimestampRowId(2));
+                assertTrue(cursor.hasNext());
+                assertEquals(3, record.getByte(0));
+                assertEquals(1000, record.getTimestamp(2));
+                assertEquals(1, ((WalDataRecord) record).getDesignatedTimestampRowId(2));
+                assertFalse(cursor.hasNext());
+            }
+
+            drainWalQueue();
+            assertSql(
+                    "a\tb\tts\tc\n" +
+                            "3\t\t1970-01-01T00:00:00.001000Z\tNaN\n" +
+                            "2\t\t1970-01-01T00:00:00.002000Z\tNaN\n" +
+                            "1\t\t1970-01-01T00:00:00.003000Z\tNaN\n",
+                    tableToken.getTableName()
+            );
+        });
+    }
+
+    @Test
+    public void testCompactTimestampSegmentsApplyWithDedup() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, k int, v int) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, k)");
+            insert("insert into x values ('2024-01-02T10:00:00.000000Z', 1, 1), ('2024-01-02T09:00:00.000000Z', 1, 2)");
+
+            // WAL writers created from now on write compact timestamp segments
+            node1.setProperty(PropertyKey.CAIRO_WAL_SEGMENT_COMPACT_TIMESTAMP_ENABLED, true);
+            engine.releaseInactive();
+            insert("insert into x values ('2024-01-02T11:00:00.000000Z', 1, 3), ('2024-01-02T09:00:00.000000Z', 1, 4), ('2024-01-01T09:00:00.000000Z', 2, 5)");
+            insert("insert into x values ('2024-01-02T09:00:00.000000Z', 2, 6), ('2024-01-02T10:00:00.000000Z', 1, 7)");
+
+            final TableToken tableToken = engine.verifyTableName("x");
+            try (WalReader reader = engine.getWalReader(sqlExecutionContext.getSecurityContext(), tableToken, WAL_NAME_BASE + 1, 0, 2)) {
+                assertFalse(reader.isCompactTimestamp());
+            }
+            try (WalReader reader = engine.getWalReader(sqlExecutionContext.getSecurityContext(), tableToken, WAL_NAME_BASE + 2, 0, 5)) {
+                assertTrue(reader.isCompactTimestamp());
+            }
+
+            drainWalQueue();
+            assertSql(
+                    "ts\tk\tv\n" +
+                            "2024-01-01T09:00:00.000000Z\t2\t5\n" +
+                            "2024-01-02T09:00:00.000000Z\t1\t4\n" +
+                            "2024-01-02T09:00:00.000000Z\t2\t6\n" +
+                            "2024-01-02T10:00:00.000000Z\t1\t7\n" +
+                            "2024-01-02T11:00:00.000000Z\t1\t3\n",
+                    "x"
+            );
+        });
+    }
+
     @Test
     public void testConcurrentAddRemoveColumn_DifferentColNamePerThread() throws Exception {
         assertMemoryLeak(() -> {
@@ -1221,6 +1382,18 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testDesignatedTimestampCompact_NotOOO() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_SEGMENT_COMPACT_TIMESTAMP_ENABLED, true);
+        testDesignatedTimestampIncludesSegmentRowNumber(new int[]{1000, 1200}, false);
+    }
+
+    @Test
+    public void testDesignatedTimestampCompact_OOO() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_SEGMENT_COMPACT_TIMESTAMP_ENABLED, true);
+        testDesignatedTimestampIncludesSegmentRowNumber(new int[]{1500, 1200}, true);
+    }
+
     @Test
     public void testDesignatedTimestampIncludesSegmentRowNumber_NotOOO() throws Exception {
         testDesignatedTimestampIncludesSegmentRowNumber(new int[]{1000, 1200}, false);
@@ -1316,6 +1489,121 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testGroupCommit() throws Exception {
+        final AtomicInteger fsyncs = new AtomicInteger();
+        final FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public void fsync(int fd) {
+                fsyncs.incrementAndGet();
+                super.fsync(fd);
+            }
+
+            @Override
+            public int sync() {
+                throw new UnsupportedOperationException("file system must not be synced");
+            }
+        };
+        node1.setProperty(PropertyKey.CAIRO_COMMIT_MODE, "sync");
+        node1.setProperty(PropertyKey.CAIRO_WAL_GROUP_COMMIT_DELAY, 10_000);
+
+        assertMemoryLeak(ff, () -> {
+            TableToken tableToken = createTable(testName.getMethodName());
+            Assert.assertTrue(engine.getWalGroupCommit().isEnabled());
+
+            final int numOfThreads = 4;
+            final int numOfTxn = 10;
+            final SOCountDownLatch writeFinished = new SOCountDownLatch(numOfThreads);
+            final ConcurrentMap<Integer, Throwable> errors = new ConcurrentHashMap<>(numOfThreads);
+            for (int i = 0; i < numOfThreads; i++) {
+                final int threadIndex = i;
+                new Thread(() -> {
+                    try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                        for (int n = 0; n < numOfTxn; n++) {
+                            TableWriter.Row row = walWriter.newRow(0);
+                            row.putByte(0, (byte) n);
+                            row.append();
+                            walWriter.commit();
+                        }
+                    } catch (Throwable th) {
+                        errors.put(threadIndex, th);
+                    } finally {
+                        TableUtils.clearThreadLocals();
+                        writeFinished.countDown();
+                    }
+                }).start();
+            }
+            writeFinished.await();
+
+            if (!errors.isEmpty()) {
+                for (Throwable th : errors.values()) {
+                    th.printStackTrace();
+                }
+                Assert.fail("Write failed");
+            }
+
+            // commits of concurrent writers share syncs
+            final long syncCount = engine.getWalGroupCommit().getSyncCount();
+            Assert.assertTrue(syncCount > 0);
+            Assert.assertTrue(fsyncs.get() >= syncCount);
+            Assert.assertTrue(syncCount < numOfThreads * numOfTxn);
+
+            drainWalQueue();
+            assertSql("count\n" + numOfThreads * numOfTxn + "\n", "select count() from " + tableToken.getTableName());
+        });
+    }
+
+    @Test
+    public void testGroupCommitFsyncError() throws Exception {
+        final AtomicInteger failFsync = new AtomicInteger();
+        final FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public void fsync(int fd) {
+                if (failFsync.get() > 0) {
+                    throw CairoException.critical(5).put("could not fsync [fd=").put(fd).put(']');
+                }
+                super.fsync(fd);
+            }
+        };
+        node1.setProperty(PropertyKey.CAIRO_COMMIT_MODE, "sync");
+        node1.setProperty(PropertyKey.CAIRO_WAL_GROUP_COMMIT_DELAY, 0);
+
+        assertMemoryLeak(ff, () -> {
+            TableToken tableToken = createTable(testName.getMethodName());
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                TableWriter.Row row = walWriter.newRow(0);
+                row.putByte(0, (byte) 1);
+                row.append();
+                walWriter.commit();
+                final long syncCount = engine.getWalGroupCommit().getSyncCount();
+
+                row = walWriter.newRow(0);
+                row.putByte(0, (byte) 2);
+                row.append();
+                failFsync.set(1);
+                try {
+                    walWriter.commit();
+                    Assert.fail("Exception expected");
+                } catch (CairoException e) {
+                    Assert.assertTrue(e.isCritical());
+                    Assert.assertEquals(5, e.getErrno());
+                    TestUtils.assertContains(e.getFlyweightMessage(), "could not fsync WAL files");
+                }
+                Assert.assertEquals(syncCount + 1, engine.getWalGroupCommit().getSyncCount());
+                Assert.assertTrue(walWriter.isDistressed());
+            }
+
+            // group commit recovers once files can be synced
+            failFsync.set(0);
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                TableWriter.Row row = walWriter.newRow(0);
+                row.putByte(0, (byte) 3);
+                row.append();
+                walWriter.commit();
+            }
+        });
+    }
+
     @Test
     public void testLargeSegmentRollover() throws Exception {
         assertMemoryLeak(() -> {
@@ -1437,6 +1725,44 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testO3JobsOnWalApplyPool() throws Exception {
+        assertMemoryLeak(() -> {
+            try (WorkerPool walApplyPool = new TestWorkerPool(2, metrics)) {
+                // partition tasks of WAL commits are processed by a pool other than the shared one
+                O3Utils.setupO3Jobs(walApplyPool, engine.getMessageBus());
+                walApplyPool.start();
+
+                TableToken tableToken = createTable(testName.getMethodName());
+                final String tableName = tableToken.getTableName();
+
+                insert("insert into " + tableName + "(a, ts) values (1, '2023-08-04T20:00:00.000000Z')");
+                insert("insert into " + tableName + "(a, ts) values (2, '2023-08-04T21:00:00.000000Z')");
+                insert("insert into " + tableName + "(a, ts) values (3, '2023-08-04T22:00:00.000000Z')");
+                drainWalQueue();
+
+                // merge into every existing partition
+                insert("insert into " + tableName + "(a, ts) values " +
+                        "(4, '2023-08-04T22:30:00.000000Z'), " +
+                        "(5, '2023-08-04T21:30:00.000000Z'), " +
+                        "(6, '2023-08-04T20:30:00.000000Z')");
+                drainWalQueue();
+
+                assertSql(
+                        "a\tb\tts\n" +
+                                "1\t\t2023-08-04T20:00:00.000000Z\n" +
+                                "6\t\t2023-08-04T20:30:00.000000Z\n" +
+                                "2\t\t2023-08-04T21:00:00.000000Z\n" +
+                                "5\t\t2023-08-04T21:30:00.000000Z\n" +
+                                "3\t\t2023-08-04T22:00:00.000000Z\n" +
+                                "4\t\t2023-08-04T22:30:00.000000Z\n",
+                        tableName
+                );
+                walApplyPool.halt();
+            }
+        });
+    }
+
     @Test
     public void testOverlappingStructureChangeCannotCreateFile() throws Exception {
         final FilesFacade ff = new TestFilesFacadeImpl() {
@@ -3265,6 +3591,7 @@ public class WalWriterTest extends AbstractCairoTest {
                 assertEquals(walName, reader.getWalName());
                 assertEquals(tableName, reader.getTableName());
                 assertEquals(3, reader.size());
+                assertEquals(configuration.isWalSegmentCompactTimestampEnabled(), reader.isCompactTimestamp());
 
                 final RecordCursor cursor = reader.getDataCursor();
                 final Record record = cursor.getRecord();
@@ -3306,6 +3633,18 @@ public class WalWriterTest extends AbstractCairoTest {
 
                 assertFalse(eventCursor.hasNext());
             }
+
+            try (Path path = new Path().of(configuration.getRoot())) {
+                final FilesFacade ff = configuration.getFilesFacade();
+                final int fd = ff.openRO(path.concat(tableToken).concat(walName).slash().put(0).concat("ts.d").$());
+                try {
+                    // compact segments store timestamps only, otherwise each timestamp is followed by the row number
+                    final long expected = configuration.isWalSegmentCompactTimestampEnabled() ? ts + timestampOffsets[0] : 0;
+                    assertEquals(expected, ff.readNonNegativeLong(fd, Long.BYTES));
+                } finally {
+                    ff.close(fd);
+                }
+            }
         });
     }
 
@@ -141,7 +141,7 @@ public class SeqTxnTrackerTest {
                 new Thread(() -> {
                     try {
                         startBarrier.await();
-                        if (tracker.notifyOnCommit(2 + finalI)) {
+                        if (tracker.notifyOnCommit(2 + finalI, 100 + finalI)) {
                             successes.incrementAndGet();
                         }
                         doneLatch.countDown();
@@ -160,6 +160,31 @@ public class SeqTxnTrackerTest {
             Assert.assertEquals(1, tracker.getWriterTxn());
             Assert.assertEquals(1 + threads, tracker.getSeqTxn());
             Assert.assertFalse(tracker.isSuspended());
+            // the first commit to arrive starts the lag
+            Assert.assertTrue(tracker.getLagStartTimestamp() >= 100 && tracker.getLagStartTimestamp() < 100 + threads);
         });
     }
+
+    @Test
+    public void testLagStartTimestamp() {
+        final SeqTxnTracker tracker = new SeqTxnTracker();
+        tracker.initTxns(1, 1, false);
+        Assert.assertEquals(0, tracker.getLagStartTimestamp());
+
+        Assert.assertTrue(tracker.notifyOnCommit(2, 1000));
+        Assert.assertFalse(tracker.notifyOnCommit(3, 2000));
+        Assert.assertEquals(1000, tracker.getLagStartTimestamp());
+
+        // partially applied, the lag starts no later than the last applied commit
+        tracker.notifyApplied(1000);
+        Assert.assertTrue(tracker.notifyCommitReadable(2));
+        Assert.assertEquals(1000, tracker.getLagStartTimestamp());
+
+        tracker.notifyApplied(2000);
+        Assert.assertFalse(tracker.notifyCommitReadable(3));
+        Assert.assertEquals(0, tracker.getLagStartTimestamp());
+
+        Assert.assertTrue(tracker.notifyOnCommit(4, 3000));
+        Assert.assertEquals(3000, tracker.getLagStartTimestamp());
+    }
 }
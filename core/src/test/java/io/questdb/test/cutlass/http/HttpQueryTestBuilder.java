@@ -52,6 +52,7 @@ import io.questdb.test.std.TestFilesFacadeImpl;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.LongSupplier;
 
 import static io.questdb.test.tools.TestUtils.assertMemoryLeak;
@@ -253,6 +254,27 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    private final AtomicInteger tailConnectionCount = new AtomicInteger();
+
+                    @Override
+                    public String getUrl() {
+                        return "/tail";
+                    }
+
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new TableTailProcessor(
+                                httpConfiguration.getJsonQueryProcessorConfiguration(),
+                                httpConfiguration.getDispatcherConfiguration(),
+                                engine,
+                                tailConnectionCount,
+                                workerPool.getWorkerCount(),
+                                workerPool.getWorkerCount()
+                        );
+                    }
+                });
+
                 httpServer.bind(new HttpRequestProcessorFactory() {
                     @Override
                     public String getUrl() {
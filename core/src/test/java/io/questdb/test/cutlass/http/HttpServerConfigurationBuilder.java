@@ -42,6 +42,7 @@ public class HttpServerConfigurationBuilder {
     private boolean allowDeflateBeforeSend;
     private String baseDir;
     private long configuredMaxQueryResponseRowLimit = Long.MAX_VALUE;
+    private int tailConnectionLimit = 4;
     private boolean dumpTraffic;
     private FactoryProvider factoryProvider;
     private byte httpHealthCheckAuthType = SecurityContext.AUTH_TYPE_NONE;
@@ -123,6 +124,16 @@ public class HttpServerConfigurationBuilder {
                 public NanosecondClock getNanosecondClock() {
                     return nanosecondClock;
                 }
+
+                @Override
+                public int getTailConnectionLimit() {
+                    return tailConnectionLimit;
+                }
+
+                @Override
+                public boolean isTailEnabled() {
+                    return true;
+                }
             };
             private final StaticContentProcessorConfiguration staticContentProcessorConfiguration = new StaticContentProcessorConfiguration() {
                 @Override
@@ -364,6 +375,11 @@ public class HttpServerConfigurationBuilder {
         return this;
     }
 
+    public HttpServerConfigurationBuilder withTailConnectionLimit(int tailConnectionLimit) {
+        this.tailConnectionLimit = tailConnectionLimit;
+        return this;
+    }
+
     public HttpServerConfigurationBuilder withTcpSndBufSize(int tcpSndBufSize) {
         this.tcpSndBufSize = tcpSndBufSize;
         return this;
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.http;
+
+import io.questdb.DefaultFactoryProvider;
+import io.questdb.FactoryProvider;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.security.AllowAllSecurityContext;
+import io.questdb.cairo.security.SecurityContextFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+import io.questdb.test.AbstractTest;
+import io.questdb.test.tools.TestUtils;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TableTailProcessorTest extends AbstractTest {
+    @Rule
+    public Timeout timeout = Timeout.builder()
+            .withTimeout(5 * 60 * 1000, TimeUnit.MILLISECONDS)
+            .withLookingForStuckThread(true)
+            .build();
+
+    @Test
+    public void testBadFilter() throws Exception {
+        getSimpleTester().run(engine -> {
+            try (SqlExecutionContext executionContext = TestUtils.createSqlExecutionCtx(engine)) {
+                engine.ddl("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by day bypass wal", executionContext);
+            }
+            assertTail(
+                    "{\"query\":\"price + 1\",\"error\":\"boolean expression expected\",\"position\":6}",
+                    "x",
+                    "price + 1",
+                    null
+            );
+            assertTail(
+                    "{\"query\":\"price > 1 1\",\"error\":\"dangling expression\",\"position\":10}",
+                    "x",
+                    "price > 1 1",
+                    null
+            );
+            assertTail(
+                    "{\"query\":\"price > 1 limit 1\",\"error\":\"unexpected token [limit]\",\"position\":10}",
+                    "x",
+                    "price > 1 limit 1",
+                    null
+            );
+        });
+    }
+
+    @Test
+    public void testConnectionLimit() throws Exception {
+        getSimpleTester()
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder().withTailConnectionLimit(1))
+                .run(engine -> {
+                    try (SqlExecutionContext executionContext = TestUtils.createSqlExecutionCtx(engine)) {
+                        engine.ddl("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by day bypass wal", executionContext);
+                        engine.insert("insert into x values ('A', 1.5, '2024-01-01T00:00:00.000000Z')", executionContext);
+
+                        final AtomicReference<Throwable> error = new AtomicReference<>();
+                        final Thread client = new Thread(() -> {
+                            try {
+                                assertTail(
+                                        "\"sym\",\"price\",\"ts\"\r\n" +
+                                                "\"B\",2.5,\"2024-01-02T00:00:00.000000Z\"\r\n",
+                                        "x",
+                                        null,
+                                        null
+                                );
+                            } catch (Throwable th) {
+                                error.set(th);
+                            }
+                        });
+                        client.start();
+
+                        // the first stream holds the only slot while it waits for new rows,
+                        // until it is registered, the other requests complete with existing rows
+                        while (true) {
+                            try {
+                                assertTail(
+                                        "{\"query\":\"\",\"error\":\"too many tail connections [limit=1]\",\"position\":0}",
+                                        "x",
+                                        null,
+                                        "top"
+                                );
+                                break;
+                            } catch (AssertionError e) {
+                                Os.sleep(10);
+                            }
+                        }
+
+                        engine.insert("insert into x values ('B', 2.5, '2024-01-02T00:00:00.000000Z')", executionContext);
+                        client.join();
+                        if (error.get() != null) {
+                            throw new AssertionError(error.get());
+                        }
+
+                        // the slot is released once the stream completes
+                        assertTail(
+                                "\"sym\",\"price\",\"ts\"\r\n" +
+                                        "\"A\",1.5,\"2024-01-01T00:00:00.000000Z\"\r\n",
+                                "x",
+                                null,
+                                "top"
+                        );
+                    }
+                });
+    }
+
+    @Test
+    public void testSelectNotAuthorized() throws Exception {
+        final FactoryProvider factoryProvider = new DefaultFactoryProvider() {
+            @Override
+            public @NotNull SecurityContextFactory getSecurityContextFactory() {
+                return (principal, groups, authType, interfaceId) -> new AllowAllSecurityContext() {
+                    @Override
+                    public void authorizeSelect(TableToken tableToken, @NotNull ObjList<CharSequence> columnNames) {
+                        throw CairoException.authorization().put("select is not allowed");
+                    }
+                };
+            }
+        };
+        getSimpleTester().withFactoryProvider(factoryProvider).run(engine -> {
+            try (SqlExecutionContext executionContext = TestUtils.createSqlExecutionCtx(engine)) {
+                engine.ddl("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by day bypass wal", executionContext);
+            }
+            assertTail(
+                    "{\"query\":\"\",\"error\":\"[-1] select is not allowed\",\"position\":0}",
+                    "x",
+                    null,
+                    null
+            );
+            // request is rejected before a reader is taken
+            Assert.assertNull(engine.getReaderPoolEntries().get(engine.verifyTableName("x").getDirName()));
+        });
+    }
+
+    @Test
+    public void testTableDoesNotExist() throws Exception {
+        getSimpleTester().run(engine -> assertTail(
+                "{\"query\":\"\",\"error\":\"[-1] table does not exist [table=y]\",\"position\":0}",
+                "y",
+                null,
+                null
+        ));
+    }
+
+    @Test
+    public void testTailFromTopWithFilter() throws Exception {
+        getSimpleTester().run(engine -> {
+            try (SqlExecutionContext executionContext = TestUtils.createSqlExecutionCtx(engine)) {
+                engine.ddl("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by day bypass wal", executionContext);
+                engine.insert("insert into x values ('A', 1.5, '2024-01-01T00:00:00.000000Z'), ('B', 2.5, '2024-01-01T00:00:01.000000Z')", executionContext);
+
+                final AtomicReference<Throwable> error = new AtomicReference<>();
+                final Thread client = new Thread(() -> {
+                    try {
+                        assertTail(
+                                "\"sym\",\"price\",\"ts\"\r\n" +
+                                        "\"A\",1.5,\"2024-01-01T00:00:00.000000Z\"\r\n" +
+                                        "\"A\",3.5,\"2024-01-02T00:00:00.000000Z\"\r\n" +
+                                        "\"A\",5.5,\"2024-01-03T00:00:00.000000Z\"\r\n",
+                                "x",
+                                "sym = 'A'",
+                                "top"
+                        );
+                    } catch (Throwable th) {
+                        error.set(th);
+                    }
+                });
+                client.start();
+
+                // rows committed after the tail has started, whether before
+                // or after it caught up with existing data, must be streamed
+                engine.insert("insert into x values ('A', 3.5, '2024-01-02T00:00:00.000000Z'), ('B', 4.5, '2024-01-02T00:00:01.000000Z')", executionContext);
+                engine.insert("insert into x values ('A', 5.5, '2024-01-03T00:00:00.000000Z')", executionContext);
+
+                client.join();
+                if (error.get() != null) {
+                    throw new AssertionError(error.get());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testTailNewRowsOnly() throws Exception {
+        getSimpleTester().run(engine -> {
+            try (SqlExecutionContext executionContext = TestUtils.createSqlExecutionCtx(engine)) {
+                engine.ddl("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by day bypass wal", executionContext);
+                engine.insert("insert into x values ('A', 1.5, '2024-01-01T00:00:00.000000Z'), ('B', 2.5, '2024-01-01T00:00:01.000000Z')", executionContext);
+
+                final AtomicReference<Throwable> error = new AtomicReference<>();
+                final Thread client = new Thread(() -> {
+                    try {
+                        assertTail(
+                                "\"sym\",\"price\",\"ts\"\r\n" +
+                                        "\"C\",42.0,\"2024-01-02T00:00:00.000000Z\"\r\n" +
+                                        "\"C\",42.0,\"2024-01-02T00:00:00.000000Z\"\r\n",
+                                "x",
+                                null,
+                                null
+                        );
+                    } catch (Throwable th) {
+                        error.set(th);
+                    }
+                });
+                client.start();
+
+                // we do not know when the tail starts, keep committing
+                // identical rows until the client receives what it waits for
+                while (client.isAlive()) {
+                    engine.insert("insert into x values ('C', 42.0, '2024-01-02T00:00:00.000000Z')", executionContext);
+                    client.join(20);
+                }
+                if (error.get() != null) {
+                    throw new AssertionError(error.get());
+                }
+            }
+        });
+    }
+
+    private static void assertTail(String expected, String table, String filter, String from) {
+        final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+        params.put("table", table);
+        if (filter != null) {
+            params.put("filter", filter);
+        }
+        if (from != null) {
+            params.put("from", from);
+        }
+        params.put("limit", expected.startsWith("{") ? "1" : String.valueOf(countLines(expected) - 1));
+        params.put("poll", "5");
+        try (TestHttpClient httpClient = new TestHttpClient()) {
+            httpClient.assertGet("/tail", expected, params, null, null);
+        }
+    }
+
+    private static int countLines(String s) {
+        int count = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (s.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        Assert.assertTrue(count > 0);
+        return count;
+    }
+
+    private HttpQueryTestBuilder getSimpleTester() {
+        return new HttpQueryTestBuilder()
+                .withTempFolder(root)
+                .withWorkerCount(1)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder())
+                .withTelemetry(false);
+    }
+}
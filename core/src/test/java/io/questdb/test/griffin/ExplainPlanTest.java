@@ -6165,8 +6165,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             // multiple count_distinct, no re-write
             assertPlan("SELECT count_distinct(s), count_distinct(x) FROM test",
-                    "GroupBy vectorized: false\n" +
+                    "Async Group By workers: 1\n" +
                             "  values: [count_distinct(s),count_distinct(x)]\n" +
+                            "  filter: null\n" +
                             "    DataFrame\n" +
                             "        Row forward scan\n" +
                             "        Frame forward scan on: test\n");
@@ -6909,8 +6910,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol, ts timestamp);",
                 "select count_distinct(s) from tab",
-                "GroupBy vectorized: false\n" +
+                "Async Group By workers: 1\n" +
                         "  values: [count_distinct(s)]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -6922,8 +6924,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol index, ts timestamp);",
                 "select count_distinct(s) from tab",
-                "GroupBy vectorized: false\n" +
+                "Async Group By workers: 1\n" +
                         "  values: [count_distinct(s)]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -6990,6 +6993,20 @@ public class ExplainPlanTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testSelectCountDistinct7() throws Exception {
+        // symbol keys of non-column symbol functions may differ between workers, so they stay serial
+        assertPlan(
+                "create table tab ( s string, ts timestamp)",
+                "select count_distinct(s::symbol), count() from tab",
+                "GroupBy vectorized: false\n" +
+                        "  values: [count_distinct(s::symbol),count(*)]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: tab\n"
+        );
+    }
+
     @Test
     public void testSelectDesc() throws Exception {
         assertPlan(
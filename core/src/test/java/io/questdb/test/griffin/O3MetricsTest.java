@@ -26,19 +26,27 @@ package io.questdb.test.griffin;
 
 import io.questdb.Metrics;
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.O3MemoryBudget;
 import io.questdb.cairo.TableWriter;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.str.Path;
+import io.questdb.test.cairo.DefaultTestCairoConfiguration;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class O3MetricsTest extends AbstractO3Test {
     private static final long MICROS_IN_DAY = 86400000000L;
     private static final long MICROS_IN_HOUR = 3600000000L;
     private static final long MICROS_IN_MINUTE = 60000000L;
     private static final long MILLENNIUM = 946684800000000L;  // 2020-01-01T00:00:00
+    private static final long ROW_SIZE = Integer.BYTES + Long.BYTES;
 
     @Test
     public void testAppendOneRow() throws Exception {
@@ -171,6 +179,7 @@ public class O3MetricsTest extends AbstractO3Test {
 
             // There was a single partition which had to be re-written, along with the additional record.
             Assert.assertEquals(initRowCount * 2 + 1, metrics.tableWriter().getPhysicallyWrittenRows());
+            Assert.assertEquals((initRowCount + 1) * ROW_SIZE, metrics.tableWriter().getO3RewrittenBytes());
         });
     }
 
@@ -288,6 +297,7 @@ public class O3MetricsTest extends AbstractO3Test {
 
             // No partitions had to be re-written: New records appended at the end of each.
             Assert.assertEquals(initRowCount + 6, metrics.tableWriter().getPhysicallyWrittenRows());
+            Assert.assertEquals(0, metrics.tableWriter().getO3RewrittenBytes());
         });
     }
 
@@ -323,6 +333,116 @@ public class O3MetricsTest extends AbstractO3Test {
         });
     }
 
+    @Test
+    public void testMergeMemoryBudget() throws Exception {
+        // budget fits a single partition merge, the writer has to finish
+        // each merge before it publishes the next one
+        executeVanilla(() -> TestUtils.execute(null, (engine, compiler, sqlExecutionContext) -> {
+            final long initRowCount = 48;
+            setupBasicTable(engine, compiler, sqlExecutionContext, initRowCount);
+
+            try (TableWriter w = TestUtils.getWriter(engine, "x")) {
+                TableWriter.Row r;
+
+                r = w.newRow(millenniumTimestamp(0, 8, 30));
+                r.putInt(0, 101);
+                r.append();
+
+                r = w.newRow(millenniumTimestamp(1, 8, 30));
+                r.putInt(0, 102);
+                r.append();
+
+                r = w.newRow(millenniumTimestamp(2, 1, 30));
+                r.putInt(0, 103);
+                r.append();
+
+                w.commit();
+                Assert.assertEquals((initRowCount + 3) * ROW_SIZE, w.getO3RewrittenBytesSinceLastCommit());
+            }
+
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(i), min(ts), max(ts) from x",
+                    sink,
+                    "count\tsum\tmin\tmax\n" +
+                            "51\t1482\t2000-01-01T05:00:00.000000Z\t2000-01-03T04:00:00.000000Z\n"
+            );
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts from x where i > 100",
+                    sink,
+                    "ts\n" +
+                            "2000-01-01T08:30:00.000000Z\n" +
+                            "2000-01-02T08:30:00.000000Z\n" +
+                            "2000-01-03T01:30:00.000000Z\n"
+            );
+
+            Assert.assertEquals(0, engine.getMessageBus().getO3MemoryBudget().getUsed());
+            Metrics metrics = engine.getMetrics();
+            Assert.assertEquals((initRowCount + 3) * ROW_SIZE, metrics.tableWriter().getO3RewrittenBytes());
+        }, new DefaultTestCairoConfiguration(root) {
+            @Override
+            public long getO3MergeMemoryBudget() {
+                return 400;
+            }
+        }, Metrics.enabled(), LOG));
+    }
+
+    @Test
+    public void testMergeMemoryBudgetHeldElsewhere() throws Exception {
+        // writer holding no reservation waits for the budget to be released by others
+        executeVanilla(() -> TestUtils.execute(null, (engine, compiler, sqlExecutionContext) -> {
+            final long initRowCount = 48;
+            setupBasicTable(engine, compiler, sqlExecutionContext, initRowCount);
+
+            final O3MemoryBudget budget = engine.getMessageBus().getO3MemoryBudget();
+            Assert.assertTrue(budget.tryAcquire(400));
+            final AtomicInteger errors = new AtomicInteger();
+            final CountDownLatch committed = new CountDownLatch(1);
+            try (TableWriter w = TestUtils.getWriter(engine, "x")) {
+                TableWriter.Row r = w.newRow(millenniumTimestamp(0, 8, 30));
+                r.putInt(0, 101);
+                r.append();
+
+                final Thread th = new Thread(() -> {
+                    try {
+                        w.commit();
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                        errors.incrementAndGet();
+                    } finally {
+                        Path.clearThreadLocals();
+                        committed.countDown();
+                    }
+                });
+                th.start();
+
+                Assert.assertFalse(committed.await(50, TimeUnit.MILLISECONDS));
+                budget.release(400);
+                Assert.assertTrue(committed.await(30, TimeUnit.SECONDS));
+                th.join();
+            }
+            Assert.assertEquals(0, errors.get());
+
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts from x where i > 100",
+                    sink,
+                    "ts\n" +
+                            "2000-01-01T08:30:00.000000Z\n"
+            );
+            Assert.assertEquals(0, budget.getUsed());
+        }, new DefaultTestCairoConfiguration(root) {
+            @Override
+            public long getO3MergeMemoryBudget() {
+                return 400;
+            }
+        }, Metrics.enabled(), LOG));
+    }
+
     @Test
     public void testWithO3MaxLag() throws Exception {
         executeVanillaWithMetrics((engine, compiler, sqlExecutionContext) -> {
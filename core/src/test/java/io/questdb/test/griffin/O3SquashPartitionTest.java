@@ -27,13 +27,16 @@ package io.questdb.test.griffin;
 import io.questdb.Metrics;
 import io.questdb.PropertyKey;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.PartitionSquashJob;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlException;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.cairo.Overrides;
 import io.questdb.test.std.TestFilesFacadeImpl;
@@ -603,6 +606,152 @@ public class O3SquashPartitionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSplitMidPartitionKeepSplits() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_O3_MID_PARTITION_MAX_SPLITS, 2);
+
+            ddl(
+                    "create table x as (" +
+                            "select" +
+                            " cast(x as int) i," +
+                            " -x j," +
+                            " rnd_symbol(null,'5','16','2') as sym," +
+                            " timestamp_sequence('2020-02-03T13', 60*1000000L) ts" +
+                            " from long_sequence(60*24*2)" +
+                            "), index(sym) timestamp (ts) partition by DAY",
+                    sqlExecutionContext
+            );
+
+            ddl(
+                    "create table z as (" +
+                            "select" +
+                            " cast(x as int) * 1000000 i," +
+                            " -x - 1000000L as j," +
+                            " rnd_symbol(null,'5','16','2') as sym," +
+                            " timestamp_sequence('2020-02-04T23:01', 1000000L) ts" +
+                            " from long_sequence(50))",
+                    sqlExecutionContext
+            );
+
+            ddl(
+                    "create table z2 as (" +
+                            "select" +
+                            " cast(x as int) * 2000000 i," +
+                            " -x - 2000000L as j," +
+                            " rnd_symbol(null,'5','16','2') as sym," +
+                            " timestamp_sequence('2020-02-04T22:01', 1000000L) ts" +
+                            " from long_sequence(50))",
+                    sqlExecutionContext
+            );
+
+            ddl(
+                    "create table y (" +
+                            "i int," +
+                            "j long," +
+                            "sym symbol," +
+                            "ts timestamp)",
+                    sqlExecutionContext
+            );
+            ddl("insert into y select * from x", sqlExecutionContext);
+            ddl("insert into y select * from z", sqlExecutionContext);
+            ddl("insert into y select * from z2", sqlExecutionContext);
+
+            // the split of the mid partition is kept, only the tail of the day has been written
+            ddl("insert into x select * from z", sqlExecutionContext);
+            String partitionsSql = "select name, minTimestamp, numRows from table_partitions('x')";
+            assertSql("name\tminTimestamp\tnumRows\n" +
+                    "2020-02-03\t2020-02-03T13:00:00.000000Z\t660\n" +
+                    "2020-02-04\t2020-02-04T00:00:00.000000Z\t1381\n" +
+                    "2020-02-04T230000-000001\t2020-02-04T23:01:00.000000Z\t109\n" +
+                    "2020-02-05\t2020-02-05T00:00:00.000000Z\t780\n", partitionsSql
+            );
+
+            // third part of the day is over the limit, the parts are squashed back to two
+            ddl("insert into x select * from z2", sqlExecutionContext);
+            assertSql("name\tminTimestamp\tnumRows\n" +
+                    "2020-02-03\t2020-02-03T13:00:00.000000Z\t660\n" +
+                    "2020-02-04\t2020-02-04T00:00:00.000000Z\t1431\n" +
+                    "2020-02-04T230000-000001\t2020-02-04T23:01:00.000000Z\t109\n" +
+                    "2020-02-05\t2020-02-05T00:00:00.000000Z\t780\n", partitionsSql
+            );
+
+            TestUtils.assertSqlCursors(
+                    engine,
+                    sqlExecutionContext,
+                    "y order by ts",
+                    "x",
+                    LOG,
+                    true
+            );
+            TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y where sym = '5' order by ts", "x where sym = '5'", LOG);
+            TestUtils.assertIndexBlockCapacity(engine, "x", "sym");
+        });
+    }
+
+    @Test
+    public void testSplitMidPartitionSquashJob() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_SQUASH_JOB_ENABLED, true);
+
+            createMidPartitionSplitTables("x");
+            ddl("insert into x select * from z", sqlExecutionContext);
+
+            // commit left the split to the job
+            String partitionsSql = "select name, numRows from table_partitions('x')";
+            assertSql("name\tnumRows\n" +
+                    "2020-02-03\t660\n" +
+                    "2020-02-04\t1381\n" +
+                    "2020-02-04T230000-000001\t109\n" +
+                    "2020-02-05\t780\n", partitionsSql
+            );
+
+            PartitionSquashJob job = new PartitionSquashJob(engine);
+            job.drain(0);
+
+            assertSql("name\tnumRows\n" +
+                    "2020-02-03\t660\n" +
+                    "2020-02-04\t1490\n" +
+                    "2020-02-05\t780\n", partitionsSql
+            );
+            TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y order by ts", "x", LOG, true);
+            TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y where sym = '5' order by ts", "x where sym = '5'", LOG);
+            TestUtils.assertIndexBlockCapacity(engine, "x", "sym");
+        });
+    }
+
+    @Test
+    public void testSplitMidPartitionSquashJobIoLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_SQUASH_JOB_ENABLED, true);
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_SQUASH_JOB_IO_LIMIT, 1024);
+            currentMicros = 0;
+            try {
+                createMidPartitionSplitTables("x");
+                ddl("create table x2 as (select * from x) timestamp(ts) partition by DAY", sqlExecutionContext);
+                ddl("insert into x select * from z", sqlExecutionContext);
+                ddl("insert into x2 select * from z", sqlExecutionContext);
+
+                PartitionSquashJob job = new PartitionSquashJob(engine);
+                // squashing x writes more than a second worth of the allowance
+                job.drain(0);
+                assertSql("count\n3\n", "select count() from table_partitions('x')");
+                assertSql("count\n4\n", "select count() from table_partitions('x2')");
+
+                currentMicros += Timestamps.SECOND_MICROS / 2;
+                job.drain(0);
+                assertSql("count\n4\n", "select count() from table_partitions('x2')");
+
+                currentMicros += 5 * Timestamps.SECOND_MICROS;
+                job.drain(0);
+                assertSql("count\n3\n", "select count() from table_partitions('x2')");
+                TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y order by ts", "x2", LOG, true);
+            } finally {
+                currentMicros = -1;
+            }
+        });
+    }
+
     @Test
     public void testSplitMidPartitionOpenReader() throws Exception {
         assertMemoryLeak(() -> {
@@ -762,6 +911,43 @@ public class O3SquashPartitionTest extends AbstractCairoTest {
         return rowCount;
     }
 
+    private void createMidPartitionSplitTables(String tableName) throws SqlException {
+        // y is the expected content of the table after rows of z are inserted
+        ddl(
+                "create table " + tableName + " as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " -x j," +
+                        " rnd_symbol(null,'5','16','2') as sym," +
+                        " timestamp_sequence('2020-02-03T13', 60*1000000L) ts" +
+                        " from long_sequence(60*24*2)" +
+                        "), index(sym) timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+
+        ddl(
+                "create table z as (" +
+                        "select" +
+                        " cast(x as int) * 1000000 i," +
+                        " -x - 1000000L as j," +
+                        " rnd_symbol(null,'5','16','2') as sym," +
+                        " timestamp_sequence('2020-02-04T23:01', 1000000L) ts" +
+                        " from long_sequence(50))",
+                sqlExecutionContext
+        );
+
+        ddl(
+                "create table y (" +
+                        "i int," +
+                        "j long," +
+                        "sym symbol," +
+                        "ts timestamp)",
+                sqlExecutionContext
+        );
+        ddl("insert into y select * from " + tableName, sqlExecutionContext);
+        ddl("insert into y select * from z", sqlExecutionContext);
+    }
+
     private long getPhysicalRowsSinceLastCommit() {
         try (TableWriter tw = getWriter("x")) {
             return tw.getPhysicallyWrittenRowsSinceLastCommit();
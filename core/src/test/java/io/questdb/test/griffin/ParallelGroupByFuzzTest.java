@@ -1168,6 +1168,17 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelNonKeyedGroupByWithApproxPercentileFunction() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelGroupByAllTypes(
+                "SELECT approx_percentile(ashort::long, 0.5) p50, approx_percentile(ashort * 1000000L, 0.99, 2) p99 FROM tab",
+                "p50\tp99\n" +
+                        "543.0\t1.015021567E9\n"
+        );
+    }
+
     @Test
     public void testParallelNonKeyedGroupByWithBindVariablesInFilter() throws Exception {
         testParallelGroupByAllTypes(
@@ -1223,6 +1234,17 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelNonKeyedGroupByWithCountDistinctStrFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelGroupByAllTypes(
+                "SELECT count_distinct(astring) cs, count_distinct(asymbol) cy FROM tab",
+                "cs\tcy\n" +
+                        "3353\t4\n"
+        );
+    }
+
     @Test
     public void testParallelNonKeyedGroupByWithCountDistinctTimestampFunction() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -1365,6 +1387,28 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelNonKeyedGroupByWithStatisticalFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelGroupByAllTypes(
+                "SELECT round(stddev_samp(adouble), 6) stddev, round(var_pop(afloat), 6) var, round(covar_samp(adouble, afloat), 6) covar, " +
+                        "round(corr(adouble, afloat), 6) corr, round(ksum(adouble), 6) ksum, round(nsum(adouble), 6) nsum FROM tab",
+                "stddev\tvar\tcovar\tcorr\tksum\tnsum\n" +
+                        "0.285197\t0.083905\t0.0025629999999999997\t0.031028999999999998\t1679.1477679999998\t1679.1477679999998\n"
+        );
+    }
+
+    @Test
+    public void testParallelNonKeyedGroupByWithStringAggFunction() throws Exception {
+        // string_agg() doesn't support parallel execution, so aggregated values must follow the scan order.
+        testParallelStringAndVarcharKeyGroupBy(
+                "SELECT string_agg(key, ',') s FROM tab WHERE value % 499 = 0",
+                "s\n" +
+                        "k4,k4,k3,k3,k2,k2,k1,k1,k0,k0,k4,k4,k3,k3,k2,k2\n"
+        );
+    }
+
     @Test
     public void testParallelNonKeyedGroupByWithTooStrictFilter() throws Exception {
         testParallelNonKeyedGroupBy(
@@ -1676,6 +1720,20 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelStringAndVarcharKeyGroupByWithCountDistinctAndStringAgg() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelStringAndVarcharKeyGroupBy(
+                "SELECT value % 4 v, count_distinct(key) c, length(string_agg(key, ',')) l FROM tab ORDER BY v",
+                "v\tc\tl\n" +
+                        "0.0\t5\t5999\n" +
+                        "1.0\t5\t5999\n" +
+                        "2.0\t5\t5999\n" +
+                        "3.0\t5\t5999\n"
+        );
+    }
+
     @Test
     public void testParallelStringKeyGroupByConcurrent() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -1813,6 +1871,21 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelStringKeyGroupByWithApproxPercentileFunction() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelGroupByAllTypes(
+                "SELECT key, approx_percentile(ashort::long, 0.5) p50, approx_percentile(ashort * 1000000L, 0.99, 2) p99 FROM tab ORDER BY key",
+                "key\tp50\tp99\n" +
+                        "k0\t543.0\t1.010827263E9\n" +
+                        "k1\t543.0\t1.002438655E9\n" +
+                        "k2\t463.0\t1.015021567E9\n" +
+                        "k3\t543.0\t1.019215871E9\n" +
+                        "k4\t543.0\t1.015021567E9\n"
+        );
+    }
+
     @Test
     public void testParallelStringKeyGroupByWithBindVariablesInFilter() throws Exception {
         testParallelGroupByAllTypes(
@@ -1861,6 +1934,21 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelStringKeyGroupByWithCountDistinctStrFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelGroupByAllTypes(
+                "SELECT key, count_distinct(astring) cs, count_distinct(asymbol) cy FROM tab ORDER BY key",
+                "key\tcs\tcy\n" +
+                        "k0\t666\t4\n" +
+                        "k1\t679\t4\n" +
+                        "k2\t673\t4\n" +
+                        "k3\t677\t4\n" +
+                        "k4\t658\t4\n"
+        );
+    }
+
     @Test
     public void testParallelStringKeyGroupByWithFilter() throws Exception {
         testParallelStringAndVarcharKeyGroupBy(
@@ -1961,6 +2049,36 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelStringKeyGroupByWithStatisticalFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelGroupByAllTypes(
+                "SELECT key, round(stddev_pop(adouble), 6) stddev, round(variance(afloat), 6) var, round(covar_pop(adouble, afloat), 6) covar, " +
+                        "round(corr(adouble, afloat), 6) corr, round(ksum(adouble), 6) ksum, round(nsum(adouble), 6) nsum FROM tab ORDER BY key",
+                "key\tstddev\tvar\tcovar\tcorr\tksum\tnsum\n" +
+                        "k0\t0.28670999999999996\t0.08153099999999999\t0.0016849999999999999\t0.020668\t327.48607699999997\t327.48607699999997\n" +
+                        "k1\t0.290348\t0.08095999999999999\t0.0024319999999999997\t0.029026\t350.17288299999996\t350.17288299999996\n" +
+                        "k2\t0.284277\t0.08805099999999999\t0.004873\t0.057214999999999995\t338.864305\t338.864305\n" +
+                        "k3\t0.284533\t0.082379\t0.001248\t0.015552\t338.47826399999997\t338.47826399999997\n" +
+                        "k4\t0.27808\t0.086211\t0.002934\t0.036023\t324.146239\t324.146239\n"
+        );
+    }
+
+    @Test
+    public void testParallelStringKeyGroupByWithStringAggFunction() throws Exception {
+        // string_agg() doesn't support parallel execution, so aggregated values must follow the scan order.
+        testParallelStringAndVarcharKeyGroupBy(
+                "SELECT key, string_agg(value::string, ',') s FROM tab WHERE value % 499 = 0 ORDER BY key",
+                "key\ts\n" +
+                        "k0\t2495.0,2495.0\n" +
+                        "k1\t1996.0,1996.0\n" +
+                        "k2\t1497.0,1497.0,3992.0,3992.0\n" +
+                        "k3\t998.0,998.0,3493.0,3493.0\n" +
+                        "k4\t499.0,499.0,2994.0,2994.0\n"
+        );
+    }
+
     @Test
     public void testParallelStringKeyGroupByWithTooStrictFilter() throws Exception {
         testParallelStringAndVarcharKeyGroupBy(
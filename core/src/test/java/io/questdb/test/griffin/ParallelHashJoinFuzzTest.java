@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// This is not a fuzz test in traditional sense, but it's multi-threaded and we want to run it
+// in CI frequently along with other fuzz tests.
+@RunWith(Parameterized.class)
+public class ParallelHashJoinFuzzTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableParallelHashJoin;
+
+    public ParallelHashJoinFuzzTest(boolean enableParallelHashJoin) {
+        this.enableParallelHashJoin = enableParallelHashJoin;
+    }
+
+    @Parameterized.Parameters(name = "parallel={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        // Set the sharding threshold to a small value to test sharding.
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, 2);
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, enableParallelHashJoin);
+    }
+
+    @Test
+    public void testParallelHashJoinCount() throws Exception {
+        testParallelHashJoin(
+                "select count() from m join s on (sym)",
+                "count\n" +
+                        "32000\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinEmptySlave() throws Exception {
+        testParallelHashJoin(
+                "select m.val, s.val from m join (select * from s where ts > '2100-01-01') s on (sym)",
+                "val\tval1\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinLongKey() throws Exception {
+        testParallelHashJoin(
+                "select m.val, s.val, s.sym, s.str, s.colTop from m join s on (val) order by m.val",
+                "val\tval1\tsym\tstr\tcolTop\n" +
+                        "1\t1\tk1\ts1\tNaN\n" +
+                        "2\t2\tk2\ts2\tNaN\n" +
+                        "3\t3\tk3\ts0\tNaN\n" +
+                        "4\t4\tk4\ts1\tNaN\n" +
+                        "5\t5\tk0\ts2\tNaN\n" +
+                        "6\t6\tk1\ts0\tNaN\n" +
+                        "7\t7\tk2\ts1\tNaN\n" +
+                        "8\t8\tk3\ts2\tNaN\n" +
+                        "9\t9\tk4\ts0\tNaN\n" +
+                        "10\t10\tk0\ts1\tNaN\n" +
+                        "11\t11\tk1\ts2\tNaN\n" +
+                        "12\t12\tk2\ts0\tNaN\n" +
+                        "13\t13\tk3\ts1\tNaN\n" +
+                        "14\t14\tk4\ts2\tNaN\n" +
+                        "15\t15\tk0\ts0\tNaN\n" +
+                        "16\t16\tk1\ts1\tNaN\n" +
+                        "17\t17\tk2\ts2\tNaN\n" +
+                        "18\t18\tk3\ts0\tNaN\n" +
+                        "19\t19\tk4\ts1\tNaN\n" +
+                        "20\t20\tk0\ts2\tNaN\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinMultipleKeys() throws Exception {
+        testParallelHashJoin(
+                "select m.sym, count(), sum(s.val), sum(s.colTop) from m join s on (sym, str) order by m.sym",
+                "sym\tcount\tsum\tsum1\n" +
+                        "k0\t2134\t8540000\t2136000\n" +
+                        "k1\t2134\t8531464\t2131732\n" +
+                        "k2\t2134\t8533598\t2132799\n" +
+                        "k3\t2134\t8535732\t2133866\n" +
+                        "k4\t2134\t8537866\t2134933\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinPlan() throws Exception {
+        final String joinNode = enableParallelHashJoin ? "Async Hash Join Light workers: 4" : "Hash Join Light";
+        testParallelHashJoin(
+                "explain select m.val, s.val from m join s on (sym)",
+                "QUERY PLAN\n" +
+                        "SelectedRecord\n" +
+                        "    " + joinNode + "\n" +
+                        "      condition: s.sym=m.sym\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: m\n" +
+                        "        Hash\n" +
+                        "            DataFrame\n" +
+                        "                Row forward scan\n" +
+                        "                Frame forward scan on: s\n",
+                "explain select m.val, s.val from m join (select * from s where ts > '2100-01-01') s on (sym)",
+                "QUERY PLAN\n" +
+                        "SelectedRecord\n" +
+                        "    " + joinNode + "\n" +
+                        "      condition: s.sym=m.sym\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: m\n" +
+                        "        Hash\n" +
+                        "            SelectedRecord\n" +
+                        "                DataFrame\n" +
+                        "                    Row forward scan\n" +
+                        "                    Interval forward scan on: s\n" +
+                        "                      intervals: [(\"2100-01-01T00:00:00.000001Z\",\"MAX\")]\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinStringKey() throws Exception {
+        testParallelHashJoin(
+                "select m.str, count(), sum(s.val), min(s.sym), max(s.vch) from m join s on (str) order by m.str",
+                "str\tcount\tsum\tmin\tmax\n" +
+                        "s0\t15996\t63999996\tk0\tv3\n" +
+                        "s1\t18676\t74713338\tk0\tv3\n" +
+                        "s2\t18662\t74648000\tk0\tv3\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinSymbolKey() throws Exception {
+        testParallelHashJoin(
+                "select m.sym, count(), sum(s.val), sum(s.colTop) from m join s on (sym) order by m.sym",
+                "sym\tcount\tsum\tsum1\n" +
+                        "k0\t6400\t25616000\t6408000\n" +
+                        "k1\t6400\t25590400\t6395200\n" +
+                        "k2\t6400\t25596800\t6398400\n" +
+                        "k3\t6400\t25603200\t6401600\n" +
+                        "k4\t6400\t25609600\t6404800\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinToTopAndSize() throws Exception {
+        testParallelHashJoin(
+                (engine, sqlExecutionContext) -> {
+                    final String expected = "val\tval1\tsym\n" +
+                            "1\t1\tk1\n" +
+                            "2\t2\tk2\n" +
+                            "3\t3\tk3\n";
+                    try (
+                            RecordCursorFactory factory = engine.select("select m.val, s.val, s.sym from m join s on (val) where m.val < 4", sqlExecutionContext);
+                            RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+                        cursor.toTop();
+                        TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+                        Assert.assertEquals(3, cursor.size());
+                    }
+                }
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinVarcharKey() throws Exception {
+        testParallelHashJoin(
+                "select m.vch, count(), sum(s.val), min(s.str) from m join s on (vch) order by m.vch",
+                "vch\tcount\tsum\tmin\n" +
+                        "v0\t10000\t40020000\ts0\n" +
+                        "v1\t10000\t39990000\ts0\n" +
+                        "v2\t10000\t40000000\ts0\n" +
+                        "v3\t10000\t40010000\ts0\n"
+        );
+    }
+
+    private static void assertQueries(CairoEngine engine, SqlExecutionContext sqlExecutionContext, String... queriesAndExpectedResults) throws SqlException {
+        for (int i = 0, n = queriesAndExpectedResults.length; i < n; i += 2) {
+            final String query = queriesAndExpectedResults[i];
+            final String expected = queriesAndExpectedResults[i + 1];
+            TestUtils.assertSql(
+                    engine,
+                    sqlExecutionContext,
+                    query,
+                    sink,
+                    expected
+            );
+        }
+    }
+
+    private void testParallelHashJoin(String... queriesAndExpectedResults) throws Exception {
+        testParallelHashJoin((engine, sqlExecutionContext) -> assertQueries(engine, sqlExecutionContext, queriesAndExpectedResults));
+    }
+
+    private void testParallelHashJoin(QueryRunner runner) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine) -> pool.assign(new GroupByMergeShardJob(engine.getMessageBus())),
+                    (engine, compiler, sqlExecutionContext) -> {
+                        ddl(
+                                compiler,
+                                "CREATE TABLE m (" +
+                                        "  ts TIMESTAMP," +
+                                        "  sym SYMBOL," +
+                                        "  str STRING," +
+                                        "  vch VARCHAR," +
+                                        "  val LONG) timestamp (ts) PARTITION BY DAY",
+                                sqlExecutionContext
+                        );
+                        insert(
+                                compiler,
+                                "insert into m select (x * 864000000)::timestamp, 'k' || (x % 5), 's' || (x % 3), 'v' || (x % 4), x from long_sequence(20)",
+                                sqlExecutionContext
+                        );
+                        ddl(
+                                compiler,
+                                "CREATE TABLE s (" +
+                                        "  ts TIMESTAMP," +
+                                        "  sym SYMBOL," +
+                                        "  str STRING," +
+                                        "  vch VARCHAR," +
+                                        "  val LONG) timestamp (ts) PARTITION BY DAY",
+                                sqlExecutionContext
+                        );
+                        insert(
+                                compiler,
+                                "insert into s select (x * 864000000)::timestamp, 'k' || (x % 5), 's' || (x % 3), 'v' || (x % 4), x from long_sequence(" + ROW_COUNT + ")",
+                                sqlExecutionContext
+                        );
+                        ddl(compiler, "ALTER TABLE s ADD COLUMN colTop LONG", sqlExecutionContext);
+                        insert(
+                                compiler,
+                                "insert into s " +
+                                        "select ((" + ROW_COUNT + " + x) * 864000000)::timestamp, " +
+                                        "  'k' || (x % 5), 's' || (x % 3), 'v' || (x % 4), " + ROW_COUNT + " + x, x " +
+                                        "from long_sequence(" + ROW_COUNT + ")",
+                                sqlExecutionContext
+                        );
+                        runner.run(engine, sqlExecutionContext);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface QueryRunner {
+        void run(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException;
+    }
+}
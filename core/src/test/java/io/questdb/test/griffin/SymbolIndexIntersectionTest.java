@@ -0,0 +1,157 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SymbolIndexIntersectionTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_SQL_INDEX_INTERSECTION_ENABLED, true);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_INDEX_INTERSECTION_ENABLED, false);
+            createTables();
+            assertPlan(
+                    "select * from x where s1 = 'a' and s2 = 'x'",
+                    "DataFrame\n" +
+                            "    Index forward scan on: s2\n" +
+                            "      filter: s2=2 and s1='a'\n" +
+                            "    Frame forward scan on: x\n"
+            );
+            assertIntersection("s1 = 'a' and s2 = 'x'");
+        });
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "select * from x where s1 = 'a' and s2 = 'x'",
+                    "DataFrame\n" +
+                            "    Index intersection scan\n" +
+                            "      intersect: [s2 in [x],s1 in [a]]\n" +
+                            "    Frame forward scan on: x\n"
+            );
+            assertIntersection("s1 = 'a' and s2 = 'x'");
+            assertIntersection("s1 = 'a' and 'x' = s2");
+            assertIntersection("s1 = 'a' and s2 = 'x' and s3 = 'k'");
+            assertIntersection("s1 = 'a' and s2 = null");
+            assertIntersection("s1 = 'a' and s2 = 'missing'");
+        });
+    }
+
+    @Test
+    public void testIn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "select * from x where s1 in ('a', 'b') and s2 in ('x', 'y')",
+                    "DataFrame\n" +
+                            "    Index intersection scan\n" +
+                            "      intersect: [s2 in [x,y],s1 in [a,b]]\n" +
+                            "    Frame forward scan on: x\n"
+            );
+            assertIntersection("s1 in ('a', 'b') and s2 in ('x', 'y')");
+            assertIntersection("s1 in ('a', 'b') and s2 in ('x')");
+            assertIntersection("s1 = 'c' and s2 in ('x', 'missing', null)");
+        });
+    }
+
+    @Test
+    public void testNotEquals() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "select * from x where s1 = 'a' and s2 != 'x' and not s3 in ('k', 'l')",
+                    "DataFrame\n" +
+                            "    Index intersection scan\n" +
+                            "      intersect: [s1 in [a],s3 not in [k,l],s2 not in [x]]\n" +
+                            "    Frame forward scan on: x\n"
+            );
+            assertIntersection("s1 = 'a' and s2 != 'x'");
+            assertIntersection("s1 = 'a' and s2 != null");
+            assertIntersection("s1 = 'a' and not s2 in ('x', 'y')");
+            assertIntersection("s1 = 'a' and s2 != 'missing'");
+        });
+    }
+
+    @Test
+    public void testOrderByTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertIntersection("s1 in ('a', 'b') and s2 = 'x' order by ts");
+            assertIntersection("s1 in ('a', 'b') and s2 = 'x' order by ts desc");
+            assertIntersection("s1 = 'a' and s2 = 'x' order by ts desc");
+        });
+    }
+
+    @Test
+    public void testWithIntervalAndFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "select * from x where ts in '1970-01-02' and s1 = 'a' and s2 = 'x' and v > 0.5",
+                    "DataFrame\n" +
+                            "    Index intersection scan\n" +
+                            "      intersect: [s2 in [x],s1 in [a]]\n" +
+                            "      filter: 0.5<v\n" +
+                            "    Interval forward scan on: x\n" +
+                            "      intervals: [(\"1970-01-02T00:00:00.000000Z\",\"1970-01-02T23:59:59.999999Z\")]\n"
+            );
+            assertIntersection("ts in '1970-01-02' and s1 = 'a' and s2 = 'x' and v > 0.5");
+            assertIntersection("s1 = 'a' and s2 = 'x' and s3 = v::symbol");
+            assertIntersection("s1 = 'a' and s2 = 'x' and 1 = 2");
+        });
+    }
+
+    private void assertIntersection(String where) throws Exception {
+        assertSqlCursors("select * from y where " + where, "select * from x where " + where);
+    }
+
+    private void createTables() throws Exception {
+        ddl("create table x as (" +
+                "select" +
+                " rnd_symbol('a', 'b', 'c', null) s1," +
+                " rnd_symbol('x', 'y', 'z', null) s2," +
+                " rnd_symbol('k', 'l') s3," +
+                " rnd_double() v," +
+                " timestamp_sequence(0, 60000000) ts" +
+                " from long_sequence(5000)" +
+                "), index(s1), index(s2), index(s3) timestamp(ts) partition by DAY");
+        // same data without indexes
+        ddl("create table y as (select * from x) timestamp(ts) partition by DAY");
+    }
+}
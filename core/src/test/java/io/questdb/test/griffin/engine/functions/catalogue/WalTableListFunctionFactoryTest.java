@@ -52,9 +52,9 @@ public class WalTableListFunctionFactoryTest extends AbstractCairoTest {
                 for (int i = 0; i < 5; i++) {
                     try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
                         println(factory, cursor);
-                        TestUtils.assertEquals("name\tsuspended\twriterTxn\twriterLagTxnCount\tsequencerTxn\n" +
-                                "B\tfalse\t0\t0\t0\n" +
-                                "C\tfalse\t0\t0\t0\n", sink);
+                        TestUtils.assertEquals("name\tsuspended\twriterTxn\twriterLagTxnCount\tsequencerTxn\tapplyLagMicros\n" +
+                                "B\tfalse\t0\t0\t0\t0\n" +
+                                "C\tfalse\t0\t0\t0\t0\n", sink);
                     }
                 }
             }
@@ -76,6 +76,7 @@ public class WalTableListFunctionFactoryTest extends AbstractCairoTest {
         };
 
         assertMemoryLeak(filesFacade, () -> {
+            currentMicros = 1_000_000;
             cloneCreateTable("A", false);
             cloneCreateTable("B", true);
             cloneCreateTable("C", true);
@@ -94,10 +95,12 @@ public class WalTableListFunctionFactoryTest extends AbstractCairoTest {
             Assert.assertFalse(engine.getTableSequencerAPI().isSuspended(engine.verifyTableName("C")));
             Assert.assertFalse(engine.getTableSequencerAPI().isSuspended(engine.verifyTableName("D")));
 
-            assertSql("name\tsuspended\twriterTxn\twriterLagTxnCount\tsequencerTxn\n" +
-                    "B\ttrue\t1\t0\t3\n" +
-                    "C\tfalse\t2\t0\t2\n" +
-                    "D\tfalse\t1\t0\t1\n", "wal_tables() order by name");
+            // the failed update is the oldest unapplied commit of B
+            currentMicros = 3_000_000;
+            assertSql("name\tsuspended\twriterTxn\twriterLagTxnCount\tsequencerTxn\tapplyLagMicros\n" +
+                    "B\ttrue\t1\t0\t3\t2000000\n" +
+                    "C\tfalse\t2\t0\t2\t0\n" +
+                    "D\tfalse\t1\t0\t1\t0\n", "wal_tables() order by name");
 
             assertSql("name\tsuspended\twriterTxn\n" +
                     "B\ttrue\t1\n" +
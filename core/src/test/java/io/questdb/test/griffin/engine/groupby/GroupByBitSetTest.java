@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.groupby;
+
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByAllocatorArena;
+import io.questdb.griffin.engine.groupby.GroupByBitSet;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GroupByBitSetTest extends AbstractCairoTest {
+
+    @Test
+    public void testFuzz() throws Exception {
+        assertMemoryLeak(() -> {
+            final int N = 1000;
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            final java.util.BitSet oracle = new java.util.BitSet();
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByBitSet set = new GroupByBitSet(64);
+                set.setAllocator(allocator);
+                set.of(0);
+
+                for (int i = 0; i < N; i++) {
+                    int bit = rnd.nextInt(10 * N);
+                    Assert.assertEquals(oracle.get(bit), set.get(bit));
+                    set.set(bit);
+                    oracle.set(bit);
+                }
+
+                Assert.assertEquals(oracle.cardinality(), set.cardinality());
+                Assert.assertTrue(set.capacity() >= oracle.length());
+                for (int i = 0, n = set.capacity() + 128; i < n; i++) {
+                    Assert.assertEquals(oracle.get(i), set.get(i));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByBitSet setA = new GroupByBitSet(64);
+                setA.setAllocator(allocator);
+                setA.of(0);
+                GroupByBitSet setB = new GroupByBitSet(64);
+                setB.setAllocator(allocator);
+                setB.of(0);
+
+                final int N = 1000;
+
+                for (int i = 0; i < N; i += 2) {
+                    setA.set(i);
+                }
+                Assert.assertEquals(N / 2, setA.cardinality());
+
+                // Source set is larger than the destination one.
+                for (int i = 1; i < 2 * N; i += 2) {
+                    setB.set(i);
+                }
+                setB.set(0);
+                Assert.assertEquals(N + 1, setB.cardinality());
+
+                setA.merge(setB);
+                Assert.assertEquals(3 * N / 2, setA.cardinality());
+                for (int i = 0; i < 2 * N; i++) {
+                    Assert.assertEquals(i < N || (i & 1) == 1, setA.get(i));
+                }
+                Assert.assertFalse(setA.get(2 * N));
+            }
+        });
+    }
+}
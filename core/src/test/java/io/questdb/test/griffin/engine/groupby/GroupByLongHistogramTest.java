@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByAllocatorArena;
+import io.questdb.griffin.engine.groupby.GroupByLongHistogram;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.std.histogram.org.HdrHistogram.Histogram;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GroupByLongHistogramTest extends AbstractCairoTest {
+    private static final double[] PERCENTILES = {0, 1, 10, 25, 50, 75, 90, 99, 99.9, 100};
+
+    @Test
+    public void testFuzzMatchesHdrHistogram() throws Exception {
+        assertMemoryLeak(() -> {
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                for (int precision = 0; precision < 6; precision++) {
+                    GroupByLongHistogram histogram = new GroupByLongHistogram(precision);
+                    histogram.setAllocator(allocator);
+                    histogram.of(0);
+                    Histogram expected = new Histogram(1, 1000, precision);
+                    expected.setAutoResize(true);
+
+                    final int n = 1 + rnd.nextInt(1000);
+                    for (int i = 0; i < n; i++) {
+                        // mix small values with the ones spanning many buckets
+                        long val = rnd.nextBoolean() ? rnd.nextInt(1000) : rnd.nextPositiveLong() >>> rnd.nextInt(63);
+                        histogram.recordValue(val);
+                        expected.recordValue(val);
+                    }
+
+                    assertHistogramEquals(expected, histogram);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByLongHistogram histogramA = new GroupByLongHistogram(2);
+                histogramA.setAllocator(allocator);
+                histogramA.of(0);
+                GroupByLongHistogram histogramB = new GroupByLongHistogram(2);
+                histogramB.setAllocator(allocator);
+                histogramB.of(0);
+                Histogram expected = new Histogram(1, 1000, 2);
+                expected.setAutoResize(true);
+
+                // histogram B spans more buckets than A, so A has to grow on merge
+                for (int i = 0; i < 1000; i++) {
+                    long val = rnd.nextInt(100);
+                    histogramA.recordValue(val);
+                    expected.recordValue(val);
+                }
+                for (int i = 0; i < 1000; i++) {
+                    long val = rnd.nextPositiveLong() >>> 20;
+                    histogramB.recordValue(val);
+                    expected.recordValue(val);
+                }
+                Assert.assertTrue(histogramA.length() < histogramB.length());
+
+                histogramA.merge(histogramB);
+                assertHistogramEquals(expected, histogramA);
+            }
+        });
+    }
+
+    @Test
+    public void testNegativeValue() throws Exception {
+        assertMemoryLeak(() -> {
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByLongHistogram histogram = new GroupByLongHistogram(2);
+                histogram.setAllocator(allocator);
+                histogram.of(0);
+                try {
+                    histogram.recordValue(-1);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "Histogram recorded value cannot be negative.");
+                }
+                Assert.assertEquals(0, histogram.totalCount());
+            }
+        });
+    }
+
+    private static void assertHistogramEquals(Histogram expected, GroupByLongHistogram actual) {
+        Assert.assertEquals(expected.getTotalCount(), actual.totalCount());
+        for (double percentile : PERCENTILES) {
+            Assert.assertEquals("percentile " + percentile, expected.getValueAtPercentile(percentile), actual.valueAtPercentile(percentile));
+        }
+    }
+}
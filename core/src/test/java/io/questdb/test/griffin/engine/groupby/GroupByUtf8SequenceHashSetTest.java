@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.groupby;
+
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByAllocatorArena;
+import io.questdb.griffin.engine.groupby.GroupByUtf8SequenceHashSet;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.Utf8String;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+
+public class GroupByUtf8SequenceHashSetTest extends AbstractCairoTest {
+
+    @Test
+    public void testEmptyKey() throws Exception {
+        assertMemoryLeak(() -> {
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByUtf8SequenceHashSet set = new GroupByUtf8SequenceHashSet(16, 0.7);
+                set.setAllocator(allocator);
+                set.of(0);
+
+                Assert.assertTrue(set.add(new Utf8String("")));
+                Assert.assertFalse(set.add(new Utf8String("")));
+                Assert.assertTrue(set.add(new Utf8String("a")));
+                Assert.assertEquals(2, set.size());
+                Assert.assertTrue(set.keyIndex(new Utf8String("")) < 0);
+            }
+        });
+    }
+
+    @Test
+    public void testFuzz() throws Exception {
+        assertMemoryLeak(() -> {
+            final int N = 10000;
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            final long seed0 = rnd.getSeed0();
+            final long seed1 = rnd.getSeed1();
+            final HashSet<String> oracle = new HashSet<>();
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByUtf8SequenceHashSet set = new GroupByUtf8SequenceHashSet(16, 0.7);
+                set.setAllocator(allocator);
+                set.of(0);
+
+                for (int i = 0; i < N; i++) {
+                    String val = rnd.nextString(rnd.nextInt(4));
+                    Assert.assertEquals(oracle.add(val), set.add(new Utf8String(val)));
+                }
+
+                Assert.assertEquals(oracle.size(), set.size());
+                Assert.assertTrue(set.capacity() >= oracle.size());
+
+                rnd.reset(seed0, seed1);
+
+                for (int i = 0; i < N; i++) {
+                    Assert.assertTrue(set.keyIndex(new Utf8String(rnd.nextString(rnd.nextInt(4)))) < 0);
+                }
+
+                set.of(0);
+                for (String val : oracle) {
+                    int index = set.keyIndex(new Utf8String(val));
+                    Assert.assertTrue(index >= 0);
+                    set.addAt(index, new Utf8String(val));
+                }
+                Assert.assertEquals(oracle.size(), set.size());
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByUtf8SequenceHashSet setA = new GroupByUtf8SequenceHashSet(16, 0.5);
+                setA.setAllocator(allocator);
+                setA.of(0);
+                GroupByUtf8SequenceHashSet setB = new GroupByUtf8SequenceHashSet(16, 0.9);
+                setB.setAllocator(allocator);
+                setB.of(0);
+
+                final int N = 1000;
+
+                for (int i = 0; i < N; i++) {
+                    setA.add(new Utf8String("k" + i));
+                }
+                Assert.assertEquals(N, setA.size());
+                Assert.assertTrue(setA.capacity() >= N);
+
+                // Sets overlap by a half.
+                for (int i = N / 2; i < 2 * N; i++) {
+                    setB.add(new Utf8String("k" + i));
+                }
+                Assert.assertEquals(3 * N / 2, setB.size());
+
+                setA.merge(setB);
+                Assert.assertEquals(2 * N, setA.size());
+                for (int i = 0; i < 2 * N; i++) {
+                    Assert.assertTrue(setA.keyIndex(new Utf8String("k" + i)) < 0);
+                }
+                Assert.assertTrue(setA.keyIndex(new Utf8String("k" + 2 * N)) >= 0);
+            }
+        });
+    }
+}
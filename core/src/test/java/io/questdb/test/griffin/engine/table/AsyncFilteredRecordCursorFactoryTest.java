@@ -40,6 +40,7 @@ import io.questdb.griffin.engine.table.FilteredRecordCursorFactory;
 import io.questdb.griffin.engine.window.WindowContext;
 import io.questdb.jit.JitUtil;
 import io.questdb.mp.*;
+import io.questdb.std.Files;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.Rnd;
@@ -47,6 +48,7 @@ import io.questdb.std.str.StringSink;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.griffin.CustomisableRunnable;
 import io.questdb.test.mp.TestWorkerPool;
+import io.questdb.test.std.TestFilesFacadeImpl;
 import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -546,6 +548,16 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testReadAhead() throws Exception {
+        testReadAhead(4);
+    }
+
+    @Test
+    public void testReadAheadDisabled() throws Exception {
+        testReadAhead(0);
+    }
+
     @Test
     public void testSymbolEqualsBindVariableFilter() throws Exception {
         testSymbolEqualsBindVariableFilter(SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
@@ -766,6 +778,40 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
         });
     }
 
+    private void testReadAhead(int prefetchFrameCount) throws Exception {
+        Assume.assumeTrue(Files.POSIX_MADV_WILLNEED > -1);
+        final AtomicInteger readAheadCount = new AtomicInteger();
+        ff = new TestFilesFacadeImpl() {
+            @Override
+            public void madvise(long address, long len, int advise) {
+                if (advise == Files.POSIX_MADV_WILLNEED) {
+                    Assert.assertEquals(0, address % Files.PAGE_SIZE);
+                    readAheadCount.incrementAndGet();
+                }
+                super.madvise(address, len, advise);
+            }
+        };
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1000);
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_COUNT, prefetchFrameCount);
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            ddl("create table x as (select rnd_double() a, rnd_varchar(1, 40, 1) v, timestamp_sequence(20000000, 100000) t from long_sequence(100000)) timestamp(t) partition by hour", sqlExecutionContext);
+            readAheadCount.set(0);
+            TestUtils.assertSqlCursors(
+                    engine,
+                    sqlExecutionContext,
+                    "select * from x where a > 0.98 and a < 0.981",
+                    "select * from x where a > 0.98 and a < 0.981 and (1 = 1 or a = 1)",
+                    LOG
+            );
+            if (prefetchFrameCount > 0) {
+                Assert.assertTrue(readAheadCount.get() > 0);
+            } else {
+                Assert.assertEquals(0, readAheadCount.get());
+            }
+        });
+    }
+
     private void testSymbolEqualsBindVariableFilter(int jitMode, Class<?> expectedFactoryClass) throws Exception {
         withPool((engine, compiler, sqlExecutionContext) -> {
             sqlExecutionContext.setJitMode(jitMode);
@@ -773,6 +773,84 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testDedupManyRowsSameTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (ts timestamp, s symbol, i int, l long, v long)" +
+                    " timestamp(ts) partition by DAY WAL DEDUP UPSERT KEYS(ts, s, i, l)");
+
+            insert("insert into " + tableName +
+                    " select '2022-02-24'::timestamp, 's' || (x % 10), (x / 10)::int, x % 3, x from long_sequence(100)");
+            drainWalQueue();
+
+            // half of the rows replace existing ones, the other half are new keys with the same timestamp
+            insert("insert into " + tableName +
+                    " select '2022-02-24'::timestamp, 's' || ((x + 50) % 10), ((x + 50) / 10)::int, (x + 50) % 3, 1000 + x + 50 from long_sequence(100)");
+            drainWalQueue();
+
+            assertSql("count\tsum\n" +
+                    "150\t111325\n", "select count(), sum(v) from " + tableName);
+            assertSql("s\ti\tl\tv\n" +
+                    "s0\t5\t2\t50\n" +
+                    "s1\t5\t0\t1051\n", "select s, i, l, v from " + tableName + " where i = 5 and s in ('s0', 's1') order by s");
+        });
+    }
+
+    @Test
+    public void testDedupSameTimestampFingerprintCollisions() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (ts timestamp, a long, b long, v long)" +
+                    " timestamp(ts) partition by DAY WAL DEDUP UPSERT KEYS(ts, a, b)");
+            TableToken tableToken = engine.verifyTableName(tableName);
+            final long ts = IntervalUtils.parseFloorPartialTimestamp("2022-02-24");
+            final int count = 100;
+
+            // keys share the first column value
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                for (int i = 1; i <= count; i++) {
+                    TableWriter.Row row = walWriter.newRow(ts);
+                    row.putLong(1, i % 4);
+                    row.putLong(2, i);
+                    row.putLong(3, i);
+                    row.append();
+                }
+                walWriter.commit();
+            }
+            drainWalQueue();
+
+            // second half of the rows replace existing ones, the rest are new keys
+            // with the same fingerprint as the keys of the first half
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                for (int i = 1; i <= count; i++) {
+                    TableWriter.Row row = walWriter.newRow(ts);
+                    if (i > count / 2) {
+                        row.putLong(1, i % 4);
+                        row.putLong(2, i);
+                        row.putLong(3, 1000 + i);
+                    } else {
+                        long a = i % 4 + 1000;
+                        row.putLong(1, a);
+                        row.putLong(2, collidingFingerprintKey(i % 4, i, a));
+                        row.putLong(3, 2000 + i);
+                    }
+                    row.append();
+                }
+                walWriter.commit();
+            }
+            drainWalQueue();
+
+            assertSql("count\tsum\n" +
+                    "150\t156325\n", "select count(), sum(v) from " + tableName);
+            assertSql("a\tb\tv\n" +
+                    "1\t1\t1\n" +
+                    "1\t97\t1097\n", "select a, b, v from " + tableName + " where b in (1, 97) order by b");
+            assertSql("a\tv\n" +
+                    "1001\t2001\n", "select a, v from " + tableName + " where a > 1000 and v = 2001");
+        });
+    }
+
     @Test
     public void testDropFailedWhileDataFileLocked() throws Exception {
         testDropFailedWhileDataFileLocked("x.d");
@@ -1217,8 +1295,8 @@ public class WalTableSqlTest extends AbstractCairoTest {
 
             drainWalQueue();
 
-            assertSql("name\tsuspended\twriterTxn\twriterLagTxnCount\tsequencerTxn\n" +
-                    "testEmptyTruncate\tfalse\t1\t0\t1\n", "wal_tables()");
+            assertSql("name\tsuspended\twriterTxn\twriterLagTxnCount\tsequencerTxn\tapplyLagMicros\n" +
+                    "testEmptyTruncate\tfalse\t1\t0\t1\t0\n", "wal_tables()");
         });
     }
 
@@ -1770,6 +1848,16 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    // Returns value of the second dedup key which, paired with the first key value a2, has the same
+    // native merge fingerprint as the key pair (a1, b1), see o3_row_fingerprint() in dedup.cpp.
+    private static long collidingFingerprintKey(long a1, long b1, long a2) {
+        final long c = 0x9e3779b97f4a7c15L;
+        final long h1 = a1 + c;
+        final long h = h1 ^ (b1 + c + (h1 << 6) + (h1 >>> 2));
+        final long h2 = a2 + c;
+        return (h ^ h2) - c - (h2 << 6) - (h2 >>> 2);
+    }
+
     private void checkTableFilesExist(TableToken sysTableName, String partition, String fileName, boolean value) {
         Path sysPath = Path.PATH.get().of(configuration.getRoot()).concat(sysTableName).concat(TXN_FILE_NAME);
         Assert.assertEquals(Utf8s.toString(sysPath), value, Files.exists(sysPath.$()));
@@ -194,6 +194,14 @@ public class WalWriterFuzzTest extends AbstractFuzzTest {
         fullRandomFuzz(rnd);
     }
 
+    @Test
+    public void testWalWriteFullRandomCompactTimestamp() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_SEGMENT_COMPACT_TIMESTAMP_ENABLED, true);
+        Rnd rnd = generateRandom(LOG);
+        setFuzzProperties(rnd);
+        fullRandomFuzz(rnd);
+    }
+
     @Test
     public void testWalWriteFullRandomMultipleTables() throws Exception {
         Rnd rnd = generateRandom(LOG);
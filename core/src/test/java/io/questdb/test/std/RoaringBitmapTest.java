@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.std;
+
+import io.questdb.std.LongHashSet;
+import io.questdb.std.LongList;
+import io.questdb.std.RoaringBitmap;
+import io.questdb.std.Rnd;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RoaringBitmapTest {
+
+    @Test
+    public void testAddAndIterate() {
+        final RoaringBitmap bitmap = new RoaringBitmap();
+        Assert.assertTrue(bitmap.isEmpty());
+        Assert.assertFalse(bitmap.cursor().hasNext());
+
+        // out of order, duplicate and container boundary values
+        final long[] values = {65536, 3, 65535, 3, 0, 1L << 40, 65537};
+        for (long v : values) {
+            bitmap.add(v);
+        }
+        assertValues(new long[]{0, 3, 65535, 65536, 65537, 1L << 40}, bitmap);
+        Assert.assertEquals(6, bitmap.getCardinality());
+        Assert.assertTrue(bitmap.contains(65535));
+        Assert.assertFalse(bitmap.contains(65534));
+        Assert.assertFalse(bitmap.contains(-1));
+
+        bitmap.clear();
+        Assert.assertTrue(bitmap.isEmpty());
+        bitmap.add(42);
+        assertValues(new long[]{42}, bitmap);
+    }
+
+    @Test
+    public void testDenseContainers() {
+        final RoaringBitmap a = new RoaringBitmap();
+        final RoaringBitmap b = new RoaringBitmap();
+        // dense container in both sets
+        for (long i = 0; i < 100_000; i += 2) {
+            a.add(i);
+        }
+        for (long i = 0; i < 100_000; i += 3) {
+            b.add(i);
+        }
+        a.and(b);
+        Assert.assertEquals((100_000 + 5) / 6, a.getCardinality());
+        final RoaringBitmap.Cursor cursor = a.cursor();
+        long expected = 0;
+        while (cursor.hasNext()) {
+            Assert.assertEquals(expected, cursor.next());
+            expected += 6;
+        }
+    }
+
+    @Test
+    public void testFuzz() {
+        final Rnd rnd = new Rnd();
+        final RoaringBitmap a = new RoaringBitmap();
+        final RoaringBitmap b = new RoaringBitmap();
+        final LongHashSet setA = new LongHashSet();
+        final LongHashSet setB = new LongHashSet();
+        for (int iteration = 0; iteration < 50; iteration++) {
+            a.clear();
+            b.clear();
+            setA.clear();
+            setB.clear();
+            // mix sparse and dense containers
+            final int range = 1 << (10 + rnd.nextInt(10));
+            fill(rnd, a, setA, rnd.nextInt(20_000), range);
+            fill(rnd, b, setB, rnd.nextInt(20_000), range);
+
+            final int op = rnd.nextInt(3);
+            final LongList expected = new LongList();
+            for (long v = 0; v < range; v++) {
+                final boolean inA = setA.contains(v);
+                final boolean inB = setB.contains(v);
+                final boolean keep;
+                switch (op) {
+                    case 0:
+                        keep = inA && inB;
+                        break;
+                    case 1:
+                        keep = inA || inB;
+                        break;
+                    default:
+                        keep = inA && !inB;
+                        break;
+                }
+                if (keep) {
+                    expected.add(v);
+                }
+            }
+
+            switch (op) {
+                case 0:
+                    a.and(b);
+                    break;
+                case 1:
+                    a.or(b);
+                    break;
+                default:
+                    a.andNot(b);
+                    break;
+            }
+
+            Assert.assertEquals(expected.size(), a.getCardinality());
+            Assert.assertEquals(expected.size() == 0, a.isEmpty());
+            final RoaringBitmap.Cursor cursor = a.cursor();
+            for (int i = 0, n = expected.size(); i < n; i++) {
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(expected.getQuick(i), cursor.next());
+            }
+            Assert.assertFalse(cursor.hasNext());
+        }
+    }
+
+    @Test
+    public void testSetOperationsDropEmptyContainers() {
+        final RoaringBitmap a = new RoaringBitmap();
+        final RoaringBitmap b = new RoaringBitmap();
+        a.add(1);
+        a.add(70_000);
+        a.add(140_000);
+        b.add(70_000);
+        b.add(200_000);
+
+        a.and(b);
+        assertValues(new long[]{70_000}, a);
+
+        a.or(b);
+        assertValues(new long[]{70_000, 200_000}, a);
+
+        a.andNot(b);
+        Assert.assertTrue(a.isEmpty());
+
+        // containers retained by the previous operations are reused
+        a.add(5);
+        a.add(140_000);
+        assertValues(new long[]{5, 140_000}, a);
+    }
+
+    private static void assertValues(long[] expected, RoaringBitmap bitmap) {
+        final RoaringBitmap.Cursor cursor = bitmap.cursor();
+        for (long v : expected) {
+            Assert.assertTrue(cursor.hasNext());
+            Assert.assertEquals(v, cursor.next());
+        }
+        Assert.assertFalse(cursor.hasNext());
+    }
+
+    private static void fill(Rnd rnd, RoaringBitmap bitmap, LongHashSet set, int count, int range) {
+        for (int i = 0; i < count; i++) {
+            final long v = rnd.nextInt(range);
+            bitmap.add(v);
+            set.add(v);
+        }
+    }
+}